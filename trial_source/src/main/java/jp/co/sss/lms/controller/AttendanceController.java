@@ -1,8 +1,10 @@
 package jp.co.sss.lms.controller;
 
+import java.io.IOException;
 import java.text.ParseException;
 import java.util.List;
 
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -10,12 +12,18 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.dto.CourseAttendanceDto;
 import jp.co.sss.lms.dto.LoginUserDto;
 import jp.co.sss.lms.form.AttendanceForm;
+import jp.co.sss.lms.service.AttendanceExportService;
+import jp.co.sss.lms.service.AttendanceStatusService;
 import jp.co.sss.lms.service.StudentAttendanceService;
 import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
 
 /**
  * 勤怠管理コントローラ
@@ -29,7 +37,13 @@ public class AttendanceController {
 	@Autowired
 	private StudentAttendanceService studentAttendanceService;
 	@Autowired
+	private AttendanceStatusService attendanceStatusService;
+	@Autowired
+	private AttendanceExportService attendanceExportService;
+	@Autowired
 	private LoginUserDto loginUserDto;
+	@Autowired
+	private DateUtil dateUtil;
 
 	/**
 	 * 勤怠管理画面 初期表示
@@ -158,4 +172,132 @@ public class AttendanceController {
 		}
 	}
 
-}
\ No newline at end of file
+	/**
+	 * コース勤怠一覧画面 初期表示
+	 * 
+	 * @param courseId コースID（未指定の場合はログインユーザーのコース）
+	 * @param model
+	 * @return コース勤怠一覧画面
+	 */
+	@RequestMapping(path = "/list", method = RequestMethod.GET)
+	public String list(@RequestParam(required = false) Integer courseId, Model model) {
+
+		// コース勤怠一覧の取得
+		CourseAttendanceDto courseAttendanceDto = studentAttendanceService
+				.getCourseAttendance(courseId != null ? courseId : loginUserDto.getCourseId());
+		model.addAttribute("courseAttendanceDto", courseAttendanceDto);
+		// 遅刻早退ステータス再計算の結果
+		model.addAttribute("message",
+				attendanceStatusService.takeResult(loginUserDto.getLmsUserId()));
+
+		return "attendance/list";
+	}
+
+	/**
+	 * コース勤怠一覧画面 『一括登録』リンク押下
+	 * 
+	 * @param courseId
+	 * @param trainingDate "yyyy/M/d"形式の研修日
+	 * @param model
+	 * @return 勤怠一括登録画面
+	 * @throws ParseException
+	 */
+	@RequestMapping(path = "/bulkRegist", method = RequestMethod.GET)
+	public String bulkRegist(@RequestParam Integer courseId, @RequestParam String trainingDate,
+			Model model) throws ParseException {
+
+		// 勤怠一括登録フォームの生成
+		AttendanceForm attendanceForm = studentAttendanceService.setBulkAttendanceForm(courseId,
+				trainingDate);
+		model.addAttribute("attendanceForm", attendanceForm);
+
+		return "attendance/bulkRegist";
+	}
+
+	/**
+	 * 勤怠一括登録画面 『登録』ボタン押下
+	 * 
+	 * @param attendanceForm
+	 * @param result
+	 * @param model
+	 * @return コース勤怠一覧画面
+	 * @throws ParseException
+	 */
+	@RequestMapping(path = "/bulkRegist", params = "complete", method = RequestMethod.POST)
+	public String bulkRegistComplete(
+			@ModelAttribute("attendanceForm") AttendanceForm attendanceForm, BindingResult result,
+			Model model) throws ParseException {
+
+		studentAttendanceService.bulkInputCheck(attendanceForm, result);
+		if (result.hasErrors()) {
+			return "attendance/bulkRegist";
+		}
+		// 一括登録
+		String message = studentAttendanceService.bulkRegist(attendanceForm);
+		model.addAttribute("message", message);
+		// 一覧の再取得
+		CourseAttendanceDto courseAttendanceDto = studentAttendanceService
+				.getCourseAttendance(attendanceForm.getCourseId());
+		model.addAttribute("courseAttendanceDto", courseAttendanceDto);
+
+		return "attendance/list";
+	}
+
+	/**
+	 * コース勤怠一覧画面 『ステータス再計算』ボタン押下
+	 * 
+	 * @param courseId
+	 * @param fromDate "yyyy-MM-dd"形式の研修日（開始）
+	 * @param toDate   "yyyy-MM-dd"形式の研修日（終了）
+	 * @param model
+	 * @return コース勤怠一覧画面（研修日が不正な場合はエラー画面）
+	 */
+	@RequestMapping(path = "/recalcStatus", method = RequestMethod.POST)
+	public String recalcStatus(@RequestParam Integer courseId,
+			@RequestParam(defaultValue = "") String fromDate,
+			@RequestParam(defaultValue = "") String toDate, Model model) {
+
+		// 研修日の変換（空の場合は期間を限定しない、変換できない場合はエラー画面へ遷移）
+		java.sql.Date trainingDateFrom = dateUtil.stringToSqlDate(fromDate);
+		java.sql.Date trainingDateTo = dateUtil.stringToSqlDate(toDate);
+		if ((StringUtils.isNotBlank(fromDate) && trainingDateFrom == null)
+				|| (StringUtils.isNotBlank(toDate) && trainingDateTo == null)) {
+			return "illegal";
+		}
+
+		// 遅刻早退ステータスの再計算（完了を待たない）
+		String message = attendanceStatusService.recalcStatus(courseId, trainingDateFrom,
+				trainingDateTo);
+		model.addAttribute("message", message);
+		// 一覧の再取得
+		CourseAttendanceDto courseAttendanceDto = studentAttendanceService
+				.getCourseAttendance(courseId);
+		model.addAttribute("courseAttendanceDto", courseAttendanceDto);
+
+		return "attendance/list";
+	}
+
+	/**
+	 * コース勤怠一覧画面 『勤怠出力』ボタン押下
+	 * 
+	 * @param courseId
+	 * @param month    "yyyy-MM"形式の対象月（空の場合は当月）
+	 * @param format   出力形式（csv/xlsx）
+	 * @param response
+	 * @return 対象月が不正な場合はエラー画面
+	 * @throws IOException
+	 */
+	@RequestMapping(path = "/export", method = RequestMethod.GET)
+	public String export(@RequestParam Integer courseId,
+			@RequestParam(defaultValue = "") String month,
+			@RequestParam(defaultValue = AttendanceExportService.FORMAT_XLSX) String format,
+			HttpServletResponse response) throws IOException {
+
+		// 月間勤怠の出力（対象月が不正な場合はエラー画面へ遷移）
+		if (!attendanceExportService.export(courseId, month, format, response)) {
+			return "illegal";
+		}
+		return null;
+	}
+
+}
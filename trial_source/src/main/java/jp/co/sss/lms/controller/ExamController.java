@@ -1,19 +1,29 @@
 package jp.co.sss.lms.controller;
 
 import java.util.Date;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
 import jp.co.sss.lms.dto.ExamDetailDto;
 import jp.co.sss.lms.dto.ExamResultDetailDto;
+import jp.co.sss.lms.dto.ExamSessionDto;
 import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.QuestionAnalysisDto;
 import jp.co.sss.lms.form.ExamQuestionForm;
 import jp.co.sss.lms.service.ExamService;
+import jp.co.sss.lms.service.ItemAnalysisService;
+import jp.co.sss.lms.service.UserService;
+import jp.co.sss.lms.util.LoginUserUtil;
+import net.arnx.jsonic.JSON;
 
 /**
  * 試験コントローラー
@@ -27,15 +37,46 @@ public class ExamController {
 	@Autowired
 	private ExamService examService;
 	@Autowired
+	private ItemAnalysisService itemAnalysisService;
+	@Autowired
+	private UserService userService;
+	@Autowired
 	private LoginUserDto loginUserDto;
+	@Autowired
+	private LoginUserUtil loginUserUtil;
 
 	/**
-	 * 試験詳細画面 初期表示
+	 * 試験詳細画面 初期表示<br>
+	 * 受講生の場合は自身の試験結果、企業アカウントの場合は自企業の受講生の試験結果のみ表示する<br>
+	 * 講師・管理者の場合は問題分析（受講生のコース・全コース）を表示する
 	 * 
+	 * @param examSectionId
+	 * @param lmsUserId
+	 * @param model
 	 * @return 試験詳細画面
 	 */
 	@RequestMapping(path = "/detail", method = RequestMethod.POST)
-	public String detail() {
+	public String detail(Integer examSectionId, Integer lmsUserId, Model model) {
+
+		// 参照できるユーザーのチェック
+		lmsUserId = loginUserUtil.isStudent() ? loginUserDto.getLmsUserId() : lmsUserId;
+		if (!userService.isAccessibleUser(lmsUserId)) {
+			return "illegal";
+		}
+
+		// 試験詳細DTOの取得
+		ExamDetailDto examDetailDto = examService.getExamDetail(examSectionId, lmsUserId);
+		model.addAttribute("examDetailDto", examDetailDto);
+
+		// 問題分析の取得
+		if (examDetailDto != null && (loginUserUtil.isTeacher() || loginUserUtil.isAdmin())) {
+			List<QuestionAnalysisDto> courseAnalysisDtoList = itemAnalysisService
+					.getQuestionAnalysisList(examDetailDto.getExamId(), examDetailDto.getCourseId());
+			List<QuestionAnalysisDto> allAnalysisDtoList = itemAnalysisService
+					.getQuestionAnalysisList(examDetailDto.getExamId(), null);
+			model.addAttribute("courseAnalysisDtoList", courseAnalysisDtoList);
+			model.addAttribute("allAnalysisDtoList", allAnalysisDtoList);
+		}
 
 		// 試験詳細画面に遷移
 		return "exam/detail";
@@ -91,12 +132,34 @@ public class ExamController {
 	@RequestMapping(path = "/question", method = RequestMethod.POST)
 	public String question(@ModelAttribute ExamQuestionForm examQuestionForm) {
 
-		// 試験問題画面フォームの設定
-		examService.setExamQuestionForm(examQuestionForm);
+		// 試験問題画面フォームの設定（試験が存在しない場合はエラー画面へ遷移）
+		if (!examService.setExamQuestionForm(examQuestionForm)) {
+			return "illegal";
+		}
 
 		return "exam/question";
 	}
 
+	/**
+	 * 試験問題画面 回答の選択<br>
+	 * 選択された1問分の回答を保存する
+	 * 
+	 * @param examSectionId
+	 * @param index         問題の番号（0から）
+	 * @param answer        回答（未指定の場合は未回答）
+	 * @return 受験状況DTO（JSON形式、受験中でない場合はnull）
+	 */
+	@RequestMapping(path = "/answer", method = RequestMethod.POST,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String answer(@RequestParam Integer examSectionId, @RequestParam int index,
+			@RequestParam(required = false) Short answer) {
+
+		// 回答の保存
+		ExamSessionDto examSessionDto = examService.saveAnswer(examSectionId, index, answer);
+		return JSON.encode(examSessionDto);
+	}
+
 	/**
 	 * 試験問題画面 『確認画面へ進む』ボタン押下
 	 * 
@@ -107,8 +170,10 @@ public class ExamController {
 	@RequestMapping(path = "/answerCheck", method = RequestMethod.POST)
 	public String answerCheck(ExamQuestionForm examQuestionForm, Model model) {
 
-		// 試験問題画面フォームの設定
-		examService.setExamQuestionForm(examQuestionForm);
+		// 試験問題画面フォームの設定（試験が存在しない場合はエラー画面へ遷移）
+		if (!examService.setExamQuestionForm(examQuestionForm)) {
+			return "illegal";
+		}
 
 		return "exam/answerCheck";
 	}
@@ -123,8 +188,11 @@ public class ExamController {
 	@RequestMapping(path = "/result", method = RequestMethod.POST)
 	public String complete(ExamQuestionForm examQuestionForm, Model model) {
 
-		// 試験結果登録
+		// 試験結果登録（受験中でない場合はエラー画面へ遷移）
 		Integer examResultId = examService.insert(examQuestionForm);
+		if (examResultId == null) {
+			return "illegal";
+		}
 
 		// 試験結果詳細の取得
 		ExamResultDetailDto examResultDetailDto = examService.getExamResultDetail(examResultId);
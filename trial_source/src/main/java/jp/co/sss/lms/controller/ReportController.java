@@ -2,19 +2,29 @@ package jp.co.sss.lms.controller;
 
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.ReportJobDto;
+import jp.co.sss.lms.dto.ReportSearchDto;
 import jp.co.sss.lms.form.DailyReportDownloadForm;
 import jp.co.sss.lms.form.DailyReportSubmitForm;
+import jp.co.sss.lms.service.ReportJobService;
+import jp.co.sss.lms.service.ReportSearchService;
 import jp.co.sss.lms.service.ReportService;
+import net.arnx.jsonic.JSON;
 
 /**
  * レポートコントローラー
@@ -27,6 +37,12 @@ public class ReportController {
 
 	@Autowired
 	private ReportService reportService;
+	@Autowired
+	private ReportJobService reportJobService;
+	@Autowired
+	private ReportSearchService reportSearchService;
+	@Autowired
+	private LoginUserDto loginUserDto;
 
 	/**
 	 * レポート登録画面 初期表示
@@ -78,16 +94,123 @@ public class ReportController {
 	 * 
 	 * @param reportDownloadForm
 	 * @param response
+	 * @return ダウンロードできない場合はエラー画面
 	 * @throws IOException
 	 */
 	@RequestMapping(path = "/download", method = RequestMethod.POST)
-	@ResponseBody
-	public void download(DailyReportDownloadForm dailyReportDownloadForm,
+	public String download(DailyReportDownloadForm dailyReportDownloadForm,
 			HttpServletResponse response) throws IOException {
 
+		// ダウンロード対象のチェック
+		if (!reportService.isDownloadable(dailyReportDownloadForm.getDailyReportId(),
+				dailyReportDownloadForm.getDailyReportSubmitId())) {
+			return "illegal";
+		}
+
 		// レポートダウンロード
 		reportService.download(dailyReportDownloadForm.getDailyReportId(),
 				dailyReportDownloadForm.getDailyReportSubmitId(), response);
+		return null;
+	}
+
+	/**
+	 * ユーザー詳細画面 『一括ダウンロード（レポート）』ボタン押下
+	 * 
+	 * @param dailyReportDownloadForm
+	 * @param response
+	 * @return ダウンロードできない場合はエラー画面
+	 * @throws IOException
+	 */
+	@RequestMapping(path = "/downloadList", method = RequestMethod.POST)
+	public String downloadList(DailyReportDownloadForm dailyReportDownloadForm,
+			HttpServletResponse response) throws IOException {
+
+		// 一括ダウンロード対象のチェック
+		if (!reportService.isDownloadable(dailyReportDownloadForm.getDailyReportIdList(),
+				dailyReportDownloadForm.getDailyReportSubmitIdList())) {
+			return "illegal";
+		}
+
+		// レポート一括ダウンロード
+		reportService.downloadList(dailyReportDownloadForm.getDailyReportIdList(),
+				dailyReportDownloadForm.getDailyReportSubmitIdList(), response);
+		return null;
+	}
+
+	/**
+	 * ユーザー詳細画面 『一括ダウンロード（レポート）』ボタン押下（非同期）<br>
+	 * ZIPファイルの作成をジョブとして登録し、ジョブIDを返す
+	 * 
+	 * @param dailyReportDownloadForm
+	 * @return ジョブDTO（JSON形式、ダウンロードできない場合・作成中のジョブがある場合・待機できるジョブ数を超えた場合はnull）
+	 */
+	@RequestMapping(path = "/downloadList/job", method = RequestMethod.POST,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String enqueueDownloadList(DailyReportDownloadForm dailyReportDownloadForm) {
+
+		// 一括ダウンロード対象のチェック
+		if (!reportService.isDownloadable(dailyReportDownloadForm.getDailyReportIdList(),
+				dailyReportDownloadForm.getDailyReportSubmitIdList())) {
+			return JSON.encode(null);
+		}
+
+		// レポート一括ダウンロードのジョブ登録
+		ReportJobDto reportJobDto = reportService.enqueueDownloadList(
+				dailyReportDownloadForm.getDailyReportIdList(),
+				dailyReportDownloadForm.getDailyReportSubmitIdList());
+		return JSON.encode(reportJobDto);
+	}
+
+	/**
+	 * 帳票作成ジョブの進捗確認
+	 * 
+	 * @param jobId
+	 * @return ジョブDTO（JSON形式、存在しない場合はnull）
+	 */
+	@RequestMapping(path = "/job/status", method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String jobStatus(@RequestParam String jobId) {
+
+		// ジョブの取得
+		ReportJobDto reportJobDto = reportJobService.getJob(jobId, loginUserDto.getLmsUserId());
+		return JSON.encode(reportJobDto);
+	}
+
+	/**
+	 * 帳票作成ジョブの作成済みファイルのダウンロード
+	 * 
+	 * @param jobId
+	 * @param request
+	 * @param response
+	 * @throws IOException
+	 */
+	@RequestMapping(path = "/job/download", method = RequestMethod.GET)
+	@ResponseBody
+	public void jobDownload(@RequestParam String jobId, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		// 作成済みファイルの送信
+		reportJobService.transfer(jobId, loginUserDto.getLmsUserId(), request, response);
+	}
+
+	/**
+	 * 提出済みレポートの検索
+	 * 
+	 * @param keyword  検索語
+	 * @param courseId コースID（任意）
+	 * @return 検索結果（JSON形式）
+	 */
+	@RequestMapping(path = "/search", method = RequestMethod.GET,
+			produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	public String search(@RequestParam String keyword,
+			@RequestParam(required = false) Integer courseId) {
+
+		// レポート検索
+		List<ReportSearchDto> reportSearchDtoList = reportSearchService.search(keyword, courseId);
+		return JSON.encode(reportSearchDtoList);
 	}
 
 }
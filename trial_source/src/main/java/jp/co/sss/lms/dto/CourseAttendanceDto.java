@@ -0,0 +1,25 @@
+package jp.co.sss.lms.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * コース勤怠一覧DTO<br>
+ * 受講生×研修日の勤怠マトリクス
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class CourseAttendanceDto {
+
+	/** コースID */
+	private Integer courseId;
+	/** コース名 */
+	private String courseName;
+	/** 研修日リスト（日付・セクション名・当日フラグのみ設定） */
+	private List<AttendanceManagementDto> sectionList;
+	/** 受講生毎の勤怠リスト */
+	private List<CourseAttendanceUserDto> userList;
+
+}
@@ -0,0 +1,22 @@
+package jp.co.sss.lms.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * コース勤怠一覧 受講生DTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class CourseAttendanceUserDto {
+
+	/** LMSユーザID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 勤怠リスト（研修日リストと同じ並び） */
+	private List<AttendanceManagementDto> attendanceList;
+
+}
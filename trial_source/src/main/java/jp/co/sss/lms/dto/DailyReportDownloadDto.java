@@ -1,5 +1,6 @@
 package jp.co.sss.lms.dto;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
@@ -48,10 +49,10 @@ public class DailyReportDownloadDto {
 	/** 理解度出力開始列番号 */
 	private Integer clmIntel;
 	/** レポート詳細DTOリスト */
-	private List<DailyReportDetailDto> dailyReportDetailDtoList;
+	private List<DailyReportDetailDto> dailyReportDetailDtoList = new ArrayList<>();
 	/** 理解度DTOリスト */
-	private List<IntelligibilityDto> intelligibilityDtoList;
+	private List<IntelligibilityDto> intelligibilityDtoList = new ArrayList<>();
 	/** レポートフィードバックDTOリスト */
-	private List<DailyReportFbDto> dailyReportFbDtoList;
+	private List<DailyReportFbDto> dailyReportFbDtoList = new ArrayList<>();
 
 }
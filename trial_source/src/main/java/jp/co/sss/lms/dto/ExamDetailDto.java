@@ -29,6 +29,8 @@ public class ExamDetailDto {
 	private Double avgScore;
 	/** セクションID */
 	private Integer sectionId;
+	/** コースID */
+	private Integer courseId;
 	/** LMSユーザーID */
 	private Integer lmsUserId;
 	/** ユーザー名 */
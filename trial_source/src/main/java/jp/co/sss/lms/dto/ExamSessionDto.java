@@ -0,0 +1,19 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * 受験状況DTO<br>
+ * 回答の保存結果
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ExamSessionDto {
+
+	/** 試験・セクション紐付けID */
+	private Integer examSectionId;
+	/** 回答済みの問題数 */
+	private Integer answeredCount;
+
+}
@@ -0,0 +1,27 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * 問題分析元DTO<br>
+ * 評点対象の試験結果の回答1件分の情報
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ItemAnalysisSourceDto {
+
+	/** 試験結果ID */
+	private Integer examResultId;
+	/** 問題ID */
+	private Integer questionId;
+	/** コースID */
+	private Integer courseId;
+	/** 回答 */
+	private Short reply;
+	/** 正答 */
+	private Short answerNum;
+	/** 得点（試験全体の正答数） */
+	private Short score;
+
+}
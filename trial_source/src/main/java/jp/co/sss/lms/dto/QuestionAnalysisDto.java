@@ -0,0 +1,32 @@
+package jp.co.sss.lms.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * 問題分析DTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class QuestionAnalysisDto {
+
+	/** 問題ID */
+	private Integer questionId;
+	/** 問題 */
+	private String question;
+	/** 正答 */
+	private Short answerNum;
+	/** 回答数 */
+	private Long attemptCount;
+	/** 正答率（%） */
+	private Double correctRate;
+	/** 選択肢毎の選択率（%） */
+	private List<Double> choiceRateList;
+	/** 未回答率（%） */
+	private Double noAnswerRate;
+	/** 識別指数（問題の正誤と他の問題の得点との相関） */
+	private Double discrimination;
+
+}
@@ -0,0 +1,26 @@
+package jp.co.sss.lms.dto;
+
+import lombok.Data;
+
+/**
+ * 帳票作成ジョブDTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ReportJobDto {
+
+	/** ジョブID */
+	private String jobId;
+	/** 状態 */
+	private Short status;
+	/** 状態名 */
+	private String statusName;
+	/** 作成対象件数 */
+	private Integer total;
+	/** 作成済み件数 */
+	private Integer progress;
+	/** ファイル名 */
+	private String fileName;
+
+}
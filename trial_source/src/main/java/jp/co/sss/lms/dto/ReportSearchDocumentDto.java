@@ -0,0 +1,31 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * レポート検索文書DTO<br>
+ * 検索インデックスに登録する日報提出1件分の情報
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ReportSearchDocumentDto {
+
+	/** 日報提出ID */
+	private Integer dailyReportSubmitId;
+	/** 日報ID */
+	private Integer dailyReportId;
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 日報名 */
+	private String reportName;
+	/** 日付 */
+	private Date date;
+	/** 内容（日報提出詳細を項目順に改行で連結） */
+	private String content;
+
+}
@@ -0,0 +1,30 @@
+package jp.co.sss.lms.dto;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * レポート検索結果DTO
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class ReportSearchDto {
+
+	/** 日報提出ID */
+	private Integer dailyReportSubmitId;
+	/** 日報ID */
+	private Integer dailyReportId;
+	/** LMSユーザーID */
+	private Integer lmsUserId;
+	/** ユーザー名 */
+	private String userName;
+	/** 日報名 */
+	private String reportName;
+	/** 日付 */
+	private Date date;
+	/** 該当箇所の抜粋 */
+	private String snippet;
+
+}
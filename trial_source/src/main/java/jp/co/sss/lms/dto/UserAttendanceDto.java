@@ -22,6 +22,8 @@ public class UserAttendanceDto {
 	private Integer courseId;
 	/** コース名 */
 	private String courseName;
+	/** セクション名 */
+	private String sectionName;
 	/** 企業入力勤怠情報ID */
 	private Integer companyAttendanceId;
 	/** 受講生入力勤怠情報ID */
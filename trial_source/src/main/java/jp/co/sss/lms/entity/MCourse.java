@@ -40,5 +40,7 @@ public class MCourse {
 	private String password;
 	/** 非表示フラグ */
 	private Short hiddenFlg;
+	/** 研修日カレンダーのバージョン（セクションの更新毎に加算） */
+	private Long calendarVersion;
 
 }
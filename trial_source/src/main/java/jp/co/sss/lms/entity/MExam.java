@@ -36,5 +36,7 @@ public class MExam {
 	private Date lastModifiedDate;
 	/** 非表示フラグ */
 	private Short hiddenFlg;
+	/** 内容のバージョン（試験・試験問題の更新毎に加算） */
+	private Long contentVersion;
 
 }
@@ -22,6 +22,10 @@ public class TDailyReportSubmit {
 	private Integer lmsUserId;
 	/** 企業アカウントID */
 	private Integer accountId;
+	/** フィードバック件数 */
+	private Integer fbCount;
+	/** 最終フィードバック日時 */
+	private Date lastFeedbackDate;
 	/** 削除フラグ */
 	private Short deleteFlg;
 	/** 初回作成者 */
@@ -0,0 +1,28 @@
+package jp.co.sss.lms.entity;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * 受験中試験テーブルエンティティ
+ * 
+ * @author 東京ITスクール
+ */
+@Data
+public class TExamAttempt {
+
+	/** LMSユーザID */
+	private Integer lmsUserId;
+	/** 試験・セクション紐付けID */
+	private Integer examSectionId;
+	/** 試験ID */
+	private Integer examId;
+	/** 回答（問題毎に1文字、'0'は未回答） */
+	private String answers;
+	/** 開始日時 */
+	private Date startDate;
+	/** 最終操作日時 */
+	private Date lastAccessDate;
+
+}
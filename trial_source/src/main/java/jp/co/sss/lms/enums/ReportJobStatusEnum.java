@@ -0,0 +1,31 @@
+package jp.co.sss.lms.enums;
+
+/**
+ * 帳票作成ジョブの状態クラス
+ * 
+ * @author 東京ITスクール
+ *
+ */
+public enum ReportJobStatusEnum {
+
+	WAITING((short) 0, "待機中"), RUNNING((short) 1, "作成中"), COMPLETED((short) 2, "完了"),
+	FAILED((short) 9, "失敗"),;
+
+	public Short code;
+	public String name;
+
+	private ReportJobStatusEnum(Short code, String name) {
+		this.code = code;
+		this.name = name;
+	}
+
+	public static ReportJobStatusEnum getEnum(Short code) {
+		for (ReportJobStatusEnum e : ReportJobStatusEnum.values()) {
+			if (e.code.equals(code)) {
+				return e;
+			}
+		}
+		return null;
+	}
+
+}
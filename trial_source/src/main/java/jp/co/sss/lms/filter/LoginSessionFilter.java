@@ -2,10 +2,8 @@
 package jp.co.sss.lms.filter;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -141,14 +139,11 @@ public class LoginSessionFilter implements Filter {
 	 */
 	public boolean isCurrentPasswordExpired() {
 		// 現在日時取得
-		Calendar now = dateUtil.toCalendar(dateUtil.getCurrentDateString());
+		Calendar now = dateUtil.getCurrentCalendar();
 		// 現在日時から1ヶ月マイナスする
 		now.add(Calendar.MONTH, -1);
 		// 最終パスワード変更日時が1ヶ月未満か確認
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
-		Date t = loginUserDto.getPasswordChangeDate();
-		String pCD = sdf.format(t);
-		if (now.compareTo(dateUtil.toCalendar(pCD)) > 0) {
+		if (now.compareTo(dateUtil.toCalendar(loginUserDto.getPasswordChangeDate())) > 0) {
 			return false;
 		} else {
 			return true;
@@ -194,6 +189,7 @@ public class LoginSessionFilter implements Filter {
 		studentAcessList.add("/lms/exam/result");
 		studentAcessList.add("/lms/exam/resultDetail");
 		studentAcessList.add("/lms/exam/answerCheck");
+		studentAcessList.add("/lms/exam/answer");
 		studentAcessList.add("/lms/report/detail");
 		studentAcessList.add("/lms/report/regist");
 		studentAcessList.add("/lms/report/complete");
@@ -234,6 +230,10 @@ public class LoginSessionFilter implements Filter {
 		teacherAcessList.add("/lms/report/list");
 		teacherAcessList.add("/lms/report/detail");
 		teacherAcessList.add("/lms/report/downloadList");
+		teacherAcessList.add("/lms/report/downloadList/job");
+		teacherAcessList.add("/lms/report/job/status");
+		teacherAcessList.add("/lms/report/job/download");
+		teacherAcessList.add("/lms/report/search");
 		teacherAcessList.add("/lms/report/regist");
 		teacherAcessList.add("/lms/report/feedback/delete");
 		teacherAcessList.add("/lms/report/feedback/regist");
@@ -248,6 +248,8 @@ public class LoginSessionFilter implements Filter {
 		teacherAcessList.add("/lms/attendance/list");
 		teacherAcessList.add("/lms/attendance/detail");
 		teacherAcessList.add("/lms/attendance/bulkRegist");
+		teacherAcessList.add("/lms/attendance/export");
+		teacherAcessList.add("/lms/attendance/recalcStatus");
 		teacherAcessList.add("/lms/attendance/update");
 		teacherAcessList.add("/lms/attendance/updateAdmin");
 		teacherAcessList.add("/lms/evReport/score");
@@ -279,11 +281,13 @@ public class LoginSessionFilter implements Filter {
 		companyAcessList.add("/lms/user/detail");
 		companyAcessList.add("/lms/report/list");
 		companyAcessList.add("/lms/report/detail");
+		companyAcessList.add("/lms/report/search");
 		companyAcessList.add("/lms/report/feedback/delete");
 		companyAcessList.add("/lms/report/feedback/regist");
 		companyAcessList.add("/lms/report/feedback/update");
 		companyAcessList.add("/lms/attendance/list");
 		companyAcessList.add("/lms/attendance/detail");
+		companyAcessList.add("/lms/attendance/export");
 		companyAcessList.add("/lms/exam/list");
 		companyAcessList.add("/lms/exam/resultList");
 		companyAcessList.add("/lms/exam/detail");
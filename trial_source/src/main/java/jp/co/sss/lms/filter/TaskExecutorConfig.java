@@ -0,0 +1,82 @@
+package jp.co.sss.lms.filter;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * バックグラウンド処理用スレッドプールの設定
+ *
+ * @author 東京ITスクール
+ */
+@Configuration
+public class TaskExecutorConfig {
+
+	/**
+	 * 勤怠ステータス再計算用スレッドプール<br>
+	 * 勤怠情報の読み込みに1スレッド、チャンクの再計算に並列数分のスレッドを使用する
+	 *
+	 * @param parallelism 並列数
+	 * @return スレッドプール
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor attendanceRecalcExecutor(
+			@Value("${setting.attendance.recalc.parallelism}") Integer parallelism) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(parallelism + 1);
+		executor.setMaxPoolSize(parallelism + 1);
+		executor.setThreadNamePrefix("attendance-status-recalc-");
+		return executor;
+	}
+
+	/**
+	 * 帳票作成ジョブ用スレッドプール<br>
+	 * 待機できるジョブ数を超えた場合は登録を拒否する
+	 *
+	 * @param worker        同時に作成するジョブ数
+	 * @param queueCapacity 待機できるジョブ数
+	 * @return スレッドプール
+	 */
+	@Bean
+	public ThreadPoolTaskExecutor reportJobExecutor(
+			@Value("${setting.report.job.worker}") Integer worker,
+			@Value("${setting.report.job.queue.capacity}") Integer queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(worker);
+		executor.setMaxPoolSize(worker);
+		executor.setQueueCapacity(queueCapacity);
+		executor.setThreadNamePrefix("report-job-");
+		return executor;
+	}
+
+	/**
+	 * 定期処理用スケジューラ<br>
+	 * 出勤打刻の一括登録以外の定期処理で使用する（スレッド数はspring.task.scheduling.pool.sizeで設定する）<br>
+	 * 出勤打刻用スケジューラを登録すると既定のスケジューラが作成されなくなるため、明示的に登録する
+	 *
+	 * @param builder
+	 * @return スケジューラ
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+		return builder.build();
+	}
+
+	/**
+	 * 出勤打刻の一括登録用スケジューラ<br>
+	 * 再構築等の時間が掛かる定期処理の実行中も、打刻の登録を待たせないよう専用のスレッドとする
+	 *
+	 * @return スケジューラ
+	 */
+	@Bean
+	public ThreadPoolTaskScheduler punchInFlushScheduler() {
+		ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+		scheduler.setPoolSize(1);
+		scheduler.setThreadNamePrefix("punch-in-flush-");
+		return scheduler;
+	}
+
+}
@@ -15,6 +15,8 @@ public class AttendanceForm {
 
 	/** LMSユーザーID */
 	private Integer lmsUserId;
+	/** コースID */
+	private Integer courseId;
 	/** グループID */
 	private Integer groupId;
 	/** 年間計画No */
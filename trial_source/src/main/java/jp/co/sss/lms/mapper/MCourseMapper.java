@@ -1,9 +1,12 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import jp.co.sss.lms.dto.CourseServiceCourseDto;
+import jp.co.sss.lms.entity.MCourse;
 
 /**
  * コースマスタマッパー
@@ -32,4 +35,19 @@ public interface MCourseMapper {
 	 */
 	Integer getCourseCount(Integer courseId);
 
+	/**
+	 * 研修日カレンダーのバージョン取得
+	 * 
+	 * @param courseId
+	 * @return 研修日カレンダーのバージョン（コースが存在しない場合はnull）
+	 */
+	Long getCalendarVersion(@Param("courseId") Integer courseId);
+
+	/**
+	 * 全コースの研修日カレンダーのバージョン取得
+	 * 
+	 * @return コースマスタエンティティリスト（コースID・研修日カレンダーのバージョンのみ）
+	 */
+	List<MCourse> getCalendarVersionList();
+
 }
@@ -1,9 +1,12 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
 import jp.co.sss.lms.dto.ExamQuestionDto;
+import jp.co.sss.lms.entity.MExam;
 
 /**
  * 試験マスタマッパー
@@ -23,4 +26,19 @@ public interface MExamMapper {
 	ExamQuestionDto getExamQuestion(@Param("examId") Integer examId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * 内容のバージョン取得
+	 * 
+	 * @param examId
+	 * @return 内容のバージョン（試験が存在しない場合はnull）
+	 */
+	Long getContentVersion(@Param("examId") Integer examId);
+
+	/**
+	 * 全試験の内容のバージョン取得
+	 * 
+	 * @return 試験エンティティリスト（試験ID・内容のバージョンのみ）
+	 */
+	List<MExam> getContentVersionList();
+
 }
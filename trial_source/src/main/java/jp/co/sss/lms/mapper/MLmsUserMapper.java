@@ -1,5 +1,7 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -23,4 +25,27 @@ public interface MLmsUserMapper {
 	UserDetailDto getUserDetail(@Param("lmsUserId") Integer lmsUserId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * 企業に所属するユーザーかの判定
+	 * 
+	 * @param lmsUserId
+	 * @param companyId
+	 * @param deleteFlg
+	 * @return 所属している場合true
+	 */
+	boolean existsCompanyUser(@Param("lmsUserId") Integer lmsUserId,
+			@Param("companyId") Integer companyId, @Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 企業・コースに所属するLMSユーザーIDの取得<br>
+	 * いずれかの所属が一致すれば対象とする（複数所属の場合も全ての所属で確認する）
+	 * 
+	 * @param companyId 企業ID（nullの場合は指定なし）
+	 * @param courseId  コースID（nullの場合は指定なし）
+	 * @param deleteFlg
+	 * @return LMSユーザーIDリスト
+	 */
+	List<Integer> getLmsUserIdList(@Param("companyId") Integer companyId,
+			@Param("courseId") Integer courseId, @Param("deleteFlg") Short deleteFlg);
+
 }
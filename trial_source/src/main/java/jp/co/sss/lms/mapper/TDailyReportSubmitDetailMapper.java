@@ -1,5 +1,7 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -13,15 +15,6 @@ import jp.co.sss.lms.entity.TDailyReportSubmitDetail;
 @Mapper
 public interface TDailyReportSubmitDetailMapper {
 
-	/**
-	 * 日報提出詳細件数取得（日報提出ＩＤ）
-	 * 
-	 * @param dailyReportSubmitId
-	 * @return 件数
-	 */
-	Integer getCountByDailyReportSubmitId(
-			@Param("dailyReportSubmitId") Integer dailyReportSubmitId);
-
 	/**
 	 * 日報提出詳細削除
 	 * 
@@ -38,4 +31,12 @@ public interface TDailyReportSubmitDetailMapper {
 	 */
 	Boolean insert(TDailyReportSubmitDetail tDailyReportSubmitDetail);
 
+	/**
+	 * 日報提出詳細一括登録
+	 * 
+	 * @param tDailyReportSubmitDetailList
+	 * @return 登録結果
+	 */
+	Boolean insertList(@Param("tDailyReportSubmitDetailList") List<TDailyReportSubmitDetail> tDailyReportSubmitDetailList);
+
 }
@@ -3,10 +3,12 @@ package jp.co.sss.lms.mapper;
 import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.annotations.Param;
 
 import jp.co.sss.lms.dto.DailyReportDownloadDto;
 import jp.co.sss.lms.dto.DailyReportDto;
+import jp.co.sss.lms.dto.ReportSearchDocumentDto;
 import jp.co.sss.lms.entity.TDailyReportSubmit;
 
 /**
@@ -43,6 +45,17 @@ public interface TDailyReportSubmitMapper {
 	List<DailyReportDto> getDailyReportSubmitList(@Param("lmsUserId") Integer lmsUserId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * 日報提出リスト取得（日報提出ID指定）
+	 * 
+	 * @param dailyReportSubmitIdList
+	 * @param deleteFlg
+	 * @return 日報提出エンティティリスト
+	 */
+	List<TDailyReportSubmit> getDailyReportSubmitListById(
+			@Param("dailyReportSubmitIdList") List<Integer> dailyReportSubmitIdList,
+			@Param("deleteFlg") Short deleteFlg);
+
 	/**
 	 * レポートダウンロードDTO取得
 	 * 
@@ -65,4 +78,24 @@ public interface TDailyReportSubmitMapper {
 	DailyReportDto getDailyReportDto(@Param("dailyReportSubmitId") Integer dailyReportSubmitId,
 			@Param("deleteFlg") Short deleteFlg);
 
+	/**
+	 * レポート検索文書の一括取得（日報提出ID順）<br>
+	 * 検索インデックスの再構築で使用するため、1件ずつ読み込む
+	 * 
+	 * @param deleteFlg
+	 * @return レポート検索文書DTOのカーソル
+	 */
+	Cursor<ReportSearchDocumentDto> getReportSearchDocumentCursor(@Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * レポート検索文書取得
+	 * 
+	 * @param dailyReportSubmitId
+	 * @param deleteFlg
+	 * @return レポート検索文書DTO
+	 */
+	ReportSearchDocumentDto getReportSearchDocument(
+			@Param("dailyReportSubmitId") Integer dailyReportSubmitId,
+			@Param("deleteFlg") Short deleteFlg);
+
 }
@@ -0,0 +1,99 @@
+package jp.co.sss.lms.mapper;
+
+import java.util.Date;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import jp.co.sss.lms.entity.TExamAttempt;
+
+/**
+ * 受験中試験テーブルマッパー
+ * 
+ * @author 東京ITスクール
+ */
+@Mapper
+public interface TExamAttemptMapper {
+
+	/**
+	 * 受験中試験登録<br>
+	 * 試験IDは試験・セクション紐付けから取得し、受験中の場合は登録しない
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @param date          開始日時
+	 * @param deleteFlg
+	 * @return 登録件数
+	 */
+	Integer insertIfAbsent(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId, @Param("date") Date date,
+			@Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 受験中試験取得
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @return 受験中試験エンティティ
+	 */
+	TExamAttempt findByKey(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId);
+
+	/**
+	 * 受験中試験取得（行ロック）<br>
+	 * 受験の終了時に、同じ受験を二重に終了しないよう行をロックして取得する
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @return 受験中試験エンティティ
+	 */
+	TExamAttempt findByKeyForUpdate(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId);
+
+	/**
+	 * 回答更新（全問）
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @param answers
+	 * @param lastAccessDate
+	 * @return 更新件数
+	 */
+	Integer updateAnswers(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId, @Param("answers") String answers,
+			@Param("lastAccessDate") Date lastAccessDate);
+
+	/**
+	 * 回答更新（1問）<br>
+	 * 問題の番号が回答の範囲外の場合は更新しない（更新後の回答は同じ文で返却する）
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @param index          問題の番号（0から）
+	 * @param answer         回答（'0'は未回答）
+	 * @param lastAccessDate
+	 * @return 更新後の回答（更新しなかった場合はnull）
+	 */
+	String updateAnswer(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId, @Param("index") Integer index,
+			@Param("answer") String answer, @Param("lastAccessDate") Date lastAccessDate);
+
+	/**
+	 * 受験中試験削除
+	 * 
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @return 削除件数
+	 */
+	Integer delete(@Param("lmsUserId") Integer lmsUserId,
+			@Param("examSectionId") Integer examSectionId);
+
+	/**
+	 * 一定時間操作されなかった受験中試験の削除
+	 * 
+	 * @param expireDate 最終操作日時がこれより前の受験を削除する
+	 * @return 削除件数
+	 */
+	Integer deleteExpired(@Param("expireDate") Date expireDate);
+
+}
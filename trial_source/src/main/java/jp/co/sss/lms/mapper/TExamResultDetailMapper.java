@@ -1,7 +1,12 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
 
+import jp.co.sss.lms.dto.ItemAnalysisSourceDto;
 import jp.co.sss.lms.entity.TExamResultDetail;
 
 /**
@@ -20,4 +25,31 @@ public interface TExamResultDetailMapper {
 	 */
 	Boolean insert(TExamResultDetail tExamResultDetail);
 
+	/**
+	 * 試験結果詳細一括登録
+	 * 
+	 * @param tExamResultDetailList
+	 * @return 登録結果
+	 */
+	Boolean insertList(@Param("tExamResultDetailList") List<TExamResultDetail> tExamResultDetailList);
+
+	/**
+	 * 問題分析元の一括取得（試験結果ID順）<br>
+	 * 問題分析の再構築で使用するため、1件ずつ読み込む
+	 * 
+	 * @param deleteFlg
+	 * @return 問題分析元DTOのカーソル
+	 */
+	Cursor<ItemAnalysisSourceDto> getItemAnalysisSourceCursor(@Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 問題分析元取得
+	 * 
+	 * @param examResultId
+	 * @param deleteFlg
+	 * @return 問題分析元DTOリスト（評点対象でない場合は空）
+	 */
+	List<ItemAnalysisSourceDto> getItemAnalysisSource(@Param("examResultId") Integer examResultId,
+			@Param("deleteFlg") Short deleteFlg);
+
 }
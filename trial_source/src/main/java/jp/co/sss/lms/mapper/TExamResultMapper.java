@@ -59,14 +59,13 @@ public interface TExamResultMapper {
 	Boolean insert(TExamResult tExamResult);
 
 	/**
-	 * 試験件数取得
+	 * 評点対象として試験結果登録<br>
+	 * 同じ試験・セクションの試験結果が既にある場合は評点フラグを0として登録する<br>
+	 * 同時に登録された他の試験結果が評点対象となった場合は登録しない
 	 * 
-	 * @param examSectionId
-	 * @param lmsUserId
-	 * @param deleteFlg
-	 * @return 件数
+	 * @param tExamResult
+	 * @return 登録件数（登録しなかった場合は0）
 	 */
-	Integer getExamCount(@Param("examSectionId") Integer examSectionId,
-			@Param("lmsUserId") Integer lmsUserId, @Param("deleteFlg") Short deleteFlg);
+	Integer insertMarked(TExamResult tExamResult);
 
 }
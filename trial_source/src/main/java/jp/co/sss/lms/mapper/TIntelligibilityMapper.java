@@ -1,5 +1,7 @@
 package jp.co.sss.lms.mapper;
 
+import java.util.List;
+
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
@@ -13,15 +15,6 @@ import jp.co.sss.lms.entity.TIntelligibility;
 @Mapper
 public interface TIntelligibilityMapper {
 
-	/**
-	 * 理解度件数取得（日報提出ID）
-	 * 
-	 * @param dailyReportSubmitId
-	 * @return 件数
-	 */
-	Integer getCountByDailyReportSubmitId(
-			@Param("dailyReportSubmitId") Integer dailyReportSubmitId);
-
 	/**
 	 * 理解度削除
 	 * 
@@ -38,4 +31,12 @@ public interface TIntelligibilityMapper {
 	 */
 	Boolean insert(TIntelligibility tIntelligibility);
 
+	/**
+	 * 理解度一括登録
+	 * 
+	 * @param tIntelligibilityList
+	 * @return 登録結果
+	 */
+	Boolean insertList(@Param("tIntelligibilityList") List<TIntelligibility> tIntelligibilityList);
+
 }
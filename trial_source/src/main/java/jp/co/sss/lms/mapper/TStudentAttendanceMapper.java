@@ -5,8 +5,11 @@ import java.util.List;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
 import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.dto.UserAttendanceDto;
 import jp.co.sss.lms.entity.TStudentAttendance;
 
 /**
@@ -43,11 +46,55 @@ public interface TStudentAttendanceMapper {
 	 * 
 	 * @param courseId
 	 * @param lmsUserId
+	 * @param today
 	 * @param deleteFlg
 	 * @return 勤怠管理画面用DTOリスト
 	 */
 	List<AttendanceManagementDto> getAttendanceManagement(@Param("courseId") Integer courseId,
-			@Param("lmsUserId") Integer lmsUserId, @Param("deleteFlg") Short deleteFlg);
+			@Param("lmsUserId") Integer lmsUserId, @Param("today") Date today,
+			@Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 勤怠情報（受講生入力）取得（コースID＆日付）
+	 * 
+	 * @param courseId
+	 * @param trainingDate
+	 * @param deleteFlg
+	 * @return 勤怠情報（受講生入力）エンティティリスト
+	 */
+	List<TStudentAttendance> findByCourseIdAndTrainingDate(@Param("courseId") Integer courseId,
+			@Param("trainingDate") Date trainingDate, @Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * コース勤怠一覧取得<br>
+	 * 受講生×研修日の勤怠情報を受講生・日付順に1件ずつ渡す
+	 * 
+	 * @param courseId
+	 * @param companyId     企業ID（nullの場合は全企業）
+	 * @param role          受講生のロール
+	 * @param deleteFlg
+	 * @param resultHandler
+	 */
+	void getCourseAttendance(@Param("courseId") Integer courseId,
+			@Param("companyId") Integer companyId, @Param("role") String role,
+			@Param("deleteFlg") Short deleteFlg, ResultHandler<UserAttendanceDto> resultHandler);
+
+	/**
+	 * 勤怠出力用カーソル取得<br>
+	 * 受講生・研修日順に1行ずつ取得する（トランザクション内で使用すること）
+	 * 
+	 * @param courseId
+	 * @param companyId 企業ID（nullの場合は全企業）
+	 * @param fromDate  研修日の開始
+	 * @param toDate    研修日の終了（この日を含まない）
+	 * @param role      受講生のロール
+	 * @param deleteFlg
+	 * @return ユーザー勤怠情報DTOのカーソル
+	 */
+	Cursor<UserAttendanceDto> getAttendanceExportCursor(@Param("courseId") Integer courseId,
+			@Param("companyId") Integer companyId, @Param("fromDate") Date fromDate,
+			@Param("toDate") Date toDate, @Param("role") String role,
+			@Param("deleteFlg") Short deleteFlg);
 
 	/**
 	 * 勤怠情報（受講生入力）登録
@@ -64,18 +111,65 @@ public interface TStudentAttendanceMapper {
 	 * @return 更新結果
 	 */
 	Boolean update(TStudentAttendance tStudentAttendance);
+
+	/**
+	 * 勤怠情報（受講生入力）一括登録・更新<br>
+	 * LMSユーザーIDと日付が重複する場合は更新する
+	 * 
+	 * @param tStudentAttendanceList
+	 * @return 登録結果
+	 */
+	Boolean upsertList(@Param("tStudentAttendanceList") List<TStudentAttendance> tStudentAttendanceList);
+
+	/**
+	 * 出勤情報一括登録・更新<br>
+	 * LMSユーザーIDと日付が重複する場合は、出勤時刻が未入力の行のみ出勤時刻とステータスを更新する
+	 * 
+	 * @param tStudentAttendanceList
+	 * @return 登録結果
+	 */
+	Boolean upsertPunchInList(
+			@Param("tStudentAttendanceList") List<TStudentAttendance> tStudentAttendanceList);
+
+	/**
+	 * ステータス再計算対象の勤怠情報（受講生入力）取得<br>
+	 * 勤怠情報IDの昇順に、指定IDより後の行を指定件数まで取得する
+	 * 
+	 * @param courseId                コースID（コースの受講生の、コースの研修日の行のみ。nullの場合は全コース）
+	 * @param fromDate                研修日の開始（nullの場合は指定なし）
+	 * @param toDate                  研修日の終了（nullの場合は指定なし）
+	 * @param excludeStatus           対象外のステータス
+	 * @param lastStudentAttendanceId 前回取得した最後の勤怠情報ID
+	 * @param limit                   取得件数
+	 * @param deleteFlg
+	 * @return 勤怠情報（受講生入力）エンティティリスト
+	 */
+	List<TStudentAttendance> findStatusRecalcList(@Param("courseId") Integer courseId,
+			@Param("fromDate") Date fromDate, @Param("toDate") Date toDate,
+			@Param("excludeStatus") Short excludeStatus,
+			@Param("lastStudentAttendanceId") Integer lastStudentAttendanceId,
+			@Param("limit") Integer limit, @Param("deleteFlg") Short deleteFlg);
+
+	/**
+	 * 勤怠情報（受講生入力）ステータス一括更新<br>
+	 * 出退勤時刻が読み込み時（エンティティの出退勤時刻）から変わっていない行のみ更新する
+	 * 
+	 * @param tStudentAttendanceList
+	 * @return 更新件数
+	 */
+	Integer updateStatusList(
+			@Param("tStudentAttendanceList") List<TStudentAttendance> tStudentAttendanceList);
 	
 	
 	/**
 	 * Task25：過去未入力の場合の表示
-	 * 過去日未入力件数をカウントする
+	 * 未入力の研修日リストを取得する
 	 * @author ダンディンフォン
 	 * @param lmsUserId
 	 * @param deleteFlg
-	 * @param dateUtil
-	 * @return カウント数
+	 * @return 未入力の研修日リスト
 	 */
-	Integer notEnterCount(@Param("lmsUserId") Integer lmsUserId,
-			@Param("deleteFlg") Short deleteFlg, @Param("trainingDate") Date trainingDate);
+	List<Date> getNotEnterTrainingDateList(@Param("lmsUserId") Integer lmsUserId,
+			@Param("deleteFlg") Short deleteFlg);
 
 }
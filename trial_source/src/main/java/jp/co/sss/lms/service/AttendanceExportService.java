@@ -0,0 +1,201 @@
+package jp.co.sss.lms.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.UserAttendanceDto;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceUtil;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+
+/**
+ * 勤怠情報出力サービス<br>
+ * コースの月間勤怠をExcelまたはCSVで出力する<br>
+ * 勤怠情報はカーソルで1行ずつ読み込み、そのままレスポンスへ書き出す
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class AttendanceExportService {
+
+	/** 出力形式：CSV */
+	public static final String FORMAT_CSV = "csv";
+	/** 出力形式：Excel */
+	public static final String FORMAT_XLSX = "xlsx";
+
+	/** Excelのシート名 */
+	private static final String SHEET_NAME = "勤怠情報";
+	/** CSVの文字コード */
+	private static final Charset CSV_CHARSET = Charset.forName("MS932");
+	/** 見出し */
+	private static final String[] HEADER = { "受講生名", "研修日", "セクション名", "出勤時間", "退勤時間",
+			"中抜け時間", "ステータス", "備考" };
+
+	@Autowired
+	private AttendanceUtil attendanceUtil;
+	@Autowired
+	private DateUtil dateUtil;
+	@Autowired
+	private LoginUserUtil loginUserUtil;
+	@Autowired
+	private LoginUserDto loginUserDto;
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+
+	/**
+	 * コースの月間勤怠を出力する<br>
+	 * 企業担当者の場合は自社の受講生のみ出力する
+	 *
+	 * @param courseId
+	 * @param month    "yyyy-MM"形式の対象月
+	 * @param format   出力形式（csv/xlsx）
+	 * @param response
+	 * @return 出力した場合true（対象月が不正な場合は出力せずfalse）
+	 * @throws IOException
+	 */
+	@Transactional(readOnly = true)
+	public boolean export(Integer courseId, String month, String format,
+			HttpServletResponse response) throws IOException {
+
+		YearMonth yearMonth = parseMonth(month);
+		if (yearMonth == null) {
+			return false;
+		}
+		Integer companyId = loginUserUtil.isCompany() ? loginUserDto.getCompanyId() : null;
+		boolean isCsv = FORMAT_CSV.equals(format);
+		ExcelUtil.setAttachmentHeader(
+				"勤怠情報_" + yearMonth + "." + (isCsv ? FORMAT_CSV : FORMAT_XLSX), response);
+
+		try (Cursor<UserAttendanceDto> cursor = tStudentAttendanceMapper.getAttendanceExportCursor(
+				courseId, companyId, dateUtil.toDate(yearMonth.atDay(1)),
+				dateUtil.toDate(yearMonth.plusMonths(1).atDay(1)), Constants.CODE_VAL_ROLL_STUDENT,
+				Constants.DB_FLG_FALSE);
+				ServletOutputStream out = response.getOutputStream()) {
+			if (isCsv) {
+				writeCsv(cursor, out);
+			} else {
+				writeXlsx(cursor, out);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * CSV形式で書き出す
+	 *
+	 * @param cursor
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeCsv(Cursor<UserAttendanceDto> cursor, OutputStream out) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, CSV_CHARSET));
+		writeCsvLine(writer, HEADER);
+		for (UserAttendanceDto userAttendanceDto : cursor) {
+			writeCsvLine(writer, toColumns(userAttendanceDto));
+		}
+		writer.flush();
+	}
+
+	/**
+	 * CSVの1行を書き出す
+	 *
+	 * @param writer
+	 * @param columns
+	 * @throws IOException
+	 */
+	private void writeCsvLine(Writer writer, String[] columns) throws IOException {
+		for (int i = 0; i < columns.length; i++) {
+			if (i > 0) {
+				writer.write(',');
+			}
+			writer.write('"');
+			writer.write(columns[i].replace("\"", "\"\""));
+			writer.write('"');
+		}
+		writer.write("\r\n");
+	}
+
+	/**
+	 * Excel形式で書き出す<br>
+	 * 一定行数を超えた行は一時ファイルへ書き出し、メモリ上には保持しない
+	 *
+	 * @param cursor
+	 * @param out
+	 * @throws IOException
+	 */
+	private void writeXlsx(Cursor<UserAttendanceDto> cursor, OutputStream out) throws IOException {
+		ExcelUtil excelUtil = new ExcelUtil();
+		excelUtil.createSheet(SHEET_NAME);
+		excelUtil.startStreaming(ExcelUtil.STREAMING_WINDOW_SIZE);
+		try {
+			excelUtil.appendRow(SHEET_NAME, (Object[]) HEADER);
+			for (UserAttendanceDto userAttendanceDto : cursor) {
+				excelUtil.appendRow(SHEET_NAME, (Object[]) toColumns(userAttendanceDto));
+			}
+			excelUtil.write(out);
+		} finally {
+			// 書き出し前に失敗した場合も一時ファイルを削除
+			excelUtil.dispose();
+		}
+	}
+
+	/**
+	 * 勤怠情報を出力列に変換
+	 *
+	 * @param userAttendanceDto
+	 * @return 出力列
+	 */
+	private String[] toColumns(UserAttendanceDto userAttendanceDto) {
+		String blankTime = "";
+		if (userAttendanceDto.getBlankTime() != null) {
+			blankTime = attendanceUtil.calcBlankTime(userAttendanceDto.getBlankTime()).toString();
+		}
+		AttendanceStatusEnum statusEnum = AttendanceStatusEnum.getEnum(userAttendanceDto.getStatus());
+		return new String[] {
+				StringUtils.defaultString(userAttendanceDto.getUserName()),
+				dateUtil.toString(userAttendanceDto.getTrainingDate()),
+				StringUtils.defaultString(userAttendanceDto.getSectionName()),
+				StringUtils.defaultString(userAttendanceDto.getTrainingStartTime()),
+				StringUtils.defaultString(userAttendanceDto.getTrainingEndTime()),
+				blankTime,
+				statusEnum != null ? statusEnum.name : "",
+				StringUtils.defaultString(userAttendanceDto.getNote()) };
+	}
+
+	/**
+	 * 対象月を解析
+	 *
+	 * @param month "yyyy-MM"形式の対象月（空の場合は当月）
+	 * @return 対象月（形式が不正な場合はnull）
+	 */
+	private YearMonth parseMonth(String month) {
+		if (month == null || month.isEmpty()) {
+			return YearMonth.from(dateUtil.getCurrentLocalDate());
+		}
+		try {
+			return YearMonth.parse(month);
+		} catch (DateTimeParseException e) {
+			return null;
+		}
+	}
+
+}
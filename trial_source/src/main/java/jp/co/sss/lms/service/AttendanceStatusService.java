@@ -0,0 +1,288 @@
+package jp.co.sss.lms.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceUtil;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.MessageUtil;
+import jp.co.sss.lms.util.PunchInQueueUtil;
+import jp.co.sss.lms.util.TrainingTime;
+import jp.co.sss.lms.util.UnfilledAttendanceUtil;
+
+/**
+ * 勤怠ステータス再計算サービス<br>
+ * 定時の変更後などに、登録済みの勤怠情報の遅刻早退ステータスをまとめて再計算する<br>
+ * 再計算はリクエストスレッドから切り離して実行し、結果は実行者が次に一覧を表示した際に通知する
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class AttendanceStatusService {
+
+	@Autowired
+	private AttendanceUtil attendanceUtil;
+	@Autowired
+	private MessageUtil messageUtil;
+	@Autowired
+	private LoginUserDto loginUserDto;
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private PunchInQueueUtil punchInQueueUtil;
+	@Autowired
+	private UnfilledAttendanceUtil unfilledAttendanceUtil;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	@Qualifier("attendanceRecalcExecutor")
+	private AsyncTaskExecutor attendanceRecalcExecutor;
+
+	/** 1回に読み込む件数 */
+	@Value("${setting.attendance.recalc.chunk.size}")
+	private Integer chunkSize;
+	/** 並列数（スレッドプールのスレッド数は読み込み用の1スレッドを加えた数） */
+	@Value("${setting.attendance.recalc.parallelism}")
+	private Integer parallelism;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** 再計算中フラグ */
+	private final AtomicBoolean running = new AtomicBoolean();
+	/** 未通知の再計算結果 */
+	private final AtomicReference<RecalcResult> lastResult = new AtomicReference<>();
+
+	/**
+	 * 遅刻早退ステータスの再計算の開始<br>
+	 * 別スレッドで再計算を行い、開始できたかどうかをすぐに返す
+	 *
+	 * @param courseId 対象コースID（nullの場合は全コース）
+	 * @param fromDate 対象研修日の開始（nullの場合は指定なし）
+	 * @param toDate   対象研修日の終了（nullの場合は指定なし）
+	 * @return 開始メッセージ（実行中の場合は実行中メッセージ）
+	 */
+	public String recalcStatus(Integer courseId, Date fromDate, Date toDate) {
+
+		// 同時に実行しない
+		if (!running.compareAndSet(false, true)) {
+			return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_RUNNING);
+		}
+		// 実行者（セッションの情報は別スレッドから参照できないため先に取得）
+		Integer lmsUserId = loginUserDto.getLmsUserId();
+		try {
+			attendanceRecalcExecutor.execute(() -> run(courseId, fromDate, toDate, lmsUserId));
+		} catch (RuntimeException | Error e) {
+			running.set(false);
+			throw e;
+		}
+		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_STARTED);
+	}
+
+	/**
+	 * 未通知の再計算結果を取り出す
+	 *
+	 * @param lmsUserId
+	 * @return 完了・失敗メッセージ（実行者以外・未通知の結果がない場合はnull）
+	 */
+	public String takeResult(Integer lmsUserId) {
+		RecalcResult result = lastResult.get();
+		if (result == null || !result.lmsUserId.equals(lmsUserId)
+				|| !lastResult.compareAndSet(result, null)) {
+			return null;
+		}
+		return result.message;
+	}
+
+	/**
+	 * 再計算の実行（別スレッド）
+	 *
+	 * @param courseId
+	 * @param fromDate
+	 * @param toDate
+	 * @param lmsUserId 実行者
+	 */
+	private void run(Integer courseId, Date fromDate, Date toDate, Integer lmsUserId) {
+		String message;
+		try {
+			// 登録待ちの出勤打刻を先に登録
+			punchInQueueUtil.flushAll();
+			message = recalcStatusInChunks(courseId, fromDate, toDate, lmsUserId);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("勤怠ステータス再計算中断", e);
+			message = messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_FAILED);
+		} catch (RuntimeException e) {
+			logger.error("勤怠ステータス再計算失敗", e);
+			message = messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_FAILED);
+		} finally {
+			running.set(false);
+		}
+		lastResult.set(new RecalcResult(lmsUserId, message));
+	}
+
+	/**
+	 * 勤怠情報を一定件数ずつ読み込み、チャンク毎に並列で再計算する
+	 *
+	 * @param courseId
+	 * @param fromDate
+	 * @param toDate
+	 * @param lmsUserId 更新者
+	 * @return 完了メッセージ
+	 * @throws InterruptedException
+	 */
+	private String recalcStatusInChunks(Integer courseId, Date fromDate, Date toDate,
+			Integer lmsUserId) throws InterruptedException {
+
+		// 読み込み済みで未処理のチャンクは並列数の2倍まで
+		Semaphore semaphore = new Semaphore(parallelism * 2);
+		List<Future<?>> futureList = new ArrayList<>();
+		AtomicLong processedCount = new AtomicLong();
+		AtomicLong updatedCount = new AtomicLong();
+		long startTime = System.nanoTime();
+		try {
+			Integer lastStudentAttendanceId = 0;
+			while (true) {
+				semaphore.acquire();
+				List<TStudentAttendance> chunk = tStudentAttendanceMapper.findStatusRecalcList(
+						courseId, fromDate, toDate, AttendanceStatusEnum.ABSENT.code,
+						lastStudentAttendanceId, chunkSize, Constants.DB_FLG_FALSE);
+				if (chunk.isEmpty()) {
+					semaphore.release();
+					break;
+				}
+				lastStudentAttendanceId = chunk.get(chunk.size() - 1).getStudentAttendanceId();
+				futureList.add(attendanceRecalcExecutor.submit(() -> {
+					try {
+						updatedCount.addAndGet(recalcChunk(chunk, lmsUserId));
+						long processed = processedCount.addAndGet(chunk.size());
+						logger.info("勤怠ステータス再計算：{}件処理（更新{}件、{}件/秒）", processed,
+								updatedCount.get(), getThroughput(processed, startTime));
+					} finally {
+						semaphore.release();
+					}
+				}));
+				if (chunk.size() < chunkSize) {
+					break;
+				}
+			}
+			for (Future<?> future : futureList) {
+				future.get();
+			}
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			// 失敗・中断時は未処理のチャンクを取り消す
+			for (Future<?> future : futureList) {
+				future.cancel(true);
+			}
+		}
+
+		long processed = processedCount.get();
+		long throughput = getThroughput(processed, startTime);
+		logger.info("勤怠ステータス再計算完了：{}件処理（更新{}件、{}件/秒）", processed, updatedCount.get(),
+				throughput);
+		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_RECALC_NOTICE,
+				new String[] { String.valueOf(processed), String.valueOf(updatedCount.get()),
+						String.valueOf(throughput) });
+	}
+
+	/**
+	 * チャンク内の勤怠情報を再計算し、ステータスが変わった行のみ一括更新する<br>
+	 * 読み込み後に出退勤時刻が更新された行は更新しない<br>
+	 * 更新した受講生の過去日未入力件数は、コミット後に破棄する
+	 *
+	 * @param chunk
+	 * @param lmsUserId 更新者
+	 * @return 更新件数
+	 */
+	private int recalcChunk(List<TStudentAttendance> chunk, Integer lmsUserId) {
+		List<TStudentAttendance> tStudentAttendanceList = new ArrayList<>();
+		Date date = new Date();
+		for (TStudentAttendance entity : chunk) {
+			// 出退勤時刻が未入力の行は対象外
+			if (StringUtils.isEmpty(entity.getTrainingStartTime())
+					&& StringUtils.isEmpty(entity.getTrainingEndTime())) {
+				continue;
+			}
+			AttendanceStatusEnum attendanceStatusEnum = attendanceUtil.getStatus(
+					TrainingTime.valueOf(StringUtils.defaultString(entity.getTrainingStartTime())),
+					TrainingTime.valueOf(StringUtils.defaultString(entity.getTrainingEndTime())));
+			if (attendanceStatusEnum.code.equals(entity.getStatus())) {
+				continue;
+			}
+			TStudentAttendance tStudentAttendance = new TStudentAttendance();
+			tStudentAttendance.setStudentAttendanceId(entity.getStudentAttendanceId());
+			tStudentAttendance.setLmsUserId(entity.getLmsUserId());
+			tStudentAttendance.setTrainingStartTime(entity.getTrainingStartTime());
+			tStudentAttendance.setTrainingEndTime(entity.getTrainingEndTime());
+			tStudentAttendance.setStatus(attendanceStatusEnum.code);
+			tStudentAttendance.setLastModifiedUser(lmsUserId);
+			tStudentAttendance.setLastModifiedDate(date);
+			tStudentAttendanceList.add(tStudentAttendance);
+		}
+		if (tStudentAttendanceList.isEmpty()) {
+			return 0;
+		}
+		List<Integer> lmsUserIdList = new ArrayList<>();
+		for (TStudentAttendance tStudentAttendance : tStudentAttendanceList) {
+			lmsUserIdList.add(tStudentAttendance.getLmsUserId());
+		}
+		Integer count = new TransactionTemplate(transactionManager).execute(status -> {
+			unfilledAttendanceUtil.evictAfterCommit(lmsUserIdList);
+			return tStudentAttendanceMapper.updateStatusList(tStudentAttendanceList);
+		});
+		return count == null ? 0 : count;
+	}
+
+	/**
+	 * 1秒あたりの処理件数を取得
+	 *
+	 * @param processed 処理件数
+	 * @param startTime 開始時刻（System#nanoTime）
+	 * @return 処理件数/秒
+	 */
+	private long getThroughput(long processed, long startTime) {
+		long elapsed = Math.max(System.nanoTime() - startTime, 1);
+		return processed * TimeUnit.SECONDS.toNanos(1) / elapsed;
+	}
+
+	/**
+	 * 再計算結果
+	 */
+	private static final class RecalcResult {
+
+		/** 実行者 */
+		private final Integer lmsUserId;
+		/** 完了・失敗メッセージ */
+		private final String message;
+
+		private RecalcResult(Integer lmsUserId, String message) {
+			this.lmsUserId = lmsUserId;
+			this.message = message;
+		}
+	}
+
+}
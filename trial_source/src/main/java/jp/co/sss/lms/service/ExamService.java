@@ -1,27 +1,32 @@
 package jp.co.sss.lms.service;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jp.co.sss.lms.dto.ExamDetailDto;
 import jp.co.sss.lms.dto.ExamQuestionDto;
 import jp.co.sss.lms.dto.ExamResultDetailDto;
+import jp.co.sss.lms.dto.ExamSessionDto;
 import jp.co.sss.lms.dto.LoginUserDto;
 import jp.co.sss.lms.dto.QuestionDto;
 import jp.co.sss.lms.entity.MQuestion;
 import jp.co.sss.lms.entity.TExamResult;
 import jp.co.sss.lms.entity.TExamResultDetail;
 import jp.co.sss.lms.form.ExamQuestionForm;
-import jp.co.sss.lms.mapper.MExamMapper;
-import jp.co.sss.lms.mapper.MQuestionMapper;
 import jp.co.sss.lms.mapper.TExamResultDetailMapper;
 import jp.co.sss.lms.mapper.TExamResultMapper;
 import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.ExamQuestionCache;
+import jp.co.sss.lms.util.ExamSessionStore;
+import jp.co.sss.lms.util.ExamSessionStore.ExamAttempt;
 
 /**
  * 試験情報サービス
@@ -34,11 +39,13 @@ public class ExamService {
 	@Autowired
 	private TExamResultMapper tExamResultMapper;
 	@Autowired
-	private MExamMapper mExamMapper;
-	@Autowired
 	private TExamResultDetailMapper tExamResultDetailMapper;
 	@Autowired
-	private MQuestionMapper mQuestionMapper;
+	private ExamQuestionCache examQuestionCache;
+	@Autowired
+	private ExamSessionStore examSessionStore;
+	@Autowired
+	private ItemAnalysisService itemAnalysisService;
 	@Autowired
 	private LoginUserDto loginUserDto;
 
@@ -85,51 +92,78 @@ public class ExamService {
 	}
 
 	/**
-	 * 試験問題画面フォームの設定
+	 * 試験問題画面フォームの設定<br>
+	 * 試験問題・回答・経過時間は受験中の試験から設定する（受験中でない場合は開始する）
 	 * 
 	 * @param examQuestionForm
+	 * @return 設定できた場合true（試験・セクション紐付け・試験が存在しない場合はfalse）
 	 */
-	public void setExamQuestionForm(ExamQuestionForm examQuestionForm) {
-		// 試験問題情報を取得
-		ExamQuestionDto examQuestionDto = mExamMapper.getExamQuestion(examQuestionForm.getExamId(),
-				Constants.DB_FLG_FALSE);
-		BeanUtils.copyProperties(examQuestionDto, examQuestionForm);
-		// 試験問題情報を基に試験問題DTO．問題DTOリスト．回答リストを設定
-		for (QuestionDto questionDto : examQuestionForm.getQuestionDtoList()) {
-			List<String> answerList = new LinkedList<>();
-			answerList.add(questionDto.getChoice1());
-			answerList.add(questionDto.getChoice2());
-			answerList.add(questionDto.getChoice3());
-			answerList.add(questionDto.getChoice4());
-			questionDto.setAnswerList(answerList);
+	public boolean setExamQuestionForm(ExamQuestionForm examQuestionForm) {
+		// 受験中の試験を取得
+		ExamAttempt examAttempt = examSessionStore.begin(loginUserDto.getLmsUserId(),
+				examQuestionForm.getExamSectionId());
+		if (examAttempt == null) {
+			return false;
 		}
-		// 経過時間の初期化
-		if (examQuestionForm.getTime() == null) {
-			examQuestionForm.setTime(0);
+		// 試験問題情報を取得（回答リストは設定済み）
+		ExamQuestionDto examQuestionDto = examQuestionCache
+				.getExamQuestion(examAttempt.getExamId());
+		if (examQuestionDto == null) {
+			return false;
 		}
-		// 回答の再設定
-		int questionCount = examQuestionDto.getQuestionDtoList().size();
-		Short[] answerArray = new Short[questionCount];
-		Short[] userAnswer = examQuestionForm.getAnswer();
-		if (userAnswer != null) {
-			for (int i = 0; i < userAnswer.length; i++) {
-				answerArray[i] = userAnswer[i];
-			}
+		BeanUtils.copyProperties(examQuestionDto, examQuestionForm);
+		examAttempt = examSessionStore.resize(examAttempt,
+				examQuestionDto.getQuestionDtoList().size());
+		// 回答・経過時間の設定
+		examQuestionForm.setAnswer(examAttempt.getAnswers());
+		examQuestionForm.setTime(getElapsedTime(examAttempt, examQuestionDto.getLimitTime()));
+		return true;
+	}
+
+	/**
+	 * 回答の保存<br>
+	 * 受験中の試験に1問分の回答を反映する
+	 * 
+	 * @param examSectionId
+	 * @param index         問題の番号（0から）
+	 * @param answer        回答（nullの場合は未回答）
+	 * @return 受験状況DTO（受験中でない・回答が不正な場合はnull）
+	 */
+	public ExamSessionDto saveAnswer(Integer examSectionId, int index, Short answer) {
+		Integer answeredCount = examSessionStore.putAnswer(loginUserDto.getLmsUserId(), examSectionId,
+				index, answer);
+		if (answeredCount == null) {
+			return null;
 		}
-		examQuestionForm.setAnswer(answerArray);
+		ExamSessionDto examSessionDto = new ExamSessionDto();
+		examSessionDto.setExamSectionId(examSectionId);
+		examSessionDto.setAnsweredCount(answeredCount);
+		return examSessionDto;
 	}
 
 	/**
-	 * 試験結果登録
+	 * 試験結果登録<br>
+	 * 試験結果・試験結果詳細は1トランザクションで登録する<br>
+	 * 試験・回答・経過時間は受験中の試験から取得し、登録に失敗した場合は受験中のまま残す
 	 * 
 	 * @param examQuestionForm
-	 * @return examResultId
+	 * @return examResultId（受験中でない場合はnull）
 	 */
+	@Transactional
 	public Integer insert(ExamQuestionForm examQuestionForm) {
 
-		// 試験IDに紐づく試験問題リストを取得
-		List<MQuestion> mQuestionList = mQuestionMapper.findByExamId(examQuestionForm.getExamId(),
-				Constants.DB_FLG_FALSE);
+		// 受験中の試験を取り出す（二重送信・破棄済みの場合は登録しない）
+		ExamAttempt examAttempt = examSessionStore.take(loginUserDto.getLmsUserId(),
+				examQuestionForm.getExamSectionId());
+		if (examAttempt == null) {
+			return null;
+		}
+
+		// 受験開始時の試験IDに紐づく試験問題リストを取得
+		List<MQuestion> mQuestionList = examQuestionCache
+				.getQuestionList(examAttempt.getExamId());
+		ExamQuestionDto examQuestionDto = examQuestionCache
+				.getExamQuestion(examAttempt.getExamId());
 
 		// 現在日時情報
 		Date now = new Date();
@@ -139,27 +173,19 @@ public class ExamService {
 
 		// 得点設定
 		Short score = 0;
-		Short[] answerArray = examQuestionForm.getAnswer();
-		for (int i = 0; i < answerArray.length; i++) {
+		Short[] answerArray = examAttempt.getAnswers();
+		for (int i = 0; i < answerArray.length && i < mQuestionList.size(); i++) {
 			if (answerArray[i] != null && answerArray[i] == mQuestionList.get(i).getAnswerNum()) {
 				score++;
 			}
 		}
 
-		// 試験結果件数取得
-		Integer examCount = tExamResultMapper.getExamCount(examQuestionForm.getExamSectionId(),
-				loginUserDto.getLmsUserId(), Constants.DB_FLG_FALSE);
-
 		// 試験結果の設定
 		tExamResult.setExamSectionId(examQuestionForm.getExamSectionId());
 		tExamResult.setLmsUserId(loginUserDto.getLmsUserId());
 		tExamResult.setScore(score);
-		tExamResult.setTime(examQuestionForm.getTime());
-		if (examCount == 0) {
-			tExamResult.setMarkFlg(Constants.DB_FLG_TRUE);
-		} else {
-			tExamResult.setMarkFlg(Constants.DB_FLG_FALSE);
-		}
+		tExamResult.setTime(getElapsedTime(examAttempt,
+				examQuestionDto != null ? examQuestionDto.getLimitTime() : null));
 		tExamResult.setAccountId(loginUserDto.getAccountId());
 		tExamResult.setDeleteFlg(Constants.DB_FLG_FALSE);
 		tExamResult.setFirstCreateUser(loginUserDto.getLmsUserId());
@@ -167,21 +193,23 @@ public class ExamService {
 		tExamResult.setLastModifiedUser(loginUserDto.getLmsUserId());
 		tExamResult.setLastModifiedDate(now);
 
-		// 試験結果へ登録
-		tExamResultMapper.insert(tExamResult);
+		// 試験結果へ登録（初回受験の場合は評点対象）
+		if (tExamResultMapper.insertMarked(tExamResult) == 0) {
+			// 同時に提出された試験結果が評点対象となった場合
+			tExamResult.setMarkFlg(Constants.DB_FLG_FALSE);
+			tExamResultMapper.insert(tExamResult);
+		}
 
-		// 試験結果詳細登録
+		// 試験結果詳細を生成
+		List<TExamResultDetail> tExamResultDetailList = new ArrayList<>(mQuestionList.size());
 		for (int j = 0; j < mQuestionList.size(); j++) {
-			// 試験結果詳細を生成
 			TExamResultDetail tExamResultDetail = new TExamResultDetail();
 			tExamResultDetail.setExamResultId(tExamResult.getExamResultId());
 			tExamResultDetail.setLmsUserId(loginUserDto.getLmsUserId());
 			tExamResultDetail.setQuestionId(mQuestionList.get(j).getQuestionId());
 			Short reply = 0;
-			try {
-				reply = examQuestionForm.getAnswer()[j];
-			} catch (Exception e) {
-				reply = 0;
+			if (j < answerArray.length) {
+				reply = answerArray[j];
 			}
 			tExamResultDetail.setReply(reply);
 			tExamResultDetail.setAccountId(loginUserDto.getAccountId());
@@ -190,11 +218,34 @@ public class ExamService {
 			tExamResultDetail.setFirstCreateDate(now);
 			tExamResultDetail.setLastModifiedUser(loginUserDto.getLmsUserId());
 			tExamResultDetail.setLastModifiedDate(now);
-			// 試験結果詳細へ登録
-			tExamResultDetailMapper.insert(tExamResultDetail);
+			tExamResultDetailList.add(tExamResultDetail);
+		}
+		// 試験結果詳細へ一括登録
+		if (!tExamResultDetailList.isEmpty()) {
+			tExamResultDetailMapper.insertList(tExamResultDetailList);
+		}
+
+		// 評点対象の場合は問題分析に反映
+		if (tExamResult.getMarkFlg() == Constants.DB_FLG_TRUE) {
+			itemAnalysisService.add(tExamResult.getExamResultId());
 		}
 
 		return tExamResult.getExamResultId();
 	}
 
+	/**
+	 * 経過時間の取得
+	 * 
+	 * @param examAttempt
+	 * @param limitTime   制限時間（分）
+	 * @return 開始からの経過時間（ミリ秒、制限時間を超える場合は制限時間）
+	 */
+	private Integer getElapsedTime(ExamAttempt examAttempt, Integer limitTime) {
+		long elapsedTime = examAttempt.getElapsedTime();
+		if (limitTime != null) {
+			elapsedTime = Math.min(elapsedTime, TimeUnit.MINUTES.toMillis(limitTime));
+		}
+		return (int) elapsedTime;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,131 @@
+package jp.co.sss.lms.service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.co.sss.lms.dto.ItemAnalysisSourceDto;
+import jp.co.sss.lms.dto.QuestionAnalysisDto;
+import jp.co.sss.lms.entity.MQuestion;
+import jp.co.sss.lms.mapper.TExamResultDetailMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.ExamQuestionCache;
+import jp.co.sss.lms.util.ItemAnalysisEngine;
+
+/**
+ * 問題分析サービス<br>
+ * 試験問題毎の正答率・選択肢毎の選択率・識別指数を、評点対象（初回受験）の試験結果から求める<br>
+ * 集計値は起動時・定期的に再構築し、試験結果の登録時に差分で更新する
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class ItemAnalysisService {
+
+	@Autowired
+	private ItemAnalysisEngine itemAnalysisEngine;
+	@Autowired
+	private ExamQuestionCache examQuestionCache;
+	@Autowired
+	private TExamResultDetailMapper tExamResultDetailMapper;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** 再構築時に集計するスレッド数 */
+	@Value("${setting.exam.analysis.rebuild.parallelism}")
+	private Integer parallelism;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * 起動時の再構築<br>
+	 * 起動を遅らせないよう別スレッドで行う（完了までは回答数が0件となる）
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		Thread thread = new Thread(this::rebuild, "item-analysis-rebuild");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * 集計値の再構築<br>
+	 * 試験結果の削除・評点フラグの変更はここで反映される
+	 */
+	@Scheduled(cron = "${setting.exam.analysis.rebuild.cron}")
+	public void rebuild() {
+		long startTime = System.nanoTime();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		try {
+			Integer count = transactionTemplate.execute(status -> {
+				try (Cursor<ItemAnalysisSourceDto> cursor = tExamResultDetailMapper
+						.getItemAnalysisSourceCursor(Constants.DB_FLG_FALSE)) {
+					return itemAnalysisEngine.rebuild(cursor.iterator(), parallelism);
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			logger.info("問題分析再構築完了：試験結果{}件（{}ミリ秒）", count,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+		} catch (RuntimeException e) {
+			logger.error("問題分析再構築失敗", e);
+		}
+	}
+
+	/**
+	 * 登録された試験結果を集計値に反映する<br>
+	 * 登録処理のトランザクション内で回答を取得し、コミット後に反映する
+	 *
+	 * @param examResultId
+	 */
+	public void add(Integer examResultId) {
+		List<ItemAnalysisSourceDto> sourceList = tExamResultDetailMapper
+				.getItemAnalysisSource(examResultId, Constants.DB_FLG_FALSE);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			itemAnalysisEngine.add(sourceList);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				itemAnalysisEngine.add(sourceList);
+			}
+		});
+	}
+
+	/**
+	 * 試験の問題分析を取得
+	 *
+	 * @param examId
+	 * @param courseId コースID（nullの場合は全コース）
+	 * @return 問題分析DTOリスト（問題の順）
+	 */
+	public List<QuestionAnalysisDto> getQuestionAnalysisList(Integer examId, Integer courseId) {
+		List<QuestionAnalysisDto> questionAnalysisDtoList = new ArrayList<>();
+		for (MQuestion mQuestion : examQuestionCache.getQuestionList(examId)) {
+			QuestionAnalysisDto questionAnalysisDto = itemAnalysisEngine
+					.getAnalysis(mQuestion.getQuestionId(), courseId);
+			questionAnalysisDto.setQuestion(mQuestion.getQuestion());
+			questionAnalysisDto.setAnswerNum(mQuestion.getAnswerNum());
+			questionAnalysisDtoList.add(questionAnalysisDto);
+		}
+		return questionAnalysisDtoList;
+	}
+
+}
@@ -119,7 +119,7 @@ public class LoginService {
 			return true;
 		}
 		// 現在日時取得
-		Calendar now = dateUtil.toCalendar(dateUtil.getCurrentDateString());
+		Calendar now = dateUtil.getCurrentCalendar();
 		now.add(Calendar.MINUTE, -lockMinute);
 		// ロック日時がロック日時より規定時間たっているか確認
 		if (now.compareTo(dateUtil.toCalendar(loginUserDto.getPasswordNgDate())) > 0) {
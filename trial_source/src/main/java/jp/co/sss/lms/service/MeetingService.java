@@ -12,6 +12,7 @@ import jp.co.sss.lms.dto.WorkbookDto;
 import jp.co.sss.lms.mapper.TMeetingMapper;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelTemplateCache;
 import jp.co.sss.lms.util.ExcelUtil;
 import jp.co.sss.lms.util.MessageUtil;
 
@@ -28,6 +29,8 @@ public class MeetingService {
 	@Autowired
 	private MessageUtil messageUtil;
 	@Autowired
+	private ExcelTemplateCache excelTemplateCache;
+	@Autowired
 	private DateUtil dateUtil;
 
 	/**
@@ -47,7 +50,7 @@ public class MeetingService {
 		// テンプレートファイルのパスを設定
 		String commonFileDir = messageUtil.getMessage("setting.file.common.dir");
 		String excelFilePath = commonFileDir + "/" + meetingDownloadDto.getFileName();
-		ExcelUtil excelUtil = new ExcelUtil(excelFilePath);
+		ExcelUtil excelUtil = excelTemplateCache.getExcelUtil(excelFilePath);
 
 		// 企業名
 		excelUtil.setVal(meetingDownloadDto.getSheetName(), meetingDownloadDto.getRowCompany(),
@@ -102,7 +102,7 @@ public class PasswordService {
 		MUser mUser = mUserMapper.findByUserId(loginUserDto.getUserId(), Constants.DB_FLG_FALSE);
 		mUser.setPassword(passwordUtil.getSaltedAndStrechedPassword(loginForm.getPassword(),
 				mUser.getLoginId()));
-		mUser.setPasswordChangeDate(dateUtil.stringToTimestamp(dateUtil.getCurrentDateString()));
+		mUser.setPasswordChangeDate(dateUtil.getCurrentTimestamp());
 		mUser.setLastModifiedUser(loginUserDto.getUserId());
 		Date now = new Date();
 		mUser.setLastModifiedDate(now);
@@ -0,0 +1,329 @@
+package jp.co.sss.lms.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jp.co.sss.lms.dto.ReportJobDto;
+import jp.co.sss.lms.enums.ReportJobStatusEnum;
+import jp.co.sss.lms.util.ExcelUtil;
+
+/**
+ * 帳票作成ジョブサービス<br>
+ * 時間のかかる帳票の作成をリクエストスレッドから切り離し、作成したファイルをスプールディレクトリに保存する<br>
+ * 利用者はジョブIDで進捗を確認し、完了後にファイルをダウンロードする<br>
+ * 同じ利用者のジョブは1件ずつ作成し、待機できるジョブ数を超えた場合は登録しない
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class ReportJobService {
+
+	/** Tomcatのsendfile対応可否の属性名 */
+	private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+	/** Tomcatのsendfile対象ファイルの属性名 */
+	private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+	/** Tomcatのsendfile開始位置の属性名 */
+	private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+	/** Tomcatのsendfile終了位置の属性名 */
+	private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+	/** 作成中ファイルの拡張子 */
+	private static final String PART_SUFFIX = ".part";
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	@Qualifier("reportJobExecutor")
+	private AsyncTaskExecutor reportJobExecutor;
+
+	/** スプールディレクトリ */
+	@Value("${setting.report.job.spool.dir}")
+	private String spoolDir;
+	/** 作成済みファイルの保存期間（分） */
+	@Value("${setting.report.job.expire.minute}")
+	private Integer expireMinute;
+
+	/** ジョブID毎のジョブ */
+	private final Map<String, Job> jobMap = new ConcurrentHashMap<>();
+	/** 登録者毎の待機中・作成中のジョブ */
+	private final ConcurrentMap<Integer, Job> activeJobMap = new ConcurrentHashMap<>();
+
+	private Path spoolPath;
+
+	/**
+	 * スプールディレクトリの作成<br>
+	 * 前回起動時の作成済みファイルは参照できないため削除する
+	 *
+	 * @throws IOException
+	 */
+	@PostConstruct
+	public void init() throws IOException {
+		spoolPath = Paths.get(spoolDir);
+		Files.createDirectories(spoolPath);
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(spoolPath)) {
+			for (Path path : stream) {
+				Files.deleteIfExists(path);
+			}
+		}
+	}
+
+	/**
+	 * ジョブの登録
+	 *
+	 * @param lmsUserId 登録者（ダウンロードできるのは登録者のみ）
+	 * @param fileName  ダウンロード時のファイル名
+	 * @param total     作成対象件数
+	 * @param task      帳票の作成処理
+	 * @return ジョブDTO（登録者のジョブが待機中・作成中の場合、待機できるジョブ数を超えた場合はnull）
+	 */
+	public ReportJobDto enqueue(Integer lmsUserId, String fileName, int total, ReportJobTask task) {
+		Job job = new Job(UUID.randomUUID().toString(), lmsUserId, fileName, total);
+		if (activeJobMap.putIfAbsent(lmsUserId, job) != null) {
+			return null;
+		}
+		jobMap.put(job.jobId, job);
+		try {
+			reportJobExecutor.execute(() -> run(job, task));
+		} catch (TaskRejectedException e) {
+			logger.warn("待機中の帳票作成ジョブが上限に達したため、登録できません：{}", job.jobId);
+			jobMap.remove(job.jobId);
+			activeJobMap.remove(lmsUserId, job);
+			return null;
+		}
+		return toDto(job);
+	}
+
+	/**
+	 * ジョブの取得
+	 *
+	 * @param jobId
+	 * @param lmsUserId
+	 * @return ジョブDTO（存在しない場合、登録者以外の場合はnull）
+	 */
+	public ReportJobDto getJob(String jobId, Integer lmsUserId) {
+		Job job = getOwnJob(jobId, lmsUserId);
+		return job != null ? toDto(job) : null;
+	}
+
+	/**
+	 * 作成済みファイルのダウンロード<br>
+	 * sendfileに対応している場合はTomcatに送信を任せ、そうでない場合はFileChannel#transferToで送信する
+	 *
+	 * @param jobId
+	 * @param lmsUserId
+	 * @param request
+	 * @param response
+	 * @throws IOException
+	 */
+	public void transfer(String jobId, Integer lmsUserId, HttpServletRequest request,
+			HttpServletResponse response) throws IOException {
+
+		Job job = getOwnJob(jobId, lmsUserId);
+		if (job == null || job.status != ReportJobStatusEnum.COMPLETED) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		// ダウンロード中に削除されないよう保存期間を延長する
+		job.expireTime = getExpireTime();
+
+		Path file = getFile(job);
+		long size = Files.size(file);
+		ExcelUtil.setAttachmentHeader(job.fileName, response);
+		response.setContentLengthLong(size);
+
+		if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+			request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+			request.setAttribute(SENDFILE_START, Long.valueOf(0L));
+			request.setAttribute(SENDFILE_END, Long.valueOf(size));
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+			long position = 0;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+		}
+	}
+
+	/**
+	 * 保存期間を過ぎたジョブとファイルを削除する
+	 */
+	@Scheduled(fixedDelayString = "${setting.report.job.purge.millisecond}")
+	public void purge() {
+		long now = System.currentTimeMillis();
+		Iterator<Job> iterator = jobMap.values().iterator();
+		while (iterator.hasNext()) {
+			Job job = iterator.next();
+			if (job.expireTime == 0L || job.expireTime > now) {
+				continue;
+			}
+			iterator.remove();
+			try {
+				Files.deleteIfExists(getFile(job));
+			} catch (IOException e) {
+				logger.warn("帳票作成ジョブのファイルを削除できません：{}", job.jobId, e);
+			}
+		}
+	}
+
+	/**
+	 * ジョブの実行<br>
+	 * 作成中は別名で書き出し、完了後に改名する<br>
+	 * 完了しなかった場合はErrorを含め失敗状態とする
+	 *
+	 * @param job
+	 * @param task
+	 */
+	private void run(Job job, ReportJobTask task) {
+		job.status = ReportJobStatusEnum.RUNNING;
+		Path part = spoolPath.resolve(job.jobId + PART_SUFFIX);
+		long startTime = System.nanoTime();
+		boolean completed = false;
+		try {
+			try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+				task.write(out, job.progress::incrementAndGet);
+			}
+			Files.move(part, getFile(job), StandardCopyOption.ATOMIC_MOVE);
+			completed = true;
+			logger.info("帳票作成ジョブ完了：{}（{}件、{}ミリ秒）", job.jobId, job.progress.get(),
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+		} catch (Exception e) {
+			logger.error("帳票作成ジョブ失敗：{}", job.jobId, e);
+		} finally {
+			if (!completed) {
+				try {
+					Files.deleteIfExists(part);
+				} catch (IOException ignore) {
+					// 次回起動時に削除される
+				}
+			}
+			job.expireTime = getExpireTime();
+			// 終了を確認した登録者が次のジョブを登録できるよう、状態の更新より先に外す
+			activeJobMap.remove(job.lmsUserId, job);
+			job.status = completed ? ReportJobStatusEnum.COMPLETED : ReportJobStatusEnum.FAILED;
+		}
+	}
+
+	/**
+	 * 登録者のジョブを取得
+	 *
+	 * @param jobId
+	 * @param lmsUserId
+	 * @return ジョブ（存在しない場合、登録者以外の場合はnull）
+	 */
+	private Job getOwnJob(String jobId, Integer lmsUserId) {
+		if (jobId == null) {
+			return null;
+		}
+		Job job = jobMap.get(jobId);
+		if (job == null || !job.lmsUserId.equals(lmsUserId)) {
+			return null;
+		}
+		return job;
+	}
+
+	/**
+	 * 作成済みファイルのパスを取得
+	 *
+	 * @param job
+	 * @return パス
+	 */
+	private Path getFile(Job job) {
+		return spoolPath.resolve(job.jobId);
+	}
+
+	/**
+	 * 保存期限を取得
+	 *
+	 * @return 保存期限（エポックミリ秒）
+	 */
+	private long getExpireTime() {
+		return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(expireMinute);
+	}
+
+	/**
+	 * ジョブをDTOに変換
+	 *
+	 * @param job
+	 * @return ジョブDTO
+	 */
+	private ReportJobDto toDto(Job job) {
+		ReportJobDto reportJobDto = new ReportJobDto();
+		reportJobDto.setJobId(job.jobId);
+		reportJobDto.setStatus(job.status.code);
+		reportJobDto.setStatusName(job.status.name);
+		reportJobDto.setTotal(job.total);
+		reportJobDto.setProgress(job.progress.get());
+		reportJobDto.setFileName(job.fileName);
+		return reportJobDto;
+	}
+
+	/**
+	 * 帳票の作成処理
+	 */
+	@FunctionalInterface
+	public interface ReportJobTask {
+
+		/**
+		 * 帳票を書き出す
+		 *
+		 * @param out        書き出し先
+		 * @param onProgress 1件作成する毎に呼び出す
+		 * @throws IOException
+		 */
+		void write(OutputStream out, Runnable onProgress) throws IOException;
+	}
+
+	/**
+	 * 帳票作成ジョブ
+	 */
+	private static final class Job {
+
+		private final String jobId;
+		private final Integer lmsUserId;
+		private final String fileName;
+		private final int total;
+		private final AtomicInteger progress = new AtomicInteger();
+		private volatile ReportJobStatusEnum status = ReportJobStatusEnum.WAITING;
+		/** 保存期限（作成中は0） */
+		private volatile long expireTime;
+
+		private Job(String jobId, Integer lmsUserId, String fileName, int total) {
+			this.jobId = jobId;
+			this.lmsUserId = lmsUserId;
+			this.fileName = fileName;
+			this.total = total;
+		}
+	}
+
+}
@@ -0,0 +1,239 @@
+package jp.co.sss.lms.service;
+
+import java.io.IOException;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.ReportSearchDocumentDto;
+import jp.co.sss.lms.dto.ReportSearchDto;
+import jp.co.sss.lms.mapper.MLmsUserMapper;
+import jp.co.sss.lms.mapper.TDailyReportSubmitMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.ReportSearchIndex;
+
+/**
+ * レポート検索サービス<br>
+ * 提出済みレポートの内容を検索インデックスから検索する<br>
+ * インデックスは起動時・定期的に再構築し、レポートの提出時に差分で更新する
+ *
+ * @author 東京ITスクール
+ */
+@Service
+public class ReportSearchService {
+
+	/** 抜粋に含める該当箇所より前の文字数 */
+	private static final int SNIPPET_BEFORE = 20;
+	/** 抜粋の最大文字数 */
+	private static final int SNIPPET_LENGTH = 80;
+
+	@Autowired
+	private ReportSearchIndex reportSearchIndex;
+	@Autowired
+	private LoginUserDto loginUserDto;
+	@Autowired
+	private LoginUserUtil loginUserUtil;
+	@Autowired
+	private TDailyReportSubmitMapper tDailyReportSubmitMapper;
+	@Autowired
+	private MLmsUserMapper mLmsUserMapper;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** 検索結果の最大件数 */
+	@Value("${setting.report.search.limit}")
+	private Integer limit;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/**
+	 * 起動時の再構築<br>
+	 * 起動を遅らせないよう別スレッドで行う（完了までは検索結果が0件となる）
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		Thread thread = new Thread(this::rebuild, "report-search-rebuild");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * インデックスの再構築<br>
+	 * 再構築中も現在のインデックスで検索でき、提出されたレポートは再構築後のインデックスにも反映される
+	 */
+	@Scheduled(cron = "${setting.report.search.rebuild.cron}")
+	public void rebuild() {
+		long startTime = System.nanoTime();
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(true);
+		try {
+			Integer count = transactionTemplate.execute(status -> {
+				try (Cursor<ReportSearchDocumentDto> cursor = tDailyReportSubmitMapper
+						.getReportSearchDocumentCursor(Constants.DB_FLG_FALSE)) {
+					return reportSearchIndex.rebuild(cursor.iterator());
+				} catch (IOException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			logger.info("レポート検索インデックス再構築完了：{}件（{}ミリ秒）", count,
+					TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+		} catch (RuntimeException e) {
+			logger.error("レポート検索インデックス再構築失敗", e);
+		}
+	}
+
+	/**
+	 * 提出されたレポートをインデックスに反映する<br>
+	 * 提出処理のトランザクション内で内容を取得し、コミット後に反映する
+	 *
+	 * @param dailyReportSubmitId
+	 */
+	public void update(Integer dailyReportSubmitId) {
+		ReportSearchDocumentDto document = tDailyReportSubmitMapper
+				.getReportSearchDocument(dailyReportSubmitId, Constants.DB_FLG_FALSE);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(dailyReportSubmitId, document);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				apply(dailyReportSubmitId, document);
+			}
+		});
+	}
+
+	/**
+	 * レポートの検索<br>
+	 * 企業担当者は自社の受講生、講師・管理者は全受講生、それ以外は自身のレポートのみを対象とする
+	 *
+	 * @param keyword  検索語（空白区切りで全ての語を含むものを検索）
+	 * @param courseId コースID（nullの場合は指定なし）
+	 * @return 検索結果（新しく提出された順）
+	 */
+	public List<ReportSearchDto> search(String keyword, Integer courseId) {
+		Predicate<ReportSearchDocumentDto> filter = getFilter(courseId);
+		List<ReportSearchDto> reportSearchDtoList = new ArrayList<>();
+		for (ReportSearchDocumentDto document : reportSearchIndex.search(keyword, filter, limit)) {
+			ReportSearchDto reportSearchDto = new ReportSearchDto();
+			reportSearchDto.setDailyReportSubmitId(document.getDailyReportSubmitId());
+			reportSearchDto.setDailyReportId(document.getDailyReportId());
+			reportSearchDto.setLmsUserId(document.getLmsUserId());
+			reportSearchDto.setUserName(document.getUserName());
+			reportSearchDto.setReportName(document.getReportName());
+			reportSearchDto.setDate(document.getDate());
+			reportSearchDto.setSnippet(getSnippet(document.getContent(), keyword));
+			reportSearchDtoList.add(reportSearchDto);
+		}
+		return reportSearchDtoList;
+	}
+
+	/**
+	 * ログインユーザーの権限に応じた検索対象の条件を取得<br>
+	 * 企業・コースの所属は検索時点のものを確認する（{@link UserService#isAccessibleUser(Integer)}と同様）
+	 *
+	 * @param courseId
+	 * @return 検索対象の条件
+	 */
+	private Predicate<ReportSearchDocumentDto> getFilter(Integer courseId) {
+		Integer companyId = null;
+		Predicate<ReportSearchDocumentDto> filter;
+		if (loginUserUtil.isCompany()) {
+			companyId = loginUserDto.getCompanyId();
+			if (companyId == null) {
+				return document -> false;
+			}
+			filter = document -> true;
+		} else if (loginUserUtil.isTeacher() || loginUserUtil.isAdmin()) {
+			filter = document -> true;
+		} else {
+			Integer lmsUserId = loginUserDto.getLmsUserId();
+			filter = document -> lmsUserId.equals(document.getLmsUserId());
+		}
+		if (companyId != null || courseId != null) {
+			Set<Integer> lmsUserIdSet = new HashSet<>(
+					mLmsUserMapper.getLmsUserIdList(companyId, courseId, Constants.DB_FLG_FALSE));
+			filter = filter.and(document -> lmsUserIdSet.contains(document.getLmsUserId()));
+		}
+		return filter;
+	}
+
+	/**
+	 * 検索インデックスへの反映
+	 *
+	 * @param dailyReportSubmitId
+	 * @param document            レポート検索文書（削除済みの場合はnull）
+	 */
+	private void apply(Integer dailyReportSubmitId, ReportSearchDocumentDto document) {
+		if (document == null) {
+			reportSearchIndex.remove(dailyReportSubmitId);
+		} else {
+			reportSearchIndex.put(document);
+		}
+	}
+
+	/**
+	 * 該当箇所の抜粋を取得<br>
+	 * 該当箇所は正規化後の内容で探し、抜粋は元の内容から切り出す
+	 *
+	 * @param content
+	 * @param keyword
+	 * @return 最初の語の該当箇所を含む抜粋
+	 */
+	private String getSnippet(String content, String keyword) {
+		if (content == null || content.isEmpty()) {
+			return "";
+		}
+		// 書記素単位で正規化し、正規化後の位置と元の内容の位置の対応を保持する
+		int[] textStarts = new int[content.length()];
+		int[] contentStarts = new int[content.length()];
+		int count = 0;
+		StringBuilder text = new StringBuilder();
+		BreakIterator boundary = BreakIterator.getCharacterInstance(Locale.ROOT);
+		boundary.setText(content);
+		int start = boundary.first();
+		for (int end = boundary.next(); end != BreakIterator.DONE; end = boundary.next()) {
+			textStarts[count] = text.length();
+			contentStarts[count++] = start;
+			text.append(ReportSearchIndex.normalize(content.substring(start, end)));
+			start = end;
+		}
+		String term = ReportSearchIndex.normalize(keyword).trim().split("\\s+")[0];
+		int cluster = Arrays.binarySearch(textStarts, 0, count, Math.max(text.indexOf(term), 0));
+		int index = contentStarts[cluster >= 0 ? cluster : -cluster - 2];
+		int from = Math.max(index - SNIPPET_BEFORE, 0);
+		int to = Math.min(from + SNIPPET_LENGTH, content.length());
+		// サロゲートペアの途中で切らない
+		if (from > 0 && Character.isLowSurrogate(content.charAt(from))) {
+			from--;
+		}
+		if (to < content.length() && Character.isLowSurrogate(content.charAt(to))) {
+			to--;
+		}
+		String snippet = content.substring(from, to).replace('\n', ' ');
+		return (from > 0 ? "…" : "") + snippet + (to < content.length() ? "…" : "");
+	}
+
+}
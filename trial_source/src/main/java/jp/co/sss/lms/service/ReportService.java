@@ -1,14 +1,30 @@
 package jp.co.sss.lms.service;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import jakarta.servlet.http.HttpServletResponse;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import jp.co.sss.lms.dto.DailyReportDetailDto;
 import jp.co.sss.lms.dto.DailyReportDownloadDto;
@@ -16,6 +32,7 @@ import jp.co.sss.lms.dto.DailyReportDto;
 import jp.co.sss.lms.dto.DailyReportFbDto;
 import jp.co.sss.lms.dto.IntelligibilityDto;
 import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.ReportJobDto;
 import jp.co.sss.lms.dto.WorkbookDto;
 import jp.co.sss.lms.entity.TDailyReportSubmit;
 import jp.co.sss.lms.entity.TDailyReportSubmitDetail;
@@ -28,6 +45,7 @@ import jp.co.sss.lms.mapper.TIntelligibilityMapper;
 import jp.co.sss.lms.mapper.TSectionDailyReportMapper;
 import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelTemplateCache;
 import jp.co.sss.lms.util.ExcelUtil;
 import jp.co.sss.lms.util.LoginUserUtil;
 import jp.co.sss.lms.util.MessageUtil;
@@ -47,6 +65,14 @@ public class ReportService {
 	@Autowired
 	private MessageUtil messageUtil;
 	@Autowired
+	private ExcelTemplateCache excelTemplateCache;
+	@Autowired
+	private ReportJobService reportJobService;
+	@Autowired
+	private ReportSearchService reportSearchService;
+	@Autowired
+	private UserService userService;
+	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
 	private TCourseDailyReportMapper tCourseDailyReportMapper;
@@ -59,6 +85,10 @@ public class ReportService {
 	@Autowired
 	private TIntelligibilityMapper tIntelligibilityMapper;
 
+	/** レポート一括ダウンロードの並列数 */
+	@Value("${setting.report.download.parallelism}")
+	private Integer downloadParallelism;
+
 	/**
 	 * レポート情報取得
 	 * 
@@ -139,6 +169,7 @@ public class ReportService {
 	 * @param form
 	 * @throws ParseException
 	 */
+	@Transactional(rollbackFor = ParseException.class)
 	public void submit(DailyReportSubmitForm dailyReportSubmitForm) throws ParseException {
 
 		Date today = new Date();
@@ -163,20 +194,12 @@ public class ReportService {
 			tDailyReportSubmit
 					.setDailyReportSubmitId(dailyReportSubmitForm.getDailyReportSubmitId());
 			tDailyReportSubmitMapper.update(tDailyReportSubmit);
-			// 日報提出詳細の削除
-			Integer countSubmitDetail = tDailyReportSubmitDetailMapper
-					.getCountByDailyReportSubmitId(tDailyReportSubmit.getDailyReportSubmitId());
-			if (countSubmitDetail > 0) {
-				tDailyReportSubmitDetailMapper.delete(tDailyReportSubmit.getDailyReportSubmitId());
-			}
-			// 理解度の削除
-			Integer countIntelligibility = tIntelligibilityMapper
-					.getCountByDailyReportSubmitId(tDailyReportSubmit.getDailyReportSubmitId());
-			if (countIntelligibility > 0) {
-				tIntelligibilityMapper.delete(tDailyReportSubmit.getDailyReportSubmitId());
-			}
+			// 日報提出詳細・理解度の削除（登録済みの件数に関わらず削除し、以下で登録し直す）
+			tDailyReportSubmitDetailMapper.delete(tDailyReportSubmit.getDailyReportSubmitId());
+			tIntelligibilityMapper.delete(tDailyReportSubmit.getDailyReportSubmitId());
 		}
 		// レポート詳細登録
+		List<TDailyReportSubmitDetail> tDailyReportSubmitDetailList = new ArrayList<>();
 		for (int i = 0; i < dailyReportSubmitForm.getContentArray().length; i++) {
 			TDailyReportSubmitDetail tDailyReportSubmitDetail = new TDailyReportSubmitDetail();
 			tDailyReportSubmitDetail
@@ -189,10 +212,14 @@ public class ReportService {
 			tDailyReportSubmitDetail.setFirstCreateDate(today);
 			tDailyReportSubmitDetail.setLastModifiedUser(loginUserDto.getLmsUserId());
 			tDailyReportSubmitDetail.setLastModifiedDate(today);
-			tDailyReportSubmitDetailMapper.insert(tDailyReportSubmitDetail);
+			tDailyReportSubmitDetailList.add(tDailyReportSubmitDetail);
+		}
+		if (!tDailyReportSubmitDetailList.isEmpty()) {
+			tDailyReportSubmitDetailMapper.insertList(tDailyReportSubmitDetailList);
 		}
 		// 理解度登録
 		if (dailyReportSubmitForm.getIntFieldNameArray() != null) {
+			List<TIntelligibility> tIntelligibilityList = new ArrayList<>();
 			for (int j = 0; j < dailyReportSubmitForm.getIntFieldNameArray().length; j++) {
 				TIntelligibility tIntelligibility = new TIntelligibility();
 				tIntelligibility
@@ -206,13 +233,19 @@ public class ReportService {
 				tIntelligibility.setFirstCreateDate(today);
 				tIntelligibility.setLastModifiedUser(loginUserDto.getLmsUserId());
 				tIntelligibility.setLastModifiedDate(today);
-				tIntelligibilityMapper.insert(tIntelligibility);
+				tIntelligibilityList.add(tIntelligibility);
+			}
+			if (!tIntelligibilityList.isEmpty()) {
+				tIntelligibilityMapper.insertList(tIntelligibilityList);
 			}
 		}
+		// 検索インデックスへ反映（コミット後）
+		reportSearchService.update(tDailyReportSubmit.getDailyReportSubmitId());
 	}
 
 	/**
-	 * レポートダウンロード
+	 * レポートダウンロード<br>
+	 * 対象は{@link #isDownloadable(Integer, Integer)}でチェックしておくこと
 	 * 
 	 * @param dailyReportId
 	 * @param dailyReportSubmitId
@@ -225,6 +258,155 @@ public class ReportService {
 		ExcelUtil.downloadBook(workbookDto, response);
 	}
 
+	/**
+	 * レポート一括ダウンロード<br>
+	 * 対象は{@link #isDownloadable(String[], String[])}でチェックしておくこと
+	 * 
+	 * @param dailyReportIdList
+	 * @param dailyReportSubmitIdList
+	 * @param response
+	 * @throws IOException
+	 */
+	public void downloadList(String[] dailyReportIdList, String[] dailyReportSubmitIdList,
+			HttpServletResponse response) throws IOException {
+
+		ExcelUtil.setAttachmentHeader(getZipName(), response);
+		try {
+			writeList(dailyReportIdList, dailyReportSubmitIdList, response.getOutputStream(),
+					() -> {
+					});
+		} catch (IOException | RuntimeException | Error e) {
+			ExcelUtil.abort(response);
+			throw e;
+		}
+	}
+
+	/**
+	 * レポート一括ダウンロードのジョブ登録<br>
+	 * ZIPファイルは帳票作成ジョブで作成し、完了後にジョブIDを指定してダウンロードする<br>
+	 * 対象は{@link #isDownloadable(String[], String[])}でチェックしておくこと
+	 * 
+	 * @param dailyReportIdList
+	 * @param dailyReportSubmitIdList
+	 * @return ジョブDTO
+	 */
+	public ReportJobDto enqueueDownloadList(String[] dailyReportIdList,
+			String[] dailyReportSubmitIdList) {
+
+		return reportJobService.enqueue(loginUserDto.getLmsUserId(), getZipName(),
+				dailyReportIdList.length, (out, onProgress) -> writeList(dailyReportIdList,
+						dailyReportSubmitIdList, out, onProgress));
+	}
+
+	/**
+	 * ダウンロード対象のチェック
+	 * 
+	 * @param dailyReportId
+	 * @param dailyReportSubmitId
+	 * @return ダウンロード可能な場合true
+	 */
+	public boolean isDownloadable(Integer dailyReportId, Integer dailyReportSubmitId) {
+		if (dailyReportId == null || dailyReportSubmitId == null) {
+			return false;
+		}
+		return isDownloadable(Map.of(dailyReportSubmitId, dailyReportId));
+	}
+
+	/**
+	 * 一括ダウンロード対象のチェック
+	 * 
+	 * @param dailyReportIdList
+	 * @param dailyReportSubmitIdList
+	 * @return ダウンロード可能な場合true
+	 */
+	public boolean isDownloadable(String[] dailyReportIdList, String[] dailyReportSubmitIdList) {
+		if (dailyReportIdList == null || dailyReportSubmitIdList == null
+				|| dailyReportIdList.length == 0
+				|| dailyReportIdList.length != dailyReportSubmitIdList.length) {
+			return false;
+		}
+		// 日報提出ID毎の日報ID
+		Map<Integer, Integer> dailyReportIdMap = new HashMap<>();
+		try {
+			for (int i = 0; i < dailyReportIdList.length; i++) {
+				Integer dailyReportId = Integer.valueOf(dailyReportIdList[i]);
+				Integer existing = dailyReportIdMap
+						.putIfAbsent(Integer.valueOf(dailyReportSubmitIdList[i]), dailyReportId);
+				if (existing != null && !existing.equals(dailyReportId)) {
+					return false;
+				}
+			}
+		} catch (NumberFormatException e) {
+			return false;
+		}
+		return isDownloadable(dailyReportIdMap);
+	}
+
+	/**
+	 * ダウンロード対象のチェック<br>
+	 * 日報提出が存在して日報IDが一致し、提出したユーザーを参照できる場合のみダウンロード可能とする
+	 * 
+	 * @param dailyReportIdMap 日報提出ID毎の日報ID
+	 * @return ダウンロード可能な場合true
+	 */
+	private boolean isDownloadable(Map<Integer, Integer> dailyReportIdMap) {
+		List<TDailyReportSubmit> tDailyReportSubmitList = tDailyReportSubmitMapper
+				.getDailyReportSubmitListById(new ArrayList<>(dailyReportIdMap.keySet()),
+						Constants.DB_FLG_FALSE);
+		if (tDailyReportSubmitList.size() != dailyReportIdMap.size()) {
+			return false;
+		}
+		Set<Integer> lmsUserIdSet = new HashSet<>();
+		for (TDailyReportSubmit tDailyReportSubmit : tDailyReportSubmitList) {
+			if (!tDailyReportSubmit.getDailyReportId()
+					.equals(dailyReportIdMap.get(tDailyReportSubmit.getDailyReportSubmitId()))) {
+				return false;
+			}
+			lmsUserIdSet.add(tDailyReportSubmit.getLmsUserId());
+		}
+		// 受講生は自分のレポートのみ、それ以外は参照できるユーザーのレポートのみ
+		for (Integer lmsUserId : lmsUserIdSet) {
+			if (loginUserUtil.isStudent() ? !lmsUserId.equals(loginUserDto.getLmsUserId())
+					: !userService.isAccessibleUser(lmsUserId)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 一括ダウンロードのZIPファイル名を取得
+	 * 
+	 * @return ZIPファイル名
+	 */
+	private String getZipName() {
+		return messageUtil.getMessage("dailyReportId") + new Date().getTime() + ".zip";
+	}
+
+	/**
+	 * レポートをZIP形式で書き出す<br>
+	 * ワークブックは仮想スレッドで並列に作成し、作成できた順ではなく指定順にZIPへ書き込む
+	 * 
+	 * @param dailyReportIdList
+	 * @param dailyReportSubmitIdList
+	 * @param out                     書き出し先
+	 * @param onProgress              ワークブックを1件作成する毎に呼び出す
+	 * @throws IOException
+	 */
+	private void writeList(String[] dailyReportIdList, String[] dailyReportSubmitIdList,
+			OutputStream out, Runnable onProgress) throws IOException {
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			try {
+				ExcelUtil.writeInZip(new WorkbookDtoIterator(dailyReportIdList,
+						dailyReportSubmitIdList, executor, onProgress), out);
+			} finally {
+				// 途中で失敗した場合は作成中のワークブックを破棄する
+				executor.shutdownNow();
+			}
+		}
+	}
+
 	/**
 	 * ワークブックDTO取得
 	 * 
@@ -245,7 +427,7 @@ public class ReportService {
 		String commonFileDir = messageUtil.getMessage("setting.file.common.dir");
 		String excelFilePath = commonFileDir + "/" + dailyReportDownloadDto.getFileName();
 
-		ExcelUtil excelUtil = new ExcelUtil(excelFilePath);
+		ExcelUtil excelUtil = excelTemplateCache.getExcelUtil(excelFilePath);
 
 		// 企業名
 		excelUtil.setVal(dailyReportDownloadDto.getSheetName(),
@@ -290,11 +472,9 @@ public class ReportService {
 		}
 
 		if (dailyReportDownloadDto.getDailyReportFbDtoList() != null) {
-			if (dailyReportDownloadDto.getDailyReportFbDtoList().size() > 1) {
-				for (int i = 1; i < dailyReportDownloadDto.getDailyReportFbDtoList().size(); i++) {
-					excelUtil.sheetCopy("フィードバックコメント", 6, 8, i);
-				}
-			}
+			// 2件目以降のコメント欄はテンプレートの1件目の欄をまとめてコピーする
+			excelUtil.rowBlockCopy("フィードバックコメント", 6, 8,
+					dailyReportDownloadDto.getDailyReportFbDtoList().size() - 1);
 			for (int i = 0; i < dailyReportDownloadDto.getDailyReportFbDtoList().size(); i++) {
 				DailyReportFbDto dailyReportFbDto = dailyReportDownloadDto.getDailyReportFbDtoList()
 						.get(i);
@@ -331,4 +511,66 @@ public class ReportService {
 		return workbookDto;
 	}
 
+	/**
+	 * 一括ダウンロード用のワークブックDTOイテレータ<br>
+	 * 指定順に先行して作成を開始し、作成中のワークブックは並列数までとする
+	 */
+	private class WorkbookDtoIterator implements Iterator<WorkbookDto> {
+
+		private final String[] dailyReportIdList;
+		private final String[] dailyReportSubmitIdList;
+		private final ExecutorService executor;
+		private final Runnable onProgress;
+		/** 作成中・作成済みのワークブック（指定順） */
+		private final Deque<Future<WorkbookDto>> futureDeque = new ArrayDeque<>();
+		/** 次に作成を開始する位置 */
+		private int nextIndex;
+
+		private WorkbookDtoIterator(String[] dailyReportIdList, String[] dailyReportSubmitIdList,
+				ExecutorService executor, Runnable onProgress) {
+			this.dailyReportIdList = dailyReportIdList;
+			this.dailyReportSubmitIdList = dailyReportSubmitIdList;
+			this.executor = executor;
+			this.onProgress = onProgress;
+			fill();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return !futureDeque.isEmpty();
+		}
+
+		@Override
+		public WorkbookDto next() {
+			if (futureDeque.isEmpty()) {
+				throw new NoSuchElementException();
+			}
+			try {
+				WorkbookDto workbookDto = futureDeque.poll().get();
+				onProgress.run();
+				fill();
+				return workbookDto;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+
+		/**
+		 * 並列数まで作成を開始する
+		 */
+		private void fill() {
+			while (futureDeque.size() < downloadParallelism
+					&& nextIndex < dailyReportIdList.length) {
+				Integer dailyReportId = Integer.valueOf(dailyReportIdList[nextIndex]);
+				Integer dailyReportSubmitId = Integer.valueOf(dailyReportSubmitIdList[nextIndex]);
+				futureDeque.add(
+						executor.submit(() -> getWorkbookDto(dailyReportId, dailyReportSubmitId)));
+				nextIndex++;
+			}
+		}
+	}
+
 }
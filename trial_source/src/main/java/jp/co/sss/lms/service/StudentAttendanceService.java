@@ -1,19 +1,31 @@
 package jp.co.sss.lms.service;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import org.apache.commons.lang3.ObjectUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
 
 import jp.co.sss.lms.dto.AttendanceManagementDto;
+import jp.co.sss.lms.dto.CourseAttendanceDto;
+import jp.co.sss.lms.dto.CourseAttendanceUserDto;
 import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.UserAttendanceDto;
 import jp.co.sss.lms.entity.TStudentAttendance;
 import jp.co.sss.lms.enums.AttendanceStatusEnum;
 import jp.co.sss.lms.form.AttendanceForm;
@@ -24,7 +36,9 @@ import jp.co.sss.lms.util.Constants;
 import jp.co.sss.lms.util.DateUtil;
 import jp.co.sss.lms.util.LoginUserUtil;
 import jp.co.sss.lms.util.MessageUtil;
+import jp.co.sss.lms.util.PunchInQueueUtil;
 import jp.co.sss.lms.util.TrainingTime;
+import jp.co.sss.lms.util.UnfilledAttendanceUtil;
 
 /**
  * 勤怠情報（受講生入力）サービス
@@ -34,6 +48,9 @@ import jp.co.sss.lms.util.TrainingTime;
 @Service
 public class StudentAttendanceService {
 
+	/** 一括登録・更新の1文あたりの件数 */
+	private static final int UPSERT_CHUNK_SIZE = 1000;
+
 	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
@@ -46,6 +63,10 @@ public class StudentAttendanceService {
 	private LoginUserDto loginUserDto;
 	@Autowired
 	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private UnfilledAttendanceUtil unfilledAttendanceUtil;
+	@Autowired
+	private PunchInQueueUtil punchInQueueUtil;
 
 	/**
 	 * 勤怠一覧情報取得
@@ -59,8 +80,17 @@ public class StudentAttendanceService {
 
 		// 勤怠管理リストの取得
 		List<AttendanceManagementDto> attendanceManagementDtoList = tStudentAttendanceMapper
-				.getAttendanceManagement(courseId, lmsUserId, Constants.DB_FLG_FALSE);
+				.getAttendanceManagement(courseId, lmsUserId, attendanceUtil.getTrainingDate(),
+						Constants.DB_FLG_FALSE);
+		// 登録待ちの出勤打刻
+		TStudentAttendance pending = punchInQueueUtil.get(lmsUserId,
+				attendanceUtil.getTrainingDate());
 		for (AttendanceManagementDto dto : attendanceManagementDtoList) {
+			// 登録待ちの出勤打刻を反映
+			if (pending != null && pending.getTrainingDate().equals(dto.getTrainingDate())) {
+				dto.setTrainingStartTime(pending.getTrainingStartTime());
+				dto.setStatus(pending.getStatus());
+			}
 			// 中抜け時間を設定
 			if (dto.getBlankTime() != null) {
 				TrainingTime blankTime = attendanceUtil.calcBlankTime(dto.getBlankTime());
@@ -84,20 +114,11 @@ public class StudentAttendanceService {
 	 * @param lmsUserId 受験生番号
 	 * @return 取得した未入力カウント数が0より大きい場合、trueを返し、過去日未入力確認ダイアログを表示
 	 * それ以外はfalseを返す
-	 * 
-	 * @throws ParseException 日付のフォーマット・変換に必要
 	 */
-	public boolean emptiedAttendanceCheck(Integer lmsUserId) throws ParseException {
-
-		//現在日付取得
-		Date date = new Date();
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/MM/dd");
-		String today = sdf.format(date);
-		Date trainingDate = sdf.parse(today);
+	public boolean emptiedAttendanceCheck(Integer lmsUserId) {
 
-		//過去日の未入力数をカウント
-		Integer countEmpty = tStudentAttendanceMapper
-				.notEnterCount(lmsUserId, Constants.DB_FLG_FALSE, trainingDate);
+		//過去日の未入力数を取得（出退勤・勤怠更新時に差分で更新済みの件数）
+		int countEmpty = unfilledAttendanceUtil.getCount(lmsUserId);
 
 		return countEmpty > 0;
 
@@ -119,10 +140,14 @@ public class StudentAttendanceService {
 		if (!attendanceUtil.isWorkDay(loginUserDto.getCourseId(), trainingDate)) {
 			return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_NOTWORKDAY);
 		}
-		// 登録情報チェック
-		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
-				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
-						Constants.DB_FLG_FALSE);
+		// 登録情報チェック（登録待ちの出勤打刻を優先）
+		TStudentAttendance tStudentAttendance = punchInQueueUtil
+				.get(loginUserDto.getLmsUserId(), trainingDate);
+		if (tStudentAttendance == null) {
+			tStudentAttendance = tStudentAttendanceMapper
+					.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
+							Constants.DB_FLG_FALSE);
+		}
 		switch (attendanceType) {
 		case Constants.CODE_VAL_ATWORK:
 			if (tStudentAttendance != null
@@ -141,9 +166,9 @@ public class StudentAttendanceService {
 				// 本日の勤怠情報は既に入力されています。直接編集してください。
 				return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_PUNCHALREADYEXISTS);
 			}
-			TrainingTime trainingStartTime = new TrainingTime(
-					tStudentAttendance.getTrainingStartTime());
-			TrainingTime trainingEndTime = new TrainingTime();
+			TrainingTime trainingStartTime = TrainingTime
+					.valueOf(tStudentAttendance.getTrainingStartTime());
+			TrainingTime trainingEndTime = TrainingTime.now();
 			if (trainingStartTime.compareTo(trainingEndTime) > 0) {
 				// 退勤時刻は出勤時刻より後でなければいけません。
 				return messageUtil.getMessage(Constants.VALID_KEY_ATTENDANCE_TRAININGTIMERANGE);
@@ -164,39 +189,30 @@ public class StudentAttendanceService {
 		// 本日の研修日
 		Date trainingDate = attendanceUtil.getTrainingDate();
 		// 現在の研修時刻
-		TrainingTime trainingStartTime = new TrainingTime();
+		TrainingTime trainingStartTime = TrainingTime.now();
 		// 遅刻早退ステータス
 		AttendanceStatusEnum attendanceStatusEnum = attendanceUtil.getStatus(trainingStartTime,
 				null);
-		// 研修日の勤怠情報取得
-		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
-				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
-						Constants.DB_FLG_FALSE);
-		if (tStudentAttendance == null) {
-			// 登録処理
-			tStudentAttendance = new TStudentAttendance();
-			tStudentAttendance.setLmsUserId(loginUserDto.getLmsUserId());
-			tStudentAttendance.setTrainingDate(trainingDate);
-			tStudentAttendance.setTrainingStartTime(trainingStartTime.toString());
-			tStudentAttendance.setTrainingEndTime("");
-			tStudentAttendance.setStatus(attendanceStatusEnum.code);
-			tStudentAttendance.setNote("");
-			tStudentAttendance.setAccountId(loginUserDto.getAccountId());
-			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
-			tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
-			tStudentAttendance.setFirstCreateDate(date);
-			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
-			tStudentAttendance.setLastModifiedDate(date);
-			tStudentAttendance.setBlankTime(null);
-			tStudentAttendanceMapper.insert(tStudentAttendance);
-		} else {
-			// 更新処理
-			tStudentAttendance.setTrainingStartTime(trainingStartTime.toString());
-			tStudentAttendance.setStatus(attendanceStatusEnum.code);
-			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
-			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
-			tStudentAttendance.setLastModifiedDate(date);
-			tStudentAttendanceMapper.update(tStudentAttendance);
+		// 出勤情報（既に登録済みの行は出勤時刻とステータスのみ更新される）
+		TStudentAttendance tStudentAttendance = new TStudentAttendance();
+		tStudentAttendance.setLmsUserId(loginUserDto.getLmsUserId());
+		tStudentAttendance.setTrainingDate(trainingDate);
+		tStudentAttendance.setTrainingStartTime(trainingStartTime.toString());
+		tStudentAttendance.setTrainingEndTime("");
+		tStudentAttendance.setStatus(attendanceStatusEnum.code);
+		tStudentAttendance.setNote("");
+		tStudentAttendance.setAccountId(loginUserDto.getAccountId());
+		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+		tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
+		tStudentAttendance.setFirstCreateDate(date);
+		tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
+		tStudentAttendance.setLastModifiedDate(date);
+		tStudentAttendance.setBlankTime(null);
+		// 打刻キューへ登録（連打・再送による重複打刻は破棄）
+		if (punchInQueueUtil.offer(tStudentAttendance)) {
+			// 過去日未入力件数へ反映
+			unfilledAttendanceUtil.apply(loginUserDto.getLmsUserId(), trainingDate, false,
+					unfilledAttendanceUtil.isUnfilled(tStudentAttendance));
 		}
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
@@ -212,24 +228,30 @@ public class StudentAttendanceService {
 		Date date = new Date();
 		// 本日の研修日
 		Date trainingDate = attendanceUtil.getTrainingDate();
+		// 登録待ちの出勤打刻を先に登録
+		punchInQueueUtil.flush(loginUserDto.getLmsUserId());
 		// 研修日の勤怠情報取得
 		TStudentAttendance tStudentAttendance = tStudentAttendanceMapper
 				.findByLmsUserIdAndTrainingDate(loginUserDto.getLmsUserId(), trainingDate,
 						Constants.DB_FLG_FALSE);
 		// 出退勤時刻
-		TrainingTime trainingStartTime = new TrainingTime(
-				tStudentAttendance.getTrainingStartTime());
-		TrainingTime trainingEndTime = new TrainingTime();
+		TrainingTime trainingStartTime = TrainingTime
+				.valueOf(tStudentAttendance.getTrainingStartTime());
+		TrainingTime trainingEndTime = TrainingTime.now();
 		// 遅刻早退ステータス
 		AttendanceStatusEnum attendanceStatusEnum = attendanceUtil.getStatus(trainingStartTime,
 				trainingEndTime);
 		// 更新処理
+		boolean unfilled = unfilledAttendanceUtil.isUnfilled(tStudentAttendance);
 		tStudentAttendance.setTrainingEndTime(trainingEndTime.toString());
 		tStudentAttendance.setStatus(attendanceStatusEnum.code);
 		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
 		tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
 		tStudentAttendance.setLastModifiedDate(date);
 		tStudentAttendanceMapper.update(tStudentAttendance);
+		// 過去日未入力件数へ反映
+		unfilledAttendanceUtil.apply(loginUserDto.getLmsUserId(), trainingDate, unfilled,
+				unfilledAttendanceUtil.isUnfilled(tStudentAttendance));
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
 	}
@@ -325,115 +347,386 @@ public class StudentAttendanceService {
 
 		Integer lmsUserId = loginUserUtil.isStudent() ? loginUserDto.getLmsUserId()
 				: attendanceForm.getLmsUserId();
+		// 登録待ちの出勤打刻を先に登録
+		punchInQueueUtil.flush(lmsUserId);
+
+		// 現在の勤怠情報（受講生入力）を研修日をキーに取得
+		Map<Date, TStudentAttendance> tStudentAttendanceMap = new HashMap<>();
+		for (TStudentAttendance entity : tStudentAttendanceMapper.findByLmsUserId(lmsUserId,
+				Constants.DB_FLG_FALSE)) {
+			tStudentAttendanceMap.put(entity.getTrainingDate(), entity);
+		}
 
-		// 現在の勤怠情報（受講生入力）リストを取得
-		List<TStudentAttendance> tStudentAttendanceList = tStudentAttendanceMapper
-				.findByLmsUserId(lmsUserId, Constants.DB_FLG_FALSE);
-
-		// 入力された情報を更新用のエンティティに移し替え
+		// 入力された情報を更新用のエンティティに移し替え、変更のあった行のみ登録用Listへ追加
+		List<TStudentAttendance> tStudentAttendanceList = new ArrayList<>();
 		Date date = new Date();
 		for (DailyAttendanceForm dailyAttendanceForm : attendanceForm.getAttendanceList()) {
 
-			// 更新用エンティティ作成
-			TStudentAttendance tStudentAttendance = new TStudentAttendance();
-			// 日次勤怠フォームから更新用のエンティティにコピー
-			BeanUtils.copyProperties(dailyAttendanceForm, tStudentAttendance);
 			// 研修日付
-			tStudentAttendance
-					.setTrainingDate(dateUtil.parse(dailyAttendanceForm.getTrainingDate()));
-			// 現在の勤怠情報リストのうち、研修日が同じものを更新用エンティティで上書き
-			for (TStudentAttendance entity : tStudentAttendanceList) {
-				if (entity.getTrainingDate().equals(tStudentAttendance.getTrainingDate())) {
-					tStudentAttendance = entity;
-					break;
-				}
+			Date trainingDate = dateUtil.parse(dailyAttendanceForm.getTrainingDate());
+			// 研修日が同じ現在の勤怠情報
+			TStudentAttendance entity = tStudentAttendanceMap.get(trainingDate);
+
+			// 更新用エンティティ作成（変更のない行はnull）
+			TStudentAttendance tStudentAttendance = toAttendanceEntity(dailyAttendanceForm, entity,
+					lmsUserId, trainingDate, date);
+			if (tStudentAttendance != null) {
+				// 登録用Listへ追加
+				tStudentAttendanceList.add(tStudentAttendance);
 			}
-			tStudentAttendance.setLmsUserId(lmsUserId);
-			tStudentAttendance.setAccountId(loginUserDto.getAccountId());
-
-			//出勤退勤時間手入力
-			// 出勤時刻整形
-			//			TrainingTime trainingStartTime = null;
-			//			trainingStartTime = new TrainingTime(dailyAttendanceForm.getTrainingStartTime());
-			//			tStudentAttendance.setTrainingStartTime(trainingStartTime.getFormattedString());
-			//退勤時刻整形
-			//			TrainingTime trainingEndTime = null;
-			//			trainingEndTime = new TrainingTime(dailyAttendanceForm.getTrainingEndTime());
-			//			tStudentAttendance.setTrainingEndTime(trainingEndTime.getFormattedString());
+		}
+		// 登録・更新処理（変更行のみを一括登録）
+		upsert(tStudentAttendanceList);
+		// 過去日未入力件数へ反映
+		for (TStudentAttendance tStudentAttendance : tStudentAttendanceList) {
+			unfilledAttendanceUtil.apply(lmsUserId, tStudentAttendance.getTrainingDate(),
+					unfilledAttendanceUtil.isUnfilled(
+							tStudentAttendanceMap.get(tStudentAttendance.getTrainingDate())),
+					unfilledAttendanceUtil.isUnfilled(tStudentAttendance));
+		}
+		// 完了メッセージ
+		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
+	}
 
-			//Task26：出勤・退勤時間の入力方法変更
-			//出勤・退勤時間を「時」と「分」を分けてプルダウンにする
-			//add: ダンディンフォン
-			TrainingTime trainingStartTime = null;
-			TrainingTime trainingEndTime = null;
-
-			if (dailyAttendanceForm.getTrainingStartTimeHour() == null
-					|| dailyAttendanceForm.getTrainingStartTimeMinute() == null) {
-				tStudentAttendance.setTrainingStartTime("");
-			} else {
-				String trainingStartTimeStr = String.format("%1$02d:%2$02d",
-						dailyAttendanceForm.getTrainingStartTimeHour(),
-						dailyAttendanceForm.getTrainingStartTimeMinute());
-				trainingStartTime = new TrainingTime(trainingStartTimeStr);
-				tStudentAttendance.setTrainingStartTime(trainingStartTime.getFormattedString());
-			}
+	/**
+	 * コース勤怠一覧取得<br>
+	 * 受講生×研修日の勤怠マトリクスを1回の問い合わせで作成する
+	 * 
+	 * @param courseId
+	 * @return コース勤怠一覧DTO
+	 */
+	public CourseAttendanceDto getCourseAttendance(Integer courseId) {
+
+		CourseAttendanceDto courseAttendanceDto = new CourseAttendanceDto();
+		courseAttendanceDto.setCourseId(courseId);
+		courseAttendanceDto.setSectionList(new ArrayList<AttendanceManagementDto>());
+		courseAttendanceDto.setUserList(new ArrayList<CourseAttendanceUserDto>());
+
+		// 企業担当者の場合は自社の受講生のみ
+		Integer companyId = loginUserUtil.isCompany() ? loginUserDto.getCompanyId() : null;
+		Date today = attendanceUtil.getTrainingDate();
+
+		// 受講生・日付順に1行ずつ受け取り、マトリクスへ振り分ける
+		tStudentAttendanceMapper.getCourseAttendance(courseId, companyId,
+				Constants.CODE_VAL_ROLL_STUDENT, Constants.DB_FLG_FALSE, context -> {
+					UserAttendanceDto userAttendanceDto = context.getResultObject();
+					List<CourseAttendanceUserDto> userList = courseAttendanceDto.getUserList();
+					CourseAttendanceUserDto userDto = userList.isEmpty() ? null
+							: userList.get(userList.size() - 1);
+					if (userDto == null
+							|| !userDto.getLmsUserId().equals(userAttendanceDto.getLmsUserId())) {
+						userDto = new CourseAttendanceUserDto();
+						userDto.setLmsUserId(userAttendanceDto.getLmsUserId());
+						userDto.setUserName(userAttendanceDto.getUserName());
+						userDto.setAttendanceList(new ArrayList<AttendanceManagementDto>());
+						userList.add(userDto);
+					}
+					// 同じ日付のセクションが複数ある場合は1列にまとめる
+					List<AttendanceManagementDto> attendanceList = userDto.getAttendanceList();
+					if (!attendanceList.isEmpty() && attendanceList.get(attendanceList.size() - 1)
+							.getTrainingDate().equals(userAttendanceDto.getTrainingDate())) {
+						AttendanceManagementDto dto = attendanceList.get(attendanceList.size() - 1);
+						dto.setSectionName(dto.getSectionName() + "／" + userAttendanceDto.getSectionName());
+						if (userList.size() == 1) {
+							List<AttendanceManagementDto> sectionList = courseAttendanceDto
+									.getSectionList();
+							AttendanceManagementDto sectionDto = sectionList.get(sectionList.size() - 1);
+							sectionDto.setSectionName(
+									sectionDto.getSectionName() + "／" + userAttendanceDto.getSectionName());
+						}
+						return;
+					}
+					// 研修日リストは1人目の受講生の行から作成
+					if (userList.size() == 1) {
+						courseAttendanceDto.setCourseName(userAttendanceDto.getCourseName());
+						AttendanceManagementDto sectionDto = new AttendanceManagementDto();
+						sectionDto.setTrainingDate(userAttendanceDto.getTrainingDate());
+						sectionDto.setSectionName(userAttendanceDto.getSectionName());
+						sectionDto.setIsToday(today.equals(userAttendanceDto.getTrainingDate()));
+						courseAttendanceDto.getSectionList().add(sectionDto);
+					}
+					attendanceList.add(toAttendanceManagementDto(userAttendanceDto));
+				});
 
-			if (dailyAttendanceForm.getTrainingEndTimeHour() == null
-					|| dailyAttendanceForm.getTrainingEndTimeMinute() == null) {
-				tStudentAttendance.setTrainingEndTime("");
-			} else {
-				String trainingEndTimeStr = String.format("%1$02d:%2$02d",
-						dailyAttendanceForm.getTrainingEndTimeHour(),
-						dailyAttendanceForm.getTrainingEndTimeMinute());
-				trainingEndTime = new TrainingTime(trainingEndTimeStr);
-				tStudentAttendance.setTrainingEndTime(trainingEndTime.getFormattedString());
-			}
+		return courseAttendanceDto;
+	}
 
-			// 中抜け時間
-			//tStudentAttendance.setBlankTime(dailyAttendanceForm.getBlankTime());
-			
-			//Task27：入力チェック実装による変更
-			//中抜け時間がnullの場合、0として設定
-			//add:ダンディンフォン
-			if (dailyAttendanceForm.getBlankTime() == null) {
-				tStudentAttendance.setBlankTime(0);
-			} else {
-				tStudentAttendance.setBlankTime(dailyAttendanceForm.getBlankTime());
-			}
+	/**
+	 * ユーザー勤怠情報DTOを勤怠管理画面用DTOに変換
+	 * 
+	 * @param userAttendanceDto
+	 * @return 勤怠管理画面用DTO
+	 */
+	private AttendanceManagementDto toAttendanceManagementDto(UserAttendanceDto userAttendanceDto) {
+		AttendanceManagementDto dto = new AttendanceManagementDto();
+		dto.setStudentAttendanceId(userAttendanceDto.getStudentAttendanceId());
+		dto.setLmsUserId(String.valueOf(userAttendanceDto.getLmsUserId()));
+		dto.setTrainingDate(userAttendanceDto.getTrainingDate());
+		dto.setSectionName(userAttendanceDto.getSectionName());
+		dto.setTrainingStartTime(userAttendanceDto.getTrainingStartTime());
+		dto.setTrainingEndTime(userAttendanceDto.getTrainingEndTime());
+		dto.setStatus(userAttendanceDto.getStatus());
+		dto.setNote(userAttendanceDto.getNote());
+		dto.setBlankTime(userAttendanceDto.getBlankTime());
+		// 中抜け時間を設定
+		if (dto.getBlankTime() != null) {
+			dto.setBlankTimeValue(String.valueOf(attendanceUtil.calcBlankTime(dto.getBlankTime())));
+		}
+		// 遅刻早退区分判定
+		AttendanceStatusEnum statusEnum = AttendanceStatusEnum.getEnum(dto.getStatus());
+		if (statusEnum != null) {
+			dto.setStatusDispName(statusEnum.name);
+		}
+		return dto;
+	}
 
-			// 遅刻早退ステータス
-			if ((trainingStartTime != null || trainingEndTime != null)
-					&& !dailyAttendanceForm.getStatusDispName().equals("欠席")) {
-				AttendanceStatusEnum attendanceStatusEnum = attendanceUtil
-						.getStatus(trainingStartTime, trainingEndTime);
-				tStudentAttendance.setStatus(attendanceStatusEnum.code);
+	/**
+	 * 勤怠一括登録フォームへ設定
+	 * 
+	 * @param courseId
+	 * @param trainingDate "yyyy/M/d"形式の研修日
+	 * @return 勤怠一括登録フォーム
+	 * @throws ParseException
+	 */
+	public AttendanceForm setBulkAttendanceForm(Integer courseId, String trainingDate)
+			throws ParseException {
+
+		AttendanceForm attendanceForm = new AttendanceForm();
+		attendanceForm.setCourseId(courseId);
+		attendanceForm.setAttendanceList(new ArrayList<DailyAttendanceForm>());
+		attendanceForm.setBlankTimes(attendanceUtil.setBlankTime());
+		attendanceForm.setHourMap(attendanceUtil.getHourMap());
+		attendanceForm.setMinuteMap(attendanceUtil.getMinuteMap());
+
+		// コース勤怠一覧から対象日の列を取り出す
+		Date date = dateUtil.parse(trainingDate);
+		CourseAttendanceDto courseAttendanceDto = getCourseAttendance(courseId);
+		for (CourseAttendanceUserDto userDto : courseAttendanceDto.getUserList()) {
+			for (AttendanceManagementDto dto : userDto.getAttendanceList()) {
+				if (!date.equals(dto.getTrainingDate())) {
+					continue;
+				}
+				DailyAttendanceForm dailyAttendanceForm = new DailyAttendanceForm();
+				dailyAttendanceForm.setLmsUserId(String.valueOf(userDto.getLmsUserId()));
+				dailyAttendanceForm.setUserName(userDto.getUserName());
+				dailyAttendanceForm.setCourseName(courseAttendanceDto.getCourseName());
+				dailyAttendanceForm.setStudentAttendanceId(dto.getStudentAttendanceId());
+				dailyAttendanceForm.setTrainingDate(trainingDate);
+				dailyAttendanceForm.setDispTrainingDate(
+						dateUtil.dateToString(dto.getTrainingDate(), "yyyy年M月d日(E)"));
+				dailyAttendanceForm.setSectionName(dto.getSectionName());
+				dailyAttendanceForm.setTrainingStartTimeHour(
+						attendanceUtil.getHour(dto.getTrainingStartTime()));
+				dailyAttendanceForm.setTrainingStartTimeMinute(
+						attendanceUtil.getMinute(dto.getTrainingStartTime()));
+				dailyAttendanceForm.setTrainingEndTimeHour(
+						attendanceUtil.getHour(dto.getTrainingEndTime()));
+				dailyAttendanceForm.setTrainingEndTimeMinute(
+						attendanceUtil.getMinute(dto.getTrainingEndTime()));
+				dailyAttendanceForm.setBlankTime(dto.getBlankTime());
+				dailyAttendanceForm.setNote(dto.getNote());
+				dailyAttendanceForm.setStatusDispName(dto.getStatusDispName());
+				attendanceForm.getAttendanceList().add(dailyAttendanceForm);
+				break;
 			}
-			// 備考
-			tStudentAttendance.setNote(dailyAttendanceForm.getNote());
+		}
+		return attendanceForm;
+	}
 
-			// 更新者と更新日時
-			tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
-			tStudentAttendance.setLastModifiedDate(date);
-			// 削除フラグ
-			tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+	/**
+	 * 勤怠一括登録処理<br>
+	 * 複数受講生の勤怠を、変更のあった行のみ一括で登録・更新する
+	 * 
+	 * @param attendanceForm
+	 * @return 完了メッセージ
+	 * @throws ParseException
+	 */
+	@Transactional(rollbackFor = ParseException.class)
+	public String bulkRegist(AttendanceForm attendanceForm) throws ParseException {
+
+		// 登録待ちの出勤打刻を先に登録
+		punchInQueueUtil.flushAll();
+
+		// 研修日毎に現在の勤怠情報を取得
+		Map<Date, Map<Integer, TStudentAttendance>> tStudentAttendanceMap = new HashMap<>();
+		List<TStudentAttendance> tStudentAttendanceList = new ArrayList<>();
+		Date date = new Date();
+		for (DailyAttendanceForm dailyAttendanceForm : attendanceForm.getAttendanceList()) {
 
-			// 登録用Listへ追加
-			tStudentAttendanceList.add(tStudentAttendance);
+			Integer lmsUserId = Integer.valueOf(dailyAttendanceForm.getLmsUserId());
+			Date trainingDate = dateUtil.parse(dailyAttendanceForm.getTrainingDate());
+			Map<Integer, TStudentAttendance> userMap = tStudentAttendanceMap
+					.computeIfAbsent(trainingDate, key -> {
+						Map<Integer, TStudentAttendance> map = new HashMap<>();
+						for (TStudentAttendance entity : tStudentAttendanceMapper
+								.findByCourseIdAndTrainingDate(attendanceForm.getCourseId(), key,
+										Constants.DB_FLG_FALSE)) {
+							map.put(entity.getLmsUserId(), entity);
+						}
+						return map;
+					});
+
+			TStudentAttendance tStudentAttendance = toAttendanceEntity(dailyAttendanceForm,
+					userMap.get(lmsUserId), lmsUserId, trainingDate, date);
+			if (tStudentAttendance != null) {
+				tStudentAttendanceList.add(tStudentAttendance);
+			}
 		}
 		// 登録・更新処理
+		upsert(tStudentAttendanceList);
+		// 更新した受講生の過去日未入力件数はコミット後に破棄し、次回表示時に再集計
+		List<Integer> lmsUserIdList = new ArrayList<>();
 		for (TStudentAttendance tStudentAttendance : tStudentAttendanceList) {
-			if (tStudentAttendance.getStudentAttendanceId() == null) {
-				tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
-				tStudentAttendance.setFirstCreateDate(date);
-				tStudentAttendanceMapper.insert(tStudentAttendance);
-			} else {
-				tStudentAttendanceMapper.update(tStudentAttendance);
-			}
+			lmsUserIdList.add(tStudentAttendance.getLmsUserId());
 		}
+		unfilledAttendanceUtil.evictAfterCommit(lmsUserIdList);
 		// 完了メッセージ
 		return messageUtil.getMessage(Constants.PROP_KEY_ATTENDANCE_UPDATE_NOTICE);
 	}
 
+	/**
+	 * 勤怠情報を一括登録・更新する<br>
+	 * バインド変数の上限を超えないよう、一定件数毎に分割して登録する
+	 * 
+	 * @param tStudentAttendanceList
+	 */
+	private void upsert(List<TStudentAttendance> tStudentAttendanceList) {
+		for (int from = 0; from < tStudentAttendanceList.size(); from += UPSERT_CHUNK_SIZE) {
+			int to = Math.min(from + UPSERT_CHUNK_SIZE, tStudentAttendanceList.size());
+			tStudentAttendanceMapper.upsertList(tStudentAttendanceList.subList(from, to));
+		}
+	}
+
+	/**
+	 * 日次勤怠フォームから登録・更新用の勤怠情報を作成
+	 * 
+	 * @param dailyAttendanceForm 日次勤怠フォーム
+	 * @param entity              現在の勤怠情報（未登録の場合はnull）
+	 * @param lmsUserId
+	 * @param trainingDate        研修日付
+	 * @param date                更新日時
+	 * @return 登録・更新用の勤怠情報（変更がない場合はnull）
+	 */
+	private TStudentAttendance toAttendanceEntity(DailyAttendanceForm dailyAttendanceForm,
+			TStudentAttendance entity, Integer lmsUserId, Date trainingDate, Date date) {
+
+		// 更新用エンティティ作成
+		TStudentAttendance tStudentAttendance = new TStudentAttendance();
+		if (entity == null) {
+			// 日次勤怠フォームから更新用のエンティティにコピー
+			BeanUtils.copyProperties(dailyAttendanceForm, tStudentAttendance);
+		} else {
+			// 変更有無を判定するため、現在の勤怠情報を複製して更新用エンティティとする
+			BeanUtils.copyProperties(entity, tStudentAttendance);
+		}
+		tStudentAttendance.setTrainingDate(trainingDate);
+		tStudentAttendance.setLmsUserId(lmsUserId);
+		tStudentAttendance.setAccountId(loginUserDto.getAccountId());
+
+		//出勤退勤時間手入力
+		// 出勤時刻整形
+		//			TrainingTime trainingStartTime = null;
+		//			trainingStartTime = new TrainingTime(dailyAttendanceForm.getTrainingStartTime());
+		//			tStudentAttendance.setTrainingStartTime(trainingStartTime.getFormattedString());
+		//退勤時刻整形
+		//			TrainingTime trainingEndTime = null;
+		//			trainingEndTime = new TrainingTime(dailyAttendanceForm.getTrainingEndTime());
+		//			tStudentAttendance.setTrainingEndTime(trainingEndTime.getFormattedString());
+
+		//Task26：出勤・退勤時間の入力方法変更
+		//出勤・退勤時間を「時」と「分」を分けてプルダウンにする
+		//add: ダンディンフォン
+		TrainingTime trainingStartTime = null;
+		TrainingTime trainingEndTime = null;
+
+		if (dailyAttendanceForm.getTrainingStartTimeHour() == null
+				|| dailyAttendanceForm.getTrainingStartTimeMinute() == null) {
+			tStudentAttendance.setTrainingStartTime("");
+		} else {
+			trainingStartTime = TrainingTime.valueOf(
+					dailyAttendanceForm.getTrainingStartTimeHour(),
+					dailyAttendanceForm.getTrainingStartTimeMinute());
+			tStudentAttendance.setTrainingStartTime(trainingStartTime.getFormattedString());
+		}
+
+		if (dailyAttendanceForm.getTrainingEndTimeHour() == null
+				|| dailyAttendanceForm.getTrainingEndTimeMinute() == null) {
+			tStudentAttendance.setTrainingEndTime("");
+		} else {
+			trainingEndTime = TrainingTime.valueOf(
+					dailyAttendanceForm.getTrainingEndTimeHour(),
+					dailyAttendanceForm.getTrainingEndTimeMinute());
+			tStudentAttendance.setTrainingEndTime(trainingEndTime.getFormattedString());
+		}
+
+		// 中抜け時間
+		//tStudentAttendance.setBlankTime(dailyAttendanceForm.getBlankTime());
+		
+		//Task27：入力チェック実装による変更
+		//中抜け時間がnullの場合、0として設定
+		//add:ダンディンフォン
+		if (dailyAttendanceForm.getBlankTime() == null) {
+			tStudentAttendance.setBlankTime(0);
+		} else {
+			tStudentAttendance.setBlankTime(dailyAttendanceForm.getBlankTime());
+		}
+
+		// 遅刻早退ステータス
+		if ((trainingStartTime != null || trainingEndTime != null)
+				&& !AttendanceStatusEnum.ABSENT.name.equals(dailyAttendanceForm.getStatusDispName())) {
+			AttendanceStatusEnum attendanceStatusEnum = attendanceUtil
+					.getStatus(trainingStartTime, trainingEndTime);
+			tStudentAttendance.setStatus(attendanceStatusEnum.code);
+		}
+		// 備考
+		tStudentAttendance.setNote(dailyAttendanceForm.getNote());
+		// 削除フラグ
+		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+
+		// 変更のない行は登録・更新しない
+		if (!isModified(entity, tStudentAttendance)) {
+			return null;
+		}
+
+		// 更新者と更新日時
+		tStudentAttendance.setLastModifiedUser(loginUserDto.getLmsUserId());
+		tStudentAttendance.setLastModifiedDate(date);
+		if (entity == null) {
+			tStudentAttendance.setFirstCreateUser(loginUserDto.getLmsUserId());
+			tStudentAttendance.setFirstCreateDate(date);
+		}
+
+		return tStudentAttendance;
+	}
+
+	/**
+	 * 勤怠情報の変更有無を判定
+	 * 
+	 * @param before 現在の勤怠情報（未登録の場合はnull）
+	 * @param after  更新用の勤怠情報
+	 * @return 登録・更新が必要な場合はtrue
+	 */
+	private boolean isModified(TStudentAttendance before, TStudentAttendance after) {
+		if (before == null) {
+			// 未登録の日は、何か入力があった場合のみ登録する
+			return StringUtils.isNotEmpty(after.getTrainingStartTime())
+					|| StringUtils.isNotEmpty(after.getTrainingEndTime())
+					|| StringUtils.isNotEmpty(after.getNote())
+					|| (after.getBlankTime() != null && after.getBlankTime() != 0);
+		}
+		// 未入力（nullと空文字、nullと0）は同一とみなす
+		return !StringUtils.defaultString(before.getTrainingStartTime())
+				.equals(StringUtils.defaultString(after.getTrainingStartTime()))
+				|| !StringUtils.defaultString(before.getTrainingEndTime())
+						.equals(StringUtils.defaultString(after.getTrainingEndTime()))
+				|| !StringUtils.defaultString(before.getNote())
+						.equals(StringUtils.defaultString(after.getNote()))
+				|| !Objects.equals(before.getStatus(), after.getStatus())
+				|| !Objects.equals(before.getDeleteFlg(), after.getDeleteFlg())
+				|| !Objects.equals(ObjectUtils.defaultIfNull(before.getBlankTime(), 0),
+						ObjectUtils.defaultIfNull(after.getBlankTime(), 0));
+	}
+
 	/**
 	 * Task 27：入力チェックの実装
 	 * @author ダンディンフォン
@@ -536,4 +829,52 @@ public class StudentAttendanceService {
 		attendanceForm.setMinuteMap(attendanceUtil.getMinuteMap());
 	}
 
+	/**
+	 * 勤怠一括登録の入力チェック<br>
+	 * 各行の受講生・研修日がコースの受講生・研修日であることをサーバー側で確認する
+	 * 
+	 * @param attendanceForm 勤怠フォーム
+	 * @param result         発生したエラーに対するエラーメッセージをBindingResultに追加
+	 */
+	public void bulkInputCheck(AttendanceForm attendanceForm, BindingResult result) {
+
+		inputCheck(attendanceForm, result);
+
+		// コースの受講生・研修日（企業担当者の場合は自社の受講生のみ）
+		CourseAttendanceDto courseAttendanceDto = getCourseAttendance(attendanceForm.getCourseId());
+		Set<Integer> lmsUserIdSet = new HashSet<>();
+		for (CourseAttendanceUserDto userDto : courseAttendanceDto.getUserList()) {
+			lmsUserIdSet.add(userDto.getLmsUserId());
+		}
+		Set<Date> trainingDateSet = new HashSet<>();
+		for (AttendanceManagementDto sectionDto : courseAttendanceDto.getSectionList()) {
+			trainingDateSet.add(sectionDto.getTrainingDate());
+		}
+
+		// 同じ受講生・研修日の行が複数ないこともチェック
+		Set<String> keySet = new HashSet<>();
+		for (DailyAttendanceForm daily : attendanceForm.getAttendanceList()) {
+			Integer lmsUserId = NumberUtils.isDigits(daily.getLmsUserId())
+					? Integer.valueOf(daily.getLmsUserId())
+					: null;
+			if (lmsUserId == null || !lmsUserIdSet.contains(lmsUserId)) {
+				result.addError(new ObjectError(result.getObjectName(), messageUtil
+						.getMessage(Constants.VALID_KEY_INVALID, new String[] { "受講生" })));
+				return;
+			}
+			Date trainingDate;
+			try {
+				trainingDate = dateUtil.parse(daily.getTrainingDate());
+			} catch (ParseException e) {
+				trainingDate = null;
+			}
+			if (trainingDate == null || !trainingDateSet.contains(trainingDate)
+					|| !keySet.add(lmsUserId + "_" + trainingDate.getTime())) {
+				result.addError(new ObjectError(result.getObjectName(), messageUtil
+						.getMessage(Constants.VALID_KEY_INVALID, new String[] { "研修日" })));
+				return;
+			}
+		}
+	}
+
 }
@@ -85,4 +85,20 @@ public class UserService {
 		return lmsUserDto;
 	}
 
+	/**
+	 * 参照可能なユーザーかの判定<br>
+	 * 企業アカウントの場合は自企業に所属するユーザーのみ参照可能とする
+	 * 
+	 * @param lmsUserId
+	 * @return 参照可能な場合true
+	 */
+	public boolean isAccessibleUser(Integer lmsUserId) {
+
+		if (!loginUserUtil.isCompany()) {
+			return true;
+		}
+		return lmsUserId != null && mLmsUserMapper.existsCompanyUser(lmsUserId,
+				loginUserDto.getCompanyId(), Constants.DB_FLG_FALSE);
+	}
+
 }
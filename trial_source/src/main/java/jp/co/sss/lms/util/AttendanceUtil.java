@@ -1,6 +1,5 @@
 package jp.co.sss.lms.util;
 
-import java.text.ParseException;
 import java.util.Date;
 import java.util.LinkedHashMap;
 
@@ -8,7 +7,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import jp.co.sss.lms.enums.AttendanceStatusEnum;
-import jp.co.sss.lms.mapper.MSectionMapper;
 
 /**
  * 勤怠管理のユーティリティクラス
@@ -21,7 +19,7 @@ public class AttendanceUtil {
 	@Autowired
 	private DateUtil dateUtil;
 	@Autowired
-	private MSectionMapper mSectionMapper;
+	private CourseCalendarUtil courseCalendarUtil;
 
 	/**
 	 * SSS定時・出退勤時間を元に、遅刻早退を判定をする
@@ -82,7 +80,7 @@ public class AttendanceUtil {
 	public TrainingTime calcBlankTime(int min) {
 		int hour = min / 60;
 		int minute = min % 60;
-		TrainingTime total = new TrainingTime(hour, minute);
+		TrainingTime total = TrainingTime.valueOf(hour, minute);
 		return total;
 	}
 
@@ -92,14 +90,7 @@ public class AttendanceUtil {
 	 * @return "yyyy/M/d"形式の日付
 	 */
 	public Date getTrainingDate() {
-		Date trainingDate;
-		try {
-			trainingDate = dateUtil.parse(dateUtil.toString(new Date()));
-		} catch (ParseException e) {
-			// DateUtil#toStringとparseは同様のフォーマットを使用しているため、起こりえないエラー
-			throw new IllegalStateException();
-		}
-		return trainingDate;
+		return dateUtil.getCurrentDate();
 	}
 
 	/**
@@ -182,11 +173,7 @@ public class AttendanceUtil {
 	 * @return 判定結果
 	 */
 	public boolean isWorkDay(Integer courseId, Date trainingDate) {
-		Integer count = mSectionMapper.getSectionCountByCourseId(courseId, trainingDate);
-		if (count > 0) {
-			return true;
-		}
-		return false;
+		return courseCalendarUtil.isWorkDay(courseId, trainingDate);
 	}
 
 }
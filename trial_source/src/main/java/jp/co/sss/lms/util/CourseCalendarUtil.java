@@ -0,0 +1,160 @@
+package jp.co.sss.lms.util;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.entity.MCourse;
+import jp.co.sss.lms.mapper.MCourseMapper;
+import jp.co.sss.lms.mapper.MSectionMapper;
+
+/**
+ * コース研修日カレンダーのユーティリティクラス<br>
+ * コースごとのセクション日付を一度だけ読み込み、研修日判定をメモリ上で行う<br>
+ * 全コースの研修日カレンダーのバージョンを定期的に確認し、変わったコースは次回判定時に読み込み直す
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class CourseCalendarUtil {
+
+	@Autowired
+	private MCourseMapper mCourseMapper;
+	@Autowired
+	private MSectionMapper mSectionMapper;
+	@Autowired
+	private DateUtil dateUtil;
+
+	/** カレンダーの有効期間（分） */
+	@Value("${setting.calendar.expire.minute}")
+	private Integer expireMinute;
+
+	/** コースID毎の研修日カレンダー */
+	private final ConcurrentMap<Integer, CourseCalendar> calendarMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 研修日の判定
+	 *
+	 * @param courseId
+	 * @param trainingDate
+	 * @return 判定結果
+	 */
+	public boolean isWorkDay(Integer courseId, Date trainingDate) {
+		if (courseId == null || trainingDate == null) {
+			return false;
+		}
+		CourseCalendar calendar = calendarMap.get(courseId);
+		if (calendar == null || calendar.isExpired()) {
+			calendar = calendarMap.compute(courseId, (key, current) -> current == null
+					|| current.isExpired() ? load(key) : current);
+		}
+		return calendar.contains(dateUtil.toLocalDate(trainingDate));
+	}
+
+	/**
+	 * バージョンの確認<br>
+	 * バージョンが変わったコース・削除されたコースのカレンダーを破棄する
+	 */
+	@Scheduled(fixedDelayString = "${setting.calendar.refresh.millisecond}")
+	public void refresh() {
+		if (calendarMap.isEmpty()) {
+			return;
+		}
+		Map<Integer, Long> versionMap = new HashMap<>();
+		for (MCourse mCourse : mCourseMapper.getCalendarVersionList()) {
+			versionMap.put(mCourse.getCourseId(), mCourse.getCalendarVersion());
+		}
+		calendarMap.forEach((courseId, calendar) -> {
+			if (!Objects.equals(calendar.version, versionMap.get(courseId))) {
+				calendarMap.remove(courseId, calendar);
+			}
+		});
+	}
+
+	/**
+	 * セクション日付からカレンダーを作成<br>
+	 * バージョンを先に取得し、読み込み中に更新された場合は次回の確認で破棄されるようにする
+	 *
+	 * @param courseId
+	 * @return 研修日カレンダー
+	 */
+	private CourseCalendar load(Integer courseId) {
+		Long version = mCourseMapper.getCalendarVersion(courseId);
+		List<Date> sectionDateList = mSectionMapper.getSectionDateListByCourseId(courseId);
+		LocalDate baseDate = null;
+		for (Date sectionDate : sectionDateList) {
+			LocalDate date = dateUtil.toLocalDate(sectionDate);
+			if (baseDate == null || date.isBefore(baseDate)) {
+				baseDate = date;
+			}
+		}
+		BitSet workDays = new BitSet();
+		for (Date sectionDate : sectionDateList) {
+			workDays.set(
+					(int) ChronoUnit.DAYS.between(baseDate, dateUtil.toLocalDate(sectionDate)));
+		}
+		long expireTime = System.nanoTime() + TimeUnit.MINUTES.toNanos(expireMinute);
+		return new CourseCalendar(version, baseDate, workDays, expireTime);
+	}
+
+	/**
+	 * コース研修日カレンダー<br>
+	 * 最初の研修日からの経過日数をビット位置とした研修日の集合
+	 */
+	private static final class CourseCalendar {
+
+		/** 読み込み時の研修日カレンダーのバージョン（コースが存在しない場合はnull） */
+		private final Long version;
+		/** 基準日（最初の研修日） */
+		private final LocalDate baseDate;
+		/** 研修日ビットマップ */
+		private final BitSet workDays;
+		/** 有効期限（System#nanoTime基準） */
+		private final long expireTime;
+
+		private CourseCalendar(Long version, LocalDate baseDate, BitSet workDays,
+				long expireTime) {
+			this.version = version;
+			this.baseDate = baseDate;
+			this.workDays = workDays;
+			this.expireTime = expireTime;
+		}
+
+		/**
+		 * 研修日に含まれるか判定
+		 *
+		 * @param date
+		 * @return 研修日の場合true
+		 */
+		private boolean contains(LocalDate date) {
+			if (baseDate == null) {
+				return false;
+			}
+			long offset = ChronoUnit.DAYS.between(baseDate, date);
+			return offset >= 0 && offset <= Integer.MAX_VALUE && workDays.get((int) offset);
+		}
+
+		/**
+		 * 有効期限切れか判定
+		 *
+		 * @return 有効期限切れの場合true
+		 */
+		private boolean isExpired() {
+			return System.nanoTime() - expireTime > 0;
+		}
+	}
+
+}
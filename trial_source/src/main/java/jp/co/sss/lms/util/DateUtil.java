@@ -2,16 +2,74 @@ package jp.co.sss.lms.util;
 
 import java.sql.Timestamp;
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.format.TextStyle;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAdjusters;
+import java.time.temporal.TemporalQueries;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Locale;
 import java.util.StringTokenizer;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+/**
+ * 日付のユーティリティクラス<br>
+ * java.timeで日付を扱い、フォーマッタは書式毎に1度だけ作成して共有する<br>
+ * 現在日時は差し替え可能なClockから取得する
+ * 
+ * @author 東京ITスクール
+ */
 @Component
 public class DateUtil {
+
+	/** "yyyy/M/d"形式 */
+	private static final DateTimeFormatter YMD_FORMATTER = DateTimeFormatter.ofPattern("yyyy/M/d");
+	/** "yyyy/MM/dd HH:mm:ss"形式 */
+	private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter
+			.ofPattern("yyyy/MM/dd HH:mm:ss");
+	/** 書式・ロケール毎のフォーマッタ */
+	private static final ConcurrentMap<String, DateTimeFormatter> FORMATTER_MAP = new ConcurrentHashMap<>();
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** 現在日時の取得元 */
+	private Clock clock = Clock.systemDefaultZone();
+
+	/**
+	 * 現在日時の取得元を取得
+	 * 
+	 * @return Clock
+	 */
+	public Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * 現在日時の取得元を設定（試験用）
+	 * 
+	 * @param clock
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+	}
+
 	/**
 	 * Date型日付を"yyyy/M/d"形式にフォーマット
 	 * 
@@ -19,8 +77,7 @@ public class DateUtil {
 	 * @return "yyyy/M/d"形式日付
 	 */
 	public String toString(Date date) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/M/d");
-		return sdf.format(date);
+		return YMD_FORMATTER.format(toZonedDateTime(date));
 	}
 
 	/**
@@ -31,8 +88,7 @@ public class DateUtil {
 	 * @return 任意の形式の日付
 	 */
 	public String toString(Date date, String fmt) {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		return sdf.format(date);
+		return getFormatter(fmt).format(toZonedDateTime(date));
 	}
 
 	/**
@@ -42,8 +98,7 @@ public class DateUtil {
 	 * @return "yyyy/M/d"形式の日付
 	 */
 	public Date parse(String date) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/M/d");
-		return sdf.parse(date);
+		return parse(date, YMD_FORMATTER);
 	}
 
 	/**
@@ -54,8 +109,7 @@ public class DateUtil {
 	 * @return 任意の形式の日付
 	 */
 	public Date parse(String date, String fmt) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		return sdf.parse(date);
+		return parse(date, getFormatter(fmt));
 	}
 
 	/**
@@ -65,7 +119,7 @@ public class DateUtil {
 	 * @return 年齢
 	 */
 	public int calcAge(Date birthday) {
-		return calcAge(birthday, new Date());
+		return calcAge(birthday, Date.from(clock.instant()));
 	}
 
 	/**
@@ -76,8 +130,7 @@ public class DateUtil {
 	 * @return 年齢
 	 */
 	public int calcAge(Date birthday, Date now) {
-		SimpleDateFormat sdf = new SimpleDateFormat("yyyyMMdd");
-		return (Integer.parseInt(sdf.format(now)) - Integer.parseInt(sdf.format(birthday))) / 10000;
+		return (toYmd(toLocalDate(now)) - toYmd(toLocalDate(birthday))) / 10000;
 	}
 
 	/**
@@ -94,18 +147,8 @@ public class DateUtil {
 		if (t1 == null || t2 == null) {
 			return null;
 		}
-
-		Calendar cal1 = Calendar.getInstance();
-		cal1.setTimeInMillis(t1.getTime());
-
-		Calendar cal2 = Calendar.getInstance();
-		cal2.setTimeInMillis(t2.getTime());
-
-		cal1.set(Calendar.YEAR, cal2.get(Calendar.YEAR));
-		cal1.set(Calendar.MONTH, cal2.get(Calendar.MONTH));
-		cal1.set(Calendar.DATE, cal2.get(Calendar.DATE));
-
-		return new Timestamp(cal1.getTimeInMillis());
+		LocalDateTime dateTime = toLocalDate(t2).atTime(toLocalDateTime(t1).toLocalTime());
+		return new Timestamp(toDate(dateTime).getTime());
 	}
 
 	/**
@@ -118,7 +161,7 @@ public class DateUtil {
 	 * @throws ParseException 日付フォーマットが不正な場合
 	 */
 	public int differenceDays(String strDate1, String strDate2) throws ParseException {
-		return differenceDays(strDate1, strDate2, "yyyy/M/d");
+		return differenceDays(parse(strDate1), parse(strDate2));
 	}
 
 	/**
@@ -132,10 +175,7 @@ public class DateUtil {
 	 * @throws ParseException 日付フォーマットが不正な場合
 	 */
 	public int differenceDays(String strDate1, String strDate2, String fmt) throws ParseException {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
-		Date date1 = sdf.parse(strDate1);
-		Date date2 = sdf.parse(strDate2);
-		return differenceDays(date1, date2);
+		return differenceDays(parse(strDate1, fmt), parse(strDate2, fmt));
 	}
 
 	/**
@@ -170,13 +210,7 @@ public class DateUtil {
 	 */
 	public Calendar getCalendar(String arg, String key) {
 		String[] strDate = arg.split(key);
-
-		Calendar calendar = Calendar.getInstance();
-		calendar.set(Integer.parseInt(strDate[0]), Integer.parseInt(strDate[1]) - 1,
-				Integer.parseInt(strDate[2]), 0, 0, 0);
-		calendar.set(Calendar.MILLISECOND, 0);
-
-		return calendar;
+		return newCalendar(strDate[0], strDate[1], strDate[2]);
 	}
 
 	/**
@@ -189,13 +223,7 @@ public class DateUtil {
 	 */
 	public static Calendar getCalendar(String arg, String key, String day) {
 		String[] strDate = arg.split(key);
-
-		Calendar calendar = Calendar.getInstance();
-		calendar.set(Integer.parseInt(strDate[0]), Integer.parseInt(strDate[1]) - 1,
-				Integer.parseInt(day), 0, 0, 0);
-		calendar.set(Calendar.MILLISECOND, 0);
-
-		return calendar;
+		return newCalendar(strDate[0], strDate[1], day);
 	}
 
 	/**
@@ -204,8 +232,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String getCurrentDateString() {
-		Date date = new Date();
-		return dateToString(date);
+		return DATE_TIME_FORMATTER.format(LocalDateTime.now(clock));
 	}
 
 	/**
@@ -214,8 +241,43 @@ public class DateUtil {
 	 * @return
 	 */
 	public String getCurrentDateString(String fmt) {
-		Date date = new Date();
-		return dateToString(date, fmt);
+		return getFormatter(fmt).format(ZonedDateTime.now(clock));
+	}
+
+	/**
+	 * 現在日時をCalendar型（秒単位）で取得
+	 * 
+	 * @return 現在日時
+	 */
+	public Calendar getCurrentCalendar() {
+		return toCalendar(getCurrentTimestamp());
+	}
+
+	/**
+	 * 現在日時をTimestamp型（秒単位）で取得
+	 * 
+	 * @return 現在日時
+	 */
+	public Timestamp getCurrentTimestamp() {
+		return new Timestamp(clock.instant().truncatedTo(ChronoUnit.SECONDS).toEpochMilli());
+	}
+
+	/**
+	 * 本日日付（時刻なし）を取得
+	 * 
+	 * @return 本日日付
+	 */
+	public Date getCurrentDate() {
+		return toDate(getCurrentLocalDate());
+	}
+
+	/**
+	 * 本日日付をLocalDate型で取得
+	 * 
+	 * @return 本日日付
+	 */
+	public LocalDate getCurrentLocalDate() {
+		return LocalDate.now(clock);
 	}
 
 	/**
@@ -226,8 +288,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String dateToString(Date time, String format) {
-		SimpleDateFormat sdf = new SimpleDateFormat(format);
-		return sdf.format(time);
+		return getFormatter(format).format(toZonedDateTime(time));
 	}
 
 	/**
@@ -238,8 +299,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String dateToStringJ(Date time, String format) {
-		SimpleDateFormat sdf = new SimpleDateFormat(format, Locale.JAPANESE);
-		return sdf.format(time);
+		return getFormatter(format, Locale.JAPANESE).format(toZonedDateTime(time));
 	}
 
 	/**
@@ -249,7 +309,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public String dateToString(Date time) {
-		return dateToString(time, "yyyy/MM/dd HH:mm:ss");
+		return DATE_TIME_FORMATTER.format(toZonedDateTime(time));
 	}
 
 	/**
@@ -259,9 +319,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Calendar timestampToCalender(Timestamp time) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTimeInMillis(time.getTime());
-		return cal;
+		return toCalendar(time);
 	}
 
 	/**
@@ -271,8 +329,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Timestamp calenderToTimestamp(Calendar cal) {
-		Timestamp time = new Timestamp(cal.getTime().getTime());
-		return time;
+		return new Timestamp(cal.getTimeInMillis());
 	}
 
 	/**
@@ -282,7 +339,7 @@ public class DateUtil {
 	 * @return stringToTimestamp()
 	 */
 	public Timestamp stringToTimestamp(String time) {
-		return stringToTimestamp(time, "yyyy/MM/dd HH:mm:ss");
+		return stringToTimestamp(time, DATE_TIME_FORMATTER);
 	}
 
 	/**
@@ -293,14 +350,7 @@ public class DateUtil {
 	 * @return stringToTimestamp()
 	 */
 	public Timestamp stringToTimestamp(String time, String fmt) {
-		Timestamp dateTime = null;
-		try {
-			Long dateTimeLong = new SimpleDateFormat(fmt).parse(time).getTime();
-			dateTime = new Timestamp(dateTimeLong);
-		} catch (ParseException e) {
-			e.printStackTrace();
-		}
-		return dateTime;
+		return stringToTimestamp(time, getFormatter(fmt));
 	}
 
 	/**
@@ -322,14 +372,7 @@ public class DateUtil {
 	 */
 	public java.sql.Date stringToSqlDate(String date, String format) {
 		try {
-			Date d = new SimpleDateFormat(format).parse(date);
-			Calendar cal = Calendar.getInstance();
-			cal.setTime(d);
-			cal.set(Calendar.HOUR_OF_DAY, 0);
-			cal.set(Calendar.MINUTE, 0);
-			cal.set(Calendar.SECOND, 0);
-			cal.set(Calendar.MILLISECOND, 0);
-			return new java.sql.Date(cal.getTimeInMillis());
+			return java.sql.Date.valueOf(toLocalDate(parse(date, format)));
 		} catch (ParseException e) {
 			return null;
 		}
@@ -344,13 +387,24 @@ public class DateUtil {
 	 */
 	public Date stringToDate(String date, String format) {
 		try {
-			Date d = new SimpleDateFormat(format).parse(date);
-			return d;
+			return parse(date, format);
 		} catch (ParseException e) {
 			return null;
 		}
 	}
 
+	/**
+	 * Date型、Timestamp型をCalendar型に変換
+	 * 
+	 * @param date
+	 * @return Calendar
+	 */
+	public Calendar toCalendar(Date date) {
+		Calendar cal = Calendar.getInstance(TimeZone.getTimeZone(clock.getZone()));
+		cal.setTimeInMillis(date.getTime());
+		return cal;
+	}
+
 	/**
 	 * 指定された日付・時刻文字列を、可能であれば Calendarクラスに変換します。<br>
 	 * 以下の形式の日付文字列を変換できます。
@@ -367,50 +421,35 @@ public class DateUtil {
 	 */
 	public Calendar toCalendar(String strDate) {
 		strDate = format(strDate);
-		Calendar cal = Calendar.getInstance();
-		cal.setLenient(false);
-
 		int yyyy = Integer.parseInt(strDate.substring(0, 4));
 		int MM = Integer.parseInt(strDate.substring(5, 7));
 		int dd = Integer.parseInt(strDate.substring(8, 10));
-		int HH = cal.get(Calendar.HOUR_OF_DAY);
-		int mm = cal.get(Calendar.MINUTE);
-		int ss = cal.get(Calendar.SECOND);
-		int SSS = cal.get(Calendar.MILLISECOND);
-		cal.clear();
-		cal.set(yyyy, MM - 1, dd);
+		int HH = 0;
+		int mm = 0;
+		int ss = 0;
+		int SSS = 0;
 		int len = strDate.length();
 		switch (len) {
 		case 10:
 			break;
-		case 16: // yyyy/MM/dd HH:mm
-			HH = Integer.parseInt(strDate.substring(11, 13));
-			mm = Integer.parseInt(strDate.substring(14, 16));
-			cal.set(Calendar.HOUR_OF_DAY, HH);
-			cal.set(Calendar.MINUTE, mm);
-			break;
+		case 23: // yyyy/MM/dd HH:mm:ss.SSS
+			SSS = Integer.parseInt(strDate.substring(20, 23));
 		case 19: // yyyy/MM/dd HH:mm:ss
-			HH = Integer.parseInt(strDate.substring(11, 13));
-			mm = Integer.parseInt(strDate.substring(14, 16));
 			ss = Integer.parseInt(strDate.substring(17, 19));
-			cal.set(Calendar.HOUR_OF_DAY, HH);
-			cal.set(Calendar.MINUTE, mm);
-			cal.set(Calendar.SECOND, ss);
-			break;
-		case 23: // yyyy/MM/dd HH:mm:ss.SSS
+		case 16: // yyyy/MM/dd HH:mm
 			HH = Integer.parseInt(strDate.substring(11, 13));
 			mm = Integer.parseInt(strDate.substring(14, 16));
-			ss = Integer.parseInt(strDate.substring(17, 19));
-			SSS = Integer.parseInt(strDate.substring(20, 23));
-			cal.set(Calendar.HOUR_OF_DAY, HH);
-			cal.set(Calendar.MINUTE, mm);
-			cal.set(Calendar.SECOND, ss);
-			cal.set(Calendar.MILLISECOND, SSS);
 			break;
 		default:
 			throw new IllegalArgumentException("引数の文字列[" + strDate + "]は日付文字列に変換できません");
 		}
-		return cal;
+		try {
+			LocalDateTime dateTime = LocalDateTime.of(yyyy, MM, dd, HH, mm, ss,
+					SSS * 1000000);
+			return toCalendar(toDate(dateTime));
+		} catch (DateTimeException e) {
+			throw new IllegalArgumentException("引数の文字列[" + strDate + "]は日付文字列に変換できません", e);
+		}
 	}
 
 	/**
@@ -549,15 +588,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Date getDateWithoutTime(Date date) {
-
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.set(Calendar.HOUR_OF_DAY, 0);
-		cal.set(Calendar.MINUTE, 0);
-		cal.set(Calendar.SECOND, 0);
-		cal.set(Calendar.MILLISECOND, 0);
-
-		return new Date(cal.getTimeInMillis());
+		return toDate(toLocalDate(date));
 	}
 
 	/**
@@ -568,12 +599,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Date addHour(Date date, int hour) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.HOUR_OF_DAY, hour);
-
-		return new Date(cal.getTimeInMillis());
-
+		return Date.from(toZonedDateTime(date).plusHours(hour).toInstant());
 	}
 
 	/**
@@ -584,12 +610,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Date addMonth(Date date, int month) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.MONTH, month);
-
-		return new Date(cal.getTimeInMillis());
-
+		return Date.from(toZonedDateTime(date).plusMonths(month).toInstant());
 	}
 
 	/**
@@ -600,11 +621,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Timestamp addMonthTimeStamp(Date date, int month) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTime(date);
-		cal.add(Calendar.MONTH, month);
-
-		return new Timestamp(cal.getTimeInMillis());
+		return new Timestamp(addMonth(date, month).getTime());
 	}
 
 	/**
@@ -615,18 +632,12 @@ public class DateUtil {
 	 * @return
 	 */
 	public int getAcrossMonth(Timestamp before, Timestamp after) {
-		Calendar openCal = timestampToCalender(before);
-		openCal.set(Calendar.DATE, 1);
-		Calendar closeCal = timestampToCalender(after);
-		closeCal.set(Calendar.DATE, 1);
-
-		int ret = 0;
-		while (openCal.compareTo(closeCal) <= 0) {
-			ret++;
-			openCal.add(Calendar.MONTH, 1);
+		LocalDate open = toLocalDate(before).withDayOfMonth(1);
+		LocalDate close = toLocalDate(after).withDayOfMonth(1);
+		if (open.isAfter(close)) {
+			return 0;
 		}
-
-		return ret;
+		return (int) ChronoUnit.MONTHS.between(open, close) + 1;
 	}
 
 	/**
@@ -648,10 +659,9 @@ public class DateUtil {
 	 * @return
 	 */
 	public static boolean isDate(String dateStr, String fmt) {
-		SimpleDateFormat sdf = new SimpleDateFormat(fmt);
 		try {
-			sdf.parse(dateStr);
-		} catch (ParseException e) {
+			getFormatter(fmt).parse(dateStr);
+		} catch (DateTimeParseException e) {
 			return false;
 		}
 		return true;
@@ -664,12 +674,7 @@ public class DateUtil {
 	 * @return
 	 */
 	public Date getLastDayOfMonth(Date date) {
-		Calendar cal = Calendar.getInstance();
-		cal.setTimeInMillis(date.getTime());
-		cal.set(Calendar.DATE, cal.getActualMaximum(Calendar.DATE));
-
-		return new Date(cal.getTimeInMillis());
-
+		return Date.from(toZonedDateTime(date).with(TemporalAdjusters.lastDayOfMonth()).toInstant());
 	}
 
 	/**
@@ -679,26 +684,149 @@ public class DateUtil {
 	 * @return
 	 */
 	public String getDayOfTheWeekShort(Date date) {
-		Calendar calendar = Calendar.getInstance();
-		calendar.setTime(date);
-		int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-		switch (dayOfWeek) {
-		case Calendar.SUNDAY:
-			return "日";
-		case Calendar.MONDAY:
-			return "月";
-		case Calendar.TUESDAY:
-			return "火";
-		case Calendar.WEDNESDAY:
-			return "水";
-		case Calendar.THURSDAY:
-			return "木";
-		case Calendar.FRIDAY:
-			return "金";
-		case Calendar.SATURDAY:
-			return "土";
+		DayOfWeek dayOfWeek = toLocalDate(date).getDayOfWeek();
+		return dayOfWeek.getDisplayName(TextStyle.SHORT, Locale.JAPANESE);
+	}
+
+	/**
+	 * Date型、Timestamp型、java.sql.Date型をLocalDateに変換
+	 * 
+	 * @param date
+	 * @return LocalDate
+	 */
+	public LocalDate toLocalDate(Date date) {
+		return toZonedDateTime(date).toLocalDate();
+	}
+
+	/**
+	 * Date型、Timestamp型、java.sql.Date型をLocalDateTimeに変換
+	 * 
+	 * @param date
+	 * @return LocalDateTime
+	 */
+	public LocalDateTime toLocalDateTime(Date date) {
+		return toZonedDateTime(date).toLocalDateTime();
+	}
+
+	/**
+	 * LocalDateをDate型（時刻なし）に変換
+	 * 
+	 * @param date
+	 * @return Date
+	 */
+	public Date toDate(LocalDate date) {
+		return Date.from(date.atStartOfDay(clock.getZone()).toInstant());
+	}
+
+	/**
+	 * LocalDateTimeをDate型に変換
+	 * 
+	 * @param dateTime
+	 * @return Date
+	 */
+	public Date toDate(LocalDateTime dateTime) {
+		return Date.from(dateTime.atZone(clock.getZone()).toInstant());
+	}
+
+	/**
+	 * Date型をZonedDateTimeに変換<br>
+	 * java.sql.Dateは toInstant() が使用できないため、経過ミリ秒から変換する
+	 * 
+	 * @param date
+	 * @return ZonedDateTime
+	 */
+	private ZonedDateTime toZonedDateTime(Date date) {
+		return Instant.ofEpochMilli(date.getTime()).atZone(clock.getZone());
+	}
+
+	/**
+	 * 文字列をDate型に変換
+	 * 
+	 * @param date
+	 * @param formatter
+	 * @return Date
+	 * @throws ParseException 日付フォーマットが不正な場合
+	 */
+	private Date parse(String date, DateTimeFormatter formatter) throws ParseException {
+		TemporalAccessor parsed;
+		try {
+			parsed = formatter.parse(date);
+		} catch (DateTimeParseException e) {
+			throw new ParseException(e.getMessage(), e.getErrorIndex());
 		}
-		throw new IllegalStateException();
+		LocalDate localDate = parsed.query(TemporalQueries.localDate());
+		LocalTime localTime = parsed.query(TemporalQueries.localTime());
+		if (localDate == null) {
+			localDate = LocalDate.EPOCH;
+		}
+		if (localTime == null) {
+			localTime = LocalTime.MIDNIGHT;
+		}
+		return toDate(localDate.atTime(localTime));
+	}
+
+	/**
+	 * 文字列をTimestamp型に変換する。変換不可能な場合はnullを返却する。
+	 * 
+	 * @param time
+	 * @param formatter
+	 * @return Timestamp
+	 */
+	private Timestamp stringToTimestamp(String time, DateTimeFormatter formatter) {
+		try {
+			return new Timestamp(parse(time, formatter).getTime());
+		} catch (ParseException e) {
+			logger.warn("日時の変換に失敗しました：{}", time, e);
+			return null;
+		}
+	}
+
+	/**
+	 * 年月日からCalendar型（時刻なし）を作成
+	 * 
+	 * @param year
+	 * @param month
+	 * @param day
+	 * @return Calendar
+	 */
+	private static Calendar newCalendar(String year, String month, String day) {
+		Calendar calendar = Calendar.getInstance();
+		calendar.clear();
+		calendar.set(Integer.parseInt(year), Integer.parseInt(month) - 1, Integer.parseInt(day));
+		return calendar;
+	}
+
+	/**
+	 * 日付をyyyyMMdd形式の数値に変換
+	 * 
+	 * @param date
+	 * @return yyyyMMdd形式の数値
+	 */
+	private static int toYmd(LocalDate date) {
+		return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+	}
+
+	/**
+	 * 書式に対応するフォーマッタを取得（既定のロケール）
+	 * 
+	 * @param fmt
+	 * @return DateTimeFormatter
+	 */
+	private static DateTimeFormatter getFormatter(String fmt) {
+		return getFormatter(fmt, Locale.getDefault(Locale.Category.FORMAT));
+	}
+
+	/**
+	 * 書式・ロケールに対応するフォーマッタを取得<br>
+	 * 同じ書式のフォーマッタは1度だけ作成し、以降は共有する
+	 * 
+	 * @param fmt
+	 * @param locale
+	 * @return DateTimeFormatter
+	 */
+	private static DateTimeFormatter getFormatter(String fmt, Locale locale) {
+		return FORMATTER_MAP.computeIfAbsent(locale.toLanguageTag() + " " + fmt,
+				key -> DateTimeFormatter.ofPattern(fmt, locale));
 	}
 
 }
@@ -0,0 +1,283 @@
+package jp.co.sss.lms.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.ExamQuestionDto;
+import jp.co.sss.lms.dto.QuestionDto;
+import jp.co.sss.lms.entity.MExam;
+import jp.co.sss.lms.entity.MQuestion;
+import jp.co.sss.lms.mapper.MExamMapper;
+import jp.co.sss.lms.mapper.MQuestionMapper;
+
+/**
+ * 試験問題キャッシュのユーティリティクラス<br>
+ * 試験毎の問題（画面表示用・採点用）を、試験の内容のバージョンと共にメモリ上に保持する<br>
+ * 全試験のバージョンを定期的に確認し、変わった試験は次回取得時に読み込み直す<br>
+ * 保持している問題は複数の利用者で共有するため外部に公開せず、取得毎に複製を返却する
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ExamQuestionCache {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private MExamMapper mExamMapper;
+	@Autowired
+	private MQuestionMapper mQuestionMapper;
+
+	/** 試験ID毎の試験問題 */
+	private final ConcurrentMap<Integer, Entry> entryMap = new ConcurrentHashMap<>();
+
+	/** ヒット件数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** ミス件数（バージョン変更による読み込み直しを含む） */
+	private final AtomicLong missCount = new AtomicLong();
+	/** 破棄件数 */
+	private final AtomicLong evictionCount = new AtomicLong();
+	/** 前回の統計出力時のヒット・ミス・破棄件数の合計 */
+	private final AtomicLong loggedCount = new AtomicLong();
+
+	/**
+	 * 画面表示用の試験問題を取得<br>
+	 * 問題DTOの回答リストは設定済み（リストは変更不可、問題DTOは取得毎の複製）
+	 *
+	 * @param examId
+	 * @return 試験問題DTO（試験が存在しない場合はnull）
+	 */
+	public ExamQuestionDto getExamQuestion(Integer examId) {
+		Entry entry = getEntry(examId);
+		return entry != null ? copyOf(entry.examQuestionDto) : null;
+	}
+
+	/**
+	 * 採点用の試験問題を取得
+	 *
+	 * @param examId
+	 * @return 試験問題エンティティリスト（リストは変更不可、エンティティは取得毎の複製。試験が存在しない場合は空）
+	 */
+	public List<MQuestion> getQuestionList(Integer examId) {
+		Entry entry = getEntry(examId);
+		if (entry == null) {
+			return Collections.emptyList();
+		}
+		List<MQuestion> questionList = new ArrayList<>(entry.questionList.size());
+		for (MQuestion mQuestion : entry.questionList) {
+			MQuestion copy = new MQuestion();
+			BeanUtils.copyProperties(mQuestion, copy);
+			questionList.add(copy);
+		}
+		return Collections.unmodifiableList(questionList);
+	}
+
+	/**
+	 * バージョンの確認<br>
+	 * バージョンが変わった試験・削除された試験を破棄する
+	 */
+	@Scheduled(fixedDelayString = "${setting.exam.cache.refresh.millisecond}")
+	public void refresh() {
+		if (entryMap.isEmpty()) {
+			return;
+		}
+		Map<Integer, Long> versionMap = new HashMap<>();
+		for (MExam mExam : mExamMapper.getContentVersionList()) {
+			versionMap.put(mExam.getExamId(), mExam.getContentVersion());
+		}
+		for (Entry entry : entryMap.values()) {
+			if (!Long.valueOf(entry.version).equals(versionMap.get(entry.examId))
+					&& entryMap.remove(entry.examId, entry)) {
+				evictionCount.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * 統計の出力<br>
+	 * 前回の出力からヒット・ミス・破棄件数が変わった場合のみ出力する
+	 *
+	 * @return 出力した場合はtrue
+	 */
+	@Scheduled(fixedDelayString = "${setting.exam.cache.stats.millisecond}")
+	public boolean logStatistics() {
+		long hit = hitCount.get();
+		long miss = missCount.get();
+		long eviction = evictionCount.get();
+		if (loggedCount.getAndSet(hit + miss + eviction) == hit + miss + eviction) {
+			return false;
+		}
+		logger.info("試験問題キャッシュ：ヒット率{}%、ヒット{}件、ミス{}件、破棄{}件、保持{}件",
+				Math.round(getHitRatio() * 100), hit, miss, eviction, entryMap.size());
+		return true;
+	}
+
+	/**
+	 * 保持している試験問題を全て破棄する
+	 */
+	public void clear() {
+		entryMap.clear();
+	}
+
+	/**
+	 * ヒット件数を取得
+	 *
+	 * @return ヒット件数
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * ミス件数を取得
+	 *
+	 * @return ミス件数
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 破棄件数を取得
+	 *
+	 * @return 破棄件数
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * ヒット率を取得
+	 *
+	 * @return ヒット率（0～1、取得がない場合は0）
+	 */
+	public double getHitRatio() {
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0.0 : (double) hit / total;
+	}
+
+	/**
+	 * 試験問題を取得<br>
+	 * 保持していない場合は読み込む（同じ試験の同時読み込みは1回にまとめる）
+	 *
+	 * @param examId
+	 * @return 試験問題（試験が存在しない場合はnull）
+	 */
+	private Entry getEntry(Integer examId) {
+		Entry entry = entryMap.get(examId);
+		if (entry != null) {
+			hitCount.incrementAndGet();
+			return entry;
+		}
+		// 存在しない試験の場合はnullとなり、保持されない
+		return entryMap.computeIfAbsent(examId, this::load);
+	}
+
+	/**
+	 * 試験問題の読み込み<br>
+	 * バージョンを先に取得し、読み込み中に更新された場合は次回の確認で破棄されるようにする
+	 *
+	 * @param examId
+	 * @return 試験問題（試験が存在しない場合はnull）
+	 */
+	private Entry load(Integer examId) {
+		missCount.incrementAndGet();
+		Long version = mExamMapper.getContentVersion(examId);
+		ExamQuestionDto examQuestionDto = mExamMapper.getExamQuestion(examId, Constants.DB_FLG_FALSE);
+		if (version == null || examQuestionDto == null) {
+			return null;
+		}
+		List<MQuestion> questionList = mQuestionMapper.findByExamId(examId, Constants.DB_FLG_FALSE);
+
+		Entry entry = new Entry(examId, version, toImmutable(examQuestionDto),
+				Collections.unmodifiableList(new ArrayList<>(questionList)));
+		logger.info("試験問題を読み込みました：試験ID{}（バージョン{}）", examId, version);
+		return entry;
+	}
+
+	/**
+	 * 共有用の試験問題DTOを作成<br>
+	 * 問題DTOの回答リストを設定し、リストは変更不可とする
+	 *
+	 * @param examQuestionDto
+	 * @return 試験問題DTO
+	 */
+	private ExamQuestionDto toImmutable(ExamQuestionDto examQuestionDto) {
+		List<QuestionDto> questionDtoList = new ArrayList<>();
+		for (QuestionDto questionDto : examQuestionDto.getQuestionDtoList()) {
+			QuestionDto copy = new QuestionDto();
+			BeanUtils.copyProperties(questionDto, copy);
+			copy.setAnswerList(Collections.unmodifiableList(Arrays.asList(questionDto.getChoice1(),
+					questionDto.getChoice2(), questionDto.getChoice3(), questionDto.getChoice4())));
+			questionDtoList.add(copy);
+		}
+		ExamQuestionDto copy = new ExamQuestionDto();
+		copy.setExamId(examQuestionDto.getExamId());
+		copy.setExamName(examQuestionDto.getExamName());
+		copy.setLimitTime(examQuestionDto.getLimitTime());
+		copy.setQuestionDtoList(Collections.unmodifiableList(questionDtoList));
+		return copy;
+	}
+
+	/**
+	 * 返却用の試験問題DTOを作成<br>
+	 * 問題DTOを複製する（回答リストは変更不可のため共有する）
+	 *
+	 * @param examQuestionDto 保持している試験問題DTO
+	 * @return 試験問題DTO
+	 */
+	private ExamQuestionDto copyOf(ExamQuestionDto examQuestionDto) {
+		List<QuestionDto> questionDtoList = new ArrayList<>(
+				examQuestionDto.getQuestionDtoList().size());
+		for (QuestionDto questionDto : examQuestionDto.getQuestionDtoList()) {
+			QuestionDto copy = new QuestionDto();
+			BeanUtils.copyProperties(questionDto, copy);
+			questionDtoList.add(copy);
+		}
+		ExamQuestionDto copy = new ExamQuestionDto();
+		copy.setExamId(examQuestionDto.getExamId());
+		copy.setExamName(examQuestionDto.getExamName());
+		copy.setLimitTime(examQuestionDto.getLimitTime());
+		copy.setQuestionDtoList(Collections.unmodifiableList(questionDtoList));
+		return copy;
+	}
+
+	/**
+	 * 保持している試験問題<br>
+	 * 保持している問題DTO・エンティティは外部に返却しない
+	 */
+	private static final class Entry {
+
+		private final Integer examId;
+		/** 読み込み時の内容のバージョン */
+		private final long version;
+		/** 画面表示用の試験問題 */
+		private final ExamQuestionDto examQuestionDto;
+		/** 採点用の試験問題 */
+		private final List<MQuestion> questionList;
+
+		private Entry(Integer examId, long version, ExamQuestionDto examQuestionDto,
+				List<MQuestion> questionList) {
+			this.examId = examId;
+			this.version = version;
+			this.examQuestionDto = examQuestionDto;
+			this.questionList = questionList;
+		}
+	}
+
+}
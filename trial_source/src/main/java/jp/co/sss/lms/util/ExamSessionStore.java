@@ -0,0 +1,210 @@
+package jp.co.sss.lms.util;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.entity.TExamAttempt;
+import jp.co.sss.lms.mapper.TExamAttemptMapper;
+
+/**
+ * 受験中の試験のユーティリティクラス<br>
+ * 受験中の回答をLMSユーザー・試験毎に受験中試験テーブルへ保持し、回答は1問ずつ反映する<br>
+ * 再起動・再デプロイ後も受験を続けられ、一定時間操作されなかった受験は破棄する
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ExamSessionStore {
+
+	/** 選択肢の数 */
+	private static final int CHOICE_COUNT = 4;
+	/** 未回答 */
+	private static final char NO_ANSWER = '0';
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private TExamAttemptMapper tExamAttemptMapper;
+
+	/** 受験を破棄するまでの時間（最後の操作からの分） */
+	@Value("${setting.exam.session.ttl.minute}")
+	private Integer ttlMinute;
+
+	/**
+	 * 受験の開始<br>
+	 * 受験中の場合はその受験を続ける（試験IDは開始時に試験・セクション紐付けから決まる）
+	 *
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @return 受験中の試験（試験・セクション紐付けが存在しない場合はnull）
+	 */
+	public ExamAttempt begin(Integer lmsUserId, Integer examSectionId) {
+		tExamAttemptMapper.insertIfAbsent(lmsUserId, examSectionId, new Date(),
+				Constants.DB_FLG_FALSE);
+		TExamAttempt tExamAttempt = tExamAttemptMapper.findByKey(lmsUserId, examSectionId);
+		return tExamAttempt != null ? new ExamAttempt(tExamAttempt) : null;
+	}
+
+	/**
+	 * 回答を問題数に合わせる<br>
+	 * 開始直後・受験中に問題数が変わった場合に、回答を切り詰める・未回答で埋める
+	 *
+	 * @param examAttempt
+	 * @param questionCount 問題数
+	 * @return 受験中の試験
+	 */
+	public ExamAttempt resize(ExamAttempt examAttempt, int questionCount) {
+		if (examAttempt.answers.length() == questionCount) {
+			return examAttempt;
+		}
+		String answers = StringUtils.rightPad(
+				StringUtils.left(examAttempt.answers, questionCount), questionCount, NO_ANSWER);
+		tExamAttemptMapper.updateAnswers(examAttempt.lmsUserId, examAttempt.examSectionId,
+				answers, new Date());
+		return new ExamAttempt(examAttempt, answers);
+	}
+
+	/**
+	 * 回答の反映
+	 *
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @param index         問題の番号（0から）
+	 * @param answer        回答（null・0の場合は未回答）
+	 * @return 回答済みの問題数（受験中でない・問題の番号が範囲外の場合はnull）
+	 */
+	public Integer putAnswer(Integer lmsUserId, Integer examSectionId, int index, Short answer) {
+		if (index < 0 || (answer != null && (answer < 0 || answer > CHOICE_COUNT))) {
+			return null;
+		}
+		String value = String.valueOf(answer != null ? answer : 0);
+		// 更新後の回答は同じ文で受け取る（1問毎に1回の更新で済ませる）
+		String answers = tExamAttemptMapper.updateAnswer(lmsUserId, examSectionId, index, value,
+				new Date());
+		return answers != null ? getAnsweredCount(answers) : null;
+	}
+
+	/**
+	 * 受験の終了<br>
+	 * 受験中の試験を行ロックして取り出し、同じ受験を二重に終了できないようにする<br>
+	 * 試験結果の登録と同じトランザクション内で呼び出すこと（ロールバックされた場合は受験中に戻る）
+	 *
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @return 受験中の試験（受験中でない場合はnull）
+	 */
+	public ExamAttempt take(Integer lmsUserId, Integer examSectionId) {
+		TExamAttempt tExamAttempt = tExamAttemptMapper.findByKeyForUpdate(lmsUserId,
+				examSectionId);
+		if (tExamAttempt == null) {
+			return null;
+		}
+		tExamAttemptMapper.delete(lmsUserId, examSectionId);
+		return new ExamAttempt(tExamAttempt);
+	}
+
+	/**
+	 * 一定時間操作されなかった受験の破棄
+	 */
+	@Scheduled(fixedDelayString = "${setting.exam.session.purge.millisecond}")
+	public void purge() {
+		Date expireDate = new Date(
+				System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(ttlMinute));
+		int count = tExamAttemptMapper.deleteExpired(expireDate);
+		if (count > 0) {
+			logger.info("受験中の試験を破棄しました：{}件", count);
+		}
+	}
+
+	/**
+	 * 回答済みの問題数を取得
+	 *
+	 * @param answers 問題毎の回答（'0'は未回答）
+	 * @return 回答済みの問題数
+	 */
+	private static int getAnsweredCount(String answers) {
+		return answers.length() - StringUtils.countMatches(answers, NO_ANSWER);
+	}
+
+	/**
+	 * 受験中の試験<br>
+	 * 回答は問題毎に1文字（'0'は未回答）で保持する
+	 */
+	public static final class ExamAttempt {
+
+		private final Integer lmsUserId;
+		private final Integer examSectionId;
+		/** 試験ID */
+		private final Integer examId;
+		/** 問題毎の回答 */
+		private final String answers;
+		/** 開始日時（ミリ秒） */
+		private final long startTime;
+
+		private ExamAttempt(TExamAttempt tExamAttempt) {
+			this.lmsUserId = tExamAttempt.getLmsUserId();
+			this.examSectionId = tExamAttempt.getExamSectionId();
+			this.examId = tExamAttempt.getExamId();
+			this.answers = tExamAttempt.getAnswers();
+			this.startTime = tExamAttempt.getStartDate().getTime();
+		}
+
+		private ExamAttempt(ExamAttempt examAttempt, String answers) {
+			this.lmsUserId = examAttempt.lmsUserId;
+			this.examSectionId = examAttempt.examSectionId;
+			this.examId = examAttempt.examId;
+			this.answers = answers;
+			this.startTime = examAttempt.startTime;
+		}
+
+		/**
+		 * 試験IDを取得
+		 *
+		 * @return 受験開始時の試験ID
+		 */
+		public Integer getExamId() {
+			return examId;
+		}
+
+		/**
+		 * 回答を取得
+		 *
+		 * @return 問題毎の回答（未回答はnull）
+		 */
+		public Short[] getAnswers() {
+			Short[] answerArray = new Short[answers.length()];
+			for (int i = 0; i < answers.length(); i++) {
+				char answer = answers.charAt(i);
+				answerArray[i] = answer != NO_ANSWER ? Short.valueOf((short) (answer - '0')) : null;
+			}
+			return answerArray;
+		}
+
+		/**
+		 * 経過時間を取得
+		 *
+		 * @return 開始からの経過時間（ミリ秒）
+		 */
+		public long getElapsedTime() {
+			return System.currentTimeMillis() - startTime;
+		}
+
+		/**
+		 * 回答済みの問題数を取得
+		 *
+		 * @return 回答済みの問題数
+		 */
+		public int getAnsweredCount() {
+			return ExamSessionStore.getAnsweredCount(answers);
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+package jp.co.sss.lms.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Excelテンプレートキャッシュのユーティリティクラス<br>
+ * テンプレートファイルの内容をメモリ上に保持し、ダウンロード毎のクラスパスからの読み込みを省く<br>
+ * 保持件数を超えた場合は最も長く使われていないテンプレートを破棄し、ファイルが更新された場合は読み込み直す
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ExcelTemplateCache {
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	/** 最大保持件数 */
+	@Value("${setting.excel.template.cache.size}")
+	private Integer maxSize;
+
+	/** ファイルパス毎のテンプレート（参照順） */
+	private final Map<String, Template> templateMap = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** ヒット件数 */
+	private final AtomicLong hitCount = new AtomicLong();
+	/** ミス件数（ファイル更新による読み込み直しを含む） */
+	private final AtomicLong missCount = new AtomicLong();
+	/** 破棄件数 */
+	private final AtomicLong evictionCount = new AtomicLong();
+	/** 前回の統計出力時のヒット・ミス・破棄件数の合計 */
+	private final AtomicLong loggedCount = new AtomicLong();
+
+	/**
+	 * テンプレートを開く<br>
+	 * 呼び出し毎に新しいワークブックを生成するため、返却値には自由に書き込んでよい
+	 *
+	 * @param filePath クラスパス上のファイルパス
+	 * @return テンプレートを読み込んだExcelUtil
+	 */
+	public ExcelUtil getExcelUtil(String filePath) {
+		return new ExcelUtil(getBytes(filePath));
+	}
+
+	/**
+	 * テンプレートファイルの内容を取得
+	 *
+	 * @param filePath クラスパス上のファイルパス
+	 * @return ファイルの内容
+	 */
+	private byte[] getBytes(String filePath) {
+		ClassPathResource resource = new ClassPathResource(filePath);
+		long lastModified = getLastModified(resource);
+		synchronized (templateMap) {
+			Template template = templateMap.get(filePath);
+			if (template != null && template.lastModified == lastModified) {
+				hitCount.incrementAndGet();
+				return template.bytes;
+			}
+		}
+		missCount.incrementAndGet();
+
+		// 読み込みはロックの外で行う（同時に読み込んだ場合は後の内容で上書きする）
+		Template template = new Template();
+		try (InputStream in = resource.getInputStream()) {
+			template.bytes = in.readAllBytes();
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		template.lastModified = lastModified;
+		synchronized (templateMap) {
+			templateMap.put(filePath, template);
+			while (templateMap.size() > maxSize) {
+				String eldest = templateMap.keySet().iterator().next();
+				templateMap.remove(eldest);
+				evictionCount.incrementAndGet();
+			}
+		}
+		logger.info("Excelテンプレートを読み込みました：{}", filePath);
+		return template.bytes;
+	}
+
+	/**
+	 * ファイルの更新日時を取得
+	 *
+	 * @param resource
+	 * @return 更新日時（取得できない場合は0）
+	 */
+	private long getLastModified(ClassPathResource resource) {
+		try {
+			return resource.lastModified();
+		} catch (IOException e) {
+			return 0L;
+		}
+	}
+
+	/**
+	 * 統計の出力<br>
+	 * 前回の出力からヒット・ミス・破棄件数が変わった場合のみ出力する
+	 *
+	 * @return 出力した場合はtrue
+	 */
+	@Scheduled(fixedDelayString = "${setting.excel.template.cache.stats.millisecond}")
+	public boolean logStatistics() {
+		long hit = hitCount.get();
+		long miss = missCount.get();
+		long eviction = evictionCount.get();
+		if (loggedCount.getAndSet(hit + miss + eviction) == hit + miss + eviction) {
+			return false;
+		}
+		int size;
+		synchronized (templateMap) {
+			size = templateMap.size();
+		}
+		logger.info("Excelテンプレートキャッシュ：ヒット率{}%、ヒット{}件、ミス{}件、破棄{}件、保持{}件",
+				Math.round(getHitRatio() * 100), hit, miss, eviction, size);
+		return true;
+	}
+
+	/**
+	 * 保持しているテンプレートを全て破棄する
+	 */
+	public void clear() {
+		synchronized (templateMap) {
+			templateMap.clear();
+		}
+	}
+
+	/**
+	 * ヒット件数を取得
+	 *
+	 * @return ヒット件数
+	 */
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	/**
+	 * ミス件数を取得
+	 *
+	 * @return ミス件数
+	 */
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	/**
+	 * 破棄件数を取得
+	 *
+	 * @return 破棄件数
+	 */
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	/**
+	 * ヒット率を取得
+	 *
+	 * @return ヒット率（0～1、取得がない場合は0）
+	 */
+	public double getHitRatio() {
+		long hit = hitCount.get();
+		long total = hit + missCount.get();
+		return total == 0 ? 0.0 : (double) hit / total;
+	}
+
+	/**
+	 * 保持しているテンプレート
+	 */
+	private static final class Template {
+
+		/** ファイルの内容 */
+		private byte[] bytes;
+		/** 読み込み時のファイル更新日時 */
+		private long lastModified;
+	}
+
+}
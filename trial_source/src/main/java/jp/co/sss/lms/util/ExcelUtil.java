@@ -1,19 +1,31 @@
 package jp.co.sss.lms.util;
 
-import java.io.ByteArrayOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 import org.apache.poi.hssf.util.CellReference;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
 import org.apache.poi.ss.usermodel.CreationHelper;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.usermodel.FormulaEvaluator;
@@ -22,7 +34,8 @@ import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellRangeAddress;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.core.io.ClassPathResource;
 
 import jakarta.servlet.ServletOutputStream;
@@ -38,14 +51,35 @@ import jp.co.sss.lms.dto.WorkbookDto;
  */
 public class ExcelUtil {
 
-	@Autowired
-	private static MessageUtil messageUtil;
+	/* 一括ダウンロードのZIPファイル名 */
+	private static final String ZIP_NAME = "レポート";
+	/* 一括ダウンロードで書き込み待ちにできるWorkbook数 */
+	private static final int ZIP_QUEUE_SIZE = 2;
+	/* 一括ダウンロードの終端 */
+	private static final WorkbookDto END_OF_BOOKS = new WorkbookDto();
+	/* 一括ダウンロードでWorkbookを作成するスレッド（ダウンロード毎に仮想スレッドを割り当てる） */
+	private static final ExecutorService ZIP_EXECUTOR = Executors
+			.newThreadPerTaskExecutor(Thread.ofVirtual().name("excel-zip-", 0).factory());
 	/* 縦軸最大桁数 */
 	public static final int MAX_COL_NUM = 16384;
 	/* エクセル縦軸文字を数値に変換 */
 	public static final String MAX_COL_STR = CellReference.convertNumToColString(ExcelUtil.MAX_COL_NUM - 1);
+	/* ストリーミング書き込みでメモリ上に保持する行数 */
+	public static final int STREAMING_WINDOW_SIZE = 100;
 	/* ワークブック初期化 */
 	private Workbook wb = null;
+	/* ストリーミング書き込み用のワークブック（通常の書き込みの場合はnull） */
+	private SXSSFWorkbook streamingWb = null;
+	/* シート名毎の次に追加する行 */
+	private final Map<String, Integer> nextRowMap = new HashMap<>();
+
+	/**
+	 * 新しいワークブック（xlsx形式）を作成する<br>
+	 * シートは{@link #createSheet(String)}で追加する
+	 */
+	public ExcelUtil() {
+		wb = new XSSFWorkbook();
+	}
 
 	/**
 	 * ファイルパスから作成済みのファイルを開く
@@ -60,6 +94,19 @@ public class ExcelUtil {
 		}
 	}
 
+	/**
+	 * 読み込み済みのファイルの内容から開く
+	 * 
+	 * @param bytes ファイルの内容
+	 */
+	public ExcelUtil(byte[] bytes) {
+		try (InputStream in = new ByteArrayInputStream(bytes)) {
+			wb = WorkbookFactory.create(in);
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		}
+	}
+
 	/**
 	 * 作成済みのファイルを開く
 	 * 
@@ -155,11 +202,100 @@ public class ExcelUtil {
 
 	/**
 	 * ワークブックを取得<br>
+	 * ストリーミング書き込みの場合はストリーミング書き込み用のワークブックを返す
 	 * 
 	 * @return ワークブック
 	 */
 	public Workbook getWb() {
-		return wb;
+		return streamingWb != null ? streamingWb : wb;
+	}
+
+	/**
+	 * シートを追加する<br>
+	 * ストリーミング書き込みを行う場合は開始前に追加すること
+	 * 
+	 * @param sheetName シート名
+	 */
+	public void createSheet(String sheetName) {
+		if (streamingWb != null) {
+			throw new IllegalStateException("ストリーミング書き込みの開始後はシートを追加できません。");
+		}
+		wb.createSheet(sheetName);
+	}
+
+	/**
+	 * ストリーミング書き込みを開始する<br>
+	 * 以降にappendRowで追加した行は、メモリ上に一定行数だけ保持し、超えた行は一時ファイルへ書き出す。<br>
+	 * setValは開始後も使用できるが、書き込めるのはテンプレートに存在する行の範囲のみとする。
+	 * 
+	 * @param windowSize メモリ上に保持する行数
+	 */
+	public void startStreaming(int windowSize) {
+		if (streamingWb != null) {
+			return;
+		}
+		if (!(wb instanceof XSSFWorkbook)) {
+			throw new IllegalStateException("ストリーミング書き込みはxlsx形式のテンプレートのみ使用できます。");
+		}
+		streamingWb = new SXSSFWorkbook((XSSFWorkbook) wb, windowSize);
+	}
+
+	/**
+	 * シートの末尾に行を追加する<br>
+	 * 最初の行はテンプレートの最終行の次の行に追加する
+	 * 
+	 * @param sheetName シート名
+	 * @param values    列毎の値（String、Number、Date、Boolean。nullの場合は空欄）
+	 */
+	public void appendRow(String sheetName, Object... values) {
+		if (streamingWb == null) {
+			throw new IllegalStateException("ストリーミング書き込みが開始されていません。");
+		}
+		Integer rowNum = nextRowMap.get(sheetName);
+		if (rowNum == null) {
+			Sheet sheet = wb.getSheet(sheetName);
+			rowNum = sheet.getPhysicalNumberOfRows() == 0 ? 0 : sheet.getLastRowNum() + 1;
+		}
+		nextRowMap.put(sheetName, rowNum + 1);
+
+		Row row = streamingWb.getSheet(sheetName).createRow(rowNum);
+		for (int i = 0; i < values.length; i++) {
+			Object value = values[i];
+			if (value == null) {
+				continue;
+			}
+			Cell cell = row.createCell(i);
+			if (value instanceof Number) {
+				cell.setCellValue(((Number) value).doubleValue());
+			} else if (value instanceof Date) {
+				cell.setCellValue((Date) value);
+			} else if (value instanceof Boolean) {
+				cell.setCellValue((Boolean) value);
+			} else {
+				cell.setCellValue(value.toString());
+			}
+		}
+	}
+
+	/**
+	 * ワークブックを書き出す<br>
+	 * ストリーミング書き込みの場合は書き出し後に一時ファイルを削除する
+	 * 
+	 * @param out 書き出し先
+	 * @throws IOException
+	 */
+	public void write(OutputStream out) throws IOException {
+		write(getWb(), out);
+	}
+
+	/**
+	 * ストリーミング書き込みの一時ファイルを削除する<br>
+	 * ダウンロード・書き出しを行った場合は書き出し後に削除されるため、呼び出し不要
+	 */
+	public void dispose() {
+		if (streamingWb != null) {
+			streamingWb.dispose();
+		}
 	}
 
 	/**
@@ -176,66 +312,81 @@ public class ExcelUtil {
 	}
 
 	/**
-	 * 指定された位置のシートをコピーする
+	 * 指定された行の範囲を直下に繰り返しコピーする<br>
+	 * コピー元の行と結合範囲は最初に1回だけ取得し、コピー元の範囲内にある結合範囲のみをコピー先に追加する
 	 * 
 	 * @param sheetName シート名
-	 * @param st        sheetworksheet
-	 * @param en        コピーの開始行(start from 0)
-	 * @param cnt       コピーの最終行(end from 1)
-	 * 
+	 * @param st        コピー元の開始行(start from 0)
+	 * @param en        コピー元の最終行(end from 1)
+	 * @param cnt       コピー回数（コピー元の直下からcnt個分の範囲に書き込む）
 	 */
-	public void sheetCopy(String sheetName, int st, int en, int cnt) {
-		// シート情報を取得
+	public void rowBlockCopy(String sheetName, int st, int en, int cnt) {
 		Sheet sheet = wb.getSheet(sheetName);
-		int x = sheet.getNumMergedRegions();
-		Row row = null, row2 = null;
-		Cell cell = null, cell2 = null;
-		CellStyle cellstyle = null;
-		short height = 0;
-		for (int i = st; i < en; i++) {
-			row = sheet.getRow(i);
-			if (row != null) {
-				height = row.getHeight();
-				// 最終行をベースに下(Row)へコピーしていく。
-				row2 = sheet.createRow((en - st) * cnt + i);
-				row2.setHeight(height);
-				for (int j = 0; j < row.getLastCellNum(); j++) {
-					cell = row.getCell(j);
-					if (cell != null) {
-						cell2 = row2.createCell(j);
-						cellstyle = cell.getCellStyle();
-						cell2.setCellStyle(cellstyle);
-						switch (cell.getCellType()) {
-						case Cell.CELL_TYPE_STRING:
-							cell2.setCellValue(cell.getRichStringCellValue());
-							break;
-						case Cell.CELL_TYPE_NUMERIC:
-							if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
-								cell2.setCellValue(cell.getDateCellValue());
-							} else {
-								cell2.setCellValue(cell.getNumericCellValue());
-							}
-							break;
-						case Cell.CELL_TYPE_FORMULA:
-							cell2.setCellFormula(cell.getCellFormula());
-							break;
-						case Cell.CELL_TYPE_BOOLEAN:
-							cell2.setCellValue(cell.getBooleanCellValue());
-							break;
-						}
-					}
+		int blockSize = en - st;
+		if (cnt <= 0 || blockSize <= 0) {
+			return;
+		}
+
+		// コピー元の行
+		Row[] srcRows = new Row[blockSize];
+		for (int i = 0; i < blockSize; i++) {
+			srcRows[i] = sheet.getRow(st + i);
+		}
+		// コピー元の範囲内にある結合範囲
+		List<CellRangeAddress> craList = new ArrayList<>();
+		for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+			CellRangeAddress cra = sheet.getMergedRegion(i);
+			if (cra.getFirstRow() >= st && cra.getLastRow() < en) {
+				craList.add(cra);
+			}
+		}
+
+		for (int n = 1; n <= cnt; n++) {
+			int offset = blockSize * n;
+			for (int i = 0; i < blockSize; i++) {
+				Row row = srcRows[i];
+				if (row == null) {
+					continue;
 				}
+				Row row2 = sheet.createRow(st + offset + i);
+				row2.setHeight(row.getHeight());
+				for (Cell cell : row) {
+					copyCell(cell, row2.createCell(cell.getColumnIndex()));
+				}
+			}
+			// 結合状態を設定
+			for (CellRangeAddress cra : craList) {
+				sheet.addMergedRegion(new CellRangeAddress(cra.getFirstRow() + offset,
+						cra.getLastRow() + offset, cra.getFirstColumn(), cra.getLastColumn()));
 			}
 		}
-		// 結合状態を設定
-		CellRangeAddress cra = null;
-		for (int i = 0; i < x; i++) {
-			cra = sheet.getMergedRegion(i);
-			if (cra.getFirstRow() >= st) {
-				CellRangeAddress newCra = new CellRangeAddress(cra.getFirstRow() + (en - st) * cnt,
-						cra.getLastRow() + (en - st) * cnt, cra.getFirstColumn(), cra.getLastColumn());
-				sheet.addMergedRegion(newCra);
+	}
+
+	/**
+	 * セルの書式と値をコピーする
+	 * 
+	 * @param cell  コピー元
+	 * @param cell2 コピー先
+	 */
+	private void copyCell(Cell cell, Cell cell2) {
+		cell2.setCellStyle(cell.getCellStyle());
+		switch (cell.getCellType()) {
+		case Cell.CELL_TYPE_STRING:
+			cell2.setCellValue(cell.getRichStringCellValue());
+			break;
+		case Cell.CELL_TYPE_NUMERIC:
+			if (org.apache.poi.ss.usermodel.DateUtil.isCellDateFormatted(cell)) {
+				cell2.setCellValue(cell.getDateCellValue());
+			} else {
+				cell2.setCellValue(cell.getNumericCellValue());
 			}
+			break;
+		case Cell.CELL_TYPE_FORMULA:
+			cell2.setCellFormula(cell.getCellFormula());
+			break;
+		case Cell.CELL_TYPE_BOOLEAN:
+			cell2.setCellValue(cell.getBooleanCellValue());
+			break;
 		}
 	}
 
@@ -248,96 +399,187 @@ public class ExcelUtil {
 	 */
 	public static void downloadBook(WorkbookDto workbookDto, HttpServletResponse response) throws IOException {
 
-		String fileNameSjis = new String(workbookDto.getWbName().getBytes("Shift_JIS"), "ISO-8859-1").replace(" ",
-				"%20");
-		String fileNameUtf8 = URLEncoder.encode(workbookDto.getWbName(), "UTF-8").replace("+", "%20");
-		response.setContentType("application/octet-stream");
-		response.setHeader("Content-Disposition",
-				"attachment;filename=" + fileNameSjis + ";filename*=utf-8''" + fileNameUtf8);
+		setAttachmentHeader(workbookDto.getWbName(), response);
 
 		try (ServletOutputStream out = response.getOutputStream()) {
-			workbookDto.getWb().write(out);
+			write(workbookDto.getWb(), out);
+		}
+	}
+
+	/**
+	 * Workbookを書き出す<br>
+	 * ストリーミング書き込みの場合は書き出し後に一時ファイルを削除する
+	 * 
+	 * @param wb
+	 * @param out
+	 * @throws IOException
+	 */
+	private static void write(Workbook wb, OutputStream out) throws IOException {
+		try {
+			wb.write(out);
+		} finally {
+			if (wb instanceof SXSSFWorkbook) {
+				((SXSSFWorkbook) wb).dispose();
+			}
 		}
 	}
 
+	/**
+	 * ダウンロード用のレスポンスヘッダを設定する
+	 * 
+	 * @param fileName ファイル名
+	 * @param response
+	 * @throws IOException
+	 */
+	public static void setAttachmentHeader(String fileName, HttpServletResponse response) throws IOException {
+
+		String fileNameSjis = new String(fileName.getBytes("Shift_JIS"), "ISO-8859-1").replace(" ", "%20");
+		String fileNameUtf8 = URLEncoder.encode(fileName, "UTF-8").replace("+", "%20");
+		response.setContentType("application/octet-stream");
+		response.setHeader("Content-Disposition",
+				"attachment;filename=" + fileNameSjis + ";filename*=utf-8''" + fileNameUtf8);
+	}
+
 	/**
 	 * Workbookの一括ダウンロードを行う
 	 * 
-	 * @param workbookDto
+	 * @param workbookDtoList
 	 * @param response
 	 * @throws IOException
 	 */
 	public static void downloadBookInZip(List<WorkbookDto> workbookDtoList, HttpServletResponse response)
 			throws IOException {
-		try (ZipOutputStream zos = new ZipOutputStream(response.getOutputStream(), Charset.forName("MS932"))) {
-			List<String> wbNameList = new ArrayList<String>();
-			for (WorkbookDto workbookDto : workbookDtoList) {
-
-				// もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
-				int count = 1;
-				String wbName = workbookDto.getWbName();
-				while (wbNameList.contains(wbName)) {
-					String prefix = FileUtil.getPrefix(workbookDto.getWbName());
-					String suffix = FileUtil.getSuffix(workbookDto.getWbName());
-					wbName = prefix + "(" + count + ")." + suffix;
-					count++;
-				}
-				wbNameList.add(wbName);
-
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				String zipName = "レポート";
-				String fileName = new String((zipName + new Date().getTime()).getBytes("Windows-31J"), "ISO-8859-1");
-				fileName += ".zip";
-				response.setContentType("application/octet-stream");
-				response.setHeader("Content-Disposition", "filename=\"" + fileName + "\"");
-				workbookDto.getWb().write(baos);
-
-				zos.putNextEntry(new ZipEntry(wbName));
-				zos.write(baos.toByteArray(), 0, baos.toByteArray().length);
-				zos.closeEntry();
-			}
-		}
+		downloadInZip(ZIP_NAME, workbookDtoList.iterator(), response);
 	}
 
 	/**
 	 * レポートの一括ダウンロードを行う
 	 * 
-	 * @param workbookDto
+	 * @param workbookDtoList
 	 * @param response
 	 * @throws IOException
 	 */
 	public static void downloadReportInZip(List<WorkbookDto> workbookDtoList, HttpServletResponse response)
 			throws IOException {
-		try (ZipOutputStream zos = new ZipOutputStream(response.getOutputStream(), Charset.forName("MS932"))) {
-			List<String> wbNameList = new ArrayList<String>();
-			for (WorkbookDto workbookDto : workbookDtoList) {
-
-				// もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
-				int count = 1;
-				String wbName = workbookDto.getWbName();
-				while (wbNameList.contains(wbName)) {
-					String prefix = FileUtil.getPrefix(workbookDto.getWbName());
-					String suffix = FileUtil.getSuffix(workbookDto.getWbName());
-					wbName = prefix + "(" + count + ")." + suffix;
-					count++;
+		downloadInZip(ZIP_NAME, workbookDtoList.iterator(), response);
+	}
+
+	/**
+	 * Workbookを順に作成しながら一括ダウンロードを行う
+	 * 
+	 * @param zipName      ZIPファイル名（拡張子なし）
+	 * @param workbookDtos next()の呼び出し毎にWorkbookを作成するイテレータ
+	 * @param response
+	 * @throws IOException
+	 */
+	public static void downloadInZip(String zipName, Iterator<WorkbookDto> workbookDtos,
+			HttpServletResponse response) throws IOException {
+
+		// ヘッダは書き込み開始前に1回だけ設定する
+		setAttachmentHeader(zipName + new Date().getTime() + ".zip", response);
+		try {
+			writeInZip(workbookDtos, response.getOutputStream());
+		} catch (IOException | RuntimeException | Error e) {
+			abort(response);
+			throw e;
+		}
+	}
+
+	/**
+	 * 書き出しに失敗したレスポンスの破棄<br>
+	 * 未送信の場合はヘッダ・書き込み済みの内容を破棄し、エラー画面を表示できるようにする。<br>
+	 * 送信済みの場合は正常終了させず、例外の送出によりコンテナが接続を切断する。
+	 * 
+	 * @param response
+	 */
+	public static void abort(HttpServletResponse response) {
+		if (!response.isCommitted()) {
+			response.reset();
+		}
+	}
+
+	/**
+	 * Workbookを順に作成しながらZIP形式で書き出す<br>
+	 * Workbookの作成は別の仮想スレッドで行い、ZIPへの書き込みと並行させる。<br>
+	 * 作成済みで書き込み待ちのWorkbookは一定数までとし、それ以上は書き込みを待ってから作成する。<br>
+	 * 失敗した場合はZIPの終端（セントラルディレクトリ）を書き込まず、書き出し先も閉じない。
+	 * 途中までの内容が完全なZIPとして扱われないよう、呼び出し元で破棄すること。
+	 * 
+	 * @param workbookDtos next()の呼び出し毎にWorkbookを作成するイテレータ
+	 * @param out          書き出し先（全て書き出した場合のみ閉じる）
+	 * @throws IOException
+	 */
+	public static void writeInZip(Iterator<WorkbookDto> workbookDtos, OutputStream out)
+			throws IOException {
+
+		BlockingQueue<WorkbookDto> queue = new ArrayBlockingQueue<>(ZIP_QUEUE_SIZE);
+		Future<?> future = ZIP_EXECUTOR.submit(() -> {
+			boolean interrupted = false;
+			try {
+				while (workbookDtos.hasNext()) {
+					queue.put(workbookDtos.next());
 				}
-				wbNameList.add(wbName);
-
-				ByteArrayOutputStream baos = new ByteArrayOutputStream();
-				String zipName = messageUtil.getMessage("dailyReportId");
-				String fileName = new String((zipName + new Date().getTime()).getBytes("Windows-31J"), "ISO-8859-1");
-				fileName += ".zip";
-				response.setContentType("application/octet-stream");
-				response.setHeader("Content-Disposition", "filename=\"" + fileName + "\"");
-				workbookDto.getWb().write(baos);
-
-				zos.putNextEntry(new ZipEntry(wbName));
-				zos.write(baos.toByteArray(), 0, baos.toByteArray().length);
+			} catch (InterruptedException e) {
+				// 書き込み側が中断した場合は終端を通知しない
+				interrupted = true;
+				throw e;
+			} finally {
+				// 作成に失敗した場合（Errorを含む）も終端を通知し、書き込み側で例外を受け取る
+				if (!interrupted) {
+					queue.put(END_OF_BOOKS);
+				}
+			}
+			return null;
+		});
+
+		// 失敗時にclose()でZIPの終端が書き込まれないよう、完了時のみ閉じる
+		ZipOutputStream zos = new ZipOutputStream(out, Charset.forName("MS932"));
+		try {
+			Set<String> wbNameSet = new HashSet<>();
+			OutputStream entryOut = new EntryOutputStream(zos);
+			WorkbookDto workbookDto;
+			while ((workbookDto = queue.take()) != END_OF_BOOKS) {
+				zos.putNextEntry(new ZipEntry(getUniqueName(workbookDto.getWbName(), wbNameSet)));
+				write(workbookDto.getWb(), entryOut);
 				zos.closeEntry();
 			}
+			future.get();
+			zos.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} finally {
+			// 書き込みに失敗した場合は作成を中断する
+			future.cancel(true);
 		}
 	}
 
+	/**
+	 * ZIP内で重複しないファイル名を取得<br>
+	 * もし、同名のファイルがあった場合ファイル名末尾に「(n)」を付与する
+	 * 
+	 * @param wbName    ファイル名
+	 * @param wbNameSet 使用済みのファイル名
+	 * @return ファイル名
+	 */
+	private static String getUniqueName(String wbName, Set<String> wbNameSet) {
+		String uniqueName = wbName;
+		int count = 1;
+		while (!wbNameSet.add(uniqueName)) {
+			uniqueName = FileUtil.getPrefix(wbName) + "(" + count + ")." + FileUtil.getSuffix(wbName);
+			count++;
+		}
+		return uniqueName;
+	}
+
 	/**
 	 * シート存在チェック
 	 * 
@@ -420,4 +662,26 @@ public class ExcelUtil {
 			return cell.getRichStringCellValue().toString();
 		}
 	}
+
+	/**
+	 * ZIPエントリへの書き込み用ストリーム<br>
+	 * XSSFWorkbook#writeは書き込み後にストリームを閉じるため、閉じる代わりにフラッシュする
+	 */
+	private static final class EntryOutputStream extends FilterOutputStream {
+
+		private EntryOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+
 }
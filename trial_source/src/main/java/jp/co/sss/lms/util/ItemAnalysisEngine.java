@@ -0,0 +1,352 @@
+package jp.co.sss.lms.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.ItemAnalysisSourceDto;
+import jp.co.sss.lms.dto.QuestionAnalysisDto;
+
+/**
+ * 問題分析のユーティリティクラス<br>
+ * 評点対象の試験結果の回答を、問題・コース毎の集計値（回答数・正答数・選択肢毎の件数・得点の合計）として
+ * メモリ上に保持する<br>
+ * 試験結果の登録時は差分で反映し、再構築は回答を複数スレッドで集計して置き換える
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ItemAnalysisEngine {
+
+	/** 選択肢の数 */
+	public static final int CHOICE_COUNT = 4;
+	/** 再構築時に1スレッドで集計する回答の件数（試験結果の途中では区切らない） */
+	private static final int BATCH_SIZE = 2000;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** 集計値 */
+	private Aggregate aggregate = new Aggregate();
+	/** 再構築中に反映された試験結果（再構築中以外はnull） */
+	private List<List<ItemAnalysisSourceDto>> pendingList = null;
+
+	/**
+	 * 試験結果の反映<br>
+	 * 反映済みの試験結果は無視する
+	 *
+	 * @param sourceList 1件の試験結果の全ての回答
+	 */
+	public void add(List<ItemAnalysisSourceDto> sourceList) {
+		if (sourceList.isEmpty()) {
+			return;
+		}
+		lock.writeLock().lock();
+		try {
+			aggregate.addResult(sourceList);
+			if (pendingList != null) {
+				pendingList.add(sourceList);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 再構築<br>
+	 * 読み込んだ回答を指定されたスレッド数で集計し、集計中も現在の集計値で分析できる
+	 *
+	 * @param sources     全ての回答（試験結果ID順）
+	 * @param parallelism 集計するスレッド数
+	 * @return 集計した試験結果の件数
+	 */
+	public int rebuild(Iterator<ItemAnalysisSourceDto> sources, int parallelism) {
+		lock.writeLock().lock();
+		try {
+			if (pendingList != null) {
+				throw new IllegalStateException("問題分析を再構築中です。");
+			}
+			pendingList = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		Aggregate newAggregate = null;
+		try {
+			newAggregate = aggregate(sources, parallelism);
+		} finally {
+			lock.writeLock().lock();
+			try {
+				// 失敗した場合は現在の集計値を使い続ける
+				if (newAggregate != null) {
+					for (List<ItemAnalysisSourceDto> pending : pendingList) {
+						newAggregate.addResult(pending);
+					}
+					aggregate = newAggregate;
+				}
+				pendingList = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return newAggregate.examResultIdSet.cardinality();
+	}
+
+	/**
+	 * 問題の分析結果を取得
+	 *
+	 * @param questionId
+	 * @param courseId   コースID（nullの場合は全コース）
+	 * @return 問題分析DTO（回答がない場合は回答数0）
+	 */
+	public QuestionAnalysisDto getAnalysis(Integer questionId, Integer courseId) {
+		Counter counter = new Counter();
+		lock.readLock().lock();
+		try {
+			Map<Integer, Counter> courseMap = aggregate.counterMap.get(questionId);
+			if (courseMap != null) {
+				for (Map.Entry<Integer, Counter> entry : courseMap.entrySet()) {
+					if (courseId == null || courseId.equals(entry.getKey())) {
+						counter.merge(entry.getValue());
+					}
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return counter.toDto(questionId);
+	}
+
+	/**
+	 * 回答の集計<br>
+	 * 読み込みは呼び出し元のスレッドで行い、区切った回答を別スレッドで集計して結合する
+	 *
+	 * @param sources
+	 * @param parallelism
+	 * @return 集計値
+	 */
+	private Aggregate aggregate(Iterator<ItemAnalysisSourceDto> sources, int parallelism) {
+		Aggregate result = new Aggregate();
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		Deque<Future<Aggregate>> futureQueue = new ArrayDeque<>();
+		try {
+			List<ItemAnalysisSourceDto> batch = new ArrayList<>(BATCH_SIZE);
+			Integer examResultId = null;
+			while (sources.hasNext()) {
+				ItemAnalysisSourceDto source = sources.next();
+				if (!source.getExamResultId().equals(examResultId)) {
+					examResultId = source.getExamResultId();
+					if (batch.size() >= BATCH_SIZE) {
+						futureQueue.add(submit(executor, batch));
+						batch = new ArrayList<>(BATCH_SIZE);
+					}
+					// 集計中の区切りが読み込みより遅れている場合は待つ
+					if (futureQueue.size() >= parallelism * 2) {
+						result.merge(futureQueue.poll().get());
+					}
+				}
+				batch.add(source);
+			}
+			futureQueue.add(submit(executor, batch));
+			while (!futureQueue.isEmpty()) {
+				result.merge(futureQueue.poll().get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * 区切った回答の集計
+	 *
+	 * @param executor
+	 * @param batch    試験結果の途中で区切られていない回答
+	 * @return 集計値
+	 */
+	private static Future<Aggregate> submit(ExecutorService executor, List<ItemAnalysisSourceDto> batch) {
+		return executor.submit(() -> {
+			Aggregate partial = new Aggregate();
+			for (ItemAnalysisSourceDto source : batch) {
+				partial.add(source);
+			}
+			return partial;
+		});
+	}
+
+	/**
+	 * 集計値
+	 */
+	private static final class Aggregate {
+
+		/** 問題ID・コースID毎の集計値 */
+		private final Map<Integer, Map<Integer, Counter>> counterMap = new HashMap<>();
+		/** 反映済みの試験結果ID */
+		private final BitSet examResultIdSet = new BitSet();
+
+		/**
+		 * 1件の試験結果の反映（反映済みの場合は無視する）
+		 *
+		 * @param sourceList
+		 */
+		private void addResult(List<ItemAnalysisSourceDto> sourceList) {
+			int examResultId = sourceList.get(0).getExamResultId();
+			if (examResultIdSet.get(examResultId)) {
+				return;
+			}
+			for (ItemAnalysisSourceDto source : sourceList) {
+				add(source);
+			}
+		}
+
+		/**
+		 * 回答の反映
+		 *
+		 * @param source
+		 */
+		private void add(ItemAnalysisSourceDto source) {
+			examResultIdSet.set(source.getExamResultId());
+			counterMap.computeIfAbsent(source.getQuestionId(), key -> new HashMap<>())
+					.computeIfAbsent(source.getCourseId(), key -> new Counter()).add(source);
+		}
+
+		/**
+		 * 他の集計値の結合
+		 *
+		 * @param other
+		 */
+		private void merge(Aggregate other) {
+			for (Map.Entry<Integer, Map<Integer, Counter>> question : other.counterMap.entrySet()) {
+				Map<Integer, Counter> courseMap = counterMap.computeIfAbsent(question.getKey(),
+						key -> new HashMap<>());
+				for (Map.Entry<Integer, Counter> course : question.getValue().entrySet()) {
+					courseMap.computeIfAbsent(course.getKey(), key -> new Counter()).merge(course.getValue());
+				}
+			}
+			examResultIdSet.or(other.examResultIdSet);
+		}
+	}
+
+	/**
+	 * 問題・コース毎の集計値<br>
+	 * 識別指数は、問題の正誤と他の問題の正答数との相関（修正済み点双列相関係数）を合計値から求める
+	 */
+	private static final class Counter {
+
+		/** 回答数 */
+		private long attemptCount;
+		/** 正答数 */
+		private long correctCount;
+		/** 回答毎の件数（0は未回答） */
+		private final long[] replyCount = new long[CHOICE_COUNT + 1];
+		/** 他の問題の正答数の合計 */
+		private long restScoreSum;
+		/** 他の問題の正答数の2乗の合計 */
+		private long restScoreSquareSum;
+		/** 正答した場合の他の問題の正答数の合計 */
+		private long correctRestScoreSum;
+
+		/**
+		 * 回答の反映
+		 *
+		 * @param source
+		 */
+		private void add(ItemAnalysisSourceDto source) {
+			Short reply = source.getReply();
+			boolean correct = reply != null && reply.equals(source.getAnswerNum());
+			long restScore = (source.getScore() != null ? source.getScore() : 0) - (correct ? 1 : 0);
+			attemptCount++;
+			replyCount[reply != null && reply >= 1 && reply <= CHOICE_COUNT ? reply : 0]++;
+			restScoreSum += restScore;
+			restScoreSquareSum += restScore * restScore;
+			if (correct) {
+				correctCount++;
+				correctRestScoreSum += restScore;
+			}
+		}
+
+		/**
+		 * 他の集計値の結合
+		 *
+		 * @param other
+		 */
+		private void merge(Counter other) {
+			attemptCount += other.attemptCount;
+			correctCount += other.correctCount;
+			for (int i = 0; i < replyCount.length; i++) {
+				replyCount[i] += other.replyCount[i];
+			}
+			restScoreSum += other.restScoreSum;
+			restScoreSquareSum += other.restScoreSquareSum;
+			correctRestScoreSum += other.correctRestScoreSum;
+		}
+
+		/**
+		 * 問題分析DTOの作成
+		 *
+		 * @param questionId
+		 * @return 問題分析DTO
+		 */
+		private QuestionAnalysisDto toDto(Integer questionId) {
+			QuestionAnalysisDto questionAnalysisDto = new QuestionAnalysisDto();
+			questionAnalysisDto.setQuestionId(questionId);
+			questionAnalysisDto.setAttemptCount(attemptCount);
+			if (attemptCount == 0) {
+				return questionAnalysisDto;
+			}
+			questionAnalysisDto.setCorrectRate(toRate(correctCount));
+			List<Double> choiceRateList = new ArrayList<>();
+			for (int i = 1; i <= CHOICE_COUNT; i++) {
+				choiceRateList.add(toRate(replyCount[i]));
+			}
+			questionAnalysisDto.setChoiceRateList(choiceRateList);
+			questionAnalysisDto.setNoAnswerRate(toRate(replyCount[0]));
+			questionAnalysisDto.setDiscrimination(getDiscrimination());
+			return questionAnalysisDto;
+		}
+
+		/**
+		 * 割合（%、小数第1位まで）
+		 *
+		 * @param count
+		 * @return 割合
+		 */
+		private double toRate(long count) {
+			return Math.round(count * 1000.0 / attemptCount) / 10.0;
+		}
+
+		/**
+		 * 識別指数（小数第2位まで）
+		 *
+		 * @return 識別指数（全員正答・全員誤答・他の問題の正答数が全員同じ場合はnull）
+		 */
+		private Double getDiscrimination() {
+			double n = attemptCount;
+			double covariance = n * correctRestScoreSum - (double) correctCount * restScoreSum;
+			double correctVariance = n * correctCount - (double) correctCount * correctCount;
+			double restScoreVariance = n * restScoreSquareSum - (double) restScoreSum * restScoreSum;
+			if (correctVariance <= 0 || restScoreVariance <= 0) {
+				return null;
+			}
+			return Math.round(covariance / Math.sqrt(correctVariance * restScoreVariance) * 100) / 100.0;
+		}
+	}
+
+}
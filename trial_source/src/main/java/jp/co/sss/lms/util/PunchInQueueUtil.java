@@ -0,0 +1,214 @@
+package jp.co.sss.lms.util;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 出勤打刻キューのユーティリティクラス<br>
+ * 出勤打刻をLMSユーザーID毎にメモリ上へ受け付け、一定間隔でまとめて登録する<br>
+ * 登録が完了するまでは受け付けた打刻を参照できるため、本人の打刻状態は即時に反映される<br>
+ * 登録は呼び出し元のトランザクションから独立して行い、登録できない打刻が他のユーザーの打刻を妨げないようにする<br>
+ * 登録できなかった打刻は破棄せず、次回の一括登録で再度登録する
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class PunchInQueueUtil {
+
+	/** ストライプ数 */
+	private static final int STRIPE_COUNT = 16;
+	/** 一括登録の最大件数 */
+	private static final int UPSERT_CHUNK_SIZE = 1000;
+
+	private final Logger logger = LoggerFactory.getLogger(getClass());
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	/** LMSユーザーIDで振り分けた受付済み打刻 */
+	private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+
+	public PunchInQueueUtil() {
+		for (int i = 0; i < STRIPE_COUNT; i++) {
+			stripes[i] = new Stripe();
+		}
+	}
+
+	/**
+	 * 出勤打刻の受付<br>
+	 * 同じ研修日の打刻を受付済みの場合は、後の打刻を破棄する
+	 *
+	 * @param tStudentAttendance 登録する勤怠情報
+	 * @return 受け付けた場合true、重複して破棄した場合false
+	 */
+	public boolean offer(TStudentAttendance tStudentAttendance) {
+		Integer lmsUserId = tStudentAttendance.getLmsUserId();
+		Stripe stripe = getStripe(lmsUserId);
+		synchronized (stripe) {
+			TStudentAttendance pending = stripe.pendingMap.get(lmsUserId);
+			if (pending != null) {
+				if (pending.getTrainingDate().equals(tStudentAttendance.getTrainingDate())) {
+					return false;
+				}
+				// 前日以前の打刻が残っている場合は先に登録する
+				flush(stripe, lmsUserId);
+			}
+			stripe.pendingMap.put(lmsUserId, tStudentAttendance);
+			return true;
+		}
+	}
+
+	/**
+	 * 登録待ちの出勤打刻を取得
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @return 登録待ちの勤怠情報（ない場合はnull）
+	 */
+	public TStudentAttendance get(Integer lmsUserId, Date trainingDate) {
+		TStudentAttendance pending = getStripe(lmsUserId).pendingMap.get(lmsUserId);
+		if (pending == null || !pending.getTrainingDate().equals(trainingDate)) {
+			return null;
+		}
+		return pending;
+	}
+
+	/**
+	 * 指定ユーザーの出勤打刻を即時に登録する<br>
+	 * 打刻済みの勤怠情報を更新する前に呼び出す（他のユーザーの打刻は登録しない）
+	 *
+	 * @param lmsUserId
+	 */
+	public void flush(Integer lmsUserId) {
+		Stripe stripe = getStripe(lmsUserId);
+		synchronized (stripe) {
+			flush(stripe, lmsUserId);
+		}
+	}
+
+	/**
+	 * 全ての出勤打刻を登録する<br>
+	 * 登録できなかった打刻はログに出力し、登録待ちのまま残す<br>
+	 * 他の定期処理に待たされないよう、専用のスケジューラで実行する
+	 */
+	@Scheduled(fixedDelayString = "${setting.attendance.punch.flush.millisecond}",
+			scheduler = "punchInFlushScheduler")
+	@PreDestroy
+	public void flushAll() {
+		for (Stripe stripe : stripes) {
+			flush(stripe);
+		}
+	}
+
+	/**
+	 * 指定ユーザーの打刻を登録する<br>
+	 * 登録に失敗した場合は打刻を残して例外を送出する（呼び出し元でストライプをロックすること）
+	 *
+	 * @param stripe
+	 * @param lmsUserId
+	 */
+	private void flush(Stripe stripe, Integer lmsUserId) {
+		TStudentAttendance pending = stripe.pendingMap.get(lmsUserId);
+		if (pending == null) {
+			return;
+		}
+		upsert(List.of(pending));
+		stripe.pendingMap.remove(lmsUserId, pending);
+	}
+
+	/**
+	 * ストライプ内の打刻を一括登録する<br>
+	 * 登録待ちの打刻をロックして取り出し、登録はロックせずに行うため、登録中も打刻を受け付けられる<br>
+	 * 一括登録に失敗した場合は1件ずつ登録し直し、登録できた打刻のみ取り除く<br>
+	 * 登録中の打刻は登録待ちに残るため、本人の打刻状態の参照と重複打刻の判定は登録中も行える<br>
+	 * （同じ打刻が即時登録と重複して登録されても、登録済みの出勤時刻は上書きされない）
+	 *
+	 * @param stripe
+	 */
+	private void flush(Stripe stripe) {
+		List<TStudentAttendance> tStudentAttendanceList;
+		synchronized (stripe) {
+			if (stripe.pendingMap.isEmpty()) {
+				return;
+			}
+			tStudentAttendanceList = new ArrayList<>(stripe.pendingMap.values());
+		}
+		for (int from = 0; from < tStudentAttendanceList.size(); from += UPSERT_CHUNK_SIZE) {
+			int to = Math.min(from + UPSERT_CHUNK_SIZE, tStudentAttendanceList.size());
+			List<TStudentAttendance> chunk = tStudentAttendanceList.subList(from, to);
+			List<TStudentAttendance> upsertedList = new ArrayList<>();
+			try {
+				upsert(chunk);
+				upsertedList.addAll(chunk);
+			} catch (RuntimeException e) {
+				logger.warn("出勤打刻の一括登録に失敗したため、1件ずつ登録します。", e);
+				for (TStudentAttendance tStudentAttendance : chunk) {
+					try {
+						upsert(List.of(tStudentAttendance));
+						upsertedList.add(tStudentAttendance);
+					} catch (RuntimeException ex) {
+						logger.error("出勤打刻の登録に失敗したため、次回再度登録します。LMSユーザーID：{}、研修日：{}",
+								tStudentAttendance.getLmsUserId(), tStudentAttendance.getTrainingDate(), ex);
+					}
+				}
+			}
+			synchronized (stripe) {
+				for (TStudentAttendance tStudentAttendance : upsertedList) {
+					stripe.pendingMap.remove(tStudentAttendance.getLmsUserId(), tStudentAttendance);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 打刻を登録する<br>
+	 * 呼び出し元のトランザクションが失敗の影響を受けないよう、別のトランザクションで登録する
+	 *
+	 * @param tStudentAttendanceList
+	 */
+	private void upsert(List<TStudentAttendance> tStudentAttendanceList) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		transactionTemplate.executeWithoutResult(
+				status -> tStudentAttendanceMapper.upsertPunchInList(tStudentAttendanceList));
+	}
+
+	/**
+	 * LMSユーザーIDのストライプを取得
+	 *
+	 * @param lmsUserId
+	 * @return ストライプ
+	 */
+	private Stripe getStripe(Integer lmsUserId) {
+		return stripes[Math.floorMod(lmsUserId.hashCode(), STRIPE_COUNT)];
+	}
+
+	/**
+	 * 受付済み打刻の格納領域<br>
+	 * 更新はストライプ単位でロックし、参照はロックせずに行う（一括登録のDBアクセス中はロックしない）
+	 */
+	private static final class Stripe {
+
+		/** LMSユーザーID毎の登録待ち打刻 */
+		private final ConcurrentMap<Integer, TStudentAttendance> pendingMap = new ConcurrentHashMap<>();
+	}
+
+}
@@ -0,0 +1,369 @@
+package jp.co.sss.lms.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import jp.co.sss.lms.dto.ReportSearchDocumentDto;
+
+/**
+ * レポート検索インデックスのユーティリティクラス<br>
+ * 日報提出の内容を文字単位の1-gram・2-gramに分割した転置インデックスをメモリ上に保持する<br>
+ * 登録・更新は差分で反映し、再構築中に反映された差分は再構築後のインデックスにも適用する
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class ReportSearchIndex {
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** 検索に使用するインデックス */
+	private Segment segment = new Segment();
+	/** 再構築中に反映された差分（再構築中以外はnull） */
+	private List<Consumer<Segment>> pendingList = null;
+
+	/**
+	 * 文書の登録<br>
+	 * 登録済みの日報提出IDの場合は置き換える
+	 *
+	 * @param document
+	 */
+	public void put(ReportSearchDocumentDto document) {
+		apply(s -> s.put(document));
+	}
+
+	/**
+	 * 文書の削除
+	 *
+	 * @param dailyReportSubmitId
+	 */
+	public void remove(Integer dailyReportSubmitId) {
+		apply(s -> s.remove(dailyReportSubmitId));
+	}
+
+	/**
+	 * インデックスの再構築<br>
+	 * 新しいインデックスを作成している間も、検索と差分の反映は現在のインデックスで行う
+	 *
+	 * @param documents 登録する全ての文書
+	 * @return 登録件数
+	 */
+	public int rebuild(Iterator<ReportSearchDocumentDto> documents) {
+		lock.writeLock().lock();
+		try {
+			if (pendingList != null) {
+				throw new IllegalStateException("インデックスを再構築中です。");
+			}
+			pendingList = new ArrayList<>();
+		} finally {
+			lock.writeLock().unlock();
+		}
+
+		Segment newSegment = new Segment();
+		boolean completed = false;
+		try {
+			while (documents.hasNext()) {
+				newSegment.put(documents.next());
+			}
+			completed = true;
+		} finally {
+			lock.writeLock().lock();
+			try {
+				// 失敗した場合は現在のインデックスを使い続ける
+				if (completed) {
+					for (Consumer<Segment> pending : pendingList) {
+						pending.accept(newSegment);
+					}
+					segment = newSegment;
+				}
+				pendingList = null;
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		return newSegment.docNoMap.size();
+	}
+
+	/**
+	 * 検索<br>
+	 * 空白区切りの全ての語を含む文書を、新しく登録された順に取得する
+	 *
+	 * @param keyword 検索語
+	 * @param filter  検索対象の条件
+	 * @param limit   最大件数
+	 * @return 該当した文書
+	 */
+	public List<ReportSearchDocumentDto> search(String keyword, Predicate<ReportSearchDocumentDto> filter,
+			int limit) {
+
+		List<String> termList = new ArrayList<>();
+		for (String term : normalize(keyword).split("\\s+")) {
+			if (!term.isEmpty()) {
+				termList.add(term);
+			}
+		}
+		List<ReportSearchDocumentDto> documentList = new ArrayList<>();
+		if (termList.isEmpty()) {
+			return documentList;
+		}
+
+		lock.readLock().lock();
+		try {
+			int[] candidates = segment.getCandidates(termList);
+			// 文書番号の大きい（新しく登録された）順に確認し、最大件数に達したら終了する
+			for (int i = candidates.length - 1; i >= 0 && documentList.size() < limit; i--) {
+				Entry entry = segment.entryList.get(candidates[i]);
+				if (entry != null && entry.containsAll(termList) && filter.test(entry.document)) {
+					documentList.add(entry.document);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return documentList;
+	}
+
+	/**
+	 * 登録件数を取得
+	 *
+	 * @return 登録件数
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return segment.docNoMap.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * 検索用の正規化<br>
+	 * 全角英数字・半角カナの統一（NFKC）と英字の小文字化を行う
+	 *
+	 * @param text
+	 * @return 正規化後の文字列
+	 */
+	public static String normalize(String text) {
+		if (text == null) {
+			return "";
+		}
+		return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 現在のインデックスに差分を反映する<br>
+	 * 再構築中の場合は再構築後のインデックスにも反映するため保持する
+	 *
+	 * @param operation
+	 */
+	private void apply(Consumer<Segment> operation) {
+		lock.writeLock().lock();
+		try {
+			operation.accept(segment);
+			if (pendingList != null) {
+				pendingList.add(operation);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * 転置インデックス
+	 */
+	private static final class Segment {
+
+		/** 文書番号毎の文書（削除・置き換え済みの場合はnull） */
+		private final List<Entry> entryList = new ArrayList<>();
+		/** 日報提出ID毎の文書番号 */
+		private final Map<Integer, Integer> docNoMap = new HashMap<>();
+		/** gram毎の文書番号（昇順） */
+		private final Map<String, Postings> postingsMap = new HashMap<>();
+
+		/**
+		 * 文書の登録<br>
+		 * 置き換えの場合は旧文書を削除扱いとし、新しい文書番号で登録する
+		 *
+		 * @param document
+		 */
+		private void put(ReportSearchDocumentDto document) {
+			remove(document.getDailyReportSubmitId());
+			int docNo = entryList.size();
+			Entry entry = new Entry(document);
+			entryList.add(entry);
+			docNoMap.put(document.getDailyReportSubmitId(), docNo);
+			for (String gram : toGrams(entry.text)) {
+				postingsMap.computeIfAbsent(gram, key -> new Postings()).add(docNo);
+			}
+		}
+
+		/**
+		 * 文書の削除<br>
+		 * 転置リストからは除かず、文書のみ削除扱いとする（再構築時に除かれる）
+		 *
+		 * @param dailyReportSubmitId
+		 */
+		private void remove(Integer dailyReportSubmitId) {
+			Integer docNo = docNoMap.remove(dailyReportSubmitId);
+			if (docNo != null) {
+				entryList.set(docNo, null);
+			}
+		}
+
+		/**
+		 * 全ての語のgramを含む文書番号を取得
+		 *
+		 * @param termList 正規化済みの検索語
+		 * @return 文書番号（昇順）
+		 */
+		private int[] getCandidates(List<String> termList) {
+			List<Postings> postingsList = new ArrayList<>();
+			for (String term : termList) {
+				for (String gram : toQueryGrams(term)) {
+					Postings postings = postingsMap.get(gram);
+					if (postings == null) {
+						return new int[0];
+					}
+					postingsList.add(postings);
+				}
+			}
+			// 件数の少ない転置リストから絞り込む
+			postingsList.sort((p1, p2) -> Integer.compare(p1.size, p2.size));
+			int[] candidates = Arrays.copyOf(postingsList.get(0).docNos, postingsList.get(0).size);
+			for (int i = 1; i < postingsList.size() && candidates.length > 0; i++) {
+				candidates = postingsList.get(i).retain(candidates);
+			}
+			return candidates;
+		}
+	}
+
+	/**
+	 * 登録済みの文書
+	 */
+	private static final class Entry {
+
+		private final ReportSearchDocumentDto document;
+		/** 正規化済みの内容 */
+		private final String text;
+
+		private Entry(ReportSearchDocumentDto document) {
+			this.document = document;
+			this.text = normalize(document.getContent());
+		}
+
+		/**
+		 * 全ての語を含むか判定<br>
+		 * gramの一致だけでは語順が異なる文書も該当するため、内容で確認する
+		 *
+		 * @param termList
+		 * @return 全ての語を含む場合true
+		 */
+		private boolean containsAll(List<String> termList) {
+			for (String term : termList) {
+				if (!text.contains(term)) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * 文書番号の転置リスト
+	 */
+	private static final class Postings {
+
+		private int[] docNos = new int[4];
+		private int size;
+
+		/**
+		 * 文書番号の追加（文書番号は昇順に追加される）
+		 *
+		 * @param docNo
+		 */
+		private void add(int docNo) {
+			if (size == docNos.length) {
+				docNos = Arrays.copyOf(docNos, size * 2);
+			}
+			docNos[size++] = docNo;
+		}
+
+		/**
+		 * 指定された文書番号のうち、この転置リストに含まれるものを取得
+		 *
+		 * @param candidates 文書番号（昇順）
+		 * @return 文書番号（昇順）
+		 */
+		private int[] retain(int[] candidates) {
+			int[] result = new int[candidates.length];
+			int count = 0;
+			int from = 0;
+			for (int candidate : candidates) {
+				int index = Arrays.binarySearch(docNos, from, size, candidate);
+				if (index >= 0) {
+					result[count++] = candidate;
+					from = index + 1;
+				} else {
+					from = -index - 1;
+				}
+			}
+			return Arrays.copyOf(result, count);
+		}
+	}
+
+	/**
+	 * 登録用のgramを取得<br>
+	 * 1文字の検索語にも対応するため、1-gramと2-gramを登録する（空白を含むものは除く）
+	 *
+	 * @param text 正規化済みの内容
+	 * @return gram
+	 */
+	private static Set<String> toGrams(String text) {
+		Set<String> gramSet = new HashSet<>();
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (Character.isWhitespace(c)) {
+				continue;
+			}
+			gramSet.add(String.valueOf(c));
+			if (i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+				gramSet.add(text.substring(i, i + 2));
+			}
+		}
+		return gramSet;
+	}
+
+	/**
+	 * 検索用のgramを取得<br>
+	 * 1文字の場合は1-gram、2文字以上の場合は2-gramに分割する
+	 *
+	 * @param term 正規化済みの検索語（空白を含まない）
+	 * @return gram
+	 */
+	private static Set<String> toQueryGrams(String term) {
+		Set<String> gramSet = new HashSet<>();
+		if (term.length() == 1) {
+			gramSet.add(term);
+		}
+		for (int i = 0; i + 1 < term.length(); i++) {
+			gramSet.add(term.substring(i, i + 2));
+		}
+		return gramSet;
+	}
+
+}
@@ -1,40 +1,52 @@
 package jp.co.sss.lms.util;
 
 import java.io.Serializable;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalTime;
 
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
-
-import lombok.Getter;
-import lombok.Setter;
 
 /**
- * 研修時刻ユーティリティ
+ * 研修時刻ユーティリティ<br>
+ * 時刻は0時からの経過分数（int）で保持する。<br>
+ * {@link #valueOf(int, int)}等のファクトリメソッドは0:00～23:59の共有インスタンスを返却する。
+ * 共有インスタンスは変更不可であり、変更するメソッドを呼び出すとUnsupportedOperationExceptionとなる。
+ * 変更する場合はコンストラクタでインスタンスを作成すること。
  * 
  * @author 東京ITスクール
  */
 @Component
-@Getter
-@Setter
 public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 
 	/** シリアルバージョンUID */
 	private static final long serialVersionUID = 1L;
 
-	/** 時間 */
-	private Integer hour;
-	/** 分 */
-	private Integer minute;
+	/** 未設定を表す経過分数 */
+	private static final int BLANK = Integer.MIN_VALUE;
+	/** 1日の分数 */
+	private static final int MINUTES_OF_DAY = 24 * 60;
+	/** 時・分として解釈する最大桁数（9999999時59分の経過分数がintに収まる桁数） */
+	private static final int MAX_DIGITS = 7;
+
+	/** 共有インスタンス（0:00～23:59） */
+	private static final TrainingTime[] CACHE = new TrainingTime[MINUTES_OF_DAY];
+	/** 共有インスタンス（未設定） */
+	private static final TrainingTime BLANK_TIME = new TrainingTime(BLANK, true);
+	static {
+		for (int i = 0; i < MINUTES_OF_DAY; i++) {
+			CACHE[i] = new TrainingTime(i, true);
+		}
+	}
+
+	/** 0時からの経過分数（未設定の場合はBLANK） */
+	private int minutes;
+	/** 共有インスタンスかどうか */
+	private final transient boolean shared;
 
 	/**
 	 * 現在時刻でインスタンスを作成する
 	 */
 	public TrainingTime() {
-		SimpleDateFormat sdf = new SimpleDateFormat("HH:mm");
-		String timeStr = sdf.format(new Date());
-		setTimeStr(timeStr);
+		this(currentMinutes(), false);
 	}
 
 	/**
@@ -47,51 +59,197 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 		if (!isValidTrainingTime(hour, minute)) {
 			throw new IllegalArgumentException();
 		}
-		this.hour = hour;
-		this.minute = minute;
+		this.minutes = toMinutes(hour, minute);
+		this.shared = false;
 	}
 
 	/**
-	 * インスタンス可能か返却する
+	 * 文字列からインスタンス化する。 有効フォーマット："9:00", "18:00", "0900", "1800"
+	 *
+	 * @param timeStr
+	 */
+	public TrainingTime(String timeStr) {
+		this(parseMinutes(timeStr), false);
+	}
+
+	/**
+	 * 経過分数からインスタンスを作成
+	 * 
+	 * @param minutes
+	 * @param shared
+	 */
+	private TrainingTime(int minutes, boolean shared) {
+		this.minutes = minutes;
+		this.shared = shared;
+	}
+
+	/**
+	 * 指定時刻の共有インスタンスを返却する
+	 * 
+	 * @param hour
+	 * @param minute
+	 * @return 研修時刻
+	 */
+	public static TrainingTime valueOf(int hour, int minute) {
+		if (minute > 59 || minute < 0) {
+			throw new IllegalArgumentException();
+		}
+		return ofMinutes(toMinutes(hour, minute));
+	}
+
+	/**
+	 * 文字列から共有インスタンスを返却する。 有効フォーマット："9:00", "18:00", "0900", "1800"
 	 * 
 	 * @param timeStr
-	 * @return boolean
+	 * @return 研修時刻（空文字の場合は未設定の研修時刻）
 	 */
-	public boolean isValidTrainingTime(String timeStr) {
-		if (StringUtils.isEmpty(timeStr)) {
-			return true;
+	public static TrainingTime valueOf(String timeStr) {
+		int minutes = parseMinutes(timeStr);
+		return minutes == BLANK ? BLANK_TIME : ofMinutes(minutes);
+	}
+
+	/**
+	 * 現在時刻の共有インスタンスを返却する
+	 * 
+	 * @return 研修時刻
+	 */
+	public static TrainingTime now() {
+		return CACHE[currentMinutes()];
+	}
+
+	/**
+	 * 経過分数から共有インスタンスを返却する<br>
+	 * 0:00～23:59以外は新たに変更不可のインスタンスを作成する
+	 * 
+	 * @param minutes
+	 * @return 研修時刻
+	 */
+	private static TrainingTime ofMinutes(int minutes) {
+		if (minutes >= 0 && minutes < MINUTES_OF_DAY) {
+			return CACHE[minutes];
+		}
+		return new TrainingTime(minutes, true);
+	}
+
+	/**
+	 * 時・分を経過分数に変換する
+	 * 
+	 * @param hour
+	 * @param minute
+	 * @return 0時からの経過分数
+	 * @throws IllegalArgumentException intに収まらない場合
+	 */
+	private static int toMinutes(int hour, int minute) {
+		try {
+			return Math.addExact(Math.multiplyExact(hour, 60), minute);
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(e);
 		}
-		Integer hour, minute;
-		if (timeStr.indexOf(":") >= 0) {
-			String[] times = timeStr.split(":");
-			final String numRegex = "[0-9]+";
-			if (times.length == 2 && times[0].matches(numRegex) && times[1].matches(numRegex)) {
-				hour = Integer.parseInt(times[0]);
-				minute = Integer.parseInt(times[1]);
-				return isValidTrainingTime(hour, minute);
-			} else {
-				return false;
+	}
+
+	/**
+	 * 現在時刻の経過分数を取得
+	 * 
+	 * @return 0時からの経過分数
+	 */
+	private static int currentMinutes() {
+		LocalTime now = LocalTime.now();
+		return now.getHour() * 60 + now.getMinute();
+	}
+
+	/**
+	 * 文字列を経過分数に変換する
+	 * 
+	 * @param timeStr
+	 * @return 0時からの経過分数（空文字の場合はBLANK）
+	 * @throws IllegalArgumentException 有効フォーマットでない場合
+	 */
+	private static int parseMinutes(String timeStr) {
+		if (timeStr == null || timeStr.isEmpty()) {
+			return BLANK;
+		}
+		int minutes = parseOrInvalid(timeStr);
+		if (minutes == BLANK) {
+			throw new IllegalArgumentException(timeStr + " is Illegal.");
+		}
+		return minutes;
+	}
+
+	/**
+	 * 文字列を経過分数に変換する（正規表現・split不使用）
+	 * 
+	 * @param timeStr 空でない文字列
+	 * @return 0時からの経過分数（有効フォーマットでない場合はBLANK）
+	 */
+	private static int parseOrInvalid(String timeStr) {
+		int length = timeStr.length();
+		int colon = timeStr.indexOf(':');
+		int hour, minute;
+		if (colon >= 0) {
+			// "H:mm"形式（時・分ともに1桁以上の数字）
+			if (timeStr.indexOf(':', colon + 1) >= 0) {
+				return BLANK;
 			}
-		} else if (timeStr.matches("[0-9]{4}")) {
+			hour = parseDigits(timeStr, 0, colon);
+			minute = parseDigits(timeStr, colon + 1, length);
+		} else if (length == 4) {
 			// 数値4桁の場合
-			String hourStr = timeStr.substring(0, 2);
-			String minuteStr = timeStr.substring(2, 4);
-			hour = Integer.parseInt(hourStr);
-			minute = Integer.parseInt(minuteStr);
-			return isValidTrainingTime(hour, minute);
+			hour = parseDigits(timeStr, 0, 2);
+			minute = parseDigits(timeStr, 2, 4);
 		} else {
-			return false;
+			return BLANK;
+		}
+		if (hour < 0 || minute < 0 || minute > 59) {
+			return BLANK;
 		}
+		return hour * 60 + minute;
+	}
+
+	/**
+	 * 指定範囲の数字を数値に変換する
+	 * 
+	 * @param str
+	 * @param from 開始位置（含む）
+	 * @param to   終了位置（含まない）
+	 * @return 数値（数字以外を含む・空・桁数超過の場合は-1）
+	 */
+	private static int parseDigits(String str, int from, int to) {
+		if (from >= to || to - from > MAX_DIGITS) {
+			return -1;
+		}
+		int value = 0;
+		for (int i = from; i < to; i++) {
+			char c = str.charAt(i);
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
 	}
 
 	/**
 	 * インスタンス可能か返却する
 	 * 
+	 * @param timeStr
+	 * @return boolean
+	 */
+	public boolean isValidTrainingTime(String timeStr) {
+		if (timeStr == null || timeStr.isEmpty()) {
+			return true;
+		}
+		return parseOrInvalid(timeStr) != BLANK;
+	}
+
+	/**
+	 * インスタンス可能か返却する<br>
+	 * コンストラクタから呼び出すためオーバーライド不可とする
+	 * 
 	 * @param hour
 	 * @param minute
 	 * @return boolean
 	 */
-	public boolean isValidTrainingTime(Integer hour, Integer minute) {
+	public final boolean isValidTrainingTime(Integer hour, Integer minute) {
 		if (hour == null || minute == null) {
 			return false;
 		}
@@ -102,48 +260,62 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	}
 
 	/**
-	 * 文字列からインスタンス化する。 有効フォーマット："9:00", "18:00", "0900", "1800"
-	 *
-	 * @param timeStr
+	 * 時間を取得
+	 * 
+	 * @return 時間（未設定の場合はnull）
 	 */
-	public TrainingTime(String timeStr) {
-		if (StringUtils.isEmpty(timeStr)) {
-			return;
-		}
-		setTimeStr(timeStr);
+	public Integer getHour() {
+		return isBlank() ? null : Math.floorDiv(minutes, 60);
 	}
 
 	/**
-	 * 時刻を設定
-	 *
-	 * @param timeStr
+	 * 分を取得
+	 * 
+	 * @return 分（未設定の場合はnull）
 	 */
-	private void setTimeStr(String timeStr) {
-		// 有効フォーマットかどうかチェックを行う
-		if (!isValidTrainingTime(timeStr)) {
-			throw new IllegalArgumentException(timeStr + " is Illegal.");
-		}
-		Integer hour, minute;
-		if (timeStr.indexOf(":") >= 0) {
-			String[] times = timeStr.split(":");
-			// isValidTrainingTimeでチェック済のためそのまま変換する
-			hour = Integer.parseInt(times[0]);
-			minute = Integer.parseInt(times[1]);
-		} else if (timeStr.matches("[0-9]{4}")) {
-			// 数値4桁の場合
-			String hourStr = timeStr.substring(0, 2);
-			String minuteStr = timeStr.substring(2, 4);
-			hour = Integer.parseInt(hourStr);
-			minute = Integer.parseInt(minuteStr);
+	public Integer getMinute() {
+		return isBlank() ? null : Math.floorMod(minutes, 60);
+	}
+
+	/**
+	 * 時間を設定<br>
+	 * 未設定のインスタンスに設定した場合、分は0となる
+	 * 
+	 * @param hour
+	 */
+	public void setHour(Integer hour) {
+		checkModifiable();
+		if (hour == null) {
+			this.minutes = BLANK;
 		} else {
-			throw new IllegalArgumentException();
+			this.minutes = hour * 60 + (isBlank() ? 0 : getMinute());
 		}
-		// 数値的なチェックを行う
-		if (!isValidTrainingTime(hour, minute)) {
-			throw new IllegalArgumentException();
+	}
+
+	/**
+	 * 分を設定<br>
+	 * 未設定のインスタンスに設定した場合、時間は0となる
+	 * 
+	 * @param minute
+	 */
+	public void setMinute(Integer minute) {
+		checkModifiable();
+		if (minute == null) {
+			this.minutes = BLANK;
+		} else {
+			this.minutes = (isBlank() ? 0 : getHour()) * 60 + minute;
 		}
-		this.hour = hour;
-		this.minute = minute;
+	}
+
+	/**
+	 * 0時からの経過分数を取得
+	 * 
+	 * @return 経過分数
+	 * @throws IllegalStateException 未設定の場合
+	 */
+	public int toMinutes() {
+		checkNotBlank();
+		return minutes;
 	}
 
 	/**
@@ -153,15 +325,9 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * @return this + augend
 	 */
 	public TrainingTime add(TrainingTime augend) {
-		Integer retHour = this.hour;
-		Integer retMinute = this.minute;
-		retHour += augend.hour;
-		retMinute += augend.minute;
-		while (retMinute >= 60) {
-			retHour += 1;
-			retMinute -= 60;
-		}
-		return new TrainingTime(retHour, retMinute);
+		checkNotBlank();
+		augend.checkNotBlank();
+		return new TrainingTime(this.minutes + augend.minutes, false);
 	}
 
 	/**
@@ -172,17 +338,11 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 */
 	public TrainingTime subtract(TrainingTime subtrahend) {
 		if (this.compareTo(subtrahend) > 0) {
-			Integer retHour = this.hour;
-			Integer retMinute = this.minute;
-			retHour -= subtrahend.hour;
-			retMinute -= subtrahend.minute;
-			while (retHour > 0 && retMinute < 0) {
-				retHour -= 1;
-				retMinute += 60;
-			}
-			return new TrainingTime(retHour, retMinute);
+			checkNotBlank();
+			subtrahend.checkNotBlank();
+			return new TrainingTime(this.minutes - subtrahend.minutes, false);
 		} else if (this.equals(subtrahend)) {
-			return new TrainingTime(0, 0);
+			return new TrainingTime(0, false);
 		} else {
 			throw new UnsupportedOperationException("未実装");
 		}
@@ -245,17 +405,22 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	@Override
 	public boolean equals(Object anObject) {
 		if (anObject instanceof TrainingTime) {
-			TrainingTime target = (TrainingTime) anObject;
-			if (target.hour == this.hour && target.minute == this.minute) {
-				return true;
-			} else {
-				return false;
-			}
+			return ((TrainingTime) anObject).minutes == this.minutes;
 		} else {
 			return false;
 		}
 	}
 
+	/**
+	 * ハッシュコードを返却
+	 * 
+	 * @return ハッシュコード
+	 */
+	@Override
+	public int hashCode() {
+		return Integer.hashCode(minutes);
+	}
+
 	/**
 	 * 指定した研修時間インスタンスの比較
 	 * 
@@ -264,22 +429,14 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 */
 	@Override
 	public int compareTo(TrainingTime anotherTrainingTime) {
-		if (this.isBlank() && anotherTrainingTime != null && !anotherTrainingTime.isBlank()) {
-			return -1;
+		boolean anotherBlank = anotherTrainingTime == null || anotherTrainingTime.isBlank();
+		if (this.isBlank()) {
+			return anotherBlank ? 0 : -1;
 		}
-		if (!this.isBlank() && (anotherTrainingTime == null || anotherTrainingTime.isBlank())) {
+		if (anotherBlank) {
 			return 1;
 		}
-		if (this.isBlank() && (anotherTrainingTime == null || anotherTrainingTime.isBlank())) {
-			return 0;
-		}
-		if (this.equals(anotherTrainingTime)) {
-			return 0;
-		}
-		if (this.hour != anotherTrainingTime.hour) {
-			return this.hour.compareTo(anotherTrainingTime.hour);
-		}
-		return this.minute.compareTo(anotherTrainingTime.minute);
+		return Integer.compare(this.minutes, anotherTrainingTime.minutes);
 	}
 
 	/**
@@ -288,7 +445,7 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * @return boolean
 	 */
 	public boolean isBlank() {
-		return (this.hour == null || this.minute == null);
+		return minutes == BLANK;
 	}
 
 	/**
@@ -306,66 +463,57 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * @return HH:mm
 	 */
 	public String getFormattedString() {
-		if (hour == null || minute == null) {
+		if (isBlank()) {
 			return "";
-		} else {
+		}
+		int hour = getHour();
+		int minute = getMinute();
+		if (hour < 0 || hour > 99) {
 			return String.format("%1$02d:%2$02d", hour, minute);
 		}
+		char[] chars = { (char) ('0' + hour / 10), (char) ('0' + hour % 10), ':',
+				(char) ('0' + minute / 10), (char) ('0' + minute % 10) };
+		return new String(chars);
 	}
 
 	/**
-	 * 分を15分刻みで切り上げる。出社に仕様
+	 * 分を15分刻みで切り上げる。出社に仕様<br>
+	 * 共有インスタンスの場合は、切り上げた時刻の共有インスタンスを返却する
 	 * 
 	 * @return
 	 */
 	public TrainingTime roundUp() {
-		if (between(this.minute, 46, 59)) {
-			this.hour++;
-			this.minute = 0;
-		} else if (between(this.minute, 1, 15)) {
-			this.minute = 15;
-		} else if (between(this.minute, 16, 30)) {
-			this.minute = 30;
-		} else if (between(this.minute, 31, 45)) {
-			this.minute = 45;
+		if (isBlank()) {
+			return this;
 		}
-		return this;
+		return round(Math.floorDiv(minutes + 14, 15) * 15);
 	}
 
 	/**
-	 * 分を15分刻みで切り捨てる。退社に仕様
+	 * 分を15分刻みで切り捨てる。退社に仕様<br>
+	 * 共有インスタンスの場合は、切り捨てた時刻の共有インスタンスを返却する
 	 * 
 	 * @return
 	 */
 	public TrainingTime roundDown() {
-		if (between(this.minute, 45, 59)) {
-			this.minute = 45;
-		} else if (between(this.minute, 0, 14)) {
-			this.minute = 0;
-		} else if (between(this.minute, 15, 29)) {
-			this.minute = 15;
-		} else if (between(this.minute, 30, 44)) {
-			this.minute = 30;
+		if (isBlank()) {
+			return this;
 		}
-		return this;
+		return round(Math.floorDiv(minutes, 15) * 15);
 	}
 
 	/**
-	 * 指定された数値間か判定
+	 * 丸めた時刻を反映する
 	 * 
-	 * @param minute
-	 * @param a
-	 * @param b
-	 * 
-	 * @return boolean
+	 * @param rounded 丸めた経過分数
+	 * @return 自身（共有インスタンスの場合は丸めた時刻の共有インスタンス）
 	 */
-	private boolean between(int minute, int a, int b) {
-		if (a > b) {
-			int tmp = b;
-			b = a;
-			a = tmp;
+	private TrainingTime round(int rounded) {
+		if (shared) {
+			return ofMinutes(rounded);
 		}
-		return (minute >= a && minute <= b);
+		this.minutes = rounded;
+		return this;
 	}
 
 	/**
@@ -374,7 +522,25 @@ public class TrainingTime implements Comparable<TrainingTime>, Serializable {
 	 * @return boolean
 	 */
 	public boolean isEmpty() {
-		return hour == null || minute == null;
+		return isBlank();
+	}
+
+	/**
+	 * 変更可能なインスタンスか確認する
+	 */
+	private void checkModifiable() {
+		if (shared) {
+			throw new UnsupportedOperationException("TrainingTime is shared.");
+		}
+	}
+
+	/**
+	 * 値が設定されているか確認する
+	 */
+	private void checkNotBlank() {
+		if (isBlank()) {
+			throw new IllegalStateException("TrainingTime is blank.");
+		}
 	}
 
 	/**
@@ -0,0 +1,216 @@
+package jp.co.sss.lms.util;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 過去日未入力件数のユーティリティクラス<br>
+ * 受講生ごとの過去日未入力件数をメモリ上に保持し、出退勤・勤怠更新時に差分で更新する
+ *
+ * @author 東京ITスクール
+ */
+@Component
+public class UnfilledAttendanceUtil {
+
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Autowired
+	private DateUtil dateUtil;
+
+	/** LMSユーザーID毎の未入力件数 */
+	private final ConcurrentMap<Integer, UnfilledCounter> counterMap = new ConcurrentHashMap<>();
+
+	/**
+	 * 過去日未入力件数の取得<br>
+	 * 初回のみ勤怠情報から集計し、以降はメモリ上の件数を返す
+	 *
+	 * @param lmsUserId
+	 * @return 過去日未入力件数
+	 */
+	public int getCount(Integer lmsUserId) {
+		LocalDate today = dateUtil.getCurrentLocalDate();
+		return counterMap.computeIfAbsent(lmsUserId, key -> load(key, today)).getCount(today);
+	}
+
+	/**
+	 * 勤怠情報の登録・更新を件数に反映する<br>
+	 * 件数を保持していない受講生は、次回取得時に集計されるため何もしない
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate 研修日
+	 * @param before       更新前が未入力の場合true
+	 * @param after        更新後が未入力の場合true
+	 */
+	public void apply(Integer lmsUserId, Date trainingDate, boolean before, boolean after) {
+		if (before == after) {
+			return;
+		}
+		UnfilledCounter counter = counterMap.get(lmsUserId);
+		if (counter != null) {
+			counter.apply(dateUtil.toLocalDate(trainingDate), before, after,
+					dateUtil.getCurrentLocalDate());
+		}
+	}
+
+	/**
+	 * 指定受講生の件数を破棄する<br>
+	 * 本人以外が勤怠情報をまとめて更新した場合に呼び出す
+	 *
+	 * @param lmsUserId
+	 */
+	public void evict(Integer lmsUserId) {
+		counterMap.remove(lmsUserId);
+	}
+
+	/**
+	 * 指定受講生の件数をトランザクションのコミット後に破棄する<br>
+	 * コミット前に破棄すると、並行して集計された更新前の件数が次の日付変更まで残るため、
+	 * トランザクション内で勤怠情報を更新した場合はこちらを呼び出す
+	 *
+	 * @param lmsUserIdList
+	 */
+	public void evictAfterCommit(Collection<Integer> lmsUserIdList) {
+		Set<Integer> lmsUserIdSet = new HashSet<>(lmsUserIdList);
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			lmsUserIdSet.forEach(this::evict);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				lmsUserIdSet.forEach(UnfilledAttendanceUtil.this::evict);
+			}
+		});
+	}
+
+	/**
+	 * 日付変更処理<br>
+	 * 前日までの未入力を過去日の件数へ繰り入れる
+	 */
+	@Scheduled(cron = "${setting.attendance.rollover.cron}")
+	public void rollover() {
+		LocalDate today = dateUtil.getCurrentLocalDate();
+		for (UnfilledCounter counter : counterMap.values()) {
+			counter.rollover(today);
+		}
+	}
+
+	/**
+	 * 未入力判定<br>
+	 * 欠席以外で、出勤時刻・退勤時刻のいずれかが未入力の場合に未入力とする
+	 *
+	 * @param tStudentAttendance 勤怠情報（未登録の場合はnull）
+	 * @return 未入力の場合true
+	 */
+	public boolean isUnfilled(TStudentAttendance tStudentAttendance) {
+		return tStudentAttendance != null
+				&& tStudentAttendance.getDeleteFlg() != null
+				&& tStudentAttendance.getDeleteFlg() == Constants.DB_FLG_FALSE
+				&& tStudentAttendance.getStatus() != null
+				&& !AttendanceStatusEnum.ABSENT.code.equals(tStudentAttendance.getStatus())
+				&& (StringUtils.isEmpty(tStudentAttendance.getTrainingStartTime())
+						|| StringUtils.isEmpty(tStudentAttendance.getTrainingEndTime()));
+	}
+
+	/**
+	 * 勤怠情報から件数を作成
+	 *
+	 * @param lmsUserId
+	 * @param today
+	 * @return 未入力件数
+	 */
+	private UnfilledCounter load(Integer lmsUserId, LocalDate today) {
+		UnfilledCounter counter = new UnfilledCounter(today);
+		for (Date trainingDate : tStudentAttendanceMapper.getNotEnterTrainingDateList(lmsUserId,
+				Constants.DB_FLG_FALSE)) {
+			counter.apply(dateUtil.toLocalDate(trainingDate), false, true, today);
+		}
+		return counter;
+	}
+
+	/**
+	 * 受講生1人分の未入力件数<br>
+	 * 基準日より前の未入力は件数のみ、基準日以降の未入力は日付で保持する
+	 */
+	private static final class UnfilledCounter {
+
+		/** 基準日（本日） */
+		private LocalDate baseDate;
+		/** 基準日より前の未入力件数 */
+		private int pastCount;
+		/** 基準日以降の未入力日 */
+		private final TreeSet<LocalDate> pendingDates = new TreeSet<>();
+
+		private UnfilledCounter(LocalDate baseDate) {
+			this.baseDate = baseDate;
+		}
+
+		/**
+		 * 過去日未入力件数の取得
+		 *
+		 * @param today
+		 * @return 過去日未入力件数
+		 */
+		private synchronized int getCount(LocalDate today) {
+			rollover(today);
+			return pastCount;
+		}
+
+		/**
+		 * 未入力の増減を反映
+		 *
+		 * @param date   研修日
+		 * @param before 更新前が未入力の場合true
+		 * @param after  更新後が未入力の場合true
+		 * @param today
+		 */
+		private synchronized void apply(LocalDate date, boolean before, boolean after,
+				LocalDate today) {
+			rollover(today);
+			if (before == after) {
+				return;
+			}
+			if (date.isBefore(baseDate)) {
+				pastCount += after ? 1 : -1;
+			} else if (after) {
+				pendingDates.add(date);
+			} else {
+				pendingDates.remove(date);
+			}
+		}
+
+		/**
+		 * 基準日を本日に進め、過ぎた日の未入力を過去日の件数へ繰り入れる
+		 *
+		 * @param today
+		 */
+		private synchronized void rollover(LocalDate today) {
+			if (!today.isAfter(baseDate)) {
+				return;
+			}
+			SortedSet<LocalDate> passedDates = pendingDates.headSet(today);
+			pastCount += passedDates.size();
+			passedDates.clear();
+			baseDate = today;
+		}
+	}
+
+}
@@ -0,0 +1,21 @@
+-- 勤怠情報（受講生入力）：LMSユーザーID＆日付の一意制約
+-- 一括登録・更新（ON CONFLICT）のために必要
+
+-- 重複して登録されている行は1行のみを残す
+-- 有効な行（delete_flg = 0）を優先し、その中で最後に登録された行を残す
+WITH ranked AS (
+	SELECT
+		student_attendance_id,
+		ROW_NUMBER() OVER (
+			PARTITION BY lms_user_id, training_date
+			ORDER BY delete_flg ASC, student_attendance_id DESC
+		) AS rn
+	FROM t_student_attendance
+)
+DELETE FROM t_student_attendance t1
+USING ranked t2
+WHERE t1.student_attendance_id = t2.student_attendance_id
+	AND t2.rn > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS t_student_attendance_lms_user_id_training_date_key
+	ON t_student_attendance (lms_user_id, training_date);
@@ -0,0 +1,9 @@
+-- セクションマスタ：コースID＆日付のインデックス
+-- 勤怠一覧（getAttendanceManagement）でコースのセクションを日付順に取得し、
+-- 勤怠情報（受講生入力）の(lms_user_id, training_date)インデックスと突き合わせるために使用
+
+CREATE INDEX IF NOT EXISTS m_section_course_id_date_idx
+	ON m_section (course_id, date);
+
+ANALYZE m_section;
+ANALYZE t_student_attendance;
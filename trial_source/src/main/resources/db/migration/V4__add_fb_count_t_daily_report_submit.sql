@@ -0,0 +1,66 @@
+-- 日報提出テーブル：フィードバック件数・最終フィードバック日時
+-- レポート提出リスト（getDailyReportSubmitList）で日報フィードバックテーブル全体を集計しないよう、
+-- 日報提出毎の件数と最終更新日時を保持する
+
+ALTER TABLE t_daily_report_submit ADD COLUMN IF NOT EXISTS fb_count integer NOT NULL DEFAULT 0;
+ALTER TABLE t_daily_report_submit ADD COLUMN IF NOT EXISTS last_feedback_date timestamp;
+
+-- 既存行の値を反映（以降の登録・更新・削除は下記のトリガーで反映する）
+UPDATE t_daily_report_submit t1
+SET fb_count = t2.fb_count,
+	last_feedback_date = t2.last_feedback_date
+FROM (SELECT daily_report_submit_id, COUNT(*) AS fb_count, MAX(last_modified_date) AS last_feedback_date
+	FROM t_daily_report_fb
+	WHERE delete_flg = 0
+	GROUP BY daily_report_submit_id) t2
+WHERE t1.daily_report_submit_id = t2.daily_report_submit_id;
+
+-- レポート提出リストの検索・並び順
+CREATE INDEX IF NOT EXISTS t_daily_report_submit_lms_user_id_date_idx
+	ON t_daily_report_submit (lms_user_id, date DESC, daily_report_id DESC);
+
+-- 日報提出毎のフィードバック集計
+CREATE INDEX IF NOT EXISTS t_daily_report_fb_daily_report_submit_id_idx
+	ON t_daily_report_fb (daily_report_submit_id);
+
+-- フィードバックは本システム以外からも登録・更新・削除されるため、トリガーで件数を反映する
+CREATE OR REPLACE FUNCTION refresh_daily_report_fb_count(p_daily_report_submit_id integer)
+RETURNS void AS $$
+BEGIN
+	-- 同じ日報提出へのフィードバックを同時に更新した場合に古い集計値で上書きしないよう、
+	-- 日報提出の行をロックしてから集計する（READ COMMITTEDでは集計はロック取得後の状態で行われる）
+	PERFORM 1 FROM t_daily_report_submit
+	WHERE daily_report_submit_id = p_daily_report_submit_id
+	FOR UPDATE;
+
+	UPDATE t_daily_report_submit t1
+	SET fb_count = t2.fb_count,
+		last_feedback_date = t2.last_feedback_date
+	FROM (SELECT COUNT(*) AS fb_count, MAX(last_modified_date) AS last_feedback_date
+		FROM t_daily_report_fb
+		WHERE daily_report_submit_id = p_daily_report_submit_id
+			AND delete_flg = 0) t2
+	WHERE t1.daily_report_submit_id = p_daily_report_submit_id;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION t_daily_report_fb_refresh_count()
+RETURNS trigger AS $$
+BEGIN
+	IF TG_OP = 'INSERT' THEN
+		PERFORM refresh_daily_report_fb_count(NEW.daily_report_submit_id);
+	ELSIF TG_OP = 'DELETE' OR NEW.daily_report_submit_id IS NOT DISTINCT FROM OLD.daily_report_submit_id THEN
+		PERFORM refresh_daily_report_fb_count(OLD.daily_report_submit_id);
+	ELSE
+		-- 日報提出を付け替えた場合は、デッドロックしないようID順にロックする
+		PERFORM refresh_daily_report_fb_count(LEAST(OLD.daily_report_submit_id, NEW.daily_report_submit_id));
+		PERFORM refresh_daily_report_fb_count(GREATEST(OLD.daily_report_submit_id, NEW.daily_report_submit_id));
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS t_daily_report_fb_refresh_count ON t_daily_report_fb;
+CREATE TRIGGER t_daily_report_fb_refresh_count
+	AFTER INSERT OR UPDATE OR DELETE ON t_daily_report_fb
+	FOR EACH ROW EXECUTE FUNCTION t_daily_report_fb_refresh_count();
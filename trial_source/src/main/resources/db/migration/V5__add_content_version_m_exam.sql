@@ -0,0 +1,42 @@
+-- 試験マスタ：内容のバージョン
+-- 試験問題キャッシュ（ExamQuestionCache）はバージョンが変わった試験のみ読み込み直す
+-- 試験・試験問題は本システム以外から登録・更新されるため、トリガーでバージョンを更新する
+
+ALTER TABLE m_exam ADD COLUMN IF NOT EXISTS content_version bigint NOT NULL DEFAULT 0;
+
+-- 試験問題の登録・更新・削除
+CREATE OR REPLACE FUNCTION m_question_increment_content_version()
+RETURNS trigger AS $$
+BEGIN
+	IF TG_OP <> 'INSERT' THEN
+		UPDATE m_exam SET content_version = content_version + 1 WHERE exam_id = OLD.exam_id;
+	END IF;
+	IF TG_OP <> 'DELETE' AND (TG_OP = 'INSERT' OR NEW.exam_id IS DISTINCT FROM OLD.exam_id) THEN
+		UPDATE m_exam SET content_version = content_version + 1 WHERE exam_id = NEW.exam_id;
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS m_question_increment_content_version ON m_question;
+CREATE TRIGGER m_question_increment_content_version
+	AFTER INSERT OR UPDATE OR DELETE ON m_question
+	FOR EACH ROW EXECUTE FUNCTION m_question_increment_content_version();
+
+-- 試験名・制限時間・削除フラグの更新
+CREATE OR REPLACE FUNCTION m_exam_increment_content_version()
+RETURNS trigger AS $$
+BEGIN
+	IF NEW.content_version = OLD.content_version
+			AND (NEW.exam_name, NEW.limit_time, NEW.delete_flg)
+				IS DISTINCT FROM (OLD.exam_name, OLD.limit_time, OLD.delete_flg) THEN
+		NEW.content_version := OLD.content_version + 1;
+	END IF;
+	RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS m_exam_increment_content_version ON m_exam;
+CREATE TRIGGER m_exam_increment_content_version
+	BEFORE UPDATE ON m_exam
+	FOR EACH ROW EXECUTE FUNCTION m_exam_increment_content_version();
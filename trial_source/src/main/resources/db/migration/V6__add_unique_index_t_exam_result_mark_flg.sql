@@ -0,0 +1,22 @@
+-- 試験結果：評点対象（初回受験）の一意制約
+-- 同時に提出された場合でも評点フラグが立つ試験結果を1件とするために必要
+
+-- 評点フラグが重複している場合は、最初に登録された行のみを評点対象とする
+UPDATE t_exam_result t1
+SET mark_flg = 0
+FROM t_exam_result t2
+WHERE t1.exam_section_id = t2.exam_section_id
+	AND t1.lms_user_id = t2.lms_user_id
+	AND t1.mark_flg = 1
+	AND t2.mark_flg = 1
+	AND t1.delete_flg = 0
+	AND t2.delete_flg = 0
+	AND t1.exam_result_id > t2.exam_result_id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS t_exam_result_exam_section_id_lms_user_id_mark_key
+	ON t_exam_result (exam_section_id, lms_user_id)
+	WHERE mark_flg = 1 AND delete_flg = 0;
+
+-- 受験済みかの確認用
+CREATE INDEX IF NOT EXISTS t_exam_result_exam_section_id_lms_user_id_idx
+	ON t_exam_result (exam_section_id, lms_user_id);
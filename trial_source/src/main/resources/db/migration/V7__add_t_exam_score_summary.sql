@@ -0,0 +1,61 @@
+-- 試験得点集計テーブル：試験・セクション毎の評点対象の件数・得点合計
+-- 試験詳細（getExamDetailDto）で試験結果テーブル全体を集計しないよう、試験結果の登録と同じトランザクションで差分を反映する
+
+CREATE TABLE IF NOT EXISTS t_exam_score_summary (
+	exam_section_id integer NOT NULL PRIMARY KEY,
+	marked_count integer NOT NULL DEFAULT 0,
+	score_sum bigint NOT NULL DEFAULT 0,
+	last_modified_date timestamp NOT NULL DEFAULT now()
+);
+
+-- 既存の試験結果の集計
+INSERT INTO t_exam_score_summary (exam_section_id, marked_count, score_sum)
+SELECT exam_section_id, COUNT(*), SUM(score)
+FROM t_exam_result
+WHERE mark_flg = 1
+	AND delete_flg = 0
+	AND score IS NOT NULL
+GROUP BY exam_section_id
+ON CONFLICT (exam_section_id) DO UPDATE
+SET marked_count = EXCLUDED.marked_count,
+	score_sum = EXCLUDED.score_sum,
+	last_modified_date = now();
+
+CREATE OR REPLACE FUNCTION add_exam_score_summary(p_exam_section_id integer, p_count integer,
+		p_score bigint)
+RETURNS void AS $$
+BEGIN
+	INSERT INTO t_exam_score_summary (exam_section_id, marked_count, score_sum)
+	VALUES (p_exam_section_id, p_count, p_score)
+	ON CONFLICT (exam_section_id) DO UPDATE
+	SET marked_count = t_exam_score_summary.marked_count + EXCLUDED.marked_count,
+		score_sum = t_exam_score_summary.score_sum + EXCLUDED.score_sum,
+		last_modified_date = now();
+END;
+$$ LANGUAGE plpgsql;
+
+-- 評点対象（評点フラグ1・未削除・得点あり）から外れた行を減算し、評点対象となった行を加算する
+-- 試験結果の登録以外（削除・評点フラグの変更）も反映するため、トリガーで行う
+CREATE OR REPLACE FUNCTION t_exam_result_refresh_score_summary()
+RETURNS trigger AS $$
+BEGIN
+	IF TG_OP <> 'INSERT' AND OLD.mark_flg = 1 AND OLD.delete_flg = 0
+			AND OLD.score IS NOT NULL THEN
+		PERFORM add_exam_score_summary(OLD.exam_section_id, -1, -OLD.score);
+	END IF;
+	IF TG_OP <> 'DELETE' AND NEW.mark_flg = 1 AND NEW.delete_flg = 0
+			AND NEW.score IS NOT NULL THEN
+		PERFORM add_exam_score_summary(NEW.exam_section_id, 1, NEW.score);
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS t_exam_result_refresh_score_summary ON t_exam_result;
+CREATE TRIGGER t_exam_result_refresh_score_summary
+	AFTER INSERT OR UPDATE OF exam_section_id, score, mark_flg, delete_flg OR DELETE ON t_exam_result
+	FOR EACH ROW EXECUTE FUNCTION t_exam_result_refresh_score_summary();
+
+-- 試験詳細の問題数
+CREATE INDEX IF NOT EXISTS m_question_exam_id_idx
+	ON m_question (exam_id);
@@ -0,0 +1,17 @@
+-- 受験中試験テーブル：LMSユーザー・試験・セクション紐付け毎の受験中の回答
+-- 再起動・再デプロイ後も受験を続けられるよう、回答は1問ずつこのテーブルへ反映する
+-- 回答は問題毎に1文字（'0'は未回答、'1'～'4'は選択肢）で保持する
+
+CREATE TABLE IF NOT EXISTS t_exam_attempt (
+	lms_user_id integer NOT NULL,
+	exam_section_id integer NOT NULL,
+	exam_id integer NOT NULL,
+	answers varchar NOT NULL,
+	start_date timestamp NOT NULL,
+	last_access_date timestamp NOT NULL,
+	PRIMARY KEY (lms_user_id, exam_section_id)
+);
+
+-- 一定時間操作されなかった受験の破棄用
+CREATE INDEX IF NOT EXISTS t_exam_attempt_last_access_date_idx
+	ON t_exam_attempt (last_access_date);
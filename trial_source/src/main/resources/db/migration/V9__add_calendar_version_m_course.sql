@@ -0,0 +1,28 @@
+-- コースマスタ：研修日カレンダーのバージョン
+-- コース研修日カレンダー（CourseCalendarUtil）はバージョンが変わったコースのみ読み込み直す
+-- セクションは本システム以外から登録・更新されるため、トリガーでバージョンを更新する
+
+ALTER TABLE m_course ADD COLUMN IF NOT EXISTS calendar_version bigint NOT NULL DEFAULT 0;
+
+-- セクションの登録・削除、日付・コースの更新
+CREATE OR REPLACE FUNCTION m_section_increment_calendar_version()
+RETURNS trigger AS $$
+BEGIN
+	IF TG_OP = 'UPDATE' AND (NEW.course_id, NEW.date, NEW.delete_flg)
+			IS NOT DISTINCT FROM (OLD.course_id, OLD.date, OLD.delete_flg) THEN
+		RETURN NULL;
+	END IF;
+	IF TG_OP <> 'INSERT' THEN
+		UPDATE m_course SET calendar_version = calendar_version + 1 WHERE course_id = OLD.course_id;
+	END IF;
+	IF TG_OP <> 'DELETE' AND (TG_OP = 'INSERT' OR NEW.course_id IS DISTINCT FROM OLD.course_id) THEN
+		UPDATE m_course SET calendar_version = calendar_version + 1 WHERE course_id = NEW.course_id;
+	END IF;
+	RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS m_section_increment_calendar_version ON m_section;
+CREATE TRIGGER m_section_increment_calendar_version
+	AFTER INSERT OR UPDATE OR DELETE ON m_section
+	FOR EACH ROW EXECUTE FUNCTION m_section_increment_calendar_version();
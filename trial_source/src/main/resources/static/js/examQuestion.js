@@ -3,18 +3,91 @@
  * 
  * @author 東京ITスクール
  */
+
+// 保存中の回答（選択された順に1問ずつ保存する）
+let saving = $.Deferred().resolve().promise();
+// 保存していない回答（問題の番号毎）
+const unsavedAnswers = {};
+// 送信中
+let submitting = false;
+
 $(function(){
-	setInterval("timeCount()", 1000);
 	setTimeout("timeUp()", limitTimeMin * 60 * 1000 - timeMSec + 1000);
-});
 
-function timeCount() {
-	timeMSec += 1000;
-	$('.sendTime').val(timeMSec);
-}
+	$('.examAnswer').change(function() {
+		saveAnswer($(this).data('index'), $(this).val());
+	});
+
+	$('#examQuestionForm').submit(function() {
+		submitExam();
+		return false;
+	});
+});
 
 function timeUp() {
 	alert('制限時間となりました。回答を送信します。');
-	$('.sendTime').val(limitTimeMin * 60 * 1000);
-	$('#examQuestionForm').submit();
+	submitExam();
+}
+
+/**
+ * 回答の保存<br>
+ * 前の回答の保存が失敗した場合も続けて保存する
+ */
+function saveAnswer(index, answer) {
+	unsavedAnswers[index] = answer;
+	const send = function() {
+		return sendAnswer(index);
+	};
+	saving = saving.then(send, send);
+}
+
+/**
+ * 1問分の回答の送信
+ */
+function sendAnswer(index) {
+	if (!(index in unsavedAnswers)) {
+		return $.Deferred().resolve().promise();
+	}
+	const answer = unsavedAnswers[index];
+	return $.ajax({
+		url: answerUrl,
+		type: 'POST',
+		dataType: 'json',
+		cache: false,
+		data: { examSectionId: examSectionId, index: index, answer: answer }
+	}).then(function(examSessionDto) {
+		if (examSessionDto == null) {
+			return $.Deferred().reject().promise();
+		}
+		// 保存中に選択し直された場合は残す
+		if (unsavedAnswers[index] === answer) {
+			delete unsavedAnswers[index];
+		}
+	});
+}
+
+/**
+ * 試験の送信<br>
+ * 保存中の回答を待ち、保存できなかった回答を再送してから送信する
+ */
+function submitExam() {
+	if (submitting) {
+		return;
+	}
+	submitting = true;
+	const resolve = function() {
+		return $.Deferred().resolve().promise();
+	};
+	let chain = saving.then(resolve, resolve);
+	$.each(Object.keys(unsavedAnswers), function(i, index) {
+		chain = chain.then(function() {
+			return sendAnswer(index);
+		});
+	});
+	chain.then(function() {
+		document.getElementById('examQuestionForm').submit();
+	}, function() {
+		submitting = false;
+		alert('回答を保存できませんでした。時間をおいて再度送信してください。');
+	});
 }
@@ -0,0 +1,95 @@
+package jp.co.sss.lms.controller;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.sql.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import jp.co.sss.lms.service.AttendanceStatusService;
+import jp.co.sss.lms.service.StudentAttendanceService;
+import jp.co.sss.lms.util.DateUtil;
+
+/**
+ * 勤怠管理コントローラの試験<br>
+ * サービスはモックに差し替えて試験します。
+ *
+ * */
+public class AttendanceControllerTest {
+
+	private MockMvc mockMvc;
+
+	@Mock
+	private StudentAttendanceService studentAttendanceService;
+	@Mock
+	private AttendanceStatusService attendanceStatusService;
+
+	@InjectMocks
+	private AttendanceController attendanceController;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(attendanceController, "dateUtil", new DateUtil());
+		mockMvc = MockMvcBuilders.standaloneSetup(attendanceController).build();
+	}
+
+	/**
+	 * Case.1_1 ステータス再計算<br>
+	 * <br>
+	 * ■対象メソッド：recalcStatus()<br>
+	 * ■試験観点：<br>
+	 *  ・研修日が指定された場合は、その期間で再計算されること<br>
+	 *  ・研修日が空の場合は、期間を限定せずに再計算されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws Exception {
+		when(attendanceStatusService.recalcStatus(any(), any(), any())).thenReturn("message");
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/attendance/recalcStatus").param("courseId", "1")
+				.param("fromDate", "2024-04-01").param("toDate", "2024-04-30"))
+				.andExpect(status().isOk())
+				.andExpect(view().name("attendance/list"))
+				.andExpect(model().attribute("message", "message"));
+		verify(attendanceStatusService).recalcStatus(1, Date.valueOf("2024-04-01"),
+				Date.valueOf("2024-04-30"));
+
+		mockMvc.perform(MockMvcRequestBuilders.post("/attendance/recalcStatus").param("courseId", "1")
+				.param("fromDate", "").param("toDate", " "))
+				.andExpect(view().name("attendance/list"));
+		verify(attendanceStatusService).recalcStatus(1, null, null);
+	}
+
+	/**
+	 * Case.1_2 ステータス再計算_不正な研修日<br>
+	 * <br>
+	 * ■対象メソッド：recalcStatus()<br>
+	 * ■試験観点：<br>
+	 *  ・研修日（開始・終了）が変換できない場合はエラー画面となること<br>
+	 *  ・期間を限定せずに再計算されないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() throws Exception {
+		String[][] params = { { "2024/04/01", "" }, { "", "abc" }, { "2024-04-01", "2024-13-01" } };
+		for (String[] param : params) {
+			mockMvc.perform(MockMvcRequestBuilders.post("/attendance/recalcStatus")
+					.param("courseId", "1").param("fromDate", param[0]).param("toDate", param[1]))
+					.andExpect(view().name("illegal"));
+		}
+		verify(attendanceStatusService, never()).recalcStatus(any(), any(), any());
+		verify(studentAttendanceService, never()).getCourseAttendance(any());
+	}
+
+}
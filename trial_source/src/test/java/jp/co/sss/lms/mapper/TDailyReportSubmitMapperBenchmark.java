@@ -0,0 +1,165 @@
+package jp.co.sss.lms.mapper;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jp.co.sss.lms.Application;
+import jp.co.sss.lms.dto.DailyReportDownloadDto;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 日報提出マッパーのベンチマーク<br>
+ * レポートダウンロードDTOの取得を、変更前のSQL（明細・理解度・フィードバックを1つのSELECTで結合）と比較する。<br>
+ * 取得行数は準備時に出力し、応答時間（µs/回）はJMHで計測する。
+ * 変更前のSQLは結合した行を全て読み込むまでとし、DTOへのマッピングは含まない。<br>
+ * PostgreSQLへの接続が必要です。試験データは準備時に登録し、終了時に削除します。<br>
+ * 試験（mvn test）では実行しない。test-compile後に{@link #main(String[])}を実行する。
+ *
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TDailyReportSubmitMapperBenchmark {
+
+	/** 日報項目数 */
+	private static final int DETAIL_COUNT = 10;
+	/** 学習理解度項目数 */
+	private static final int INTELLIGIBILITY_COUNT = 5;
+	/** フィードバックコメント数 */
+	private static final int FB_COUNT = 8;
+
+	/** 変更前のSQL */
+	private static final String JOINED_SQL = "SELECT t1.daily_report_submit_id, t1.daily_report_id, "
+			+ "t2.file_name, t2.sheet_name, t4.company_name, t2.row_company, t2.clm_company, "
+			+ "t6.user_name, t2.row_user, t2.clm_user, t1.date, t2.row_date, t2.clm_date, "
+			+ "t2.row_intel_fld, t2.clm_intel_fld, t2.row_intel, t2.clm_intel, t7.field_num, t7.row, "
+			+ "t7.clm, t8.content, t9.intelligibility_id, t9.field_name, t9.field_value, "
+			+ "t10.daily_report_fb_id, t12.user_name AS fb_user_name, t10.content AS fb_content, "
+			+ "t10.first_create_date "
+			+ "FROM t_daily_report_submit t1 "
+			+ "LEFT OUTER JOIN m_daily_report t2 ON t2.daily_report_id = t1.daily_report_id "
+			+ "LEFT OUTER JOIN t_user_company t3 ON t3.lms_user_id = t1.lms_user_id "
+			+ "LEFT OUTER JOIN m_company t4 ON t4.company_id = t3.company_id "
+			+ "LEFT OUTER JOIN m_lms_user t5 ON t5.lms_user_id = t1.lms_user_id "
+			+ "LEFT OUTER JOIN m_user t6 ON t6.user_id = t5.user_id "
+			+ "LEFT OUTER JOIN m_daily_report_detail t7 ON t7.daily_report_id = t1.daily_report_id "
+			+ "LEFT OUTER JOIN t_daily_report_submit_detail t8 ON t8.daily_report_submit_id = t1.daily_report_submit_id "
+			+ "LEFT OUTER JOIN t_intelligibility t9 ON t9.daily_report_submit_id = t1.daily_report_submit_id "
+			+ "LEFT OUTER JOIN t_daily_report_fb t10 ON t10.daily_report_submit_id = t1.daily_report_submit_id "
+			+ "LEFT OUTER JOIN m_lms_user t11 ON t11.lms_user_id = t10.lms_user_id "
+			+ "LEFT OUTER JOIN m_user t12 ON t12.user_id = t11.user_id "
+			+ "WHERE t1.daily_report_submit_id = ? AND t1.daily_report_id = ? AND t1.delete_flg = ?";
+
+	private ConfigurableApplicationContext context;
+	private JdbcTemplate jdbcTemplate;
+	private TDailyReportSubmitMapper tDailyReportSubmitMapper;
+
+	/** 試験用日報提出ID */
+	private Integer dailyReportSubmitId;
+	/** 試験用日報ID */
+	private Integer dailyReportId;
+
+	@Setup
+	public void setup() {
+		context = new SpringApplicationBuilder(Application.class).web(WebApplicationType.NONE)
+				.run("--spring.flyway.enabled=false");
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		tDailyReportSubmitMapper = context.getBean(TDailyReportSubmitMapper.class);
+
+		// 既存の日報・受講生に対して、項目10件・理解度5件・フィードバック8件の提出を登録
+		dailyReportId = jdbcTemplate.queryForObject("SELECT MIN(daily_report_id) FROM m_daily_report",
+				Integer.class);
+		dailyReportSubmitId = jdbcTemplate.queryForObject("INSERT INTO t_daily_report_submit "
+				+ "(daily_report_id, date, lms_user_id, account_id, delete_flg, first_create_user, "
+				+ "first_create_date, last_modified_user, last_modified_date) "
+				+ "SELECT ?, current_date - 36500, "
+				+ "(SELECT MIN(lms_user_id) FROM m_lms_user), 1, 0, 1, now(), 1, now() "
+				+ "RETURNING daily_report_submit_id", Integer.class, dailyReportId);
+		jdbcTemplate.update("INSERT INTO t_daily_report_submit_detail (daily_report_submit_id, "
+				+ "field_num, content, account_id, delete_flg, first_create_user, first_create_date, "
+				+ "last_modified_user, last_modified_date) "
+				+ "SELECT ?, n, repeat('内容', 100), 1, 0, 1, now(), 1, now() FROM generate_series(1, ?) n",
+				dailyReportSubmitId, DETAIL_COUNT);
+		jdbcTemplate.update("INSERT INTO t_intelligibility (daily_report_submit_id, field_num, "
+				+ "field_name, field_value, account_id, delete_flg, first_create_user, first_create_date, "
+				+ "last_modified_user, last_modified_date) "
+				+ "SELECT ?, n, '項目' || n, 3, 1, 0, 1, now(), 1, now() FROM generate_series(1, ?) n",
+				dailyReportSubmitId, INTELLIGIBILITY_COUNT);
+		jdbcTemplate.update("INSERT INTO t_daily_report_fb (daily_report_submit_id, lms_user_id, "
+				+ "content, delete_flg, first_create_user, first_create_date, last_modified_user, "
+				+ "last_modified_date) "
+				+ "SELECT ?, (SELECT MIN(lms_user_id) FROM m_lms_user), 'コメント' || n, 0, 1, now(), 1, now() "
+				+ "FROM generate_series(1, ?) n",
+				dailyReportSubmitId, FB_COUNT);
+
+		// 取得行数：変更前は結合した行数、変更後は結果セット毎の行数の和
+		Integer joinedRowCount = jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM (" + JOINED_SQL + ") t", Integer.class, dailyReportSubmitId,
+				dailyReportId, Constants.DB_FLG_FALSE);
+		DailyReportDownloadDto dailyReportDownloadDto = split();
+		int splitRowCount = 1 + dailyReportDownloadDto.getDailyReportDetailDtoList().size()
+				+ dailyReportDownloadDto.getIntelligibilityDtoList().size()
+				+ dailyReportDownloadDto.getDailyReportFbDtoList().size();
+		System.out.println("getDailyReportDownloadDto rows: joined=" + joinedRowCount + ", split="
+				+ splitRowCount);
+	}
+
+	@TearDown
+	public void tearDown() {
+		try {
+			jdbcTemplate.update("DELETE FROM t_daily_report_fb WHERE daily_report_submit_id = ?",
+					dailyReportSubmitId);
+			jdbcTemplate.update("DELETE FROM t_intelligibility WHERE daily_report_submit_id = ?",
+					dailyReportSubmitId);
+			jdbcTemplate.update(
+					"DELETE FROM t_daily_report_submit_detail WHERE daily_report_submit_id = ?",
+					dailyReportSubmitId);
+			jdbcTemplate.update("DELETE FROM t_daily_report_submit WHERE daily_report_submit_id = ?",
+					dailyReportSubmitId);
+		} finally {
+			context.close();
+		}
+	}
+
+	@Benchmark
+	public int joined() {
+		int[] rowCount = new int[1];
+		jdbcTemplate.query(JOINED_SQL, resultSet -> {
+			rowCount[0]++;
+		}, dailyReportSubmitId, dailyReportId, Constants.DB_FLG_FALSE);
+		return rowCount[0];
+	}
+
+	@Benchmark
+	public DailyReportDownloadDto split() {
+		return tDailyReportSubmitMapper.getDailyReportDownloadDto(dailyReportSubmitId, dailyReportId,
+				Constants.DB_FLG_FALSE);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+				.include(TDailyReportSubmitMapperBenchmark.class.getSimpleName()).build()).run();
+	}
+
+}
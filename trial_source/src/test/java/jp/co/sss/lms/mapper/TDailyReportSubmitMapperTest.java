@@ -0,0 +1,231 @@
+package jp.co.sss.lms.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.co.sss.lms.dto.DailyReportDetailDto;
+import jp.co.sss.lms.dto.DailyReportDownloadDto;
+import jp.co.sss.lms.dto.DailyReportDto;
+import jp.co.sss.lms.dto.DailyReportFbDto;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 日報提出マッパーの試験<br>
+ * PostgreSQLへの接続が必要です。<br>
+ * 試験データはトランザクション終了時にロールバックされます。
+ * 
+ * */
+@SpringBootTest
+@Transactional
+public class TDailyReportSubmitMapperTest {
+
+	/** 日報項目数 */
+	private static final int DETAIL_COUNT = 10;
+	/** 学習理解度項目数 */
+	private static final int INTELLIGIBILITY_COUNT = 5;
+	/** フィードバックコメント数 */
+	private static final int FB_COUNT = 8;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private TDailyReportSubmitMapper tDailyReportSubmitMapper;
+
+	/** 試験用日報提出ID */
+	private Integer dailyReportSubmitId;
+	/** 試験用日報ID */
+	private Integer dailyReportId;
+
+	@BeforeEach
+	public void setup() {
+		dailyReportId = jdbcTemplate.queryForObject("SELECT MIN(daily_report_id) FROM m_daily_report",
+				Integer.class);
+		// 既存の日報・受講生に対して、項目10件・理解度5件・フィードバック8件の提出を登録
+		dailyReportSubmitId = jdbcTemplate.queryForObject("INSERT INTO t_daily_report_submit "
+				+ "(daily_report_id, date, lms_user_id, account_id, delete_flg, first_create_user, "
+				+ "first_create_date, last_modified_user, last_modified_date) "
+				+ "SELECT ?, current_date, "
+				+ "(SELECT MIN(lms_user_id) FROM m_lms_user), 1, 0, 1, now(), 1, now() "
+				+ "RETURNING daily_report_submit_id", Integer.class, dailyReportId);
+		jdbcTemplate.update("INSERT INTO t_daily_report_submit_detail (daily_report_submit_id, "
+				+ "field_num, content, account_id, delete_flg, first_create_user, first_create_date, "
+				+ "last_modified_user, last_modified_date) "
+				+ "SELECT ?, n, repeat('内容', 100), 1, 0, 1, now(), 1, now() FROM generate_series(1, ?) n",
+				dailyReportSubmitId, DETAIL_COUNT);
+		jdbcTemplate.update("INSERT INTO t_intelligibility (daily_report_submit_id, field_num, "
+				+ "field_name, field_value, account_id, delete_flg, first_create_user, first_create_date, "
+				+ "last_modified_user, last_modified_date) "
+				+ "SELECT ?, n, '項目' || n, 3, 1, 0, 1, now(), 1, now() FROM generate_series(1, ?) n",
+				dailyReportSubmitId, INTELLIGIBILITY_COUNT);
+		jdbcTemplate.update("INSERT INTO t_daily_report_fb (daily_report_submit_id, lms_user_id, "
+				+ "content, delete_flg, first_create_user, first_create_date, last_modified_user, "
+				+ "last_modified_date) "
+				+ "SELECT ?, (SELECT MIN(lms_user_id) FROM m_lms_user), 'コメント' || n, 0, 1, now(), 1, now() "
+				+ "FROM generate_series(1, ?) n",
+				dailyReportSubmitId, FB_COUNT);
+	}
+
+	/**
+	 * Case.1_1 レポートダウンロードDTO取得<br>
+	 * <br>
+	 * ■対象メソッド：getDailyReportDownloadDto()<br>
+	 * ■試験観点：<br>
+	 *  ・明細は日報の項目毎に1件となり、同じ項目番号の提出内容が設定されること<br>
+	 *  ・理解度・フィードバックが重複なく取得されること<br>
+	 *  ・フィードバックが登録順に取得されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		DailyReportDownloadDto dailyReportDownloadDto = tDailyReportSubmitMapper
+				.getDailyReportDownloadDto(dailyReportSubmitId, dailyReportId, Constants.DB_FLG_FALSE);
+		assertEquals(dailyReportSubmitId, dailyReportDownloadDto.getDailyReportSubmitId());
+
+		List<Integer> fieldNumList = jdbcTemplate.queryForList(
+				"SELECT field_num FROM m_daily_report_detail WHERE daily_report_id = ? ORDER BY field_num",
+				Integer.class, dailyReportId);
+		List<DailyReportDetailDto> detailList = dailyReportDownloadDto.getDailyReportDetailDtoList();
+		assertEquals(fieldNumList.size(), detailList.size());
+		for (int i = 0; i < detailList.size(); i++) {
+			DailyReportDetailDto detailDto = detailList.get(i);
+			assertEquals(fieldNumList.get(i), detailDto.getFieldNum());
+			if (detailDto.getFieldNum() <= DETAIL_COUNT) {
+				assertEquals("内容".repeat(100), detailDto.getContent());
+			} else {
+				assertNull(detailDto.getContent());
+			}
+		}
+
+		assertEquals(INTELLIGIBILITY_COUNT, dailyReportDownloadDto.getIntelligibilityDtoList().size());
+		assertEquals("項目1", dailyReportDownloadDto.getIntelligibilityDtoList().get(0).getFieldName());
+
+		List<DailyReportFbDto> fbList = dailyReportDownloadDto.getDailyReportFbDtoList();
+		assertEquals(FB_COUNT, fbList.size());
+		for (int i = 0; i < FB_COUNT; i++) {
+			assertEquals("コメント" + (i + 1), fbList.get(i).getContent());
+		}
+	}
+
+	/**
+	 * Case.1_2 レポートダウンロードDTO取得_子要素なし<br>
+	 * <br>
+	 * ■対象メソッド：getDailyReportDownloadDto()<br>
+	 * ■試験観点：<br>
+	 *  ・理解度・フィードバックがない場合は空のリストとなること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		jdbcTemplate.update("DELETE FROM t_intelligibility WHERE daily_report_submit_id = ?",
+				dailyReportSubmitId);
+		jdbcTemplate.update("DELETE FROM t_daily_report_fb WHERE daily_report_submit_id = ?",
+				dailyReportSubmitId);
+
+		DailyReportDownloadDto dailyReportDownloadDto = tDailyReportSubmitMapper
+				.getDailyReportDownloadDto(dailyReportSubmitId, dailyReportId, Constants.DB_FLG_FALSE);
+		assertTrue(dailyReportDownloadDto.getIntelligibilityDtoList().isEmpty());
+		assertTrue(dailyReportDownloadDto.getDailyReportFbDtoList().isEmpty());
+	}
+
+	/**
+	 * Case.1_3 フィードバック件数の反映<br>
+	 * <br>
+	 * ■対象トリガー：t_daily_report_fb_refresh_count<br>
+	 * ■試験観点：<br>
+	 *  ・フィードバックの登録・論理削除・削除で件数と最終フィードバック日時が反映されること<br>
+	 *  ・フィードバックを別の日報提出へ付け替えた場合は、両方の日報提出に反映されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		assertFbCount(dailyReportSubmitId, FB_COUNT);
+		Timestamp lastModifiedDate = jdbcTemplate.queryForObject(
+				"SELECT MAX(last_modified_date) FROM t_daily_report_fb WHERE daily_report_submit_id = ?",
+				Timestamp.class, dailyReportSubmitId);
+		assertEquals(lastModifiedDate, jdbcTemplate.queryForObject(
+				"SELECT last_feedback_date FROM t_daily_report_submit WHERE daily_report_submit_id = ?",
+				Timestamp.class, dailyReportSubmitId));
+
+		Integer dailyReportFbId = jdbcTemplate.queryForObject(
+				"SELECT MIN(daily_report_fb_id) FROM t_daily_report_fb WHERE daily_report_submit_id = ?",
+				Integer.class, dailyReportSubmitId);
+		jdbcTemplate.update("UPDATE t_daily_report_fb SET delete_flg = 1 WHERE daily_report_fb_id = ?",
+				dailyReportFbId);
+		assertFbCount(dailyReportSubmitId, FB_COUNT - 1);
+		jdbcTemplate.update("DELETE FROM t_daily_report_fb WHERE daily_report_fb_id = ?",
+				dailyReportFbId);
+		assertFbCount(dailyReportSubmitId, FB_COUNT - 1);
+
+		// 別の日報提出へ付け替え
+		Integer otherDailyReportSubmitId = jdbcTemplate.queryForObject(
+				"INSERT INTO t_daily_report_submit (daily_report_id, date, lms_user_id, account_id, "
+						+ "delete_flg, first_create_user, first_create_date, last_modified_user, "
+						+ "last_modified_date) "
+						+ "SELECT daily_report_id, date - 1, lms_user_id, account_id, 0, 1, now(), 1, now() "
+						+ "FROM t_daily_report_submit WHERE daily_report_submit_id = ? "
+						+ "RETURNING daily_report_submit_id",
+				Integer.class, dailyReportSubmitId);
+		assertFbCount(otherDailyReportSubmitId, 0);
+		jdbcTemplate.update("UPDATE t_daily_report_fb SET daily_report_submit_id = ? "
+				+ "WHERE daily_report_fb_id = (SELECT MAX(daily_report_fb_id) FROM t_daily_report_fb "
+				+ "WHERE daily_report_submit_id = ?)", otherDailyReportSubmitId, dailyReportSubmitId);
+		assertFbCount(dailyReportSubmitId, FB_COUNT - 2);
+		assertFbCount(otherDailyReportSubmitId, 1);
+
+		jdbcTemplate.update("DELETE FROM t_daily_report_fb WHERE daily_report_submit_id = ?",
+				otherDailyReportSubmitId);
+		assertFbCount(otherDailyReportSubmitId, 0);
+		assertNull(jdbcTemplate.queryForObject(
+				"SELECT last_feedback_date FROM t_daily_report_submit WHERE daily_report_submit_id = ?",
+				Timestamp.class, otherDailyReportSubmitId));
+	}
+
+	/**
+	 * Case.1_4 レポート提出リスト取得<br>
+	 * <br>
+	 * ■対象メソッド：getDailyReportSubmitList()<br>
+	 * ■試験観点：<br>
+	 *  ・日報提出テーブルに保持したフィードバック件数・最終フィードバック日時が取得されること<br>
+	 *  ・日付の降順に取得されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_4() {
+		Integer lmsUserId = jdbcTemplate.queryForObject("SELECT MIN(lms_user_id) FROM m_lms_user",
+				Integer.class);
+		List<DailyReportDto> dailyReportDtoList = tDailyReportSubmitMapper
+				.getDailyReportSubmitList(lmsUserId, Constants.DB_FLG_FALSE);
+
+		DailyReportDto dailyReportDto = dailyReportDtoList.stream()
+				.filter(dto -> dailyReportSubmitId.equals(dto.getDailyReportSubmitId()))
+				.findFirst().orElseThrow();
+		assertEquals(FB_COUNT, dailyReportDto.getFbCount());
+		assertNotNull(dailyReportDto.getLastFeedbackDate());
+		for (int i = 1; i < dailyReportDtoList.size(); i++) {
+			assertFalse(dailyReportDtoList.get(i - 1).getDate()
+					.before(dailyReportDtoList.get(i).getDate()));
+		}
+	}
+
+	/**
+	 * 日報提出テーブルのフィードバック件数の確認
+	 *
+	 * @param dailyReportSubmitId
+	 * @param fbCount             期待するフィードバック件数
+	 */
+	private void assertFbCount(Integer dailyReportSubmitId, int fbCount) {
+		assertEquals(fbCount, jdbcTemplate.queryForObject(
+				"SELECT fb_count FROM t_daily_report_submit WHERE daily_report_submit_id = ?",
+				Integer.class, dailyReportSubmitId));
+	}
+
+}
@@ -0,0 +1,323 @@
+package jp.co.sss.lms.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jp.co.sss.lms.dto.ExamDetailDto;
+import jp.co.sss.lms.dto.ExamResultDto;
+import jp.co.sss.lms.entity.TExamResult;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 試験結果マッパーの試験<br>
+ * PostgreSQLへの接続が必要です。<br>
+ * 試験データはトランザクション終了時にロールバックされます。
+ *
+ * */
+@SpringBootTest
+@Transactional
+public class TExamResultMapperTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	@Autowired
+	private TExamResultMapper tExamResultMapper;
+
+	/** 試験用試験・セクション紐付けID */
+	private Integer examSectionId;
+	/** 試験用LMSユーザID */
+	private Integer lmsUserId;
+
+	@BeforeEach
+	public void setup() {
+		examSectionId = jdbcTemplate.queryForObject(
+				"SELECT MIN(exam_section_id) FROM t_exam_section WHERE delete_flg = 0", Integer.class);
+		// 同時提出の試験で他のトランザクションと競合しないよう、未受験の受講生を対象とする
+		lmsUserId = jdbcTemplate.queryForObject("SELECT MIN(lms_user_id) FROM m_lms_user t1 "
+				+ "WHERE NOT EXISTS (SELECT 1 FROM t_exam_result t2 "
+				+ "WHERE t2.exam_section_id = ? AND t2.lms_user_id = t1.lms_user_id)",
+				Integer.class, examSectionId);
+	}
+
+	/**
+	 * Case.1_1 評点対象として試験結果登録<br>
+	 * <br>
+	 * ■対象メソッド：insertMarked()<br>
+	 * ■試験観点：<br>
+	 *  ・初回の試験結果は評点フラグ1で登録されること<br>
+	 *  ・2回目の試験結果は評点フラグ0で登録され、評点対象が1件のままとなること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		TExamResult first = createExamResult();
+		assertEquals(1, tExamResultMapper.insertMarked(first));
+		assertNotNull(first.getExamResultId());
+		assertEquals(Constants.DB_FLG_TRUE, first.getMarkFlg());
+
+		TExamResult second = createExamResult();
+		assertEquals(1, tExamResultMapper.insertMarked(second));
+		assertNotNull(second.getExamResultId());
+		assertEquals(Constants.DB_FLG_FALSE, second.getMarkFlg());
+
+		assertMarkedCount(1);
+		assertEquals(first.getExamResultId(), jdbcTemplate.queryForObject(
+				"SELECT exam_result_id FROM t_exam_result WHERE exam_section_id = ? "
+						+ "AND lms_user_id = ? AND mark_flg = 1 AND delete_flg = 0",
+				Integer.class, examSectionId, lmsUserId));
+	}
+
+	/**
+	 * Case.1_2 評点対象として試験結果登録_同時提出<br>
+	 * <br>
+	 * ■対象メソッド：insertMarked()、insert()<br>
+	 * ■試験観点：<br>
+	 *  ・他のトランザクションで評点対象が登録中の場合は、その確定を待って登録件数0となること<br>
+	 *  ・試験情報サービスと同様に評点フラグ0で登録し直すと、評点対象が1件となること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() throws Exception {
+		Integer backendPid = jdbcTemplate.queryForObject("SELECT pg_backend_pid()", Integer.class);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		CountDownLatch inserted = new CountDownLatch(1);
+		TExamResult other = createExamResult();
+		try {
+			// 別のトランザクションで評点対象を登録し、この試験の登録がロック待ちになってから確定する
+			Future<Integer> future = executorService.submit(() -> transactionTemplate.execute(status -> {
+				int count = tExamResultMapper.insertMarked(other);
+				inserted.countDown();
+				long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+				while (System.currentTimeMillis() < deadline && jdbcTemplate.queryForObject(
+						"SELECT COUNT(*) FROM pg_stat_activity WHERE pid = ? AND wait_event_type = 'Lock'",
+						Integer.class, backendPid) == 0) {
+					LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+				}
+				return count;
+			}));
+
+			assertTrue(inserted.await(10, TimeUnit.SECONDS));
+			TExamResult tExamResult = createExamResult();
+			assertEquals(0, tExamResultMapper.insertMarked(tExamResult));
+			assertEquals(1, future.get(10, TimeUnit.SECONDS));
+			assertNull(tExamResult.getExamResultId());
+
+			tExamResult.setMarkFlg(Constants.DB_FLG_FALSE);
+			tExamResultMapper.insert(tExamResult);
+			assertNotNull(tExamResult.getExamResultId());
+			assertEquals(Constants.DB_FLG_TRUE, other.getMarkFlg());
+			assertMarkedCount(1);
+		} finally {
+			executorService.shutdown();
+			// 別のトランザクションで確定した試験結果はロールバックされないため削除
+			if (other.getExamResultId() != null) {
+				executorService = Executors.newSingleThreadExecutor();
+				executorService.submit(() -> jdbcTemplate.update(
+						"DELETE FROM t_exam_result WHERE exam_result_id = ?", other.getExamResultId()))
+						.get(10, TimeUnit.SECONDS);
+				executorService.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Case.1_3 評点対象の重複解消<br>
+	 * <br>
+	 * ■対象スクリプト：V6__add_unique_index_t_exam_result_mark_flg.sql<br>
+	 * ■試験観点：<br>
+	 *  ・評点対象が重複している場合は、最初に登録された試験結果のみが評点対象となること<br>
+	 *  ・論理削除された試験結果は評点フラグが変更されないこと<br>
+	 *  ・一意制約の作成後は、評点対象を重複して登録できないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		jdbcTemplate.execute("DROP INDEX t_exam_result_exam_section_id_lms_user_id_mark_key");
+		TExamResult deleted = createExamResult();
+		deleted.setDeleteFlg(Constants.DB_FLG_TRUE);
+		tExamResultMapper.insert(deleted);
+		TExamResult first = createExamResult();
+		tExamResultMapper.insert(first);
+		tExamResultMapper.insert(createExamResult());
+		tExamResultMapper.insert(createExamResult());
+		assertMarkedCount(3);
+
+		jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+			ScriptUtils.executeSqlScript(connection,
+					new ClassPathResource("db/migration/V6__add_unique_index_t_exam_result_mark_flg.sql"));
+			return null;
+		});
+		assertMarkedCount(1);
+		assertEquals(first.getExamResultId(), jdbcTemplate.queryForObject(
+				"SELECT exam_result_id FROM t_exam_result WHERE exam_section_id = ? "
+						+ "AND lms_user_id = ? AND mark_flg = 1 AND delete_flg = 0",
+				Integer.class, examSectionId, lmsUserId));
+		assertEquals(Constants.DB_FLG_TRUE, jdbcTemplate.queryForObject(
+				"SELECT mark_flg FROM t_exam_result WHERE exam_result_id = ?", Short.class,
+				deleted.getExamResultId()));
+
+		assertThrows(DuplicateKeyException.class,
+				() -> tExamResultMapper.insert(createExamResult()));
+	}
+
+	/**
+	 * Case.2_1 試験得点集計の反映<br>
+	 * <br>
+	 * ■対象トリガー：t_exam_result_refresh_score_summary<br>
+	 * ■対象メソッド：getExamDetailDto()<br>
+	 * ■試験観点：<br>
+	 *  ・評点対象の登録で件数・得点合計が加算され、評点対象外の登録では変わらないこと<br>
+	 *  ・評点対象の論理削除で件数・得点合計が減算されること<br>
+	 *  ・評点フラグの変更で件数・得点合計が加算されること<br>
+	 *  ・平均点が試験結果テーブルを集計した値と一致すること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() {
+		assertScoreSummary();
+
+		TExamResult marked = createExamResult();
+		marked.setScore((short) 3);
+		tExamResultMapper.insertMarked(marked);
+		assertEquals(Constants.DB_FLG_TRUE, marked.getMarkFlg());
+		assertScoreSummary();
+
+		TExamResult unmarked = createExamResult();
+		unmarked.setScore((short) 1);
+		tExamResultMapper.insertMarked(unmarked);
+		assertEquals(Constants.DB_FLG_FALSE, unmarked.getMarkFlg());
+		assertScoreSummary();
+
+		// 論理削除
+		jdbcTemplate.update("UPDATE t_exam_result SET delete_flg = 1 WHERE exam_result_id = ?",
+				marked.getExamResultId());
+		assertScoreSummary();
+
+		// 評点フラグの変更
+		jdbcTemplate.update("UPDATE t_exam_result SET mark_flg = 1 WHERE exam_result_id = ?",
+				unmarked.getExamResultId());
+		assertScoreSummary();
+		jdbcTemplate.update("UPDATE t_exam_result SET mark_flg = 0 WHERE exam_result_id = ?",
+				unmarked.getExamResultId());
+		assertScoreSummary();
+	}
+
+	/**
+	 * Case.2_2 試験詳細DTO取得<br>
+	 * <br>
+	 * ■対象メソッド：getExamDetailDto()<br>
+	 * ■試験観点：<br>
+	 *  ・受講生の試験結果が登録順に取得され、論理削除された試験結果は含まれないこと<br>
+	 *  ・得点率が問題数から算出されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_2() {
+		TExamResult deleted = createExamResult();
+		tExamResultMapper.insertMarked(deleted);
+		jdbcTemplate.update("UPDATE t_exam_result SET delete_flg = 1 WHERE exam_result_id = ?",
+				deleted.getExamResultId());
+		TExamResult first = createExamResult();
+		first.setScore((short) 1);
+		tExamResultMapper.insertMarked(first);
+		TExamResult second = createExamResult();
+		tExamResultMapper.insertMarked(second);
+
+		ExamDetailDto examDetailDto = tExamResultMapper.getExamDetailDto(examSectionId, lmsUserId,
+				Constants.DB_FLG_FALSE);
+		assertEquals(examSectionId, examDetailDto.getExamSectionId());
+		assertEquals(lmsUserId, examDetailDto.getLmsUserId());
+		List<ExamResultDto> examResultDtoList = examDetailDto.getExamResultDtoList();
+		assertEquals(2, examResultDtoList.size());
+		assertEquals(first.getExamResultId(), examResultDtoList.get(0).getExamResultId());
+		assertEquals(second.getExamResultId(), examResultDtoList.get(1).getExamResultId());
+		if (examDetailDto.getNumOfQuestion() > 0) {
+			assertEquals(Math.round(1000.0 / examDetailDto.getNumOfQuestion()) / 10.0,
+					examResultDtoList.get(0).getPoint(), 0.0001);
+		}
+	}
+
+	/**
+	 * 評点対象の試験結果の生成
+	 *
+	 * @return 試験結果
+	 */
+	private TExamResult createExamResult() {
+		Date now = new Date();
+		TExamResult tExamResult = new TExamResult();
+		tExamResult.setExamSectionId(examSectionId);
+		tExamResult.setLmsUserId(lmsUserId);
+		tExamResult.setScore((short) 0);
+		tExamResult.setTime(0);
+		tExamResult.setMarkFlg(Constants.DB_FLG_TRUE);
+		tExamResult.setAccountId(1);
+		tExamResult.setDeleteFlg(Constants.DB_FLG_FALSE);
+		tExamResult.setFirstCreateUser(lmsUserId);
+		tExamResult.setFirstCreateDate(now);
+		tExamResult.setLastModifiedUser(lmsUserId);
+		tExamResult.setLastModifiedDate(now);
+		return tExamResult;
+	}
+
+	/**
+	 * 評点対象の試験結果件数の確認
+	 *
+	 * @param markedCount 期待する評点対象の件数
+	 */
+	private void assertMarkedCount(int markedCount) {
+		assertEquals(markedCount, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_exam_result "
+				+ "WHERE exam_section_id = ? AND lms_user_id = ? AND mark_flg = 1 AND delete_flg = 0",
+				Integer.class, examSectionId, lmsUserId));
+	}
+
+	/**
+	 * 試験得点集計と試験詳細の平均点の確認<br>
+	 * 試験結果テーブルの評点対象（未削除・得点あり）を集計した値と比較する
+	 */
+	private void assertScoreSummary() {
+		Map<String, Object> expected = jdbcTemplate.queryForMap("SELECT COUNT(*) AS marked_count, "
+				+ "COALESCE(SUM(score), 0) AS score_sum FROM t_exam_result WHERE exam_section_id = ? "
+				+ "AND mark_flg = 1 AND delete_flg = 0 AND score IS NOT NULL", examSectionId);
+		Map<String, Object> actual = jdbcTemplate.queryForMap("SELECT COALESCE(MAX(marked_count), 0) "
+				+ "AS marked_count, COALESCE(MAX(score_sum), 0) AS score_sum FROM t_exam_score_summary "
+				+ "WHERE exam_section_id = ?", examSectionId);
+		assertEquals(((Number) expected.get("marked_count")).longValue(),
+				((Number) actual.get("marked_count")).longValue());
+		assertEquals(((Number) expected.get("score_sum")).longValue(),
+				((Number) actual.get("score_sum")).longValue());
+
+		ExamDetailDto examDetailDto = tExamResultMapper.getExamDetailDto(examSectionId, lmsUserId,
+				Constants.DB_FLG_FALSE);
+		Double avgScore = jdbcTemplate.queryForObject("SELECT ROUND(ROUND(AVG(t1.score), 1) "
+				+ "/ NULLIF(?, 0) * 100, 1) FROM t_exam_result t1 WHERE t1.exam_section_id = ? "
+				+ "AND t1.mark_flg = 1 AND t1.delete_flg = 0 AND t1.score IS NOT NULL", Double.class,
+				examDetailDto.getNumOfQuestion(), examSectionId);
+		assertEquals(avgScore, examDetailDto.getAvgScore());
+	}
+
+}
@@ -0,0 +1,277 @@
+package jp.co.sss.lms.mapper;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import jp.co.sss.lms.dto.UserAttendanceDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.util.Constants;
+
+/**
+ * 勤怠情報（受講生入力）マッパーの試験<br>
+ * 実行計画の確認を行うため、PostgreSQLへの接続が必要です。<br>
+ * 試験データはトランザクション終了時にロールバックされます。
+ * 
+ * */
+@SpringBootTest
+@Transactional
+public class TStudentAttendanceMapperTest {
+
+	/** 試験用LMSユーザーIDの開始値 */
+	private static final int TEST_LMS_USER_ID = 900000001;
+	/** 試験用LMSユーザー数 */
+	private static final int TEST_USER_COUNT = 1000;
+	/** 試験用LMSユーザーあたりの勤怠日数 */
+	private static final int TEST_DAY_COUNT = 100;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private SqlSessionFactory sqlSessionFactory;
+	@Autowired
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+
+	@BeforeEach
+	public void setup() {
+		// 勤怠情報を10万件登録（1000ユーザー×100日）
+		jdbcTemplate.update("INSERT INTO t_student_attendance (lms_user_id, training_date, "
+				+ "training_start_time, training_end_time, status, note, blank_time, account_id, "
+				+ "delete_flg, first_create_user, first_create_date, last_modified_user, last_modified_date) "
+				+ "SELECT u, current_date - d, '09:00', '18:00', 0, '', 0, 1, 0, 1, now(), 1, now() "
+				+ "FROM generate_series(?, ?) u, generate_series(0, ?) d",
+				TEST_LMS_USER_ID, TEST_LMS_USER_ID + TEST_USER_COUNT - 1, TEST_DAY_COUNT - 1);
+		jdbcTemplate.execute("ANALYZE t_student_attendance");
+	}
+
+	/**
+	 * Case.1_1 勤怠管理画面用DTOリスト取得_実行計画<br>
+	 * <br>
+	 * ■対象メソッド：getAttendanceManagement()<br>
+	 * ■試験観点：<br>
+	 *  ・勤怠情報（受講生入力）が(lms_user_id, training_date)のインデックスで検索されること<br>
+	 *  ・勤怠情報（受講生入力）が全件走査されないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		Map<String, Object> param = new HashMap<>();
+		param.put("courseId", 1);
+		param.put("lmsUserId", TEST_LMS_USER_ID);
+		param.put("today", new java.sql.Date(System.currentTimeMillis()));
+		param.put("deleteFlg", Constants.DB_FLG_FALSE);
+
+		String plan = explain("getAttendanceManagement", param);
+
+		assertTrue(plan.contains("t_student_attendance_lms_user_id_training_date_key"), plan);
+		assertFalse(plan.contains("Seq Scan on t_student_attendance"), plan);
+	}
+
+	/**
+	 * Case.2_1 勤怠出力用カーソル取得<br>
+	 * <br>
+	 * ■対象メソッド：getAttendanceExportCursor()<br>
+	 * ■試験観点：<br>
+	 *  ・コース勤怠一覧と同じ受講生×研修日の勤怠情報を、同じ順で取得できること<br>
+	 *  ・研修日が開始日以上・終了日未満の行のみ取得されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() throws IOException {
+		// 受講生とセクションが登録されているコース
+		Map<String, Object> course = jdbcTemplate.queryForMap("SELECT t1.course_id, "
+				+ "MIN(t2.date) AS from_date, MAX(t2.date) AS to_date FROM m_course t1 "
+				+ "INNER JOIN m_section t2 ON t2.course_id = t1.course_id AND t2.delete_flg = ? "
+				+ "INNER JOIN t_course_user t3 ON t3.course_id = t1.course_id AND t3.delete_flg = ? "
+				+ "INNER JOIN m_lms_user t4 ON t4.lms_user_id = t3.lms_user_id AND t4.role = ? "
+				+ "WHERE t1.delete_flg = ? GROUP BY t1.course_id "
+				+ "HAVING MIN(t2.date) < MAX(t2.date) ORDER BY t1.course_id LIMIT 1",
+				Constants.DB_FLG_FALSE, Constants.DB_FLG_FALSE, Constants.CODE_VAL_ROLL_STUDENT,
+				Constants.DB_FLG_FALSE);
+		Integer courseId = (Integer) course.get("course_id");
+		Date fromDate = (Date) course.get("from_date");
+		Date toDate = (Date) course.get("to_date");
+
+		List<UserAttendanceDto> courseAttendanceList = new ArrayList<>();
+		tStudentAttendanceMapper.getCourseAttendance(courseId, null, Constants.CODE_VAL_ROLL_STUDENT,
+				Constants.DB_FLG_FALSE, context -> courseAttendanceList.add(context.getResultObject()));
+		assertFalse(courseAttendanceList.isEmpty());
+
+		// 全期間はコース勤怠一覧と一致
+		assertEquals(courseAttendanceList, fetchExportList(courseId, fromDate,
+				new Date(toDate.getTime() + 24L * 60 * 60 * 1000)));
+
+		// 最終研修日は終了日のため含まない
+		List<UserAttendanceDto> expectedList = new ArrayList<>();
+		for (UserAttendanceDto userAttendanceDto : courseAttendanceList) {
+			if (userAttendanceDto.getTrainingDate().getTime() < toDate.getTime()) {
+				expectedList.add(userAttendanceDto);
+			}
+		}
+		List<UserAttendanceDto> exportList = fetchExportList(courseId, fromDate, toDate);
+		assertFalse(exportList.isEmpty());
+		assertTrue(exportList.size() < courseAttendanceList.size());
+		assertEquals(expectedList, exportList);
+	}
+
+	/**
+	 * Case.3_1 ステータス再計算対象の勤怠情報取得<br>
+	 * <br>
+	 * ■対象メソッド：findStatusRecalcList()<br>
+	 * ■試験観点：<br>
+	 *  ・コース指定時はコースの受講生の、コースの研修日の勤怠情報のみ取得されること<br>
+	 *  ・コースの研修日以外（他コース受講時など）の勤怠情報は取得されないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() {
+		// 受講生とセクションが登録されているコースの、受講生と研修日
+		Map<String, Object> course = jdbcTemplate.queryForMap("SELECT t1.course_id, "
+				+ "t3.lms_user_id, t2.date FROM m_course t1 "
+				+ "INNER JOIN m_section t2 ON t2.course_id = t1.course_id AND t2.delete_flg = ? "
+				+ "INNER JOIN t_course_user t3 ON t3.course_id = t1.course_id AND t3.delete_flg = ? "
+				+ "WHERE t1.delete_flg = ? ORDER BY t1.course_id, t3.lms_user_id, t2.date LIMIT 1",
+				Constants.DB_FLG_FALSE, Constants.DB_FLG_FALSE, Constants.DB_FLG_FALSE);
+		Integer courseId = (Integer) course.get("course_id");
+		Integer lmsUserId = (Integer) course.get("lms_user_id");
+		Integer sectionAttendanceId = upsertAttendance(lmsUserId, (Date) course.get("date"));
+		// コースの研修日ではない日の勤怠情報
+		Integer otherAttendanceId = upsertAttendance(lmsUserId, java.sql.Date.valueOf("1990-01-01"));
+
+		List<Integer> idList = new ArrayList<>();
+		for (TStudentAttendance entity : tStudentAttendanceMapper.findStatusRecalcList(courseId,
+				null, null, AttendanceStatusEnum.ABSENT.code, 0, Integer.MAX_VALUE,
+				Constants.DB_FLG_FALSE)) {
+			idList.add(entity.getStudentAttendanceId());
+		}
+		assertTrue(idList.contains(sectionAttendanceId));
+		assertFalse(idList.contains(otherAttendanceId));
+		Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM t_student_attendance "
+				+ "WHERE lms_user_id BETWEEN ? AND ?", Integer.class, TEST_LMS_USER_ID,
+				TEST_LMS_USER_ID + TEST_USER_COUNT - 1);
+		assertTrue(idList.size() < count);
+	}
+
+	/**
+	 * Case.4_1 ステータス一括更新<br>
+	 * <br>
+	 * ■対象メソッド：updateStatusList()<br>
+	 * ■試験観点：<br>
+	 *  ・ステータス・最終更新者・最終更新日時が更新されること<br>
+	 *  ・読み込み後に出退勤時刻が更新された行は更新されないこと<br>
+	 *  ・更新件数が返ること<br>
+	 *
+	 * */
+	@Test
+	public void testCase4_1() {
+		Integer attendanceId = upsertAttendance(TEST_LMS_USER_ID,
+				java.sql.Date.valueOf("1990-01-01"));
+		Integer changedAttendanceId = upsertAttendance(TEST_LMS_USER_ID,
+				java.sql.Date.valueOf("1990-01-02"));
+		// 読み込み後に出勤時刻が更新された
+		jdbcTemplate.update("UPDATE t_student_attendance SET training_start_time = '09:30' "
+				+ "WHERE student_attendance_id = ?", changedAttendanceId);
+
+		Date lastModifiedDate = java.sql.Timestamp.valueOf("2024-04-01 12:34:56");
+		List<TStudentAttendance> tStudentAttendanceList = new ArrayList<>();
+		for (Integer studentAttendanceId : List.of(attendanceId, changedAttendanceId)) {
+			TStudentAttendance tStudentAttendance = new TStudentAttendance();
+			tStudentAttendance.setStudentAttendanceId(studentAttendanceId);
+			tStudentAttendance.setTrainingStartTime("09:00");
+			tStudentAttendance.setTrainingEndTime("18:00");
+			tStudentAttendance.setStatus(AttendanceStatusEnum.TARDY.code);
+			tStudentAttendance.setLastModifiedUser(2);
+			tStudentAttendance.setLastModifiedDate(lastModifiedDate);
+			tStudentAttendanceList.add(tStudentAttendance);
+		}
+
+		assertEquals(1, tStudentAttendanceMapper.updateStatusList(tStudentAttendanceList));
+
+		Map<String, Object> updated = jdbcTemplate.queryForMap("SELECT status, "
+				+ "last_modified_user, last_modified_date FROM t_student_attendance "
+				+ "WHERE student_attendance_id = ?", attendanceId);
+		assertEquals(AttendanceStatusEnum.TARDY.code.intValue(),
+				((Number) updated.get("status")).intValue());
+		assertEquals(2, ((Number) updated.get("last_modified_user")).intValue());
+		assertEquals(lastModifiedDate.getTime(), ((Date) updated.get("last_modified_date")).getTime());
+		Integer changedStatus = jdbcTemplate.queryForObject("SELECT status FROM "
+				+ "t_student_attendance WHERE student_attendance_id = ?", Integer.class,
+				changedAttendanceId);
+		assertEquals(0, changedStatus);
+	}
+
+	/**
+	 * 勤怠情報を登録（登録済みの場合は有効にする）
+	 * 
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @return 勤怠情報ID
+	 */
+	private Integer upsertAttendance(Integer lmsUserId, Date trainingDate) {
+		return jdbcTemplate.queryForObject("INSERT INTO t_student_attendance (lms_user_id, "
+				+ "training_date, training_start_time, training_end_time, status, note, blank_time, "
+				+ "account_id, delete_flg, first_create_user, first_create_date, last_modified_user, "
+				+ "last_modified_date) VALUES (?, ?, '09:00', '18:00', 0, '', 0, 1, 0, 1, now(), 1, now()) "
+				+ "ON CONFLICT (lms_user_id, training_date) DO UPDATE SET delete_flg = 0, status = 0 "
+				+ "RETURNING student_attendance_id", Integer.class, lmsUserId, trainingDate);
+	}
+
+	/**
+	 * 勤怠出力用カーソルから全件を取得
+	 * 
+	 * @param courseId
+	 * @param fromDate
+	 * @param toDate
+	 * @return ユーザー勤怠情報DTOリスト
+	 * @throws IOException
+	 */
+	private List<UserAttendanceDto> fetchExportList(Integer courseId, Date fromDate, Date toDate)
+			throws IOException {
+		List<UserAttendanceDto> exportList = new ArrayList<>();
+		try (Cursor<UserAttendanceDto> cursor = tStudentAttendanceMapper.getAttendanceExportCursor(
+				courseId, null, fromDate, toDate, Constants.CODE_VAL_ROLL_STUDENT,
+				Constants.DB_FLG_FALSE)) {
+			cursor.forEach(exportList::add);
+		}
+		return exportList;
+	}
+
+	/**
+	 * マッパーに定義されたSQLの実行計画を取得
+	 * 
+	 * @param id
+	 * @param param
+	 * @return 実行計画
+	 */
+	private String explain(String id, Map<String, Object> param) {
+		BoundSql boundSql = sqlSessionFactory.getConfiguration()
+				.getMappedStatement(TStudentAttendanceMapper.class.getName() + "." + id)
+				.getBoundSql(param);
+		List<ParameterMapping> mappingList = boundSql.getParameterMappings();
+		Object[] args = new Object[mappingList.size()];
+		for (int i = 0; i < mappingList.size(); i++) {
+			args[i] = param.get(mappingList.get(i).getProperty());
+		}
+		List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + boundSql.getSql(), String.class,
+				args);
+		return String.join("\n", lines);
+	}
+
+}
@@ -0,0 +1,128 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.nio.charset.Charset;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.UserAttendanceDto;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceUtil;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+
+/**
+ * 勤怠情報出力サービスの試験<br>
+ * 勤怠情報はマッパーのモックから返します。
+ *
+ * */
+public class AttendanceExportServiceTest {
+
+	private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+	@Mock
+	private LoginUserUtil loginUserUtil;
+	@Mock
+	private LoginUserDto loginUserDto;
+	@Mock
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+
+	@InjectMocks
+	private AttendanceExportService attendanceExportService;
+
+	private DateUtil dateUtil;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		dateUtil = new DateUtil();
+		dateUtil.setClock(Clock.fixed(
+				LocalDateTime.of(2024, 4, 10, 9, 0).atZone(ZONE).toInstant(), ZONE));
+		ReflectionTestUtils.setField(attendanceExportService, "dateUtil", dateUtil);
+		ReflectionTestUtils.setField(attendanceExportService, "attendanceUtil",
+				new AttendanceUtil());
+	}
+
+	/**
+	 * Case.1_1 CSV出力<br>
+	 * <br>
+	 * ■対象メソッド：export()<br>
+	 * ■試験観点：<br>
+	 *  ・対象月の初日から翌月初日までの勤怠情報が出力されること<br>
+	 *  ・対象月が空の場合は当月となること<br>
+	 *
+	 * */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCase1_1() throws Exception {
+		UserAttendanceDto userAttendanceDto = new UserAttendanceDto();
+		userAttendanceDto.setUserName("受講生");
+		userAttendanceDto.setTrainingDate(dateUtil.toDate(LocalDate.of(2024, 3, 4)));
+		userAttendanceDto.setTrainingStartTime("09:15");
+		userAttendanceDto.setBlankTime(75);
+		userAttendanceDto.setStatus((short) 2);
+		Cursor<UserAttendanceDto> cursor = mock(Cursor.class);
+		when(cursor.iterator()).thenReturn(List.of(userAttendanceDto).iterator());
+		when(tStudentAttendanceMapper.getAttendanceExportCursor(eq(1), isNull(),
+				eq(dateUtil.toDate(LocalDate.of(2024, 3, 1))),
+				eq(dateUtil.toDate(LocalDate.of(2024, 4, 1))), eq(Constants.CODE_VAL_ROLL_STUDENT),
+				eq(Constants.DB_FLG_FALSE))).thenReturn(cursor);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		assertTrue(attendanceExportService.export(1, "2024-03",
+				AttendanceExportService.FORMAT_CSV, response));
+		String[] lines = response.getContentAsString(Charset.forName("MS932")).split("\r\n");
+		assertEquals(2, lines.length);
+		assertEquals("\"受講生\",\"2024/3/4\",\"\",\"09:15\",\"\",\"01:15\",\"遅刻\",\"\"", lines[1]);
+		verify(cursor).close();
+
+		Cursor<UserAttendanceDto> emptyCursor = mock(Cursor.class);
+		when(emptyCursor.iterator()).thenReturn(List.<UserAttendanceDto> of().iterator());
+		when(tStudentAttendanceMapper.getAttendanceExportCursor(any(), any(), any(), any(), any(),
+				any())).thenReturn(emptyCursor);
+		assertTrue(attendanceExportService.export(1, "", AttendanceExportService.FORMAT_CSV,
+				new MockHttpServletResponse()));
+		verify(tStudentAttendanceMapper).getAttendanceExportCursor(eq(1), isNull(),
+				eq(dateUtil.toDate(LocalDate.of(2024, 4, 1))),
+				eq(dateUtil.toDate(LocalDate.of(2024, 5, 1))), any(), any());
+	}
+
+	/**
+	 * Case.1_2 不正な対象月<br>
+	 * <br>
+	 * ■対象メソッド：export()<br>
+	 * ■試験観点：<br>
+	 *  ・対象月が"yyyy-MM"形式でない場合は例外とならず、何も出力しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() throws Exception {
+		for (String month : new String[] { "2024-13", "2024/03", "202403", "abc" }) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			assertFalse(attendanceExportService.export(1, month,
+					AttendanceExportService.FORMAT_XLSX, response), month);
+			assertNull(response.getHeader("Content-Disposition"));
+			assertEquals(0, response.getContentAsByteArray().length);
+		}
+		verify(tStudentAttendanceMapper, never()).getAttendanceExportCursor(any(), any(), any(),
+				any(), any(), any());
+	}
+
+}
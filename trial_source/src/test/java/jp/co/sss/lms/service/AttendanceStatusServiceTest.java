@@ -0,0 +1,291 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceUtil;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.MessageUtil;
+import jp.co.sss.lms.util.PunchInQueueUtil;
+import jp.co.sss.lms.util.UnfilledAttendanceUtil;
+
+/**
+ * 勤怠ステータス再計算サービスの試験<br>
+ * マッパーはモックに差し替え、保持した勤怠情報を返すようにして試験します。
+ *
+ * */
+public class AttendanceStatusServiceTest {
+
+	/** 再計算を実行する講師のLMSユーザーID */
+	private static final Integer TEACHER_LMS_USER_ID = 100;
+
+	@Mock
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Mock
+	private PunchInQueueUtil punchInQueueUtil;
+	@Mock
+	private UnfilledAttendanceUtil unfilledAttendanceUtil;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private AttendanceStatusService attendanceStatusService;
+
+	/** 再計算用スレッドプール */
+	private ThreadPoolTaskExecutor executor;
+
+	/** 勤怠情報（勤怠情報ID順） */
+	private List<TStudentAttendance> tStudentAttendanceList;
+	/** 更新されたステータス（勤怠情報ID毎） */
+	private Map<Integer, TStudentAttendance> updatedMap;
+	/** 未入力件数を破棄した受講生 */
+	private Set<Integer> evictedSet;
+	/** 読み込みを止めておくラッチ（nullの場合は止めない） */
+	private CountDownLatch readLatch;
+	/** 読み込みに失敗させる場合はtrue */
+	private boolean failRead;
+
+	@BeforeEach
+	public void setup() throws InterruptedException {
+		MockitoAnnotations.openMocks(this);
+		tStudentAttendanceList = new ArrayList<>();
+		updatedMap = new ConcurrentHashMap<>();
+		evictedSet = ConcurrentHashMap.newKeySet();
+
+		// 勤怠情報の読み込み・更新のモック
+		when(tStudentAttendanceMapper.findStatusRecalcList(any(), any(), any(), any(), any(),
+				any(), any())).thenAnswer(invocation -> findStatusRecalcList(
+						invocation.getArgument(4), invocation.getArgument(5)));
+		when(tStudentAttendanceMapper.updateStatusList(anyList())).thenAnswer(invocation -> {
+			List<TStudentAttendance> list = invocation.getArgument(0);
+			for (TStudentAttendance entity : list) {
+				updatedMap.put(entity.getStudentAttendanceId(), entity);
+			}
+			return list.size();
+		});
+		doAnswer(invocation -> {
+			Collection<Integer> lmsUserIdList = invocation.getArgument(0);
+			evictedSet.addAll(lmsUserIdList);
+			return null;
+		}).when(unfilledAttendanceUtil).evictAfterCommit(anyCollection());
+
+		ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+		messageSource.setBasename("messages");
+		MessageUtil messageUtil = new MessageUtil();
+		ReflectionTestUtils.setField(messageUtil, "messageSource", messageSource);
+		LoginUserDto loginUserDto = new LoginUserDto();
+		loginUserDto.setLmsUserId(TEACHER_LMS_USER_ID);
+
+		executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(3);
+		executor.setMaxPoolSize(3);
+		executor.initialize();
+
+		ReflectionTestUtils.setField(attendanceStatusService, "attendanceUtil", new AttendanceUtil());
+		ReflectionTestUtils.setField(attendanceStatusService, "messageUtil", messageUtil);
+		ReflectionTestUtils.setField(attendanceStatusService, "loginUserDto", loginUserDto);
+		ReflectionTestUtils.setField(attendanceStatusService, "attendanceRecalcExecutor", executor);
+		ReflectionTestUtils.setField(attendanceStatusService, "chunkSize", 2);
+		ReflectionTestUtils.setField(attendanceStatusService, "parallelism", 2);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Case.1_1 再計算の実行<br>
+	 * <br>
+	 * ■対象メソッド：recalcStatus()、takeResult()<br>
+	 * ■試験観点：<br>
+	 *  ・再計算の完了を待たずに開始メッセージが返ること<br>
+	 *  ・再計算中は重複して開始できないこと<br>
+	 *  ・登録待ちの出勤打刻が再計算の前に登録されること<br>
+	 *  ・ステータスが変わった行のみ、読み込み時の出退勤時刻・実行者を付けて更新されること<br>
+	 *  ・更新した受講生の過去日未入力件数のみ破棄されること<br>
+	 *  ・結果は実行者に1度だけ通知されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws InterruptedException {
+		addAttendance(1, 11, "09:00", "18:00", AttendanceStatusEnum.TARDY);
+		addAttendance(2, 12, "09:30", "18:00", AttendanceStatusEnum.NONE);
+		addAttendance(3, 13, "09:00", "17:00", AttendanceStatusEnum.LEAVING_EARLY);
+		addAttendance(4, 14, "", "", AttendanceStatusEnum.NONE);
+		addAttendance(5, 15, "09:30", "17:00", AttendanceStatusEnum.NONE);
+		readLatch = new CountDownLatch(1);
+
+		assertEquals("遅刻早退ステータスの再計算を開始しました。完了後に勤怠一覧を再表示すると結果が表示されます。",
+				attendanceStatusService.recalcStatus(10, null, null));
+		assertEquals("遅刻早退ステータスの再計算は実行中です。しばらくしてから再度実行してください。",
+				attendanceStatusService.recalcStatus(10, null, null));
+		assertNull(attendanceStatusService.takeResult(TEACHER_LMS_USER_ID));
+
+		readLatch.countDown();
+		String message = waitForResult();
+		assertTrue(message.startsWith("遅刻早退ステータスを再計算しました。（対象5件、更新3件、"), message);
+		assertNull(attendanceStatusService.takeResult(TEACHER_LMS_USER_ID));
+
+		verify(punchInQueueUtil).flushAll();
+		verify(tStudentAttendanceMapper).findStatusRecalcList(10, null, null,
+				AttendanceStatusEnum.ABSENT.code, 0, 2, Constants.DB_FLG_FALSE);
+		assertEquals(3, updatedMap.size());
+		assertEquals(AttendanceStatusEnum.NONE.code, updatedMap.get(1).getStatus());
+		assertEquals(AttendanceStatusEnum.TARDY.code, updatedMap.get(2).getStatus());
+		assertEquals(AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY.code,
+				updatedMap.get(5).getStatus());
+		assertEquals("09:30", updatedMap.get(2).getTrainingStartTime());
+		assertEquals("18:00", updatedMap.get(2).getTrainingEndTime());
+		assertEquals(TEACHER_LMS_USER_ID, updatedMap.get(2).getLastModifiedUser());
+		assertEquals(new HashSet<>(List.of(11, 12, 15)), evictedSet);
+	}
+
+	/**
+	 * Case.1_2 再計算の失敗<br>
+	 * <br>
+	 * ■対象メソッド：recalcStatus()、takeResult()<br>
+	 * ■試験観点：<br>
+	 *  ・失敗した場合は失敗メッセージが通知されること<br>
+	 *  ・実行者以外には通知されないこと<br>
+	 *  ・失敗後に再度開始できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() throws InterruptedException {
+		addAttendance(1, 11, "09:30", "18:00", AttendanceStatusEnum.NONE);
+		failRead = true;
+
+		attendanceStatusService.recalcStatus(10, null, null);
+		assertNull(waitForResult(TEACHER_LMS_USER_ID + 1));
+		assertEquals("遅刻早退ステータスの再計算に失敗しました。", waitForResult());
+		assertTrue(updatedMap.isEmpty());
+		assertTrue(evictedSet.isEmpty());
+
+		failRead = false;
+		assertTrue(attendanceStatusService.recalcStatus(10, null, null).endsWith("結果が表示されます。"));
+		assertTrue(waitForResult().contains("更新1件"));
+	}
+
+	/**
+	 * Case.1_3 読み込み後に出退勤時刻が更新された場合<br>
+	 * <br>
+	 * ■対象メソッド：recalcStatus()<br>
+	 * ■試験観点：<br>
+	 *  ・マッパーが更新しなかった行は更新件数に含まれないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() throws InterruptedException {
+		addAttendance(1, 11, "09:30", "18:00", AttendanceStatusEnum.NONE);
+		addAttendance(2, 12, "09:00", "17:00", AttendanceStatusEnum.NONE);
+		// 2件中1件は出退勤時刻が変わっていたため更新されない
+		when(tStudentAttendanceMapper.updateStatusList(anyList())).thenReturn(1);
+
+		attendanceStatusService.recalcStatus(null, null, null);
+		String message = waitForResult();
+		assertTrue(message.startsWith("遅刻早退ステータスを再計算しました。（対象2件、更新1件、"), message);
+	}
+
+	/**
+	 * 再計算対象の勤怠情報を指定IDより後から取得
+	 *
+	 * @param lastStudentAttendanceId
+	 * @param limit
+	 * @return 勤怠情報エンティティリスト
+	 * @throws InterruptedException
+	 */
+	private List<TStudentAttendance> findStatusRecalcList(Integer lastStudentAttendanceId,
+			Integer limit) throws InterruptedException {
+		if (readLatch != null) {
+			assertTrue(readLatch.await(10, TimeUnit.SECONDS));
+		}
+		if (failRead) {
+			throw new IllegalStateException("read failed");
+		}
+		List<TStudentAttendance> chunk = new ArrayList<>();
+		for (TStudentAttendance entity : tStudentAttendanceList) {
+			if (entity.getStudentAttendanceId() > lastStudentAttendanceId && chunk.size() < limit) {
+				chunk.add(entity);
+			}
+		}
+		return chunk;
+	}
+
+	/**
+	 * 勤怠情報を追加
+	 *
+	 * @param studentAttendanceId
+	 * @param lmsUserId
+	 * @param trainingStartTime
+	 * @param trainingEndTime
+	 * @param status
+	 */
+	private void addAttendance(int studentAttendanceId, int lmsUserId, String trainingStartTime,
+			String trainingEndTime, AttendanceStatusEnum status) {
+		TStudentAttendance entity = new TStudentAttendance();
+		entity.setStudentAttendanceId(studentAttendanceId);
+		entity.setLmsUserId(lmsUserId);
+		entity.setTrainingStartTime(trainingStartTime);
+		entity.setTrainingEndTime(trainingEndTime);
+		entity.setStatus(status.code);
+		tStudentAttendanceList.add(entity);
+	}
+
+	/**
+	 * 実行者への再計算結果の通知を待つ
+	 *
+	 * @return 完了・失敗メッセージ
+	 * @throws InterruptedException
+	 */
+	private String waitForResult() throws InterruptedException {
+		String message = waitForResult(TEACHER_LMS_USER_ID);
+		assertNotNull(message, "timeout");
+		return message;
+	}
+
+	/**
+	 * 再計算結果の通知を待つ
+	 *
+	 * @param lmsUserId
+	 * @return 完了・失敗メッセージ（一定時間通知されない場合はnull）
+	 * @throws InterruptedException
+	 */
+	private String waitForResult(Integer lmsUserId) throws InterruptedException {
+		for (int i = 0; i < 100; i++) {
+			String message = attendanceStatusService.takeResult(lmsUserId);
+			if (message != null) {
+				return message;
+			}
+			Thread.sleep(10);
+		}
+		return null;
+	}
+
+}
@@ -0,0 +1,128 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.entity.MQuestion;
+import jp.co.sss.lms.entity.TExamResult;
+import jp.co.sss.lms.entity.TExamResultDetail;
+import jp.co.sss.lms.form.ExamQuestionForm;
+import jp.co.sss.lms.mapper.TExamResultDetailMapper;
+import jp.co.sss.lms.mapper.TExamResultMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.ExamQuestionCache;
+import jp.co.sss.lms.util.ExamSessionStore;
+import jp.co.sss.lms.util.ExamSessionStore.ExamAttempt;
+
+/**
+ * 試験情報サービスの試験<br>
+ * 試験結果の登録はマッパーのモックで確認します。
+ *
+ * */
+public class ExamServiceTest {
+
+	@Mock
+	private TExamResultMapper tExamResultMapper;
+	@Mock
+	private TExamResultDetailMapper tExamResultDetailMapper;
+	@Mock
+	private ExamQuestionCache examQuestionCache;
+	@Mock
+	private ExamSessionStore examSessionStore;
+	@Mock
+	private ItemAnalysisService itemAnalysisService;
+	@Mock
+	private LoginUserDto loginUserDto;
+
+	@InjectMocks
+	private ExamService examService;
+
+	private ExamQuestionForm examQuestionForm;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		when(loginUserDto.getLmsUserId()).thenReturn(1);
+		when(loginUserDto.getAccountId()).thenReturn(1);
+
+		ExamAttempt examAttempt = mock(ExamAttempt.class);
+		when(examAttempt.getExamId()).thenReturn(5);
+		when(examAttempt.getAnswers()).thenReturn(new Short[] { 1, 2 });
+		when(examSessionStore.take(1, 10)).thenReturn(examAttempt);
+		MQuestion mQuestion = new MQuestion();
+		mQuestion.setQuestionId(100);
+		mQuestion.setAnswerNum((short) 1);
+		when(examQuestionCache.getQuestionList(5)).thenReturn(List.of(mQuestion, mQuestion));
+
+		examQuestionForm = new ExamQuestionForm();
+		examQuestionForm.setExamSectionId(10);
+	}
+
+	/**
+	 * Case.1_1 試験結果登録_初回受験<br>
+	 * <br>
+	 * ■対象メソッド：insert()<br>
+	 * ■試験観点：<br>
+	 *  ・評点対象として登録され、問題分析に反映されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		when(tExamResultMapper.insertMarked(any())).thenAnswer(invocation -> {
+			TExamResult tExamResult = invocation.getArgument(0);
+			tExamResult.setExamResultId(1000);
+			tExamResult.setMarkFlg(Constants.DB_FLG_TRUE);
+			return 1;
+		});
+
+		assertEquals(1000, examService.insert(examQuestionForm));
+		verify(tExamResultMapper, never()).insert(any());
+		verify(itemAnalysisService).add(1000);
+	}
+
+	/**
+	 * Case.1_2 試験結果登録_同時提出<br>
+	 * <br>
+	 * ■対象メソッド：insert()<br>
+	 * ■試験観点：<br>
+	 *  ・評点対象として登録されなかった場合は、評点フラグ0で登録し直されること<br>
+	 *  ・試験結果詳細は登録し直した試験結果に紐づくこと<br>
+	 *  ・問題分析に反映されないこと<br>
+	 *
+	 * */
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCase1_2() {
+		when(tExamResultMapper.insertMarked(any())).thenReturn(0);
+		when(tExamResultMapper.insert(any())).thenAnswer(invocation -> {
+			TExamResult tExamResult = invocation.getArgument(0);
+			tExamResult.setExamResultId(1001);
+			return true;
+		});
+
+		assertEquals(1001, examService.insert(examQuestionForm));
+		ArgumentCaptor<TExamResult> captor = ArgumentCaptor.forClass(TExamResult.class);
+		verify(tExamResultMapper).insert(captor.capture());
+		assertEquals(Constants.DB_FLG_FALSE, captor.getValue().getMarkFlg());
+		assertEquals((short) 1, captor.getValue().getScore());
+
+		ArgumentCaptor<List<TExamResultDetail>> detailCaptor = ArgumentCaptor
+				.forClass(List.class);
+		verify(tExamResultDetailMapper).insertList(detailCaptor.capture());
+		assertEquals(2, detailCaptor.getValue().size());
+		assertEquals(1001, detailCaptor.getValue().get(0).getExamResultId());
+		verify(itemAnalysisService, never()).add(any());
+	}
+
+}
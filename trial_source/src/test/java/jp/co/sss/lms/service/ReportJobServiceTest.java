@@ -0,0 +1,208 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.dto.ReportJobDto;
+import jp.co.sss.lms.enums.ReportJobStatusEnum;
+
+/**
+ * 帳票作成ジョブサービスの試験
+ *
+ * */
+public class ReportJobServiceTest {
+
+	private ReportJobService reportJobService;
+	private ThreadPoolTaskExecutor reportJobExecutor;
+	private Path spoolDir;
+
+	@BeforeEach
+	public void setup() throws IOException {
+		spoolDir = Files.createTempDirectory("reportJobServiceTest");
+		// 同時実行2件・待機1件
+		reportJobExecutor = new ThreadPoolTaskExecutor();
+		reportJobExecutor.setCorePoolSize(2);
+		reportJobExecutor.setMaxPoolSize(2);
+		reportJobExecutor.setQueueCapacity(1);
+		reportJobExecutor.initialize();
+		reportJobService = new ReportJobService();
+		ReflectionTestUtils.setField(reportJobService, "reportJobExecutor", reportJobExecutor);
+		ReflectionTestUtils.setField(reportJobService, "spoolDir", spoolDir.toString());
+		ReflectionTestUtils.setField(reportJobService, "expireMinute", 30);
+		reportJobService.init();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		reportJobExecutor.shutdown();
+	}
+
+	/**
+	 * Case.1_1 ジョブ実行・ダウンロード<br>
+	 * <br>
+	 * ■対象メソッド：enqueue(), getJob(), transfer()<br>
+	 * ■試験観点：<br>
+	 *  ・作成済みの件数が進捗として取得できること<br>
+	 *  ・完了後にファイルをダウンロードできること<br>
+	 *  ・登録者以外は参照・ダウンロードできないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws Exception {
+		ReportJobDto reportJobDto = reportJobService.enqueue(1, "レポート.zip", 3,
+				(out, onProgress) -> {
+					for (int i = 0; i < 3; i++) {
+						out.write(("レポート" + i).getBytes(StandardCharsets.UTF_8));
+						onProgress.run();
+					}
+				});
+		ReportJobDto result = waitFor(reportJobDto.getJobId());
+		assertEquals(ReportJobStatusEnum.COMPLETED.code, result.getStatus());
+		assertEquals(3, result.getTotal());
+		assertEquals(3, result.getProgress());
+		assertNull(reportJobService.getJob(reportJobDto.getJobId(), 2));
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		reportJobService.transfer(reportJobDto.getJobId(), 1, new MockHttpServletRequest(), response);
+		assertEquals("レポート0レポート1レポート2", response.getContentAsString(StandardCharsets.UTF_8));
+		assertTrue(response.getHeader("Content-Disposition").startsWith("attachment;"));
+
+		MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+		reportJobService.transfer(reportJobDto.getJobId(), 2, new MockHttpServletRequest(),
+				otherResponse);
+		assertEquals(404, otherResponse.getStatus());
+	}
+
+	/**
+	 * Case.2_1 ジョブ失敗・保存期間<br>
+	 * <br>
+	 * ■対象メソッド：enqueue(), purge()<br>
+	 * ■試験観点：<br>
+	 *  ・作成に失敗した場合は失敗状態となり、作成中のファイルが残らないこと<br>
+	 *  ・保存期間を過ぎたジョブとファイルが削除されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() throws Exception {
+		ReportJobDto failed = reportJobService.enqueue(1, "失敗.zip", 1, (out, onProgress) -> {
+			out.write(1);
+			throw new IOException("作成失敗");
+		});
+		assertEquals(ReportJobStatusEnum.FAILED.code, waitFor(failed.getJobId()).getStatus());
+
+		ReflectionTestUtils.setField(reportJobService, "expireMinute", 0);
+		ReportJobDto completed = reportJobService.enqueue(1, "完了.zip", 1,
+				(out, onProgress) -> out.write(1));
+		waitFor(completed.getJobId());
+		Thread.sleep(10);
+		reportJobService.purge();
+		assertNull(reportJobService.getJob(completed.getJobId(), 1));
+		try (var files = Files.list(spoolDir)) {
+			assertEquals(0, files.count());
+		}
+	}
+
+	/**
+	 * Case.2_2 ジョブ失敗_Error<br>
+	 * <br>
+	 * ■対象メソッド：enqueue()<br>
+	 * ■試験観点：<br>
+	 *  ・作成中にErrorが発生した場合も失敗状態となり、作成中のファイルが残らないこと<br>
+	 *  ・失敗後は同じ登録者のジョブを登録できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_2() throws Exception {
+		ReportJobDto failed = reportJobService.enqueue(1, "失敗.zip", 1, (out, onProgress) -> {
+			out.write(1);
+			throw new StackOverflowError();
+		});
+		assertEquals(ReportJobStatusEnum.FAILED.code, waitFor(failed.getJobId()).getStatus());
+		try (var files = Files.list(spoolDir)) {
+			assertEquals(0, files.count());
+		}
+
+		ReportJobDto completed = reportJobService.enqueue(1, "完了.zip", 1,
+				(out, onProgress) -> out.write(1));
+		assertNotNull(completed);
+		assertEquals(ReportJobStatusEnum.COMPLETED.code, waitFor(completed.getJobId()).getStatus());
+	}
+
+	/**
+	 * Case.3_1 ジョブ登録の制限<br>
+	 * <br>
+	 * ■対象メソッド：enqueue()<br>
+	 * ■試験観点：<br>
+	 *  ・同じ登録者のジョブが待機中・作成中の場合は登録されないこと<br>
+	 *  ・待機できるジョブ数を超えた場合は登録されないこと<br>
+	 *  ・登録されなかったジョブは参照できないこと<br>
+	 *  ・作成が完了すると再度登録できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() throws Exception {
+		CountDownLatch latch = new CountDownLatch(1);
+		ReportJobService.ReportJobTask blockingTask = (out, onProgress) -> {
+			try {
+				latch.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			out.write(1);
+		};
+
+		// 作成中2件・待機中1件
+		ReportJobDto first = reportJobService.enqueue(1, "1.zip", 1, blockingTask);
+		assertNotNull(first);
+		assertNull(reportJobService.enqueue(1, "1.zip", 1, blockingTask));
+		assertNotNull(reportJobService.enqueue(2, "2.zip", 1, blockingTask));
+		assertNotNull(reportJobService.enqueue(3, "3.zip", 1, blockingTask));
+		// 待機できるジョブ数を超過
+		assertNull(reportJobService.enqueue(4, "4.zip", 1, blockingTask));
+		@SuppressWarnings("unchecked")
+		Map<String, ?> jobMap = (Map<String, ?>) ReflectionTestUtils
+				.getField(reportJobService, "jobMap");
+		assertEquals(3, jobMap.size());
+
+		latch.countDown();
+		assertEquals(ReportJobStatusEnum.COMPLETED.code, waitFor(first.getJobId()).getStatus());
+		ReportJobDto second = reportJobService.enqueue(1, "1.zip", 1, blockingTask);
+		assertNotNull(second);
+		assertEquals(ReportJobStatusEnum.COMPLETED.code, waitFor(second.getJobId()).getStatus());
+	}
+
+	/**
+	 * ジョブの完了を待つ
+	 *
+	 * @param jobId
+	 * @return ジョブDTO
+	 * @throws InterruptedException
+	 */
+	private ReportJobDto waitFor(String jobId) throws InterruptedException {
+		for (int i = 0; i < 500; i++) {
+			ReportJobDto reportJobDto = reportJobService.getJob(jobId, 1);
+			if (reportJobDto == null || reportJobDto.getStatus() >= ReportJobStatusEnum.COMPLETED.code) {
+				return reportJobDto;
+			}
+			Thread.sleep(10);
+		}
+		fail("timeout");
+		return null;
+	}
+
+}
@@ -0,0 +1,183 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.ReportSearchDocumentDto;
+import jp.co.sss.lms.dto.ReportSearchDto;
+import jp.co.sss.lms.mapper.MLmsUserMapper;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.ReportSearchIndex;
+
+/**
+ * レポート検索サービスの試験<br>
+ * 検索インデックスはモックを使用します。
+ *
+ * */
+public class ReportSearchServiceTest {
+
+	@Mock
+	private ReportSearchIndex reportSearchIndex;
+	@Mock
+	private LoginUserDto loginUserDto;
+	@Mock
+	private LoginUserUtil loginUserUtil;
+	@Mock
+	private MLmsUserMapper mLmsUserMapper;
+
+	@InjectMocks
+	private ReportSearchService reportSearchService;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(reportSearchService, "limit", 10);
+		when(loginUserUtil.isAdmin()).thenReturn(true);
+	}
+
+	/**
+	 * Case.1_1 抜粋<br>
+	 * <br>
+	 * ■対象メソッド：search()<br>
+	 * ■試験観点：<br>
+	 *  ・抜粋が正規化前の内容（全角英字・半角カナ・大文字）のまま表示されること<br>
+	 *  ・正規化で文字数が変わる場合も、該当箇所を含む抜粋となること<br>
+	 *  ・改行は空白に置き換え、前後を省略した場合は"…"を付与すること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		assertEquals("ＪａｖａのListを学習した。 ｶﾞｲﾄﾞを読んだ。",
+				snippet("ＪａｖａのListを学習した。\nｶﾞｲﾄﾞを読んだ。", "java"));
+		assertEquals("ＪａｖａのListを学習した。 ｶﾞｲﾄﾞを読んだ。",
+				snippet("ＪａｖａのListを学習した。\nｶﾞｲﾄﾞを読んだ。", "ガイド"));
+
+		// "㍻"は正規化で"平成"の2文字となる
+		String content = "㍻".repeat(50) + "例外処理" + "を復習する。".repeat(20);
+		String snippet = snippet(content, "例外処理");
+		assertTrue(snippet.startsWith("…" + "㍻".repeat(20) + "例外処理"), snippet);
+		assertEquals(1 + 80 + 1, snippet.length());
+
+		// 該当しない場合は先頭から
+		assertEquals("㍻".repeat(80) + "…", snippet("㍻".repeat(100), "例外"));
+		assertEquals("", snippet(null, "例外"));
+	}
+
+	/**
+	 * Case.1_2 抜粋（サロゲートペア）<br>
+	 * <br>
+	 * ■対象メソッド：search()<br>
+	 * ■試験観点：<br>
+	 *  ・サロゲートペアの途中で抜粋を区切らないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		assertEquals("…" + "𠮷".repeat(10) + "x例外処理", snippet("𠮷".repeat(60) + "x例外処理", "例外処理"));
+		assertEquals("a" + "𠮷".repeat(39) + "…", snippet("a" + "𠮷".repeat(60), "例外"));
+	}
+
+	/**
+	 * Case.2_1 検索対象の絞り込み<br>
+	 * <br>
+	 * ■対象メソッド：search()<br>
+	 * ■試験観点：<br>
+	 *  ・企業担当者は検索時点で自社に所属する受講生のレポートのみが対象となること<br>
+	 *  ・コース指定時は検索時点でコースに所属する受講生のレポートのみが対象となること<br>
+	 *  ・受講生は自身のレポートのみが対象となること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() {
+		when(loginUserUtil.isAdmin()).thenReturn(false);
+		when(loginUserUtil.isCompany()).thenReturn(true);
+		when(loginUserDto.getCompanyId()).thenReturn(10);
+		when(mLmsUserMapper.getLmsUserIdList(10, null, Constants.DB_FLG_FALSE))
+				.thenReturn(List.of(1, 2));
+		Predicate<ReportSearchDocumentDto> filter = filter(null);
+		assertTrue(filter.test(document(1)));
+		assertTrue(filter.test(document(2)));
+		assertFalse(filter.test(document(3)));
+
+		// 所属が変わった場合は次の検索から反映される
+		when(mLmsUserMapper.getLmsUserIdList(10, null, Constants.DB_FLG_FALSE))
+				.thenReturn(List.of(2, 3));
+		filter = filter(null);
+		assertFalse(filter.test(document(1)));
+		assertTrue(filter.test(document(3)));
+
+		when(mLmsUserMapper.getLmsUserIdList(10, 5, Constants.DB_FLG_FALSE)).thenReturn(List.of(2));
+		filter = filter(5);
+		assertTrue(filter.test(document(2)));
+		assertFalse(filter.test(document(3)));
+
+		when(loginUserDto.getCompanyId()).thenReturn(null);
+		assertFalse(filter(null).test(document(1)));
+
+		when(loginUserUtil.isCompany()).thenReturn(false);
+		when(loginUserDto.getLmsUserId()).thenReturn(1);
+		when(mLmsUserMapper.getLmsUserIdList(null, 5, Constants.DB_FLG_FALSE)).thenReturn(List.of(2));
+		assertTrue(filter(null).test(document(1)));
+		assertFalse(filter(null).test(document(2)));
+		assertFalse(filter(5).test(document(1)));
+	}
+
+	/**
+	 * 検索時に指定された検索対象の条件を取得
+	 *
+	 * @param courseId
+	 * @return 検索対象の条件
+	 */
+	@SuppressWarnings("unchecked")
+	private Predicate<ReportSearchDocumentDto> filter(Integer courseId) {
+		clearInvocations(reportSearchIndex);
+		List<ReportSearchDto> reportSearchDtoList = reportSearchService.search("検索", courseId);
+		assertTrue(reportSearchDtoList.isEmpty());
+		ArgumentCaptor<Predicate<ReportSearchDocumentDto>> captor = ArgumentCaptor
+				.forClass(Predicate.class);
+		verify(reportSearchIndex).search(eq("検索"), captor.capture(), eq(10));
+		return captor.getValue();
+	}
+
+	/**
+	 * レポート検索文書の作成
+	 *
+	 * @param lmsUserId
+	 * @return レポート検索文書DTO
+	 */
+	private ReportSearchDocumentDto document(Integer lmsUserId) {
+		ReportSearchDocumentDto document = new ReportSearchDocumentDto();
+		document.setLmsUserId(lmsUserId);
+		return document;
+	}
+
+	/**
+	 * 1件のみ該当した場合の抜粋を取得
+	 *
+	 * @param content
+	 * @param keyword
+	 * @return 抜粋
+	 */
+	private String snippet(String content, String keyword) {
+		ReportSearchDocumentDto document = new ReportSearchDocumentDto();
+		document.setDailyReportSubmitId(1);
+		document.setContent(content);
+		when(reportSearchIndex.search(eq(keyword), any(), eq(10))).thenReturn(List.of(document));
+		return reportSearchService.search(keyword, null).get(0).getSnippet();
+	}
+
+}
@@ -0,0 +1,239 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.dto.DailyReportDownloadDto;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.entity.TDailyReportSubmit;
+import jp.co.sss.lms.mapper.TDailyReportSubmitMapper;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.ExcelTemplateCache;
+import jp.co.sss.lms.util.ExcelUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.MessageUtil;
+
+/**
+ * レポート情報サービスの試験<br>
+ * マッパー・ユーザー情報サービスはモックを使用し、テンプレートは実際のファイルを使用します。
+ *
+ * */
+public class ReportServiceTest {
+
+	private static final String TEMPLATE_DIR = "static/template";
+	private static final String TEMPLATE_NAME = "日報_テンプレート.xlsx";
+	private static final int PARALLELISM = 3;
+
+	@Mock
+	private LoginUserDto loginUserDto;
+	@Mock
+	private LoginUserUtil loginUserUtil;
+	@Mock
+	private MessageUtil messageUtil;
+	@Mock
+	private ExcelTemplateCache excelTemplateCache;
+	@Mock
+	private UserService userService;
+	@Mock
+	private TDailyReportSubmitMapper tDailyReportSubmitMapper;
+
+	@InjectMocks
+	private ReportService reportService;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(reportService, "dateUtil", new DateUtil());
+		ReflectionTestUtils.setField(reportService, "downloadParallelism", PARALLELISM);
+		when(messageUtil.getMessage("setting.file.common.dir")).thenReturn(TEMPLATE_DIR);
+		when(messageUtil.getMessage("dailyReportId")).thenReturn("日報");
+		when(excelTemplateCache.getExcelUtil(TEMPLATE_DIR + "/" + TEMPLATE_NAME))
+				.thenAnswer(invocation -> new ExcelUtil(TEMPLATE_DIR + "/" + TEMPLATE_NAME));
+		when(loginUserDto.getLmsUserId()).thenReturn(1);
+	}
+
+	/**
+	 * Case.1_1 ダウンロード対象のチェック<br>
+	 * <br>
+	 * ■対象メソッド：isDownloadable()<br>
+	 * ■試験観点：<br>
+	 *  ・受講生は自分のレポートのみダウンロードできること<br>
+	 *  ・受講生以外は参照できるユーザーのレポートのみダウンロードできること<br>
+	 *  ・日報提出が存在しない・日報IDが一致しない場合はダウンロードできないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		when(tDailyReportSubmitMapper.getDailyReportSubmitListById(anyList(), any()))
+				.thenAnswer(invocation -> submitList(invocation.getArgument(0)));
+
+		when(loginUserUtil.isStudent()).thenReturn(true);
+		assertTrue(reportService.isDownloadable(10, 100));
+		assertFalse(reportService.isDownloadable(20, 200));
+		assertFalse(reportService.isDownloadable(11, 100));
+		assertFalse(reportService.isDownloadable(10, 999));
+		verify(userService, never()).isAccessibleUser(any());
+
+		when(loginUserUtil.isStudent()).thenReturn(false);
+		when(userService.isAccessibleUser(1)).thenReturn(true);
+		when(userService.isAccessibleUser(2)).thenReturn(false);
+		assertTrue(reportService.isDownloadable(10, 100));
+		assertFalse(reportService.isDownloadable(20, 200));
+		assertTrue(reportService.isDownloadable(new String[] { "10", "10" },
+				new String[] { "100", "101" }));
+		// 参照できないユーザーのレポートが1件でも含まれる場合
+		assertFalse(reportService.isDownloadable(new String[] { "10", "20", "10" },
+				new String[] { "100", "200", "101" }));
+	}
+
+	/**
+	 * Case.1_2 ダウンロード対象のチェック（不正な入力）<br>
+	 * <br>
+	 * ■対象メソッド：isDownloadable()<br>
+	 * ■試験観点：<br>
+	 *  ・未指定・件数不一致・数値でないIDの場合は例外とならずダウンロードできないこと<br>
+	 *  ・同じ日報提出IDに異なる日報IDが指定された場合はダウンロードできないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		when(tDailyReportSubmitMapper.getDailyReportSubmitListById(anyList(), any()))
+				.thenAnswer(invocation -> submitList(invocation.getArgument(0)));
+		when(userService.isAccessibleUser(any())).thenReturn(true);
+
+		assertFalse(reportService.isDownloadable((Integer) null, null));
+		assertFalse(reportService.isDownloadable((String[]) null, null));
+		assertFalse(reportService.isDownloadable(10, null));
+		assertFalse(reportService.isDownloadable(null, new String[] { "100" }));
+		assertFalse(reportService.isDownloadable(new String[0], new String[0]));
+		assertFalse(reportService.isDownloadable(new String[] { "10" },
+				new String[] { "100", "101" }));
+		assertFalse(reportService.isDownloadable(new String[] { "a" }, new String[] { "100" }));
+		assertFalse(reportService.isDownloadable(new String[] { "10" }, new String[] { "" }));
+		assertFalse(reportService.isDownloadable(new String[] { "10" },
+				new String[] { "99999999999" }));
+		assertFalse(reportService.isDownloadable(new String[] { "10", "11" },
+				new String[] { "100", "100" }));
+		assertTrue(reportService.isDownloadable(new String[] { "10", "10" },
+				new String[] { "100", "100" }));
+	}
+
+	/**
+	 * Case.2_1 一括ダウンロード<br>
+	 * <br>
+	 * ■対象メソッド：downloadList()<br>
+	 * ■試験観点：<br>
+	 *  ・作成に掛かる時間に関わらず、指定順にZIPへ書き込まれること<br>
+	 *  ・同時に作成するワークブックが並列数以下であること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() throws IOException {
+		int count = 10;
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		when(tDailyReportSubmitMapper.getDailyReportDownloadDto(anyInt(), anyInt(), any()))
+				.thenAnswer(invocation -> {
+					int index = invocation.getArgument(0);
+					maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+					try {
+						// 先に指定したレポートほど作成に時間が掛かる
+						Thread.sleep((count - index) * 20L);
+					} finally {
+						running.decrementAndGet();
+					}
+					return downloadDto(index);
+				});
+
+		String[] dailyReportIdList = new String[count];
+		String[] dailyReportSubmitIdList = new String[count];
+		for (int i = 0; i < count; i++) {
+			dailyReportIdList[i] = "1";
+			dailyReportSubmitIdList[i] = String.valueOf(i);
+		}
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		reportService.downloadList(dailyReportIdList, dailyReportSubmitIdList, response);
+
+		List<String> entryNameList = new ArrayList<>();
+		try (ZipInputStream zis = new ZipInputStream(
+				new ByteArrayInputStream(response.getContentAsByteArray()),
+				Charset.forName("MS932"))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				entryNameList.add(entry.getName());
+			}
+		}
+		assertEquals(count, entryNameList.size());
+		for (int i = 0; i < count; i++) {
+			assertTrue(entryNameList.get(i).endsWith("_企業_ユーザー" + i + ".xlsx"),
+					entryNameList.get(i));
+		}
+		assertTrue(maxRunning.get() <= PARALLELISM, String.valueOf(maxRunning.get()));
+	}
+
+	/**
+	 * 日報提出エンティティリストの作成<br>
+	 * 日報提出ID100番台はLMSユーザーID1・日報ID10、200番台はLMSユーザーID2・日報ID20とする
+	 *
+	 * @param dailyReportSubmitIdList
+	 * @return 日報提出エンティティリスト
+	 */
+	private List<TDailyReportSubmit> submitList(List<Integer> dailyReportSubmitIdList) {
+		List<TDailyReportSubmit> tDailyReportSubmitList = new ArrayList<>();
+		for (Integer dailyReportSubmitId : dailyReportSubmitIdList) {
+			int lmsUserId = dailyReportSubmitId / 100;
+			if (lmsUserId != 1 && lmsUserId != 2) {
+				continue;
+			}
+			TDailyReportSubmit tDailyReportSubmit = new TDailyReportSubmit();
+			tDailyReportSubmit.setDailyReportSubmitId(dailyReportSubmitId);
+			tDailyReportSubmit.setDailyReportId(lmsUserId * 10);
+			tDailyReportSubmit.setLmsUserId(lmsUserId);
+			tDailyReportSubmitList.add(tDailyReportSubmit);
+		}
+		return tDailyReportSubmitList;
+	}
+
+	/**
+	 * レポートダウンロードDTOの作成
+	 *
+	 * @param index
+	 * @return レポートダウンロードDTO
+	 */
+	private DailyReportDownloadDto downloadDto(int index) {
+		DailyReportDownloadDto dailyReportDownloadDto = new DailyReportDownloadDto();
+		dailyReportDownloadDto.setDailyReportSubmitId(index);
+		dailyReportDownloadDto.setFileName(TEMPLATE_NAME);
+		dailyReportDownloadDto.setSheetName("日間研修報告書");
+		dailyReportDownloadDto.setCompanyName("企業");
+		dailyReportDownloadDto.setRowCompany(1);
+		dailyReportDownloadDto.setClmCompany(1);
+		dailyReportDownloadDto.setUserName("ユーザー" + index);
+		dailyReportDownloadDto.setRowUser(2);
+		dailyReportDownloadDto.setClmUser(1);
+		dailyReportDownloadDto.setDate(new Date());
+		dailyReportDownloadDto.setRowDate(3);
+		dailyReportDownloadDto.setClmDate(1);
+		return dailyReportDownloadDto;
+	}
+
+}
@@ -0,0 +1,366 @@
+package jp.co.sss.lms.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.BindingResult;
+
+import jp.co.sss.lms.dto.CourseAttendanceDto;
+import jp.co.sss.lms.dto.CourseAttendanceUserDto;
+import jp.co.sss.lms.dto.LoginUserDto;
+import jp.co.sss.lms.dto.UserAttendanceDto;
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.form.AttendanceForm;
+import jp.co.sss.lms.form.DailyAttendanceForm;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+import jp.co.sss.lms.util.AttendanceUtil;
+import jp.co.sss.lms.util.Constants;
+import jp.co.sss.lms.util.DateUtil;
+import jp.co.sss.lms.util.LoginUserUtil;
+import jp.co.sss.lms.util.MessageUtil;
+import jp.co.sss.lms.util.PunchInQueueUtil;
+import jp.co.sss.lms.util.UnfilledAttendanceUtil;
+
+/**
+ * 勤怠情報（受講生入力）サービスのコース勤怠一覧・勤怠一括登録の試験<br>
+ * 勤怠情報マッパー・過去日未入力件数・出勤打刻の登録待ちはモックに差し替えて試験します。
+ *
+ * */
+@SpringBootTest
+public class StudentAttendanceServiceTest {
+
+	private static final Integer COURSE_ID = 1;
+
+	@Autowired
+	private MessageUtil messageUtil;
+	@Autowired
+	private DateUtil dateUtil;
+	@Autowired
+	private AttendanceUtil attendanceUtil;
+
+	@Mock
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Mock
+	private LoginUserUtil loginUserUtil;
+	@Mock
+	private UnfilledAttendanceUtil unfilledAttendanceUtil;
+	@Mock
+	private PunchInQueueUtil punchInQueueUtil;
+
+	@InjectMocks
+	private StudentAttendanceService studentAttendanceService;
+
+	private LoginUserDto loginUserDto;
+
+	@BeforeEach
+	public void setup() throws ParseException {
+		MockitoAnnotations.openMocks(this);
+		loginUserDto = new LoginUserDto();
+		loginUserDto.setLmsUserId(100);
+		loginUserDto.setAccountId(1);
+		loginUserDto.setCompanyId(5);
+		ReflectionTestUtils.setField(studentAttendanceService, "messageUtil", messageUtil);
+		ReflectionTestUtils.setField(studentAttendanceService, "dateUtil", dateUtil);
+		ReflectionTestUtils.setField(studentAttendanceService, "attendanceUtil", attendanceUtil);
+		ReflectionTestUtils.setField(studentAttendanceService, "loginUserDto", loginUserDto);
+
+		// 受講生2名×研修日2日（1日目は2セクション）
+		List<UserAttendanceDto> rowList = new ArrayList<>();
+		for (Integer lmsUserId : Arrays.asList(1, 2)) {
+			rowList.add(row(lmsUserId, "2026/10/1", "Java基礎", null, null, null));
+			rowList.add(row(lmsUserId, "2026/10/1", "SQL基礎", null, null, null));
+			rowList.add(row(lmsUserId, "2026/10/2", "Spring", "09:10", "18:00",
+					AttendanceStatusEnum.TARDY.code));
+		}
+		doAnswer(invocation -> {
+			ResultHandler<UserAttendanceDto> resultHandler = invocation.getArgument(4);
+			DefaultResultContext<UserAttendanceDto> context = new DefaultResultContext<>();
+			for (UserAttendanceDto userAttendanceDto : rowList) {
+				context.nextResultObject(userAttendanceDto);
+				resultHandler.handleResult(context);
+			}
+			return null;
+		}).when(tStudentAttendanceMapper).getCourseAttendance(eq(COURSE_ID), any(),
+				eq(Constants.CODE_VAL_ROLL_STUDENT), eq(Constants.DB_FLG_FALSE), any());
+	}
+
+	/**
+	 * Case.1_1 コース勤怠一覧取得<br>
+	 * <br>
+	 * ■対象メソッド：getCourseAttendance()<br>
+	 * ■試験観点：<br>
+	 *  ・受講生×研修日のマトリクスが作成されること<br>
+	 *  ・同じ日付の複数セクションが「／」区切りで1列にまとめられること<br>
+	 *  ・企業担当者の場合は自社の企業IDで絞り込むこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws ParseException {
+		CourseAttendanceDto courseAttendanceDto = studentAttendanceService
+				.getCourseAttendance(COURSE_ID);
+		verify(tStudentAttendanceMapper).getCourseAttendance(eq(COURSE_ID), isNull(),
+				eq(Constants.CODE_VAL_ROLL_STUDENT), eq(Constants.DB_FLG_FALSE), any());
+
+		assertEquals("Javaコース", courseAttendanceDto.getCourseName());
+		assertEquals(2, courseAttendanceDto.getSectionList().size());
+		assertEquals(dateUtil.parse("2026/10/1"),
+				courseAttendanceDto.getSectionList().get(0).getTrainingDate());
+		assertEquals("Java基礎／SQL基礎", courseAttendanceDto.getSectionList().get(0).getSectionName());
+		assertEquals("Spring", courseAttendanceDto.getSectionList().get(1).getSectionName());
+
+		assertEquals(2, courseAttendanceDto.getUserList().size());
+		for (CourseAttendanceUserDto userDto : courseAttendanceDto.getUserList()) {
+			assertEquals(2, userDto.getAttendanceList().size());
+			assertEquals("Java基礎／SQL基礎", userDto.getAttendanceList().get(0).getSectionName());
+			assertEquals("09:10", userDto.getAttendanceList().get(1).getTrainingStartTime());
+			assertEquals(AttendanceStatusEnum.TARDY.name,
+					userDto.getAttendanceList().get(1).getStatusDispName());
+		}
+		assertEquals("受講生1", courseAttendanceDto.getUserList().get(0).getUserName());
+		assertEquals("受講生2", courseAttendanceDto.getUserList().get(1).getUserName());
+
+		when(loginUserUtil.isCompany()).thenReturn(true);
+		studentAttendanceService.getCourseAttendance(COURSE_ID);
+		verify(tStudentAttendanceMapper).getCourseAttendance(eq(COURSE_ID), eq(5),
+				eq(Constants.CODE_VAL_ROLL_STUDENT), eq(Constants.DB_FLG_FALSE), any());
+	}
+
+	/**
+	 * Case.1_2 勤怠一括登録フォームへ設定<br>
+	 * <br>
+	 * ■対象メソッド：setBulkAttendanceForm()<br>
+	 * ■試験観点：<br>
+	 *  ・対象日の列のみ受講生毎に1行ずつ設定されること<br>
+	 *  ・出勤・退勤時間が「時」と「分」に分けて設定されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() throws ParseException {
+		AttendanceForm attendanceForm = studentAttendanceService.setBulkAttendanceForm(COURSE_ID,
+				"2026/10/2");
+
+		assertEquals(COURSE_ID, attendanceForm.getCourseId());
+		assertEquals(2, attendanceForm.getAttendanceList().size());
+		DailyAttendanceForm daily = attendanceForm.getAttendanceList().get(0);
+		assertEquals("1", daily.getLmsUserId());
+		assertEquals("2026/10/2", daily.getTrainingDate());
+		assertEquals("Spring", daily.getSectionName());
+		assertEquals(9, daily.getTrainingStartTimeHour());
+		assertEquals(10, daily.getTrainingStartTimeMinute());
+		assertEquals(18, daily.getTrainingEndTimeHour());
+		assertEquals(0, daily.getTrainingEndTimeMinute());
+		assertEquals("2", attendanceForm.getAttendanceList().get(1).getLmsUserId());
+
+		attendanceForm = studentAttendanceService.setBulkAttendanceForm(COURSE_ID, "2026/10/1");
+		assertEquals("Java基礎／SQL基礎", attendanceForm.getAttendanceList().get(0).getSectionName());
+		assertNull(attendanceForm.getAttendanceList().get(0).getTrainingStartTimeHour());
+	}
+
+	/**
+	 * Case.1_3 勤怠一括登録の入力チェック<br>
+	 * <br>
+	 * ■対象メソッド：bulkInputCheck()<br>
+	 * ■試験観点：<br>
+	 *  ・コースの受講生・研修日の行はエラーとならないこと<br>
+	 *  ・コースの受講生でない行は「受講生が不正です。」となること<br>
+	 *  ・コースの研修日でない・同じ受講生と研修日が重複する行は「研修日が不正です。」となること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		BindingResult result = check(daily("1", "2026/10/1"), daily("2", "2026/10/1"),
+				daily("1", "2026/10/2"));
+		assertFalse(result.hasErrors());
+
+		result = check(daily("1", "2026/10/1"), daily("3", "2026/10/1"));
+		assertEquals(1, result.getErrorCount());
+		assertEquals("受講生が不正です。", result.getGlobalError().getDefaultMessage());
+		result = check(daily("x", "2026/10/1"));
+		assertEquals("受講生が不正です。", result.getGlobalError().getDefaultMessage());
+
+		result = check(daily("1", "2026/10/3"));
+		assertEquals(1, result.getErrorCount());
+		assertEquals("研修日が不正です。", result.getGlobalError().getDefaultMessage());
+		result = check(daily("1", "2026-10-01"));
+		assertEquals("研修日が不正です。", result.getGlobalError().getDefaultMessage());
+		result = check(daily("1", "2026/10/1"), daily("1", "2026/10/01"));
+		assertEquals("研修日が不正です。", result.getGlobalError().getDefaultMessage());
+	}
+
+	/**
+	 * Case.1_4 勤怠一括登録処理<br>
+	 * <br>
+	 * ■対象メソッド：bulkRegist()<br>
+	 * ■試験観点：<br>
+	 *  ・登録待ちの出勤打刻を先に登録すること<br>
+	 *  ・変更のあった行・入力のあった未登録の行のみ登録・更新されること<br>
+	 *  ・登録・更新した受講生の過去日未入力件数をコミット後に破棄すること<br>
+	 *  ・完了メッセージが返ること<br>
+	 *
+	 * */
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testCase1_4() throws ParseException {
+		Date trainingDate = dateUtil.parse("2026/10/2");
+		TStudentAttendance entity1 = new TStudentAttendance();
+		entity1.setStudentAttendanceId(10);
+		entity1.setLmsUserId(1);
+		entity1.setTrainingDate(trainingDate);
+		entity1.setTrainingStartTime("09:10");
+		entity1.setTrainingEndTime("18:00");
+		entity1.setBlankTime(0);
+		entity1.setStatus(AttendanceStatusEnum.TARDY.code);
+		entity1.setDeleteFlg(Constants.DB_FLG_FALSE);
+		TStudentAttendance entity2 = new TStudentAttendance();
+		entity2.setStudentAttendanceId(20);
+		entity2.setLmsUserId(2);
+		entity2.setTrainingDate(trainingDate);
+		entity2.setTrainingStartTime("09:10");
+		entity2.setTrainingEndTime("18:00");
+		entity2.setBlankTime(0);
+		entity2.setStatus(AttendanceStatusEnum.TARDY.code);
+		entity2.setDeleteFlg(Constants.DB_FLG_FALSE);
+		when(tStudentAttendanceMapper.findByCourseIdAndTrainingDate(COURSE_ID, trainingDate,
+				Constants.DB_FLG_FALSE)).thenReturn(Arrays.asList(entity1, entity2));
+
+		// 受講生1は変更なし、受講生2は出勤時間を変更、受講生3は未登録で入力なし、受講生4は未登録で入力あり
+		DailyAttendanceForm daily1 = daily("1", "2026/10/2", 9, 10, 18, 0);
+		DailyAttendanceForm daily2 = daily("2", "2026/10/2", 9, 0, 18, 0);
+		DailyAttendanceForm daily3 = daily("3", "2026/10/2");
+		DailyAttendanceForm daily4 = daily("4", "2026/10/2", 9, 0, 17, 30);
+		AttendanceForm attendanceForm = form(daily1, daily2, daily3, daily4);
+
+		assertEquals("勤怠情報の登録が完了しました。",
+				studentAttendanceService.bulkRegist(attendanceForm));
+		verify(punchInQueueUtil).flushAll();
+		verify(tStudentAttendanceMapper, times(1)).findByCourseIdAndTrainingDate(any(), any(),
+				any());
+
+		ArgumentCaptor<List<TStudentAttendance>> captor = ArgumentCaptor.forClass(List.class);
+		verify(tStudentAttendanceMapper).upsertList(captor.capture());
+		List<TStudentAttendance> upsertList = captor.getValue();
+		assertEquals(2, upsertList.size());
+		assertEquals(20, upsertList.get(0).getStudentAttendanceId());
+		assertEquals("09:00", upsertList.get(0).getTrainingStartTime());
+		assertEquals(AttendanceStatusEnum.NONE.code, upsertList.get(0).getStatus());
+		assertEquals(100, upsertList.get(0).getLastModifiedUser());
+		assertNull(upsertList.get(0).getFirstCreateUser());
+		assertEquals(4, upsertList.get(1).getLmsUserId());
+		assertNull(upsertList.get(1).getStudentAttendanceId());
+		assertEquals("17:30", upsertList.get(1).getTrainingEndTime());
+		assertEquals(AttendanceStatusEnum.LEAVING_EARLY.code, upsertList.get(1).getStatus());
+		assertEquals(100, upsertList.get(1).getFirstCreateUser());
+
+		verify(unfilledAttendanceUtil).evictAfterCommit(Arrays.asList(2, 4));
+		verify(unfilledAttendanceUtil, never()).evict(any());
+	}
+
+	/**
+	 * 入力チェックの実行
+	 *
+	 * @param dailyAttendanceForms
+	 * @return 入力チェック結果
+	 */
+	private BindingResult check(DailyAttendanceForm... dailyAttendanceForms) {
+		AttendanceForm attendanceForm = form(dailyAttendanceForms);
+		BindingResult result = new BeanPropertyBindingResult(attendanceForm, "attendanceForm");
+		studentAttendanceService.bulkInputCheck(attendanceForm, result);
+		return result;
+	}
+
+	/**
+	 * 勤怠フォームの作成
+	 *
+	 * @param dailyAttendanceForms
+	 * @return 勤怠フォーム
+	 */
+	private AttendanceForm form(DailyAttendanceForm... dailyAttendanceForms) {
+		AttendanceForm attendanceForm = new AttendanceForm();
+		attendanceForm.setCourseId(COURSE_ID);
+		attendanceForm.setAttendanceList(new ArrayList<>(Arrays.asList(dailyAttendanceForms)));
+		return attendanceForm;
+	}
+
+	/**
+	 * 入力のない日次勤怠フォームの作成
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @return 日次勤怠フォーム
+	 */
+	private DailyAttendanceForm daily(String lmsUserId, String trainingDate) {
+		DailyAttendanceForm daily = new DailyAttendanceForm();
+		daily.setLmsUserId(lmsUserId);
+		daily.setTrainingDate(trainingDate);
+		return daily;
+	}
+
+	/**
+	 * 出勤・退勤時間を入力した日次勤怠フォームの作成
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @param startHour
+	 * @param startMinute
+	 * @param endHour
+	 * @param endMinute
+	 * @return 日次勤怠フォーム
+	 */
+	private DailyAttendanceForm daily(String lmsUserId, String trainingDate, Integer startHour,
+			Integer startMinute, Integer endHour, Integer endMinute) {
+		DailyAttendanceForm daily = daily(lmsUserId, trainingDate);
+		daily.setTrainingStartTimeHour(startHour);
+		daily.setTrainingStartTimeMinute(startMinute);
+		daily.setTrainingEndTimeHour(endHour);
+		daily.setTrainingEndTimeMinute(endMinute);
+		return daily;
+	}
+
+	/**
+	 * コース勤怠一覧の1行の作成
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @param sectionName
+	 * @param trainingStartTime
+	 * @param trainingEndTime
+	 * @param status
+	 * @return ユーザー勤怠情報DTO
+	 * @throws ParseException
+	 */
+	private UserAttendanceDto row(Integer lmsUserId, String trainingDate, String sectionName,
+			String trainingStartTime, String trainingEndTime, Short status) throws ParseException {
+		UserAttendanceDto userAttendanceDto = new UserAttendanceDto();
+		userAttendanceDto.setLmsUserId(lmsUserId);
+		userAttendanceDto.setUserName("受講生" + lmsUserId);
+		userAttendanceDto.setCourseId(COURSE_ID);
+		userAttendanceDto.setCourseName("Javaコース");
+		userAttendanceDto.setSectionName(sectionName);
+		userAttendanceDto.setTrainingDate(dateUtil.parse(trainingDate));
+		userAttendanceDto.setTrainingStartTime(trainingStartTime);
+		userAttendanceDto.setTrainingEndTime(trainingEndTime);
+		userAttendanceDto.setStatus(status);
+		return userAttendanceDto;
+	}
+
+}
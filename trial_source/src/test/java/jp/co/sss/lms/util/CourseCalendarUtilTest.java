@@ -0,0 +1,176 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.entity.MCourse;
+import jp.co.sss.lms.mapper.MCourseMapper;
+import jp.co.sss.lms.mapper.MSectionMapper;
+
+/**
+ * コース研修日カレンダーの試験<br>
+ * マッパーはモックを使用します。
+ *
+ * */
+public class CourseCalendarUtilTest {
+
+	private static final Integer COURSE_ID = 1;
+
+	private CourseCalendarUtil courseCalendarUtil;
+	private DateUtil dateUtil;
+	private MCourseMapper mCourseMapper;
+	private MSectionMapper mSectionMapper;
+
+	@BeforeEach
+	public void setup() {
+		dateUtil = new DateUtil();
+		mCourseMapper = mock(MCourseMapper.class);
+		mSectionMapper = mock(MSectionMapper.class);
+		courseCalendarUtil = new CourseCalendarUtil();
+		ReflectionTestUtils.setField(courseCalendarUtil, "dateUtil", dateUtil);
+		ReflectionTestUtils.setField(courseCalendarUtil, "mCourseMapper", mCourseMapper);
+		ReflectionTestUtils.setField(courseCalendarUtil, "mSectionMapper", mSectionMapper);
+		ReflectionTestUtils.setField(courseCalendarUtil, "expireMinute", 60);
+
+		when(mCourseMapper.getCalendarVersion(COURSE_ID)).thenReturn(1L);
+		// 順不同・重複ありのセクション日付（年・月をまたぐ）
+		when(mSectionMapper.getSectionDateListByCourseId(COURSE_ID)).thenReturn(dateList(
+				LocalDate.of(2025, 1, 6), LocalDate.of(2024, 12, 27), LocalDate.of(2024, 12, 2),
+				LocalDate.of(2024, 12, 27), LocalDate.of(2025, 3, 3)));
+	}
+
+	/**
+	 * Case.1_1 研修日の判定<br>
+	 * <br>
+	 * ■対象メソッド：isWorkDay()<br>
+	 * ■試験観点：<br>
+	 *  ・最初の研修日からの経過日数で、研修日のみtrueとなること<br>
+	 *  ・最初の研修日より前・最後の研修日より後はfalseとなること<br>
+	 *  ・セクションがない・引数がnullの場合はfalseとなること<br>
+	 *  ・2回目以降はマッパーを呼び出さないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 2)));
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 27)));
+		assertTrue(isWorkDay(LocalDate.of(2025, 1, 6)));
+		assertTrue(isWorkDay(LocalDate.of(2025, 3, 3)));
+		assertFalse(isWorkDay(LocalDate.of(2024, 12, 1)));
+		assertFalse(isWorkDay(LocalDate.of(2024, 12, 3)));
+		assertFalse(isWorkDay(LocalDate.of(2025, 1, 5)));
+		assertFalse(isWorkDay(LocalDate.of(2025, 3, 4)));
+		assertFalse(isWorkDay(LocalDate.of(2023, 12, 2)));
+		assertFalse(isWorkDay(LocalDate.of(9999, 12, 31)));
+		verify(mSectionMapper, times(1)).getSectionDateListByCourseId(COURSE_ID);
+
+		when(mSectionMapper.getSectionDateListByCourseId(2)).thenReturn(new ArrayList<>());
+		assertFalse(courseCalendarUtil.isWorkDay(2, dateUtil.toDate(LocalDate.of(2024, 12, 2))));
+		assertFalse(courseCalendarUtil.isWorkDay(null, new Date()));
+		assertFalse(courseCalendarUtil.isWorkDay(COURSE_ID, null));
+	}
+
+	/**
+	 * Case.1_2 バージョンの確認<br>
+	 * <br>
+	 * ■対象メソッド：refresh()<br>
+	 * ■試験観点：<br>
+	 *  ・バージョンが変わらない場合は破棄しないこと<br>
+	 *  ・バージョンが変わった・コースが削除された場合は破棄し、次回判定時に読み込み直すこと<br>
+	 *  ・保持していない場合はバージョンを取得しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		courseCalendarUtil.refresh();
+		verify(mCourseMapper, never()).getCalendarVersionList();
+
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 2)));
+		when(mCourseMapper.getCalendarVersionList()).thenReturn(List.of(course(COURSE_ID, 1L)));
+		courseCalendarUtil.refresh();
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 2)));
+		verify(mSectionMapper, times(1)).getSectionDateListByCourseId(COURSE_ID);
+
+		// セクションの日付変更
+		when(mCourseMapper.getCalendarVersion(COURSE_ID)).thenReturn(2L);
+		when(mCourseMapper.getCalendarVersionList()).thenReturn(List.of(course(COURSE_ID, 2L)));
+		when(mSectionMapper.getSectionDateListByCourseId(COURSE_ID))
+				.thenReturn(dateList(LocalDate.of(2024, 12, 3)));
+		courseCalendarUtil.refresh();
+		assertFalse(isWorkDay(LocalDate.of(2024, 12, 2)));
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 3)));
+		verify(mSectionMapper, times(2)).getSectionDateListByCourseId(COURSE_ID);
+
+		// コースの削除
+		when(mCourseMapper.getCalendarVersionList()).thenReturn(new ArrayList<>());
+		courseCalendarUtil.refresh();
+		isWorkDay(LocalDate.of(2024, 12, 3));
+		verify(mSectionMapper, times(3)).getSectionDateListByCourseId(COURSE_ID);
+	}
+
+	/**
+	 * Case.1_3 有効期限<br>
+	 * <br>
+	 * ■対象メソッド：isWorkDay()<br>
+	 * ■試験観点：<br>
+	 *  ・有効期限切れの場合は次回判定時に読み込み直すこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		ReflectionTestUtils.setField(courseCalendarUtil, "expireMinute", 0);
+		assertTrue(isWorkDay(LocalDate.of(2024, 12, 2)));
+		when(mSectionMapper.getSectionDateListByCourseId(COURSE_ID))
+				.thenReturn(dateList(LocalDate.of(2024, 12, 3)));
+		assertFalse(isWorkDay(LocalDate.of(2024, 12, 2)));
+		verify(mSectionMapper, times(2)).getSectionDateListByCourseId(COURSE_ID);
+	}
+
+	/**
+	 * 研修日の判定
+	 *
+	 * @param date
+	 * @return 判定結果
+	 */
+	private boolean isWorkDay(LocalDate date) {
+		return courseCalendarUtil.isWorkDay(COURSE_ID, dateUtil.toDate(date));
+	}
+
+	/**
+	 * セクション日付リストの作成
+	 *
+	 * @param dates
+	 * @return セクション日付リスト
+	 */
+	private List<Date> dateList(LocalDate... dates) {
+		List<Date> dateList = new ArrayList<>();
+		for (LocalDate date : dates) {
+			dateList.add(dateUtil.toDate(date));
+		}
+		return dateList;
+	}
+
+	/**
+	 * コースマスタエンティティの作成
+	 *
+	 * @param courseId
+	 * @param calendarVersion
+	 * @return コースマスタエンティティ
+	 */
+	private MCourse course(Integer courseId, Long calendarVersion) {
+		MCourse mCourse = new MCourse();
+		mCourse.setCourseId(courseId);
+		mCourse.setCalendarVersion(calendarVersion);
+		return mCourse;
+	}
+
+}
@@ -0,0 +1,84 @@
+package jp.co.sss.lms.util;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 日付ユーティリティのベンチマーク<br>
+ * フォーマット・解析を、変更前の実装（呼び出し毎にSimpleDateFormatを生成）と比較する。<br>
+ * 1回あたりの割り当て量はGCプロファイラの gc.alloc.rate.norm で確認する。<br>
+ * 試験（mvn test）では実行しない。test-compile後に{@link #main(String[])}を実行する。
+ *
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateUtilBenchmark {
+
+	/** レポートのファイル名で使用する書式 */
+	private static final String FILE_NAME_FORMAT = "YYYYMMdd";
+
+	private final DateUtil dateUtil = new DateUtil();
+	private Date date;
+
+	@Setup
+	public void setup() {
+		date = dateUtil.getCurrentDate();
+	}
+
+	@Benchmark
+	public String toStringYmd() {
+		return dateUtil.toString(date);
+	}
+
+	@Benchmark
+	public String toStringYmdSimpleDateFormat() {
+		return new SimpleDateFormat("yyyy/M/d").format(date);
+	}
+
+	@Benchmark
+	public String toStringFileName() {
+		return dateUtil.toString(date, FILE_NAME_FORMAT);
+	}
+
+	@Benchmark
+	public String toStringFileNameSimpleDateFormat() {
+		return new SimpleDateFormat(FILE_NAME_FORMAT).format(date);
+	}
+
+	@Benchmark
+	public Date parse() throws ParseException {
+		return dateUtil.parse("2024/4/1");
+	}
+
+	@Benchmark
+	public Date parseSimpleDateFormat() throws ParseException {
+		return new SimpleDateFormat("yyyy/M/d").parse("2024/4/1");
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(DateUtilBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+
+}
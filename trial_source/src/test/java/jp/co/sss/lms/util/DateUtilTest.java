@@ -0,0 +1,220 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Timestamp;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 日付ユーティリティの試験
+ *
+ * */
+public class DateUtilTest {
+
+	private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+
+	private DateUtil dateUtil;
+
+	@BeforeEach
+	public void setup() {
+		dateUtil = new DateUtil();
+		dateUtil.setClock(Clock.fixed(
+				LocalDateTime.of(2024, 4, 1, 9, 30, 15, 123000000).atZone(ZONE).toInstant(), ZONE));
+	}
+
+	/**
+	 * Case.1_1 フォーマット<br>
+	 * <br>
+	 * ■対象メソッド：toString(), dateToString(), getCurrentDateString()<br>
+	 * ■試験観点：<br>
+	 *  ・SimpleDateFormatと同じ文字列になること<br>
+	 *  ・java.sql.Date、Timestampも変換できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		Date date = dateUtil.toDate(LocalDateTime.of(2024, 1, 5, 8, 3, 9));
+		String[] formats = { "yyyy/M/d", "yyyy-MM-dd", "yyyy年M月d日(E)", "yyyy/MM/dd HH:mm:ss",
+				"yyyyMMdd" };
+		for (String format : formats) {
+			SimpleDateFormat sdf = new SimpleDateFormat(format);
+			sdf.setTimeZone(java.util.TimeZone.getTimeZone(ZONE));
+			assertEquals(sdf.format(date), dateUtil.dateToString(date, format), format);
+		}
+		assertEquals("2024/1/5", dateUtil.toString(date));
+		assertEquals("2024/01/05 08:03:09", dateUtil.dateToString(new Timestamp(date.getTime())));
+		assertEquals("2024/1/5", dateUtil.toString(java.sql.Date.valueOf(LocalDate.of(2024, 1, 5))));
+		assertEquals("2024/04/01 09:30:15", dateUtil.getCurrentDateString());
+		assertEquals("20240401", dateUtil.getCurrentDateString("yyyyMMdd"));
+	}
+
+	/**
+	 * Case.1_2 フォーマット（週の暦年）<br>
+	 * <br>
+	 * ■対象メソッド：toString(), dateToStringJ()<br>
+	 * ■試験観点：<br>
+	 *  ・"YYYYMMdd"（レポートのファイル名等）で、年末年始の週の暦年がSimpleDateFormatと同じになること<br>
+	 *  ・既定のロケールが異なる場合も、ロケール毎の週の定義で変換されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		String format = "YYYYMMdd";
+		Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+		try {
+			for (Locale locale : new Locale[] { defaultLocale, Locale.JAPAN, Locale.US,
+					Locale.GERMANY }) {
+				Locale.setDefault(Locale.Category.FORMAT, locale);
+				SimpleDateFormat sdf = new SimpleDateFormat(format);
+				sdf.setTimeZone(TimeZone.getTimeZone(ZONE));
+				SimpleDateFormat sdfJ = new SimpleDateFormat(format, Locale.JAPANESE);
+				sdfJ.setTimeZone(TimeZone.getTimeZone(ZONE));
+				for (int year = 2019; year <= 2030; year++) {
+					LocalDate from = LocalDate.of(year, 12, 25);
+					for (LocalDate day = from; day.isBefore(from.plusDays(14)); day = day.plusDays(1)) {
+						Date date = dateUtil.toDate(day);
+						assertEquals(sdf.format(date), dateUtil.toString(date, format),
+								locale + " " + day);
+						assertEquals(sdfJ.format(date), dateUtil.dateToStringJ(date, format),
+								locale + " " + day);
+					}
+				}
+			}
+			// 日曜始まりの場合、2024/12/29（日）は2025年の第1週
+			Locale.setDefault(Locale.Category.FORMAT, Locale.JAPAN);
+			assertEquals("20251229",
+					dateUtil.toString(dateUtil.toDate(LocalDate.of(2024, 12, 29)), format));
+		} finally {
+			Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+		}
+	}
+
+	/**
+	 * Case.2_1 解析<br>
+	 * <br>
+	 * ■対象メソッド：parse(), stringToTimestamp(), stringToSqlDate()<br>
+	 * ■試験観点：<br>
+	 *  ・"yyyy/M/d"形式は月日が1桁・2桁どちらでも解析できること<br>
+	 *  ・不正な文字列はParseExceptionとなること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() throws ParseException {
+		Date expected = dateUtil.toDate(LocalDate.of(2024, 1, 5));
+		assertEquals(expected, dateUtil.parse("2024/1/5"));
+		assertEquals(expected, dateUtil.parse("2024/01/05"));
+		assertEquals(dateUtil.toDate(LocalDateTime.of(2024, 1, 5, 8, 3, 9)),
+				dateUtil.stringToTimestamp("2024/01/05 08:03:09"));
+		assertEquals(java.sql.Date.valueOf(LocalDate.of(2024, 1, 5)).toString(),
+				dateUtil.stringToSqlDate("2024-01-05").toString());
+		assertNull(dateUtil.stringToSqlDate("2024/01/05"));
+		assertThrows(ParseException.class, () -> dateUtil.parse("2024-1-5"));
+		assertTrue(DateUtil.isDate("2024/01/05 08:03:09", "yyyy/MM/dd HH:mm:ss"));
+		assertFalse(dateUtil.isDate("2024/01/05"));
+	}
+
+	/**
+	 * Case.3_1 現在日時<br>
+	 * <br>
+	 * ■対象メソッド：getCurrentDate(), getCurrentCalendar(), toCalendar(String)<br>
+	 * ■試験観点：<br>
+	 *  ・差し替えたClockの日時が使用されること<br>
+	 *  ・現在日時は秒単位であること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() {
+		assertEquals(LocalDate.of(2024, 4, 1), dateUtil.getCurrentLocalDate());
+		assertEquals(dateUtil.toDate(LocalDate.of(2024, 4, 1)), dateUtil.getCurrentDate());
+		Calendar now = dateUtil.getCurrentCalendar();
+		assertEquals(0, now.get(Calendar.MILLISECOND));
+		assertEquals(0, now.compareTo(dateUtil.toCalendar(dateUtil.getCurrentDateString())));
+		assertEquals(dateUtil.toDate(LocalDateTime.of(2024, 4, 1, 9, 30, 15, 123000000)).getTime(),
+				dateUtil.toCalendar("2024/04/01 09:30:15.123").getTimeInMillis());
+		assertThrows(IllegalArgumentException.class, () -> dateUtil.toCalendar("2000/99/99"));
+	}
+
+	/**
+	 * Case.4_1 日付計算<br>
+	 * <br>
+	 * ■対象メソッド：calcAge(), getAcrossMonth(), getLastDayOfMonth(), getDayOfTheWeekShort()<br>
+	 * ■試験観点：<br>
+	 *  ・Calendarによる計算と同じ結果になること<br>
+	 *
+	 * */
+	@Test
+	public void testCase4_1() {
+		Date birthday = dateUtil.toDate(LocalDate.of(2000, 4, 2));
+		assertEquals(23, dateUtil.calcAge(birthday));
+		assertEquals(24, dateUtil.calcAge(birthday, dateUtil.toDate(LocalDate.of(2024, 4, 2))));
+		assertEquals(3, dateUtil.getAcrossMonth(
+				new Timestamp(dateUtil.toDate(LocalDate.of(2024, 1, 31)).getTime()),
+				new Timestamp(dateUtil.toDate(LocalDate.of(2024, 3, 1)).getTime())));
+		assertEquals(dateUtil.toDate(LocalDate.of(2024, 2, 29)),
+				dateUtil.getLastDayOfMonth(dateUtil.toDate(LocalDate.of(2024, 2, 10))));
+		assertEquals("月", dateUtil.getDayOfTheWeekShort(dateUtil.getCurrentDate()));
+	}
+
+	/**
+	 * Case.5_1 複数スレッドからの呼び出し<br>
+	 * <br>
+	 * ■対象メソッド：toString(Date)、parse(String)<br>
+	 * ■試験観点：<br>
+	 *  ・複数スレッドから同時に呼び出しても、1スレッドで生成したSimpleDateFormatと同じ結果となること<br>
+	 *
+	 * */
+	@Test
+	public void testCase5_1() throws Exception {
+		List<Date> dateList = new ArrayList<>();
+		List<String> expectedList = new ArrayList<>();
+		SimpleDateFormat sdf = new SimpleDateFormat("yyyy/M/d");
+		sdf.setTimeZone(TimeZone.getTimeZone(ZONE));
+		for (int i = 0; i < 1000; i++) {
+			Date date = dateUtil.toDate(LocalDate.of(2000, 1, 1).plusDays(i * 17L));
+			dateList.add(date);
+			expectedList.add(sdf.format(date));
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<?>> futureList = new ArrayList<>();
+			for (int t = 0; t < 8; t++) {
+				int offset = t;
+				futureList.add(executor.submit(() -> {
+					for (int n = 0; n < 20; n++) {
+						for (int i = 0; i < dateList.size(); i++) {
+							int index = (i + offset * 125) % dateList.size();
+							assertEquals(expectedList.get(index), dateUtil.toString(dateList.get(index)));
+							assertEquals(dateList.get(index), dateUtil.parse(expectedList.get(index)));
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futureList) {
+				future.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.dto.ExamQuestionDto;
+import jp.co.sss.lms.dto.QuestionDto;
+import jp.co.sss.lms.entity.MExam;
+import jp.co.sss.lms.entity.MQuestion;
+import jp.co.sss.lms.mapper.MExamMapper;
+import jp.co.sss.lms.mapper.MQuestionMapper;
+
+/**
+ * 試験問題キャッシュの試験<br>
+ * マッパーはモックを使用します。
+ *
+ * */
+public class ExamQuestionCacheTest {
+
+	private static final Integer EXAM_ID = 1;
+
+	private ExamQuestionCache examQuestionCache;
+	private MExamMapper mExamMapper;
+	private MQuestionMapper mQuestionMapper;
+
+	@BeforeEach
+	public void setup() {
+		mExamMapper = mock(MExamMapper.class);
+		mQuestionMapper = mock(MQuestionMapper.class);
+		examQuestionCache = new ExamQuestionCache();
+		ReflectionTestUtils.setField(examQuestionCache, "mExamMapper", mExamMapper);
+		ReflectionTestUtils.setField(examQuestionCache, "mQuestionMapper", mQuestionMapper);
+
+		when(mExamMapper.getContentVersion(EXAM_ID)).thenReturn(1L);
+		when(mExamMapper.getExamQuestion(EXAM_ID, Constants.DB_FLG_FALSE))
+				.thenAnswer(invocation -> createExamQuestionDto("問題1"));
+		when(mQuestionMapper.findByExamId(EXAM_ID, Constants.DB_FLG_FALSE))
+				.thenReturn(new ArrayList<>(List.of(new MQuestion())));
+	}
+
+	/**
+	 * Case.1_1 ヒット・ミス<br>
+	 * <br>
+	 * ■対象メソッド：getExamQuestion()、getQuestionList()<br>
+	 * ■試験観点：<br>
+	 *  ・2回目以降はマッパーを呼び出さずに同じ内容（取得毎の複製）を返すこと<br>
+	 *  ・回答リストが設定済みで、リストは変更できないこと<br>
+	 *  ・存在しない試験はnullを返し、保持しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		ExamQuestionDto first = examQuestionCache.getExamQuestion(EXAM_ID);
+		ExamQuestionDto second = examQuestionCache.getExamQuestion(EXAM_ID);
+		List<MQuestion> questionList = examQuestionCache.getQuestionList(EXAM_ID);
+
+		assertNotSame(first, second);
+		assertEquals(first, second);
+		assertEquals(1, questionList.size());
+		verify(mExamMapper, times(1)).getExamQuestion(EXAM_ID, Constants.DB_FLG_FALSE);
+		verify(mQuestionMapper, times(1)).findByExamId(EXAM_ID, Constants.DB_FLG_FALSE);
+		assertEquals(1, examQuestionCache.getMissCount());
+		assertEquals(2, examQuestionCache.getHitCount());
+		assertEquals(2.0 / 3, examQuestionCache.getHitRatio(), 0.001);
+
+		QuestionDto questionDto = first.getQuestionDtoList().get(0);
+		assertEquals(List.of("選択肢1", "選択肢2", "選択肢3", "選択肢4"), questionDto.getAnswerList());
+		assertThrows(UnsupportedOperationException.class,
+				() -> first.getQuestionDtoList().add(new QuestionDto()));
+		assertThrows(UnsupportedOperationException.class, () -> questionList.clear());
+
+		assertNull(examQuestionCache.getExamQuestion(2));
+		assertNull(examQuestionCache.getExamQuestion(2));
+		assertEquals(3, examQuestionCache.getMissCount());
+	}
+
+	/**
+	 * Case.1_2 バージョンの確認<br>
+	 * <br>
+	 * ■対象メソッド：refresh()<br>
+	 * ■試験観点：<br>
+	 *  ・バージョンが変わらない場合は保持し続けること<br>
+	 *  ・バージョンが変わった場合は破棄し、次回取得時に読み込み直すこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		ExamQuestionDto first = examQuestionCache.getExamQuestion(EXAM_ID);
+
+		when(mExamMapper.getContentVersionList()).thenReturn(List.of(createMExam(1L)));
+		examQuestionCache.refresh();
+		assertEquals(first, examQuestionCache.getExamQuestion(EXAM_ID));
+		assertEquals(0, examQuestionCache.getEvictionCount());
+
+		when(mExamMapper.getContentVersionList()).thenReturn(List.of(createMExam(2L)));
+		when(mExamMapper.getContentVersion(EXAM_ID)).thenReturn(2L);
+		when(mExamMapper.getExamQuestion(EXAM_ID, Constants.DB_FLG_FALSE))
+				.thenAnswer(invocation -> createExamQuestionDto("問題1（修正）"));
+		examQuestionCache.refresh();
+		assertEquals(1, examQuestionCache.getEvictionCount());
+		assertEquals("問題1（修正）",
+				examQuestionCache.getExamQuestion(EXAM_ID).getQuestionDtoList().get(0).getQuestion());
+		assertEquals(2, examQuestionCache.getMissCount());
+	}
+
+	/**
+	 * Case.1_3 返却値の変更<br>
+	 * <br>
+	 * ■対象メソッド：getExamQuestion()、getQuestionList()<br>
+	 * ■試験観点：<br>
+	 *  ・返却した問題DTO・エンティティを変更しても、保持している問題に影響しないこと<br>
+	 *  ・回答リストは変更できないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		MQuestion mQuestion = new MQuestion();
+		mQuestion.setQuestionId(1);
+		mQuestion.setAnswerNum((short) 2);
+		when(mQuestionMapper.findByExamId(EXAM_ID, Constants.DB_FLG_FALSE))
+				.thenReturn(new ArrayList<>(List.of(mQuestion)));
+
+		ExamQuestionDto examQuestionDto = examQuestionCache.getExamQuestion(EXAM_ID);
+		QuestionDto questionDto = examQuestionDto.getQuestionDtoList().get(0);
+		questionDto.setQuestion("変更");
+		questionDto.setReply((short) 1);
+		questionDto.setAnswerList(List.of());
+		examQuestionDto.setExamName("変更");
+		examQuestionCache.getQuestionList(EXAM_ID).get(0).setAnswerNum((short) 3);
+
+		ExamQuestionDto second = examQuestionCache.getExamQuestion(EXAM_ID);
+		QuestionDto secondQuestionDto = second.getQuestionDtoList().get(0);
+		assertNull(second.getExamName());
+		assertEquals("問題1", secondQuestionDto.getQuestion());
+		assertNull(secondQuestionDto.getReply());
+		assertEquals(List.of("選択肢1", "選択肢2", "選択肢3", "選択肢4"), secondQuestionDto.getAnswerList());
+		assertThrows(UnsupportedOperationException.class,
+				() -> secondQuestionDto.getAnswerList().set(0, "変更"));
+		assertEquals((short) 2, examQuestionCache.getQuestionList(EXAM_ID).get(0).getAnswerNum());
+		verify(mExamMapper, times(1)).getExamQuestion(EXAM_ID, Constants.DB_FLG_FALSE);
+	}
+
+	/**
+	 * Case.1_4 統計の出力<br>
+	 * <br>
+	 * ■対象メソッド：logStatistics()<br>
+	 * ■試験観点：<br>
+	 *  ・取得がない場合は出力しないこと<br>
+	 *  ・ヒット・ミス・破棄件数が変わった場合のみ出力すること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_4() {
+		assertFalse(examQuestionCache.logStatistics());
+
+		examQuestionCache.getExamQuestion(EXAM_ID);
+		assertTrue(examQuestionCache.logStatistics());
+		assertFalse(examQuestionCache.logStatistics());
+
+		examQuestionCache.getExamQuestion(EXAM_ID);
+		assertTrue(examQuestionCache.logStatistics());
+
+		when(mExamMapper.getContentVersionList()).thenReturn(List.of(createMExam(2L)));
+		examQuestionCache.refresh();
+		assertTrue(examQuestionCache.logStatistics());
+		assertFalse(examQuestionCache.logStatistics());
+	}
+
+	/**
+	 * 試験問題DTOの作成
+	 *
+	 * @param question
+	 * @return 試験問題DTO
+	 */
+	private ExamQuestionDto createExamQuestionDto(String question) {
+		QuestionDto questionDto = new QuestionDto();
+		questionDto.setQuestionId(1);
+		questionDto.setQuestion(question);
+		questionDto.setChoice1("選択肢1");
+		questionDto.setChoice2("選択肢2");
+		questionDto.setChoice3("選択肢3");
+		questionDto.setChoice4("選択肢4");
+		ExamQuestionDto examQuestionDto = new ExamQuestionDto();
+		examQuestionDto.setExamId(EXAM_ID);
+		examQuestionDto.setQuestionDtoList(new ArrayList<>(List.of(questionDto)));
+		return examQuestionDto;
+	}
+
+	/**
+	 * 試験エンティティの作成
+	 *
+	 * @param contentVersion
+	 * @return 試験エンティティ
+	 */
+	private MExam createMExam(Long contentVersion) {
+		MExam mExam = new MExam();
+		mExam.setExamId(EXAM_ID);
+		mExam.setContentVersion(contentVersion);
+		return mExam;
+	}
+
+}
@@ -0,0 +1,157 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import jp.co.sss.lms.entity.TExamAttempt;
+import jp.co.sss.lms.mapper.TExamAttemptMapper;
+import jp.co.sss.lms.util.ExamSessionStore.ExamAttempt;
+
+/**
+ * 受験中の試験の試験<br>
+ * 受験中試験テーブルマッパーはモックに差し替えて試験します。
+ *
+ * */
+public class ExamSessionStoreTest {
+
+	@Mock
+	private TExamAttemptMapper tExamAttemptMapper;
+
+	@InjectMocks
+	private ExamSessionStore examSessionStore;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		ReflectionTestUtils.setField(examSessionStore, "ttlMinute", 180);
+	}
+
+	/**
+	 * Case.1_1 受験の開始<br>
+	 * <br>
+	 * ■対象メソッド：begin()、resize()<br>
+	 * ■試験観点：<br>
+	 *  ・受験中の試験の試験ID・回答・開始日時を取得できること<br>
+	 *  ・問題数に合わせて回答が未回答で埋められ・切り詰められること<br>
+	 *  ・試験・セクション紐付けが存在しない場合はnullとなること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		when(tExamAttemptMapper.findByKey(1, 10)).thenReturn(attempt(1, 10, 5, "", 1000));
+
+		ExamAttempt examAttempt = examSessionStore.begin(1, 10);
+		verify(tExamAttemptMapper).insertIfAbsent(eq(1), eq(10), any(Date.class),
+				eq(Constants.DB_FLG_FALSE));
+		assertEquals(5, examAttempt.getExamId());
+		assertTrue(examAttempt.getElapsedTime() >= 1000);
+
+		examAttempt = examSessionStore.resize(examAttempt, 3);
+		verify(tExamAttemptMapper).updateAnswers(eq(1), eq(10), eq("000"), any(Date.class));
+		assertArrayEquals(new Short[] { null, null, null }, examAttempt.getAnswers());
+		assertSame(examAttempt, examSessionStore.resize(examAttempt, 3));
+
+		when(tExamAttemptMapper.findByKey(1, 10)).thenReturn(attempt(1, 10, 5, "0304", 1000));
+		examAttempt = examSessionStore.resize(examSessionStore.begin(1, 10), 2);
+		verify(tExamAttemptMapper).updateAnswers(eq(1), eq(10), eq("03"), any(Date.class));
+		assertArrayEquals(new Short[] { null, 3 }, examAttempt.getAnswers());
+		assertEquals(1, examAttempt.getAnsweredCount());
+
+		assertNull(examSessionStore.begin(1, 11));
+	}
+
+	/**
+	 * Case.1_2 回答の反映<br>
+	 * <br>
+	 * ■対象メソッド：putAnswer()<br>
+	 * ■試験観点：<br>
+	 *  ・1問分の回答が反映され、更新後の回答から回答済みの問題数が返ること<br>
+	 *  ・未回答は'0'として反映されること<br>
+	 *  ・受験中でない・問題の番号や回答が不正な場合は反映しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		when(tExamAttemptMapper.updateAnswer(eq(1), eq(10), anyInt(), anyString(), any()))
+				.thenReturn("234", "204");
+
+		assertEquals(3, examSessionStore.putAnswer(1, 10, 2, (short) 4));
+		verify(tExamAttemptMapper).updateAnswer(eq(1), eq(10), eq(2), eq("4"), any(Date.class));
+		assertEquals(2, examSessionStore.putAnswer(1, 10, 1, null));
+		verify(tExamAttemptMapper).updateAnswer(eq(1), eq(10), eq(1), eq("0"), any(Date.class));
+
+		assertNull(examSessionStore.putAnswer(1, 10, 1, (short) 5));
+		assertNull(examSessionStore.putAnswer(1, 10, -1, (short) 1));
+		// 受験中でない・範囲外の場合は更新されない
+		assertNull(examSessionStore.putAnswer(2, 10, 1, (short) 1));
+		verify(tExamAttemptMapper, times(3)).updateAnswer(any(), any(), anyInt(), anyString(),
+				any());		// 回答済みの問題数は更新の返却値から求める
+		verify(tExamAttemptMapper, never()).findByKey(any(), any());
+	}
+
+	/**
+	 * Case.1_3 受験の終了・破棄<br>
+	 * <br>
+	 * ■対象メソッド：take()、purge()<br>
+	 * ■試験観点：<br>
+	 *  ・行ロックして取得した受験が削除され、回答・試験IDが返ること<br>
+	 *  ・受験中でない場合はnullとなり、削除しないこと<br>
+	 *  ・最後の操作から一定時間経過した受験が破棄されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		when(tExamAttemptMapper.findByKeyForUpdate(1, 10)).thenReturn(attempt(1, 10, 5, "04", 0));
+
+		ExamAttempt examAttempt = examSessionStore.take(1, 10);
+		assertEquals(5, examAttempt.getExamId());
+		assertArrayEquals(new Short[] { null, 4 }, examAttempt.getAnswers());
+		verify(tExamAttemptMapper).delete(1, 10);
+
+		assertNull(examSessionStore.take(1, 11));
+		verify(tExamAttemptMapper, never()).delete(1, 11);
+
+		when(tExamAttemptMapper.deleteExpired(any())).thenReturn(1);
+		long now = System.currentTimeMillis();
+		examSessionStore.purge();
+		ArgumentCaptor<Date> captor = ArgumentCaptor.forClass(Date.class);
+		verify(tExamAttemptMapper).deleteExpired(captor.capture());
+		assertTrue(captor.getValue().getTime() <= now - TimeUnit.MINUTES.toMillis(180) + 1000);
+		assertTrue(captor.getValue().getTime() >= now - TimeUnit.MINUTES.toMillis(180));
+	}
+
+	/**
+	 * 受験中試験エンティティの作成
+	 *
+	 * @param lmsUserId
+	 * @param examSectionId
+	 * @param examId
+	 * @param answers
+	 * @param elapsedTime   開始からの経過時間（ミリ秒）
+	 * @return 受験中試験エンティティ
+	 */
+	private TExamAttempt attempt(Integer lmsUserId, Integer examSectionId, Integer examId,
+			String answers, long elapsedTime) {
+		TExamAttempt tExamAttempt = new TExamAttempt();
+		tExamAttempt.setLmsUserId(lmsUserId);
+		tExamAttempt.setExamSectionId(examSectionId);
+		tExamAttempt.setExamId(examId);
+		tExamAttempt.setAnswers(answers);
+		tExamAttempt.setStartDate(new Date(System.currentTimeMillis() - elapsedTime));
+		tExamAttempt.setLastAccessDate(new Date());
+		return tExamAttempt;
+	}
+
+}
@@ -0,0 +1,125 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Excelテンプレートキャッシュの試験<br>
+ * テンプレートファイルは試験クラスと同じクラスパス上に作成します。
+ *
+ * */
+public class ExcelTemplateCacheTest {
+
+	private ExcelTemplateCache excelTemplateCache;
+
+	@BeforeEach
+	public void setup() {
+		excelTemplateCache = new ExcelTemplateCache();
+		ReflectionTestUtils.setField(excelTemplateCache, "maxSize", 1);
+	}
+
+	/**
+	 * Case.1_1 ヒット・ミス<br>
+	 * <br>
+	 * ■対象メソッド：getExcelUtil()<br>
+	 * ■試験観点：<br>
+	 *  ・2回目以降はキャッシュから読み込まれること<br>
+	 *  ・呼び出し毎に別のワークブックが返却され、書き込みが他の呼び出しに影響しないこと<br>
+	 *  ・ファイルが更新された場合は読み込み直すこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws IOException {
+		File file = createTemplate("excelTemplateCacheTest1.xlsx", "テンプレート1");
+
+		ExcelUtil first = excelTemplateCache.getExcelUtil(file.getName());
+		first.setVal("シート", 0, 0, "書き込み");
+		ExcelUtil second = excelTemplateCache.getExcelUtil(file.getName());
+		assertEquals(1, excelTemplateCache.getMissCount());
+		assertEquals(1, excelTemplateCache.getHitCount());
+		assertNotSame(first.getWb(), second.getWb());
+		assertEquals("テンプレート1", second.getCellValue("シート", 0, 0));
+
+		createTemplate(file.getName(), "テンプレート2");
+		assertTrue(file.setLastModified(file.lastModified() + 2000));
+		ExcelUtil third = excelTemplateCache.getExcelUtil(file.getName());
+		assertEquals(2, excelTemplateCache.getMissCount());
+		assertEquals("テンプレート2", third.getCellValue("シート", 0, 0));
+	}
+
+	/**
+	 * Case.2_1 破棄<br>
+	 * <br>
+	 * ■対象メソッド：getExcelUtil()<br>
+	 * ■試験観点：<br>
+	 *  ・最大保持件数を超えた場合は最も長く使われていないテンプレートが破棄されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() throws IOException {
+		File file1 = createTemplate("excelTemplateCacheTest2.xlsx", "テンプレート1");
+		File file2 = createTemplate("excelTemplateCacheTest3.xlsx", "テンプレート2");
+
+		excelTemplateCache.getExcelUtil(file1.getName());
+		excelTemplateCache.getExcelUtil(file2.getName());
+		excelTemplateCache.getExcelUtil(file1.getName());
+		assertEquals(3, excelTemplateCache.getMissCount());
+		assertEquals(0, excelTemplateCache.getHitCount());
+		assertEquals(2, excelTemplateCache.getEvictionCount());
+	}
+
+	/**
+	 * Case.3_1 統計の出力<br>
+	 * <br>
+	 * ■対象メソッド：logStatistics()<br>
+	 * ■試験観点：<br>
+	 *  ・取得がない場合は出力しないこと<br>
+	 *  ・ヒット・ミス件数が変わった場合のみ出力すること<br>
+	 *  ・ヒット率が算出されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() throws IOException {
+		File file = createTemplate("excelTemplateCacheTest4.xlsx", "テンプレート1");
+		assertFalse(excelTemplateCache.logStatistics());
+
+		excelTemplateCache.getExcelUtil(file.getName());
+		assertTrue(excelTemplateCache.logStatistics());
+		assertFalse(excelTemplateCache.logStatistics());
+
+		excelTemplateCache.getExcelUtil(file.getName());
+		assertTrue(excelTemplateCache.logStatistics());
+		assertEquals(0.5, excelTemplateCache.getHitRatio(), 0.001);
+	}
+
+	/**
+	 * テンプレートファイルの作成
+	 *
+	 * @param fileName
+	 * @param value    A1セルの値
+	 * @return 作成したファイル
+	 * @throws IOException
+	 */
+	private File createTemplate(String fileName, String value) throws IOException {
+		File file = new File(new ClassPathResource("").getFile(), fileName);
+		file.deleteOnExit();
+		Workbook wb = new XSSFWorkbook();
+		wb.createSheet("シート").createRow(0).createCell(0).setCellValue(value);
+		try (OutputStream out = new FileOutputStream(file)) {
+			wb.write(out);
+		}
+		return file;
+	}
+
+}
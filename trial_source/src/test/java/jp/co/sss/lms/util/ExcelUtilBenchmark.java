@@ -0,0 +1,82 @@
+package jp.co.sss.lms.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+
+/**
+ * Excelユーティリティのベンチマーク<br>
+ * レポートダウンロードと同様に、フィードバックコメント1件・10件・100件分の欄をコピーして値を設定する応答時間を計測する。<br>
+ * 試験（mvn test）では実行しない。test-compile後に{@link #main(String[])}を実行する。
+ *
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExcelUtilBenchmark {
+
+	/** レポートのテンプレート */
+	private static final String REPORT_TEMPLATE = "static/template/日報_テンプレート.xlsx";
+	/** フィードバックコメントのシート名 */
+	private static final String FB_SHEET_NAME = "フィードバックコメント";
+	/** フィードバックコメント欄の開始行 */
+	private static final int FB_START_ROW = 6;
+	/** フィードバックコメント欄の最終行 */
+	private static final int FB_END_ROW = 8;
+
+	/** フィードバックコメント件数 */
+	@Param({ "1", "10", "100" })
+	private int fbCount;
+
+	private byte[] template;
+	private ExcelUtil excelUtil;
+
+	@Setup(Level.Trial)
+	public void loadTemplate() throws IOException {
+		try (InputStream in = new ClassPathResource(REPORT_TEMPLATE).getInputStream()) {
+			template = in.readAllBytes();
+		}
+	}
+
+	@Setup(Level.Invocation)
+	public void openTemplate() {
+		excelUtil = new ExcelUtil(template);
+	}
+
+	@Benchmark
+	public Workbook rowBlockCopy() {
+		excelUtil.rowBlockCopy(FB_SHEET_NAME, FB_START_ROW, FB_END_ROW, fbCount - 1);
+		for (int i = 0; i < fbCount; i++) {
+			excelUtil.setVal(FB_SHEET_NAME, FB_START_ROW + i * 2, 0, "受講生" + i);
+			excelUtil.setVal(FB_SHEET_NAME, FB_START_ROW + 1 + i * 2, 10, "コメント" + i);
+		}
+		return excelUtil.getWb();
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(ExcelUtilBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+}
@@ -0,0 +1,427 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jp.co.sss.lms.dto.WorkbookDto;
+
+/**
+ * ExcelUtilの試験
+ *
+ * */
+public class ExcelUtilTest {
+
+	/** 一括ダウンロードするWorkbook数 */
+	private static final int BOOK_COUNT = 20;
+	/** 日報テンプレート */
+	private static final String REPORT_TEMPLATE = "static/template/日報_テンプレート.xlsx";
+	/** フィードバックコメントのシート名 */
+	private static final String FB_SHEET_NAME = "フィードバックコメント";
+	/** フィードバックコメント欄の開始行 */
+	private static final int FB_START_ROW = 6;
+	/** フィードバックコメント欄の最終行 */
+	private static final int FB_END_ROW = 8;
+	/** ストリーミング書き込みで追加する行数 */
+	private static final int STREAMING_ROW_COUNT = 200000;
+
+	/**
+	 * Case.1_1 一括ダウンロード<br>
+	 * <br>
+	 * ■対象メソッド：downloadInZip()<br>
+	 * ■試験観点：<br>
+	 *  ・作成した全てのWorkbookがZIPに格納され、Excelとして読み込めること<br>
+	 *  ・同名のファイルには「(n)」が付与されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws Exception {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		AtomicInteger createdCount = new AtomicInteger();
+		Iterator<WorkbookDto> workbookDtos = new Iterator<WorkbookDto>() {
+			@Override
+			public boolean hasNext() {
+				return createdCount.get() < BOOK_COUNT;
+			}
+
+			@Override
+			public WorkbookDto next() {
+				int i = createdCount.incrementAndGet();
+				WorkbookDto workbookDto = new WorkbookDto();
+				Workbook wb = new XSSFWorkbook();
+				wb.createSheet("シート").createRow(0).createCell(0).setCellValue("レポート" + i);
+				workbookDto.setWb(wb);
+				workbookDto.setWbName("レポート.xlsx");
+				return workbookDto;
+			}
+		};
+
+		ExcelUtil.downloadInZip("レポート", workbookDtos, response);
+
+		assertTrue(response.getHeader("Content-Disposition").startsWith("attachment;"));
+		List<String> entryNameList = new ArrayList<>();
+		try (ZipInputStream zis = new ZipInputStream(
+				new ByteArrayInputStream(response.getContentAsByteArray()), Charset.forName("MS932"))) {
+			ZipEntry entry;
+			while ((entry = zis.getNextEntry()) != null) {
+				entryNameList.add(entry.getName());
+				Workbook wb = WorkbookFactory.create(new ByteArrayInputStream(zis.readAllBytes()));
+				assertEquals("レポート" + entryNameList.size(),
+						wb.getSheet("シート").getRow(0).getCell(0).getStringCellValue());
+			}
+		}
+		assertEquals(BOOK_COUNT, entryNameList.size());
+		assertEquals("レポート.xlsx", entryNameList.get(0));
+		assertEquals("レポート(1).xlsx", entryNameList.get(1));
+		assertEquals("レポート(" + (BOOK_COUNT - 1) + ").xlsx", entryNameList.get(BOOK_COUNT - 1));
+	}
+
+	/**
+	 * Case.1_2 一括ダウンロード_作成失敗<br>
+	 * <br>
+	 * ■対象メソッド：downloadInZip()<br>
+	 * ■試験観点：<br>
+	 *  ・Workbookの作成で発生した例外が呼び出し元に送出されること<br>
+	 *  ・未送信のレスポンスはヘッダが破棄されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Iterator<WorkbookDto> workbookDtos = new Iterator<WorkbookDto>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public WorkbookDto next() {
+				throw new IllegalStateException("作成失敗");
+			}
+		};
+
+		IllegalStateException e = assertThrows(IllegalStateException.class,
+				() -> ExcelUtil.downloadInZip("レポート", workbookDtos, response));
+		assertEquals("作成失敗", e.getMessage());
+		assertNull(response.getHeader("Content-Disposition"));
+	}
+
+	/**
+	 * Case.1_3 一括ダウンロード_作成失敗（Error）<br>
+	 * <br>
+	 * ■対象メソッド：downloadInZip()<br>
+	 * ■試験観点：<br>
+	 *  ・Workbookの作成でErrorが発生しても書き込みが終了し、呼び出し元に送出されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		Iterator<WorkbookDto> workbookDtos = new Iterator<WorkbookDto>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public WorkbookDto next() {
+				throw new AssertionError("作成失敗");
+			}
+		};
+
+		AssertionError e = assertTimeoutPreemptively(Duration.ofSeconds(10),
+				() -> assertThrows(AssertionError.class,
+						() -> ExcelUtil.downloadInZip("レポート", workbookDtos, response)));
+		assertEquals("作成失敗", e.getMessage());
+	}
+
+	/**
+	 * Case.1_4 一括ダウンロード_途中で作成失敗<br>
+	 * <br>
+	 * ■対象メソッド：writeInZip()<br>
+	 * ■試験観点：<br>
+	 *  ・書き込み済みのWorkbookがあっても、ZIPの終端が書き込まれず読み込めないこと<br>
+	 *  ・書き出し先が閉じられないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_4() throws Exception {
+		AtomicInteger createdCount = new AtomicInteger();
+		Iterator<WorkbookDto> workbookDtos = new Iterator<WorkbookDto>() {
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+
+			@Override
+			public WorkbookDto next() {
+				if (createdCount.incrementAndGet() > 2) {
+					throw new IllegalStateException("作成失敗");
+				}
+				WorkbookDto workbookDto = new WorkbookDto();
+				Workbook wb = new XSSFWorkbook();
+				wb.createSheet("シート").createRow(0).createCell(0).setCellValue("レポート");
+				workbookDto.setWb(wb);
+				workbookDto.setWbName("レポート.xlsx");
+				return workbookDto;
+			}
+		};
+		AtomicBoolean closed = new AtomicBoolean();
+		ByteArrayOutputStream out = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed.set(true);
+			}
+		};
+
+		assertThrows(IllegalStateException.class, () -> ExcelUtil.writeInZip(workbookDtos, out));
+		assertFalse(closed.get());
+		assertTrue(out.size() > 0);
+		Path zip = Files.createTempFile("excel-util-test", ".zip");
+		try {
+			Files.write(zip, out.toByteArray());
+			assertThrows(ZipException.class, () -> new ZipFile(zip.toFile()).close());
+		} finally {
+			Files.delete(zip);
+		}
+	}
+
+	/**
+	 * Case.2_1 行の範囲のコピー<br>
+	 * <br>
+	 * ■対象メソッド：rowBlockCopy()<br>
+	 * ■試験観点：<br>
+	 *  ・コメント欄が指定回数分、直下にコピーされること<br>
+	 *  ・コメント欄の結合範囲のみがコピー回数分追加されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() {
+		ExcelUtil excelUtil = new ExcelUtil(REPORT_TEMPLATE);
+		Sheet sheet = excelUtil.getWb().getSheet(FB_SHEET_NAME);
+		int mergedCount = sheet.getNumMergedRegions();
+		int blockMergedCount = countBlockMergedRegions(sheet);
+		String header = excelUtil.getCellValue(FB_SHEET_NAME, FB_START_ROW, 10);
+
+		excelUtil.rowBlockCopy(FB_SHEET_NAME, FB_START_ROW, FB_END_ROW, 3);
+
+		for (int i = 1; i <= 3; i++) {
+			int row = FB_START_ROW + i * (FB_END_ROW - FB_START_ROW);
+			assertEquals(header, excelUtil.getCellValue(FB_SHEET_NAME, row, 10));
+			assertEquals(sheet.getRow(FB_START_ROW).getHeight(), sheet.getRow(row).getHeight());
+		}
+		assertEquals(mergedCount + blockMergedCount * 3, sheet.getNumMergedRegions());
+	}
+
+	/**
+	 * Case.2_2 行の範囲のコピー_コメント100件<br>
+	 * <br>
+	 * ■対象メソッド：rowBlockCopy()、setVal()<br>
+	 * ■試験観点：<br>
+	 *  ・コピーした全ての行のセルの値・書式・行の高さがコピー元と一致すること<br>
+	 *  ・コピー元の結合範囲が、全てのコピー先に同じ列で追加されること<br>
+	 *  ・コピー先に設定したコメントが書き出し後も保持されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_2() throws Exception {
+		int fbCount = 100;
+		int blockSize = FB_END_ROW - FB_START_ROW;
+		ExcelUtil excelUtil = new ExcelUtil(REPORT_TEMPLATE);
+		Sheet sheet = excelUtil.getWb().getSheet(FB_SHEET_NAME);
+		List<CellRangeAddress> blockRegionList = new ArrayList<>();
+		for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+			CellRangeAddress cra = sheet.getMergedRegion(i);
+			if (cra.getFirstRow() >= FB_START_ROW && cra.getLastRow() < FB_END_ROW) {
+				blockRegionList.add(cra);
+			}
+		}
+		assertFalse(blockRegionList.isEmpty());
+
+		excelUtil.rowBlockCopy(FB_SHEET_NAME, FB_START_ROW, FB_END_ROW, fbCount - 1);
+		for (int i = 0; i < fbCount; i++) {
+			excelUtil.setVal(FB_SHEET_NAME, FB_START_ROW + i * 2, 0, "受講生" + i);
+			excelUtil.setVal(FB_SHEET_NAME, FB_START_ROW + 1 + i * 2, 10, "コメント" + i);
+		}
+
+		// コピーした行
+		for (int n = 1; n < fbCount; n++) {
+			for (int i = 0; i < blockSize; i++) {
+				Row srcRow = sheet.getRow(FB_START_ROW + i);
+				Row row = sheet.getRow(FB_START_ROW + n * blockSize + i);
+				assertEquals(srcRow.getHeight(), row.getHeight());
+				for (Cell srcCell : srcRow) {
+					Cell cell = row.getCell(srcCell.getColumnIndex());
+					assertEquals(srcCell.getCellStyle().getIndex(), cell.getCellStyle().getIndex());
+					if (srcCell.getColumnIndex() != 0 && srcCell.getColumnIndex() != 10) {
+						assertEquals(srcCell.toString(), cell.toString());
+					}
+				}
+			}
+		}
+
+		// 結合範囲
+		Set<String> regionSet = new HashSet<>();
+		for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+			regionSet.add(sheet.getMergedRegion(i).formatAsString());
+		}
+		for (int n = 1; n < fbCount; n++) {
+			for (CellRangeAddress cra : blockRegionList) {
+				CellRangeAddress copied = new CellRangeAddress(cra.getFirstRow() + n * blockSize,
+						cra.getLastRow() + n * blockSize, cra.getFirstColumn(), cra.getLastColumn());
+				assertTrue(regionSet.contains(copied.formatAsString()), copied.formatAsString());
+			}
+		}
+
+		// 書き出し後のコメント
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		excelUtil.getWb().write(out);
+		Sheet written = WorkbookFactory.create(new ByteArrayInputStream(out.toByteArray()))
+				.getSheet(FB_SHEET_NAME);
+		assertEquals(sheet.getNumMergedRegions(), written.getNumMergedRegions());
+		for (int i = 0; i < fbCount; i++) {
+			assertEquals("受講生" + i,
+					written.getRow(FB_START_ROW + i * 2).getCell(0).getStringCellValue());
+			assertEquals("コメント" + i,
+					written.getRow(FB_START_ROW + 1 + i * 2).getCell(10).getStringCellValue());
+		}
+	}
+
+	/**
+	 * Case.3_1 ストリーミング書き込み<br>
+	 * <br>
+	 * ■対象メソッド：startStreaming()、appendRow()<br>
+	 * ■試験観点：<br>
+	 *  ・テンプレートの内容とsetValで設定した値が保持されること<br>
+	 *  ・追加した行がテンプレートの最終行の次の行から書き込まれること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() throws Exception {
+		ExcelUtil excelUtil = new ExcelUtil(REPORT_TEMPLATE);
+		Sheet templateSheet = excelUtil.getWb().getSheet(FB_SHEET_NAME);
+		int firstRow = templateSheet.getLastRowNum() + 1;
+		int mergedCount = templateSheet.getNumMergedRegions();
+		String header = excelUtil.getCellValue(FB_SHEET_NAME, FB_START_ROW, 10);
+
+		excelUtil.startStreaming(ExcelUtil.STREAMING_WINDOW_SIZE);
+		excelUtil.setVal(FB_SHEET_NAME, FB_START_ROW, 0, "受講生");
+		for (int i = 0; i < 1000; i++) {
+			excelUtil.appendRow(FB_SHEET_NAME, "行" + i, i, null);
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		excelUtil.getWb().write(out);
+		excelUtil.dispose();
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(out.toByteArray()))
+				.getSheet(FB_SHEET_NAME);
+		assertEquals(header, sheet.getRow(FB_START_ROW).getCell(10).getStringCellValue());
+		assertEquals("受講生", sheet.getRow(FB_START_ROW).getCell(0).getStringCellValue());
+		assertEquals(mergedCount, sheet.getNumMergedRegions());
+		assertEquals("行0", sheet.getRow(firstRow).getCell(0).getStringCellValue());
+		assertEquals(999.0, sheet.getRow(firstRow + 999).getCell(1).getNumericCellValue());
+		assertNull(sheet.getRow(firstRow + 999).getCell(2));
+		assertEquals(firstRow + 999, sheet.getLastRowNum());
+	}
+
+	/**
+	 * Case.3_2 ストリーミング書き込み_大量行<br>
+	 * <br>
+	 * ■対象メソッド：appendRow()<br>
+	 * ■試験観点：<br>
+	 *  ・20万行を追加しても、メモリ上に保持される行は指定行数までであること<br>
+	 *  ・追加後に書き出せること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_2() throws Exception {
+		ExcelUtil excelUtil = new ExcelUtil(REPORT_TEMPLATE);
+		int firstRow = excelUtil.getWb().getSheet(FB_SHEET_NAME).getLastRowNum() + 1;
+		excelUtil.startStreaming(ExcelUtil.STREAMING_WINDOW_SIZE);
+		for (int i = 0; i < STREAMING_ROW_COUNT; i++) {
+			excelUtil.appendRow(FB_SHEET_NAME, "受講生" + i, "コメント" + i, i);
+		}
+
+		Sheet sheet = excelUtil.getWb().getSheet(FB_SHEET_NAME);
+		int lastRow = firstRow + STREAMING_ROW_COUNT - 1;
+		assertNull(sheet.getRow(lastRow - ExcelUtil.STREAMING_WINDOW_SIZE));
+		assertNotNull(sheet.getRow(lastRow - ExcelUtil.STREAMING_WINDOW_SIZE + 1));
+
+		excelUtil.getWb().write(OutputStream.nullOutputStream());
+		excelUtil.dispose();
+	}
+
+	/**
+	 * Case.3_3 ストリーミング書き込み_新しいワークブック<br>
+	 * <br>
+	 * ■対象メソッド：ExcelUtil()、createSheet()、appendRow()、write()<br>
+	 * ■試験観点：<br>
+	 *  ・追加したシートの先頭行から書き込まれること<br>
+	 *  ・開始後はシートを追加できないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_3() throws Exception {
+		ExcelUtil excelUtil = new ExcelUtil();
+		excelUtil.createSheet("勤怠情報");
+		excelUtil.startStreaming(ExcelUtil.STREAMING_WINDOW_SIZE);
+		assertThrows(IllegalStateException.class, () -> excelUtil.createSheet("追加"));
+		excelUtil.appendRow("勤怠情報", "受講生名", "研修日");
+		for (int i = 0; i < 1000; i++) {
+			excelUtil.appendRow("勤怠情報", "受講生" + i, "");
+		}
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		excelUtil.write(out);
+
+		Sheet sheet = WorkbookFactory.create(new ByteArrayInputStream(out.toByteArray()))
+				.getSheet("勤怠情報");
+		assertEquals("受講生名", sheet.getRow(0).getCell(0).getStringCellValue());
+		assertEquals("受講生999", sheet.getRow(1000).getCell(0).getStringCellValue());
+		assertEquals("", sheet.getRow(1000).getCell(1).getStringCellValue());
+		assertEquals(1000, sheet.getLastRowNum());
+	}
+
+	/**
+	 * フィードバックコメント欄以降にある結合範囲の件数を取得
+	 * 
+	 * @param sheet
+	 * @return 結合範囲の件数
+	 */
+	private int countBlockMergedRegions(Sheet sheet) {
+		int count = 0;
+		for (int i = 0; i < sheet.getNumMergedRegions(); i++) {
+			if (sheet.getMergedRegion(i).getFirstRow() >= FB_START_ROW) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
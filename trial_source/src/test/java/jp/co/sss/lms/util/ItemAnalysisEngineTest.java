@@ -0,0 +1,161 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jp.co.sss.lms.dto.ItemAnalysisSourceDto;
+import jp.co.sss.lms.dto.QuestionAnalysisDto;
+
+/**
+ * 問題分析の試験
+ *
+ * */
+public class ItemAnalysisEngineTest {
+
+	/** 問題数 */
+	private static final int QUESTION_COUNT = 3;
+	/** 正答（問題1～3） */
+	private static final short[] ANSWER_NUM = { 1, 2, 3 };
+
+	private ItemAnalysisEngine itemAnalysisEngine;
+
+	@BeforeEach
+	public void setup() {
+		itemAnalysisEngine = new ItemAnalysisEngine();
+	}
+
+	/**
+	 * Case.1_1 差分の反映<br>
+	 * <br>
+	 * ■対象メソッド：add()、getAnalysis()<br>
+	 * ■試験観点：<br>
+	 *  ・正答率・選択率・未回答率がコース毎・全コースで求められること<br>
+	 *  ・識別指数が他の問題の正答数との相関となること<br>
+	 *  ・反映済みの試験結果を再度反映しても変わらないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		itemAnalysisEngine.add(createResult(1, 10, 1, 2, 3));
+		itemAnalysisEngine.add(createResult(2, 10, 1, 2, 4));
+		itemAnalysisEngine.add(createResult(3, 10, 2, 1, null));
+		itemAnalysisEngine.add(createResult(4, 20, 4, 2, 3));
+		itemAnalysisEngine.add(createResult(1, 10, 1, 2, 3));
+
+		QuestionAnalysisDto course = itemAnalysisEngine.getAnalysis(1, 10);
+		assertEquals(3, course.getAttemptCount());
+		assertEquals(66.7, course.getCorrectRate());
+		assertEquals(List.of(66.7, 33.3, 0.0, 0.0), course.getChoiceRateList());
+		assertEquals(0.0, course.getNoAnswerRate());
+		// 他の問題の正答数：正答者(2, 1)、誤答者(0)
+		assertEquals(0.87, course.getDiscrimination());
+
+		QuestionAnalysisDto all = itemAnalysisEngine.getAnalysis(1, null);
+		assertEquals(4, all.getAttemptCount());
+		assertEquals(50.0, all.getCorrectRate());
+		assertEquals(List.of(50.0, 25.0, 0.0, 25.0), all.getChoiceRateList());
+
+		QuestionAnalysisDto question3 = itemAnalysisEngine.getAnalysis(3, 10);
+		assertEquals(33.3, question3.getNoAnswerRate());
+
+		// 全員正答の場合は識別指数なし
+		itemAnalysisEngine.add(createResult(5, 30, 1, 1, 1));
+		assertNull(itemAnalysisEngine.getAnalysis(1, 30).getDiscrimination());
+
+		QuestionAnalysisDto empty = itemAnalysisEngine.getAnalysis(9, null);
+		assertEquals(0, empty.getAttemptCount());
+		assertNull(empty.getCorrectRate());
+	}
+
+	/**
+	 * Case.1_2 再構築<br>
+	 * <br>
+	 * ■対象メソッド：rebuild()<br>
+	 * ■試験観点：<br>
+	 *  ・複数スレッドで集計した結果が、1件ずつ反映した結果と一致すること<br>
+	 *  ・再構築中に反映された試験結果が二重に集計されないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		Random random = new Random(1);
+		List<ItemAnalysisSourceDto> sourceList = new ArrayList<>();
+		ItemAnalysisEngine expected = new ItemAnalysisEngine();
+		for (int i = 1; i <= 5000; i++) {
+			List<ItemAnalysisSourceDto> result = createResult(i, 10 + random.nextInt(3),
+					random.nextInt(5), 1 + random.nextInt(4), 1 + random.nextInt(4));
+			expected.add(result);
+			sourceList.addAll(result);
+		}
+		List<ItemAnalysisSourceDto> pendingResult = createResult(4000, 10, 1, 1, 1);
+		List<ItemAnalysisSourceDto> newResult = createResult(5001, 11, 1, 2, 3);
+		expected.add(newResult);
+
+		itemAnalysisEngine.add(createResult(1, 10, 1, 2, 3));
+		Iterator<ItemAnalysisSourceDto> sourceIterator = sourceList.iterator();
+		int count = itemAnalysisEngine.rebuild(new Iterator<ItemAnalysisSourceDto>() {
+			@Override
+			public boolean hasNext() {
+				return sourceIterator.hasNext();
+			}
+
+			@Override
+			public ItemAnalysisSourceDto next() {
+				ItemAnalysisSourceDto source = sourceIterator.next();
+				if (source.getExamResultId() == 3000 && source.getQuestionId() == 1) {
+					// 再構築中の分析は現在の集計値で行う
+					assertEquals(1, itemAnalysisEngine.getAnalysis(1, null).getAttemptCount());
+					// 読み込み済みの試験結果・読み込み後に登録された試験結果
+					itemAnalysisEngine.add(pendingResult);
+					itemAnalysisEngine.add(newResult);
+				}
+				return source;
+			}
+		}, 4);
+
+		assertEquals(5001, count);
+		for (int questionId = 1; questionId <= QUESTION_COUNT; questionId++) {
+			for (Integer courseId : new Integer[] { null, 10, 11, 12 }) {
+				assertEquals(expected.getAnalysis(questionId, courseId),
+						itemAnalysisEngine.getAnalysis(questionId, courseId));
+			}
+		}
+	}
+
+	/**
+	 * 1件の試験結果の回答を作成
+	 *
+	 * @param examResultId
+	 * @param courseId
+	 * @param replies      問題1～3の回答（0・nullは未回答）
+	 * @return 問題分析元DTOリスト
+	 */
+	private List<ItemAnalysisSourceDto> createResult(int examResultId, int courseId, Integer... replies) {
+		short score = 0;
+		for (int i = 0; i < QUESTION_COUNT; i++) {
+			if (replies[i] != null && replies[i] == ANSWER_NUM[i]) {
+				score++;
+			}
+		}
+		List<ItemAnalysisSourceDto> sourceList = new ArrayList<>();
+		for (int i = 0; i < QUESTION_COUNT; i++) {
+			ItemAnalysisSourceDto source = new ItemAnalysisSourceDto();
+			source.setExamResultId(examResultId);
+			source.setQuestionId(i + 1);
+			source.setCourseId(courseId);
+			source.setReply(replies[i] != null ? replies[i].shortValue() : null);
+			source.setAnswerNum(ANSWER_NUM[i]);
+			source.setScore(score);
+			sourceList.add(source);
+		}
+		return sourceList;
+	}
+
+}
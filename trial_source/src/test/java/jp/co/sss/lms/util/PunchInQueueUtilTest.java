@@ -0,0 +1,259 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 出勤打刻キューの試験<br>
+ * マッパーはモックに差し替え、登録内容を記録するようにして試験します。
+ *
+ * */
+public class PunchInQueueUtilTest {
+
+	/** 同時打刻する受講生数 */
+	private static final int USER_COUNT = 500;
+
+	@Mock
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	@InjectMocks
+	private PunchInQueueUtil punchInQueueUtil;
+
+	/** 登録された勤怠情報（LMSユーザーID毎の登録回数） */
+	private Map<Integer, AtomicInteger> upsertCountMap;
+	/** 一括登録の呼び出し回数 */
+	private AtomicInteger upsertCallCount;
+	/** 登録に失敗させるLMSユーザーID */
+	private Integer failLmsUserId;
+	/** 登録を止めておくラッチ（nullの場合は止めない） */
+	private CountDownLatch upsertLatch;
+	/** 登録が開始されたことを通知するラッチ */
+	private CountDownLatch upsertStarted;
+
+	@BeforeEach
+	public void setup() {
+		MockitoAnnotations.openMocks(this);
+		upsertCountMap = new ConcurrentHashMap<>();
+		upsertCallCount = new AtomicInteger();
+		upsertStarted = new CountDownLatch(1);
+		when(tStudentAttendanceMapper.upsertPunchInList(anyList())).thenAnswer(invocation -> {
+			upsertCallCount.incrementAndGet();
+			upsertStarted.countDown();
+			if (upsertLatch != null) {
+				assertTrue(upsertLatch.await(10, TimeUnit.SECONDS));
+			}
+			// DB応答時間を模擬
+			Thread.sleep(5);
+			List<TStudentAttendance> list = invocation.getArgument(0);
+			for (TStudentAttendance entity : list) {
+				if (entity.getLmsUserId().equals(failLmsUserId)) {
+					throw new IllegalStateException("upsert failed: " + failLmsUserId);
+				}
+			}
+			for (TStudentAttendance entity : list) {
+				upsertCountMap.computeIfAbsent(entity.getLmsUserId(), key -> new AtomicInteger())
+						.incrementAndGet();
+			}
+			return Boolean.TRUE;
+		});
+	}
+
+	/**
+	 * Case.1_1 同時打刻_重複排除<br>
+	 * <br>
+	 * ■対象メソッド：offer(), get(), flushAll()<br>
+	 * ■試験観点：<br>
+	 *  ・500人が同時に2回ずつ打刻しても、登録待ちの打刻と重複する打刻は破棄されること<br>
+	 *  ・受け付けた打刻は登録完了前後を通じて参照できること<br>
+	 *  ・打刻がまとめて登録されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() throws Exception {
+		Date trainingDate = new Date(0);
+		ExecutorService executor = Executors.newFixedThreadPool(100);
+		ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor();
+		flusher.scheduleWithFixedDelay(punchInQueueUtil::flushAll, 200, 200, TimeUnit.MILLISECONDS);
+
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger acceptedCount = new AtomicInteger();
+		List<Future<?>> futureList = new ArrayList<>();
+		for (int i = 0; i < USER_COUNT * 2; i++) {
+			Integer lmsUserId = i % USER_COUNT + 1;
+			futureList.add(executor.submit(() -> {
+				start.await();
+				if (punchInQueueUtil.offer(punch(lmsUserId, trainingDate))) {
+					acceptedCount.incrementAndGet();
+				}
+				// 本人の打刻状態は即時に参照できる
+				assertTrue(punchInQueueUtil.get(lmsUserId, trainingDate) != null
+						|| upsertCountMap.containsKey(lmsUserId));
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futureList) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+		flusher.shutdown();
+		flusher.awaitTermination(5, TimeUnit.SECONDS);
+		executor.shutdown();
+		punchInQueueUtil.flushAll();
+
+		// 受け付けた打刻は漏れなく1回ずつ登録される
+		// （登録完了後の再打刻はDB側の条件付き更新で破棄されるため、受付は最大2回）
+		int upsertCount = 0;
+		for (AtomicInteger count : upsertCountMap.values()) {
+			assertTrue(count.get() <= 2);
+			upsertCount += count.get();
+		}
+		assertEquals(USER_COUNT, upsertCountMap.size());
+		assertEquals(acceptedCount.get(), upsertCount);
+		assertTrue(upsertCallCount.get() < USER_COUNT / 2, "upsert calls: " + upsertCallCount.get());
+		assertNull(punchInQueueUtil.get(1, trainingDate));
+	}
+
+	/**
+	 * Case.2_1 即時登録<br>
+	 * <br>
+	 * ■対象メソッド：flush(Integer)<br>
+	 * ■試験観点：<br>
+	 *  ・指定ユーザーの打刻が即時に登録されること<br>
+	 *  ・登録後は同じ研修日の打刻を再度受け付けること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() {
+		Date trainingDate = new Date(0);
+		assertTrue(punchInQueueUtil.offer(punch(1, trainingDate)));
+		assertFalse(punchInQueueUtil.offer(punch(1, trainingDate)));
+		assertNotNull(punchInQueueUtil.get(1, trainingDate));
+		assertNull(punchInQueueUtil.get(1, new Date(86400000L)));
+
+		punchInQueueUtil.flush(1);
+		assertEquals(1, upsertCountMap.get(1).get());
+		assertNull(punchInQueueUtil.get(1, trainingDate));
+		assertTrue(punchInQueueUtil.offer(punch(1, trainingDate)));
+	}
+
+	/**
+	 * Case.2_2 登録できない打刻<br>
+	 * <br>
+	 * ■対象メソッド：flush(Integer)、flushAll()<br>
+	 * ■試験観点：<br>
+	 *  ・他のユーザーの打刻が登録できなくても、指定ユーザーの打刻は即時に登録されること<br>
+	 *  ・指定ユーザーの打刻が登録できない場合は例外となり、打刻が残ること<br>
+	 *  ・一括登録では登録できない打刻のみ登録待ちに残し、他の打刻は登録されること<br>
+	 *  ・登録待ちに残した打刻は、次回の一括登録で登録されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_2() {
+		Date trainingDate = new Date(0);
+		failLmsUserId = 17;
+		// 同じストライプに振り分けられるユーザー
+		assertTrue(punchInQueueUtil.offer(punch(1, trainingDate)));
+		assertTrue(punchInQueueUtil.offer(punch(17, trainingDate)));
+		assertTrue(punchInQueueUtil.offer(punch(33, trainingDate)));
+
+		punchInQueueUtil.flush(1);
+		assertEquals(1, upsertCountMap.get(1).get());
+		assertThrows(IllegalStateException.class, () -> punchInQueueUtil.flush(17));
+		assertNotNull(punchInQueueUtil.get(17, trainingDate));
+
+		punchInQueueUtil.flushAll();
+		assertEquals(1, upsertCountMap.get(33).get());
+		assertNull(upsertCountMap.get(17));
+		assertNotNull(punchInQueueUtil.get(17, trainingDate));
+		assertNull(punchInQueueUtil.get(33, trainingDate));
+
+		failLmsUserId = null;
+		punchInQueueUtil.flushAll();
+		assertEquals(1, upsertCountMap.get(17).get());
+		assertNull(punchInQueueUtil.get(17, trainingDate));
+	}
+
+	/**
+	 * Case.3_1 登録中の打刻受付<br>
+	 * <br>
+	 * ■対象メソッド：flushAll()、offer()、get()<br>
+	 * ■試験観点：<br>
+	 *  ・一括登録のDBアクセス中も、同じストライプのユーザーの打刻を受け付けること<br>
+	 *  ・登録中の打刻は参照でき、重複する打刻は破棄されること<br>
+	 *  ・登録中に受け付けた打刻は、次回の一括登録で登録されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() throws Exception {
+		Date trainingDate = new Date(0);
+		assertTrue(punchInQueueUtil.offer(punch(1, trainingDate)));
+		upsertLatch = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		Future<?> flushing = executor.submit(punchInQueueUtil::flushAll);
+		assertTrue(upsertStarted.await(10, TimeUnit.SECONDS));
+
+		// 登録中（同じストライプ）
+		Future<Boolean> offered = executor
+				.submit(() -> punchInQueueUtil.offer(punch(17, trainingDate)));
+		assertTrue(offered.get(1, TimeUnit.SECONDS));
+		assertNotNull(punchInQueueUtil.get(1, trainingDate));
+		assertFalse(punchInQueueUtil.offer(punch(1, trainingDate)));
+
+		upsertLatch.countDown();
+		flushing.get(10, TimeUnit.SECONDS);
+		executor.shutdown();
+		assertNull(punchInQueueUtil.get(1, trainingDate));
+		assertNotNull(punchInQueueUtil.get(17, trainingDate));
+
+		upsertLatch = null;
+		punchInQueueUtil.flushAll();
+		assertEquals(1, upsertCountMap.get(1).get());
+		assertEquals(1, upsertCountMap.get(17).get());
+		assertNull(punchInQueueUtil.get(17, trainingDate));
+	}
+
+	/**
+	 * 出勤打刻の作成
+	 *
+	 * @param lmsUserId
+	 * @param trainingDate
+	 * @return 勤怠情報
+	 */
+	private TStudentAttendance punch(Integer lmsUserId, Date trainingDate) {
+		TStudentAttendance tStudentAttendance = new TStudentAttendance();
+		tStudentAttendance.setLmsUserId(lmsUserId);
+		tStudentAttendance.setTrainingDate(trainingDate);
+		tStudentAttendance.setTrainingStartTime("09:00");
+		tStudentAttendance.setTrainingEndTime("");
+		tStudentAttendance.setStatus((short) 0);
+		tStudentAttendance.setDeleteFlg(Constants.DB_FLG_FALSE);
+		return tStudentAttendance;
+	}
+
+}
@@ -0,0 +1,149 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jp.co.sss.lms.dto.ReportSearchDocumentDto;
+
+/**
+ * レポート検索インデックスの試験
+ *
+ * */
+public class ReportSearchIndexTest {
+
+	private ReportSearchIndex reportSearchIndex;
+
+	@BeforeEach
+	public void setup() {
+		reportSearchIndex = new ReportSearchIndex();
+		reportSearchIndex.put(createDocument(1, 10, "ＪａｖａのListとMapを学習した。\n明日は例外処理を復習する。"));
+		reportSearchIndex.put(createDocument(2, 20, "SQLの結合を学習した。"));
+		reportSearchIndex.put(createDocument(3, 10, "例外処理の演習でつまずいた。"));
+	}
+
+	/**
+	 * Case.1_1 検索<br>
+	 * <br>
+	 * ■対象メソッド：search()<br>
+	 * ■試験観点：<br>
+	 *  ・全角英字・大文字を区別せずに検索できること<br>
+	 *  ・1文字の語、複数の語（AND）で検索できること<br>
+	 *  ・gramは含むが語として含まない文書は該当しないこと<br>
+	 *  ・新しく登録された順に取得し、条件と最大件数で絞り込めること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		assertEquals(List.of(1), search("java list", 10));
+		assertEquals(List.of(3, 1), search("例外処理", 10));
+		assertEquals(List.of(3), search("例外処理", 1));
+		assertEquals(List.of(2, 1), search("学", 10));
+		assertEquals(List.of(), search("処理例外", 10));
+		assertEquals(List.of(), search("  ", 10));
+
+		List<ReportSearchDocumentDto> documentList = reportSearchIndex.search("学習",
+				document -> document.getLmsUserId().equals(20), 10);
+		assertEquals(1, documentList.size());
+		assertEquals(2, documentList.get(0).getDailyReportSubmitId());
+	}
+
+	/**
+	 * Case.1_2 更新・削除<br>
+	 * <br>
+	 * ■対象メソッド：put()、remove()<br>
+	 * ■試験観点：<br>
+	 *  ・同じ日報提出IDで登録した場合は内容が置き換わること<br>
+	 *  ・削除した文書は該当しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		reportSearchIndex.put(createDocument(1, 10, "ラムダ式を学習した。"));
+		assertEquals(List.of(3), search("例外処理", 10));
+		assertEquals(List.of(1), search("ラムダ", 10));
+
+		reportSearchIndex.remove(3);
+		assertEquals(List.of(), search("例外処理", 10));
+		assertEquals(2, reportSearchIndex.size());
+	}
+
+	/**
+	 * Case.1_3 再構築<br>
+	 * <br>
+	 * ■対象メソッド：rebuild()<br>
+	 * ■試験観点：<br>
+	 *  ・再構築中は現在のインデックスで検索できること<br>
+	 *  ・再構築中に反映された差分が再構築後のインデックスにも反映されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		List<ReportSearchDocumentDto> loadList = new ArrayList<>();
+		loadList.add(createDocument(1, 10, "ＪａｖａのListとMapを学習した。"));
+		loadList.add(createDocument(2, 20, "SQLの結合を学習した。"));
+		Iterator<ReportSearchDocumentDto> loadIterator = loadList.iterator();
+
+		int count = reportSearchIndex.rebuild(new Iterator<ReportSearchDocumentDto>() {
+			@Override
+			public boolean hasNext() {
+				return loadIterator.hasNext();
+			}
+
+			@Override
+			public ReportSearchDocumentDto next() {
+				ReportSearchDocumentDto document = loadIterator.next();
+				if (document.getDailyReportSubmitId() == 2) {
+					// 読み込み中に提出されたレポート
+					assertEquals(List.of(3, 1), search("例外処理", 10));
+					reportSearchIndex.put(createDocument(4, 10, "ストリームAPIを学習した。"));
+				}
+				return document;
+			}
+		});
+
+		assertEquals(3, count);
+		assertEquals(List.of(), search("例外処理", 10));
+		assertEquals(List.of(4), search("ストリーム", 10));
+		assertEquals(List.of(4, 2, 1), search("学習", 10));
+	}
+
+	/**
+	 * 検索し、日報提出IDを取得
+	 *
+	 * @param keyword
+	 * @param limit
+	 * @return 日報提出ID
+	 */
+	private List<Integer> search(String keyword, int limit) {
+		List<Integer> idList = new ArrayList<>();
+		for (ReportSearchDocumentDto document : reportSearchIndex.search(keyword, document -> true,
+				limit)) {
+			idList.add(document.getDailyReportSubmitId());
+		}
+		return idList;
+	}
+
+	/**
+	 * レポート検索文書の作成
+	 *
+	 * @param dailyReportSubmitId
+	 * @param lmsUserId
+	 * @param content
+	 * @return レポート検索文書DTO
+	 */
+	private ReportSearchDocumentDto createDocument(Integer dailyReportSubmitId, Integer lmsUserId,
+			String content) {
+		ReportSearchDocumentDto document = new ReportSearchDocumentDto();
+		document.setDailyReportSubmitId(dailyReportSubmitId);
+		document.setLmsUserId(lmsUserId);
+		document.setContent(content);
+		return document;
+	}
+
+}
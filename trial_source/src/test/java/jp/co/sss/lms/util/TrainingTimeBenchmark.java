@@ -0,0 +1,225 @@
+package jp.co.sss.lms.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+
+/**
+ * 研修時刻ユーティリティのベンチマーク<br>
+ * 文字列からの変換・比較・遅刻早退判定を、変更前の実装（{@link LegacyTrainingTime}）と比較する。<br>
+ * 試験（mvn test）では実行しない。test-compile後に{@link #main(String[])}を実行する。
+ *
+ * */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TrainingTimeBenchmark {
+
+	/** 変換する時刻（打刻・勤怠一覧で使用される形式） */
+	private static final String[] TIME_STRS = { "9:00", "09:14", "0930", "12:45", "18:00",
+			"17:59", "8:30", "1815" };
+
+	private final AttendanceUtil attendanceUtil = new AttendanceUtil();
+	private TrainingTime[] trainingTimes;
+	private LegacyTrainingTime[] legacyTrainingTimes;
+	private int index;
+
+	@Setup
+	public void setup() {
+		trainingTimes = new TrainingTime[TIME_STRS.length];
+		legacyTrainingTimes = new LegacyTrainingTime[TIME_STRS.length];
+		for (int i = 0; i < TIME_STRS.length; i++) {
+			trainingTimes[i] = new TrainingTime(TIME_STRS[i]);
+			legacyTrainingTimes[i] = new LegacyTrainingTime(TIME_STRS[i]);
+		}
+	}
+
+	@Benchmark
+	public TrainingTime parse() {
+		return TrainingTime.valueOf(TIME_STRS[next()]);
+	}
+
+	@Benchmark
+	public LegacyTrainingTime parseLegacy() {
+		return new LegacyTrainingTime(TIME_STRS[next()]);
+	}
+
+	@Benchmark
+	public int compareTo() {
+		int i = next();
+		return trainingTimes[i].compareTo(trainingTimes[(i + 1) % TIME_STRS.length]);
+	}
+
+	@Benchmark
+	public int compareToLegacy() {
+		int i = next();
+		return legacyTrainingTimes[i]
+				.compareTo(legacyTrainingTimes[(i + 1) % TIME_STRS.length]);
+	}
+
+	@Benchmark
+	public AttendanceStatusEnum getStatus() {
+		int i = next();
+		return attendanceUtil.getStatus(trainingTimes[i],
+				trainingTimes[(i + 4) % TIME_STRS.length]);
+	}
+
+	@Benchmark
+	public AttendanceStatusEnum getStatusLegacy() {
+		int i = next();
+		return LegacyTrainingTime.getStatus(legacyTrainingTimes[i],
+				legacyTrainingTimes[(i + 4) % TIME_STRS.length]);
+	}
+
+	/**
+	 * 次に使用する時刻の位置
+	 *
+	 * @return 位置
+	 */
+	private int next() {
+		index = (index + 1) % TIME_STRS.length;
+		return index;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(TrainingTimeBenchmark.class.getSimpleName())
+				.build()).run();
+	}
+
+	/**
+	 * 変更前の研修時刻（時・分をIntegerで保持し、正規表現・splitで変換する）<br>
+	 * ベンチマークで使用する変換・比較・遅刻早退判定のみ
+	 */
+	public static class LegacyTrainingTime implements Comparable<LegacyTrainingTime> {
+
+		private static final LegacyTrainingTime WORK_START_TIME = new LegacyTrainingTime("09:00");
+		private static final LegacyTrainingTime WORK_END_TIME = new LegacyTrainingTime("18:00");
+
+		private Integer hour;
+		private Integer minute;
+
+		public LegacyTrainingTime(String timeStr) {
+			if (timeStr == null || timeStr.isEmpty()) {
+				return;
+			}
+			if (!isValidTrainingTime(timeStr)) {
+				throw new IllegalArgumentException(timeStr + " is Illegal.");
+			}
+			if (timeStr.indexOf(":") >= 0) {
+				String[] times = timeStr.split(":");
+				hour = Integer.parseInt(times[0]);
+				minute = Integer.parseInt(times[1]);
+			} else if (timeStr.matches("[0-9]{4}")) {
+				hour = Integer.parseInt(timeStr.substring(0, 2));
+				minute = Integer.parseInt(timeStr.substring(2, 4));
+			} else {
+				throw new IllegalArgumentException();
+			}
+			if (!isValidTrainingTime(hour, minute)) {
+				throw new IllegalArgumentException();
+			}
+		}
+
+		private static boolean isValidTrainingTime(String timeStr) {
+			if (timeStr.indexOf(":") >= 0) {
+				String[] times = timeStr.split(":");
+				final String numRegex = "[0-9]+";
+				return times.length == 2 && times[0].matches(numRegex)
+						&& times[1].matches(numRegex) && isValidTrainingTime(
+								Integer.parseInt(times[0]), Integer.parseInt(times[1]));
+			} else if (timeStr.matches("[0-9]{4}")) {
+				return isValidTrainingTime(Integer.parseInt(timeStr.substring(0, 2)),
+						Integer.parseInt(timeStr.substring(2, 4)));
+			}
+			return false;
+		}
+
+		private static boolean isValidTrainingTime(Integer hour, Integer minute) {
+			return hour != null && minute != null && minute <= 59 && minute >= 0;
+		}
+
+		public boolean isBlank() {
+			return hour == null || minute == null;
+		}
+
+		@Override
+		public boolean equals(Object anObject) {
+			if (anObject instanceof LegacyTrainingTime) {
+				LegacyTrainingTime target = (LegacyTrainingTime) anObject;
+				return target.hour == this.hour && target.minute == this.minute;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return 0;
+		}
+
+		@Override
+		public int compareTo(LegacyTrainingTime anotherTrainingTime) {
+			if (this.isBlank() && anotherTrainingTime != null && !anotherTrainingTime.isBlank()) {
+				return -1;
+			}
+			if (!this.isBlank() && (anotherTrainingTime == null || anotherTrainingTime.isBlank())) {
+				return 1;
+			}
+			if (this.isBlank() && (anotherTrainingTime == null || anotherTrainingTime.isBlank())) {
+				return 0;
+			}
+			if (this.equals(anotherTrainingTime)) {
+				return 0;
+			}
+			if (this.hour != anotherTrainingTime.hour) {
+				return this.hour.compareTo(anotherTrainingTime.hour);
+			}
+			return this.minute.compareTo(anotherTrainingTime.minute);
+		}
+
+		/**
+		 * 変更前の遅刻早退判定（定時はSSSの定時）
+		 *
+		 * @param trainingStartTime
+		 * @param trainingEndTime
+		 * @return 判定結果
+		 */
+		public static AttendanceStatusEnum getStatus(LegacyTrainingTime trainingStartTime,
+				LegacyTrainingTime trainingEndTime) {
+			boolean isLate = false, isEarly = false;
+			if (trainingStartTime != null && !trainingStartTime.isBlank()) {
+				isLate = trainingStartTime.compareTo(WORK_START_TIME) > 0;
+			}
+			if (trainingEndTime != null && !trainingEndTime.isBlank()) {
+				isEarly = trainingEndTime.compareTo(WORK_END_TIME) < 0;
+			}
+			if (isLate && isEarly) {
+				return AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY;
+			}
+			if (isLate) {
+				return AttendanceStatusEnum.TARDY;
+			}
+			if (isEarly) {
+				return AttendanceStatusEnum.LEAVING_EARLY;
+			}
+			return AttendanceStatusEnum.NONE;
+		}
+	}
+
+}
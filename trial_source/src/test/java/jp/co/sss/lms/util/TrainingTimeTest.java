@@ -0,0 +1,165 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+
+/**
+ * 研修時刻ユーティリティの試験
+ *
+ * */
+public class TrainingTimeTest {
+
+	/**
+	 * Case.1_1 文字列からの生成_正常終了<br>
+	 * <br>
+	 * ■対象メソッド：TrainingTime(String), valueOf(String)<br>
+	 * ■試験観点：<br>
+	 *  ・"H:mm"形式、"HHmm"形式から時・分が取得できること<br>
+	 *  ・空文字の場合は未設定となること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		TrainingTime time = new TrainingTime("9:05");
+		assertEquals(9, time.getHour());
+		assertEquals(5, time.getMinute());
+		assertEquals("09:05", time.toString());
+
+		TrainingTime time4 = TrainingTime.valueOf("1830");
+		assertEquals(18, time4.getHour());
+		assertEquals(30, time4.getMinute());
+
+		assertTrue(new TrainingTime("").isBlank());
+		assertTrue(TrainingTime.valueOf("").isBlank());
+		assertNull(TrainingTime.valueOf("").getHour());
+		assertEquals("", TrainingTime.valueOf("").getFormattedString());
+	}
+
+	/**
+	 * Case.1_2 文字列からの生成_異常終了<br>
+	 * <br>
+	 * ■対象メソッド：TrainingTime(String), isValidTrainingTime(String)<br>
+	 * ■試験観点：<br>
+	 *  ・有効フォーマットでない場合、IllegalArgumentExceptionとなること<br>
+	 *  ・経過分数がintに収まらない時は、桁あふれした時刻とならずIllegalArgumentExceptionとなること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		String[] invalids = { "9", "9:60", "9:", ":00", "9:00:00", "a9:00", "090", "09000", "0960",
+				"71582789:00", "999999999:59", "35791395:00" };
+		for (String invalid : invalids) {
+			assertFalse(Constants.SSS_WORK_START_TIME.isValidTrainingTime(invalid), invalid);
+			assertThrows(IllegalArgumentException.class, () -> new TrainingTime(invalid), invalid);
+			assertThrows(IllegalArgumentException.class, () -> TrainingTime.valueOf(invalid), invalid);
+		}
+		assertEquals("9999999:59", new TrainingTime("9999999:59").toString());
+		assertThrows(IllegalArgumentException.class, () -> TrainingTime.valueOf(71582789, 0));
+		assertThrows(IllegalArgumentException.class, () -> new TrainingTime(71582789, 0));
+	}
+
+	/**
+	 * Case.2_1 比較<br>
+	 * <br>
+	 * ■対象メソッド：compareTo(), equals()<br>
+	 * ■試験観点：<br>
+	 *  ・時刻順に比較されること<br>
+	 *  ・未設定は設定済みより小さいこと<br>
+	 *  ・ファクトリメソッドとコンストラクタのインスタンスが等価であること<br>
+	 *
+	 * */
+	@Test
+	public void testCase2_1() {
+		assertTrue(new TrainingTime("9:01").compareTo(Constants.SSS_WORK_START_TIME) > 0);
+		assertTrue(new TrainingTime("17:59").compareTo(Constants.SSS_WORK_END_TIME) < 0);
+		assertEquals(0, new TrainingTime("18:00").compareTo(Constants.SSS_WORK_END_TIME));
+		assertTrue(new TrainingTime("").compareTo(Constants.SSS_WORK_START_TIME) < 0);
+		assertTrue(Constants.SSS_WORK_START_TIME.compareTo(null) > 0);
+		assertEquals(new TrainingTime(9, 0), Constants.SSS_WORK_START_TIME);
+		assertEquals(new TrainingTime(9, 0).hashCode(), Constants.SSS_WORK_START_TIME.hashCode());
+		assertEquals(TrainingTime.valueOf(9, 0), new TrainingTime(9, 0));
+		assertEquals(TrainingTime.valueOf("0900"), new TrainingTime("9:00"));
+		assertTrue(TrainingTime.valueOf("").isBlank());
+	}
+
+	/**
+	 * Case.3_1 加算・減算<br>
+	 * <br>
+	 * ■対象メソッド：add(), subtract()<br>
+	 * ■試験観点：<br>
+	 *  ・繰り上がり・繰り下がりが正しいこと<br>
+	 *  ・24時以降も表現できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase3_1() {
+		assertEquals("10:15", new TrainingTime("9:45").add(new TrainingTime(0, 30)).toString());
+		assertEquals("25:00", new TrainingTime("23:30").add(new TrainingTime(1, 30)).toString());
+		assertEquals("00:50", new TrainingTime("10:10").subtract(new TrainingTime("9:20")).toString());
+		assertEquals("00:00", new TrainingTime("10:10").subtract(new TrainingTime("10:10")).toString());
+		assertThrows(UnsupportedOperationException.class,
+				() -> new TrainingTime("9:00").subtract(new TrainingTime("10:00")));
+	}
+
+	/**
+	 * Case.4_1 丸め<br>
+	 * <br>
+	 * ■対象メソッド：roundUp(), roundDown()<br>
+	 * ■試験観点：<br>
+	 *  ・15分刻みで切り上げ・切り捨てされること<br>
+	 *  ・ファクトリメソッドは共有インスタンスを返却し、変更できないこと<br>
+	 *  ・共有インスタンスを丸めた場合は、丸めた時刻の共有インスタンスを返却すること<br>
+	 *  ・コンストラクタのインスタンスは変更できること<br>
+	 *
+	 * */
+	@Test
+	public void testCase4_1() {
+		assertEquals("09:15", new TrainingTime("9:01").roundUp().toString());
+		assertEquals("10:00", new TrainingTime("9:46").roundUp().toString());
+		assertEquals("09:00", new TrainingTime("9:00").roundUp().toString());
+		assertEquals("09:45", new TrainingTime("9:59").roundDown().toString());
+		assertEquals("09:00", new TrainingTime("9:14").roundDown().toString());
+
+		TrainingTime shared = TrainingTime.valueOf(9, 1);
+		assertSame(shared, TrainingTime.valueOf("09:01"));
+		assertSame(TrainingTime.valueOf(9, 15), shared.roundUp());
+		assertSame(TrainingTime.valueOf(9, 0), shared.roundDown());
+		assertEquals("09:01", shared.toString());
+		assertThrows(UnsupportedOperationException.class, () -> shared.setHour(10));
+		assertThrows(UnsupportedOperationException.class, () -> shared.setMinute(0));
+		assertThrows(UnsupportedOperationException.class, () -> TrainingTime.now().setHour(0));
+		assertSame(TrainingTime.valueOf(""), TrainingTime.valueOf(""));
+
+		TrainingTime trainingTime = new TrainingTime(9, 1);
+		assertEquals("09:15", trainingTime.roundUp().toString());
+		assertEquals("09:15", trainingTime.toString());
+		trainingTime.setHour(10);
+		assertEquals("10:15", trainingTime.toString());
+		assertEquals("09:01", TrainingTime.valueOf(9, 1).toString());
+	}
+
+	/**
+	 * Case.5_1 遅刻早退判定<br>
+	 * <br>
+	 * ■対象メソッド：AttendanceUtil#getStatus()<br>
+	 * ■試験観点：<br>
+	 *  ・定時と出退勤時刻から遅刻早退が判定されること<br>
+	 *
+	 * */
+	@Test
+	public void testCase5_1() {
+		AttendanceUtil attendanceUtil = new AttendanceUtil();
+		assertEquals(AttendanceStatusEnum.NONE,
+				attendanceUtil.getStatus(TrainingTime.valueOf("9:00"), TrainingTime.valueOf("18:00")));
+		assertEquals(AttendanceStatusEnum.TARDY,
+				attendanceUtil.getStatus(TrainingTime.valueOf("9:01"), null));
+		assertEquals(AttendanceStatusEnum.LEAVING_EARLY,
+				attendanceUtil.getStatus(TrainingTime.valueOf("9:00"), TrainingTime.valueOf("17:59")));
+		assertEquals(AttendanceStatusEnum.TARDY_AND_LEAVING_EARLY,
+				attendanceUtil.getStatus(TrainingTime.valueOf("9:30"), TrainingTime.valueOf("17:00")));
+	}
+
+}
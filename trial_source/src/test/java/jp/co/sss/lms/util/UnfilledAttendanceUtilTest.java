@@ -0,0 +1,274 @@
+package jp.co.sss.lms.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import jp.co.sss.lms.entity.TStudentAttendance;
+import jp.co.sss.lms.enums.AttendanceStatusEnum;
+import jp.co.sss.lms.mapper.TStudentAttendanceMapper;
+
+/**
+ * 過去日未入力件数の試験<br>
+ * 勤怠情報マッパーはモックを使用し、本日は2024/4/10に固定します。
+ *
+ * */
+public class UnfilledAttendanceUtilTest {
+
+	private static final ZoneId ZONE = ZoneId.of("Asia/Tokyo");
+	private static final Integer LMS_USER_ID = 1;
+
+	private UnfilledAttendanceUtil unfilledAttendanceUtil;
+	private DateUtil dateUtil;
+	private TStudentAttendanceMapper tStudentAttendanceMapper;
+
+	@BeforeEach
+	public void setup() {
+		dateUtil = new DateUtil();
+		setToday(LocalDate.of(2024, 4, 10));
+		tStudentAttendanceMapper = mock(TStudentAttendanceMapper.class);
+		unfilledAttendanceUtil = new UnfilledAttendanceUtil();
+		ReflectionTestUtils.setField(unfilledAttendanceUtil, "dateUtil", dateUtil);
+		ReflectionTestUtils.setField(unfilledAttendanceUtil, "tStudentAttendanceMapper",
+				tStudentAttendanceMapper);
+
+		// 過去日2件・本日1件・翌日1件の未入力
+		when(tStudentAttendanceMapper.getNotEnterTrainingDateList(LMS_USER_ID,
+				Constants.DB_FLG_FALSE)).thenReturn(dateList(LocalDate.of(2024, 4, 1),
+						LocalDate.of(2024, 4, 9), LocalDate.of(2024, 4, 10),
+						LocalDate.of(2024, 4, 11)));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * Case.1_1 過去日未入力件数の取得<br>
+	 * <br>
+	 * ■対象メソッド：getCount()<br>
+	 * ■試験観点：<br>
+	 *  ・本日より前の未入力日のみ件数となること<br>
+	 *  ・2回目以降はマッパーを呼び出さないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_1() {
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(1)).getNotEnterTrainingDateList(LMS_USER_ID,
+				Constants.DB_FLG_FALSE);
+
+		assertEquals(0, unfilledAttendanceUtil.getCount(2));
+	}
+
+	/**
+	 * Case.1_2 勤怠情報の登録・更新の反映<br>
+	 * <br>
+	 * ■対象メソッド：apply()<br>
+	 * ■試験観点：<br>
+	 *  ・過去日の未入力の増減が件数に反映されること<br>
+	 *  ・本日以降の未入力の増減は件数に反映されないこと<br>
+	 *  ・未入力の判定が変わらない場合は反映しないこと<br>
+	 *  ・件数を保持していない受講生は集計しないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_2() {
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 1)), true, false);
+		verify(tStudentAttendanceMapper, never()).getNotEnterTrainingDateList(any(), any());
+
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 1)), true, false);
+		assertEquals(1, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 5)), false, true);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 5)), true, true);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 10)), true, false);
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 12)), false, true);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+	}
+
+	/**
+	 * Case.1_3 日付変更処理<br>
+	 * <br>
+	 * ■対象メソッド：rollover()、getCount()、apply()<br>
+	 * ■試験観点：<br>
+	 *  ・日付が変わると、前日までの未入力が過去日の件数へ繰り入れられること<br>
+	 *  ・日付変更処理の前に取得・反映した場合も繰り入れられること<br>
+	 *  ・同じ日に複数回実行しても件数が変わらないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_3() {
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+
+		setToday(LocalDate.of(2024, 4, 11));
+		unfilledAttendanceUtil.rollover();
+		unfilledAttendanceUtil.rollover();
+		assertEquals(3, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+
+		// 日付変更処理の前に、繰り入れ前の日の未入力を解消
+		setToday(LocalDate.of(2024, 4, 13));
+		unfilledAttendanceUtil.apply(LMS_USER_ID, toDate(LocalDate.of(2024, 4, 11)), true, false);
+		assertEquals(3, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		unfilledAttendanceUtil.rollover();
+		assertEquals(3, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(1)).getNotEnterTrainingDateList(any(), any());
+	}
+
+	/**
+	 * Case.1_4 件数の破棄<br>
+	 * <br>
+	 * ■対象メソッド：evict()、evictAfterCommit()<br>
+	 * ■試験観点：<br>
+	 *  ・破棄した受講生は次回取得時に勤怠情報から集計し直すこと<br>
+	 *  ・トランザクション内ではコミット後に破棄し、ロールバック時は破棄しないこと<br>
+	 *  ・トランザクション外では直ちに破棄すること<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_4() {
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		unfilledAttendanceUtil.evict(LMS_USER_ID);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(2)).getNotEnterTrainingDateList(any(), any());
+
+		// ロールバック
+		TransactionSynchronizationManager.initSynchronization();
+		unfilledAttendanceUtil.evictAfterCommit(List.of(LMS_USER_ID, LMS_USER_ID));
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(2)).getNotEnterTrainingDateList(any(), any());
+
+		// コミット
+		TransactionSynchronizationManager.initSynchronization();
+		unfilledAttendanceUtil.evictAfterCommit(List.of(LMS_USER_ID));
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(2)).getNotEnterTrainingDateList(any(), any());
+		complete(TransactionSynchronization.STATUS_COMMITTED);
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(3)).getNotEnterTrainingDateList(any(), any());
+
+		// トランザクション外
+		unfilledAttendanceUtil.evictAfterCommit(List.of(LMS_USER_ID));
+		assertEquals(2, unfilledAttendanceUtil.getCount(LMS_USER_ID));
+		verify(tStudentAttendanceMapper, times(4)).getNotEnterTrainingDateList(any(), any());
+	}
+
+	/**
+	 * Case.1_5 未入力判定<br>
+	 * <br>
+	 * ■対象メソッド：isUnfilled()<br>
+	 * ■試験観点：<br>
+	 *  ・出勤時刻・退勤時刻のいずれかが未入力の場合は未入力となること<br>
+	 *  ・欠席・削除済み・未登録・ステータス未設定の場合は未入力とならないこと<br>
+	 *
+	 * */
+	@Test
+	public void testCase1_5() {
+		assertFalse(unfilledAttendanceUtil.isUnfilled(attendance("09:00", "18:00",
+				AttendanceStatusEnum.NONE.code, Constants.DB_FLG_FALSE)));
+		assertTrue(unfilledAttendanceUtil.isUnfilled(attendance("09:00", "",
+				AttendanceStatusEnum.NONE.code, Constants.DB_FLG_FALSE)));
+		assertTrue(unfilledAttendanceUtil.isUnfilled(attendance(null, "18:00",
+				AttendanceStatusEnum.TARDY.code, Constants.DB_FLG_FALSE)));
+
+		assertFalse(unfilledAttendanceUtil.isUnfilled(attendance("", "",
+				AttendanceStatusEnum.ABSENT.code, Constants.DB_FLG_FALSE)));
+		assertFalse(unfilledAttendanceUtil.isUnfilled(attendance("", "",
+				AttendanceStatusEnum.NONE.code, Constants.DB_FLG_TRUE)));
+		assertFalse(unfilledAttendanceUtil.isUnfilled(attendance("", "", null,
+				Constants.DB_FLG_FALSE)));
+		assertFalse(unfilledAttendanceUtil.isUnfilled(null));
+	}
+
+	/**
+	 * 本日日付の設定
+	 *
+	 * @param today
+	 */
+	private void setToday(LocalDate today) {
+		dateUtil.setClock(Clock.fixed(today.atTime(9, 0).atZone(ZONE).toInstant(), ZONE));
+	}
+
+	/**
+	 * トランザクションの終了
+	 *
+	 * @param status
+	 */
+	private void complete(int status) {
+		List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager
+				.getSynchronizations();
+		TransactionSynchronizationManager.clearSynchronization();
+		for (TransactionSynchronization synchronization : synchronizations) {
+			if (status == TransactionSynchronization.STATUS_COMMITTED) {
+				synchronization.afterCommit();
+			}
+			synchronization.afterCompletion(status);
+		}
+	}
+
+	/**
+	 * Date型へ変換
+	 *
+	 * @param date
+	 * @return Date型の日付
+	 */
+	private Date toDate(LocalDate date) {
+		return dateUtil.toDate(date);
+	}
+
+	/**
+	 * 日付リストの作成
+	 *
+	 * @param dates
+	 * @return 日付リスト
+	 */
+	private List<Date> dateList(LocalDate... dates) {
+		List<Date> dateList = new ArrayList<>();
+		for (LocalDate date : dates) {
+			dateList.add(toDate(date));
+		}
+		return dateList;
+	}
+
+	/**
+	 * 勤怠情報の作成
+	 *
+	 * @param trainingStartTime
+	 * @param trainingEndTime
+	 * @param status
+	 * @param deleteFlg
+	 * @return 勤怠情報
+	 */
+	private TStudentAttendance attendance(String trainingStartTime, String trainingEndTime,
+			Short status, Short deleteFlg) {
+		TStudentAttendance tStudentAttendance = new TStudentAttendance();
+		tStudentAttendance.setTrainingStartTime(trainingStartTime);
+		tStudentAttendance.setTrainingEndTime(trainingEndTime);
+		tStudentAttendance.setStatus(status);
+		tStudentAttendance.setDeleteFlg(deleteFlg);
+		return tStudentAttendance;
+	}
+
+}